@@ -0,0 +1,40 @@
+package com.wiztip.benchmark;
+
+import java.lang.reflect.Field;
+
+/**
+ * 在没有Spring容器的情况下装配被测对象
+ *
+ * 应用中的组件使用字段注入，基准测试直接按字段名写入依赖（含父类字段）
+ *
+ * @author Wiztip Team
+ */
+final class Beans {
+
+    private Beans() {
+    }
+
+    /**
+     * 写入字段
+     *
+     * @param target 目标对象
+     * @param name 字段名
+     * @param value 字段值
+     * @return 目标对象（便于链式调用）
+     */
+    static <T> T inject(T target, String name, Object value) {
+        for (Class<?> c = target.getClass(); c != null; c = c.getSuperclass()) {
+            try {
+                Field field = c.getDeclaredField(name);
+                field.setAccessible(true);
+                field.set(target, value);
+                return target;
+            } catch (NoSuchFieldException e) {
+                // 继续查找父类
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        throw new IllegalArgumentException(target.getClass().getName() + "没有字段" + name);
+    }
+}
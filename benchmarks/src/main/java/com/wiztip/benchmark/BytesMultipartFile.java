@@ -0,0 +1,67 @@
+package com.wiztip.benchmark;
+
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+
+/**
+ * 内存中的上传文件
+ *
+ * transferTo与容器的实现一样把内容写到目标文件，每次调用都重新写入，可在基准测试中反复使用
+ *
+ * @author Wiztip Team
+ */
+final class BytesMultipartFile implements MultipartFile {
+
+    private final String fileName;
+    private final byte[] content;
+
+    BytesMultipartFile(String fileName, byte[] content) {
+        this.fileName = fileName;
+        this.content = content;
+    }
+
+    @Override
+    public String getName() {
+        return "file";
+    }
+
+    @Override
+    public String getOriginalFilename() {
+        return fileName;
+    }
+
+    @Override
+    public String getContentType() {
+        return "audio/wav";
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return content.length == 0;
+    }
+
+    @Override
+    public long getSize() {
+        return content.length;
+    }
+
+    @Override
+    public byte[] getBytes() {
+        return content;
+    }
+
+    @Override
+    public InputStream getInputStream() {
+        return new ByteArrayInputStream(content);
+    }
+
+    @Override
+    public void transferTo(File dest) throws IOException {
+        Files.write(dest.toPath(), content);
+    }
+}
@@ -0,0 +1,90 @@
+package com.wiztip.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 对比两次基准运行的JSON结果（-rf json 输出）
+ *
+ * 按 基准方法+参数 逐项对比得分，变化超出两次误差之和时标记为变快或变慢（AverageTime模式下得分越低越快）
+ *
+ * 用法：java -cp target/benchmarks.jar com.wiztip.benchmark.CompareResults baseline.json current.json
+ *
+ * @author Wiztip Team
+ */
+public final class CompareResults {
+
+    private CompareResults() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length != 2) {
+            System.err.println("用法: CompareResults <baseline.json> <current.json>");
+            System.exit(2);
+        }
+        Map<String, JsonNode> baseline = load(new File(args[0]));
+        Map<String, JsonNode> current = load(new File(args[1]));
+
+        System.out.printf("%-70s %14s %14s %9s  %s%n", "benchmark", "baseline", "current", "change", "");
+        for (Map.Entry<String, JsonNode> e : current.entrySet()) {
+            JsonNode cur = e.getValue().get("primaryMetric");
+            JsonNode base = baseline.containsKey(e.getKey()) ? baseline.get(e.getKey()).get("primaryMetric") : null;
+            String unit = cur.get("scoreUnit").asText();
+            double c = cur.get("score").asDouble();
+            if (base == null) {
+                System.out.printf("%-70s %14s %14s %9s  %s%n", e.getKey(), "-", format(c, unit), "", "新增");
+                continue;
+            }
+            double b = base.get("score").asDouble();
+            double change = (c - b) / b * 100;
+            double noise = error(base) + error(cur);
+            boolean higherIsBetter = unit.endsWith("/s") || unit.endsWith("/ms") || unit.endsWith("/us");
+            String verdict = "";
+            if (Math.abs(c - b) > noise) {
+                verdict = (c < b) != higherIsBetter ? "变快" : "变慢";
+            }
+            System.out.printf("%-70s %14s %14s %+8.1f%%  %s%n", e.getKey(), format(b, unit), format(c, unit), change, verdict);
+        }
+        for (String key : baseline.keySet()) {
+            if (!current.containsKey(key)) {
+                System.out.printf("%-70s %14s %14s %9s  %s%n", key, "", "-", "", "已删除");
+            }
+        }
+    }
+
+    /**
+     * 读取结果文件，键为 基准方法名[参数=值,...]
+     */
+    private static Map<String, JsonNode> load(File file) throws Exception {
+        Map<String, JsonNode> results = new LinkedHashMap<>();
+        for (JsonNode node : new ObjectMapper().readTree(file)) {
+            String name = node.get("benchmark").asText().replace("com.wiztip.benchmark.", "");
+            JsonNode params = node.get("params");
+            if (params != null && params.size() > 0) {
+                Map<String, String> sorted = new TreeMap<>();
+                for (Iterator<Map.Entry<String, JsonNode>> it = params.fields(); it.hasNext(); ) {
+                    Map.Entry<String, JsonNode> p = it.next();
+                    sorted.put(p.getKey(), p.getValue().asText());
+                }
+                name += sorted.toString().replace('{', '[').replace('}', ']').replace(" ", "");
+            }
+            results.put(name, node);
+        }
+        return results;
+    }
+
+    private static double error(JsonNode metric) {
+        double e = metric.path("scoreError").asDouble(0);
+        return Double.isNaN(e) ? 0 : e;
+    }
+
+    private static String format(double score, String unit) {
+        return String.format("%.3f %s", score, unit);
+    }
+}
@@ -0,0 +1,84 @@
+package com.wiztip.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wiztip.codec.EmbeddingCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 向量序列化基准
+ *
+ * 转写保存时向量经EmbeddingConverter编码为二进制写入embedding列，检索索引加载时再解码。
+ * 早期版本以JSON文本保存（AsrService.embeddingToJson），jsonEncode/jsonDecode保留为对照组，
+ * 同时可以看出旧数据回填（EmbeddingBackfillRunner）每行的解析开销
+ *
+ * @author Wiztip Team
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class EmbeddingCodecBenchmark {
+
+    /** 向量维度（当前模型为1536维） */
+    @Param({"1536"})
+    public int dimension;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private float[] vector;
+    private byte[] fp32;
+    private byte[] fp16;
+    private String json;
+
+    @Setup
+    public void setup() throws Exception {
+        vector = Payloads.vector(dimension, 42);
+        fp32 = EmbeddingCodec.encode(vector, EmbeddingCodec.Precision.FP32);
+        fp16 = EmbeddingCodec.encode(vector, EmbeddingCodec.Precision.FP16);
+        json = mapper.writeValueAsString(vector);
+    }
+
+    @Benchmark
+    public byte[] encodeFp32() {
+        return EmbeddingCodec.encode(vector, EmbeddingCodec.Precision.FP32);
+    }
+
+    @Benchmark
+    public byte[] encodeFp16() {
+        return EmbeddingCodec.encode(vector, EmbeddingCodec.Precision.FP16);
+    }
+
+    @Benchmark
+    public float[] decodeFp32() {
+        return EmbeddingCodec.decode(fp32);
+    }
+
+    @Benchmark
+    public float[] decodeFp16() {
+        return EmbeddingCodec.decode(fp16);
+    }
+
+    @Benchmark
+    public String jsonEncode() throws Exception {
+        return mapper.writeValueAsString(vector);
+    }
+
+    @Benchmark
+    public float[] jsonDecode() throws Exception {
+        return mapper.readValue(json, float[].class);
+    }
+}
@@ -0,0 +1,71 @@
+package com.wiztip.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wiztip.service.AsrException;
+import com.wiztip.service.AsrService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * NLS一句话识别响应解析基准（AsrService.parseResponse）
+ *
+ * 识别文本长度按录音时长选取：短句约5秒（30字）、一句话识别上限约60秒（300字）；
+ * error为status非20000000的错误响应（解析为AsrException，含异常构造的开销）
+ *
+ * @author Wiztip Team
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class NlsResponseBenchmark {
+
+    /** 识别文本字数，0表示错误响应 */
+    @Param({"30", "300", "0"})
+    public int chars;
+
+    private AsrService asrService;
+    private String body;
+
+    @Setup
+    public void setup() throws Exception {
+        asrService = new AsrService();
+        ObjectMapper mapper = new ObjectMapper();
+        if (chars == 0) {
+            body = mapper.writeValueAsString(Map.of(
+                "task_id", "cf7b0c5339244ee29cd4e43fb97fd52e",
+                "status", 40000001,
+                "message", "Gateway:ACCESS_DENIED:The token is invalid!"));
+        } else {
+            body = mapper.writeValueAsString(Map.of(
+                "task_id", "cf7b0c5339244ee29cd4e43fb97fd52e",
+                "result", Payloads.transcript(chars, new Random(7)),
+                "status", 20000000,
+                "message", "SUCCESS"));
+        }
+    }
+
+    @Benchmark
+    public Object parse() throws Exception {
+        try {
+            return asrService.parseResponse(200, body);
+        } catch (AsrException e) {
+            return e;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.wiztip.benchmark;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 基准测试的合成负载
+ *
+ * 所有数据由固定种子生成，每次运行完全相同，不同版本之间的结果才有可比性。
+ * 规模按线上实际情况选取：1536维向量、数MB的录音、一天500条转写文本
+ *
+ * @author Wiztip Team
+ */
+final class Payloads {
+
+    /** 常用汉字，用于拼出接近真实语音转写的文本 */
+    private static final String HANZI =
+        "的一是在不了有和人这中大为上个国我以要他时来用们生到作地于出就分对成会可主发年动同工也能下过子说产种面而方后多定行学法所民得经" +
+        "十三之进着等部度家电力里如水化高自二理起小物现实加量都两体制机当使点从业本去把性好应开它合还因由其些然前外天政四日那社义事平形" +
+        "相全表间样与关各重新线内数正心反你明看原又么利比或但质气第向道命此变条只没结解问意建月公无系军很情者最立代想已通并提直题党程展" +
+        "五果料象员革位入常文总次品式活设及管特件长求老头基资边流路级少图山统接知较将组见计别她手角期根论运农指几九区强放决西被干做必战" +
+        "先回则任取据处理府研质信科技项目会议客户预算方案进度明天下午确认需求测试上线";
+
+    private static final String PUNCTUATION = "，，，，。。？！";
+
+    private Payloads() {
+    }
+
+    /**
+     * 单位长度的随机向量
+     *
+     * @param dim 维度
+     * @param seed 随机种子
+     * @return 向量
+     */
+    static float[] vector(int dim, long seed) {
+        Random random = new Random(seed);
+        float[] v = new float[dim];
+        double norm = 0;
+        for (int i = 0; i < dim; i++) {
+            v[i] = (float) random.nextGaussian();
+            norm += v[i] * v[i];
+        }
+        float scale = (float) (1 / Math.sqrt(norm));
+        for (int i = 0; i < dim; i++) {
+            v[i] *= scale;
+        }
+        return v;
+    }
+
+    /**
+     * 一段转写文本（带标点的中文句子）
+     *
+     * @param chars 大约的字数
+     * @param random 随机源
+     * @return 文本
+     */
+    static String transcript(int chars, Random random) {
+        StringBuilder sb = new StringBuilder(chars + chars / 8);
+        int sentence = 0;
+        for (int i = 0; i < chars; i++) {
+            sb.append(HANZI.charAt(random.nextInt(HANZI.length())));
+            if (++sentence > 6 && random.nextInt(10) == 0) {
+                sb.append(PUNCTUATION.charAt(random.nextInt(PUNCTUATION.length())));
+                sentence = 0;
+            }
+        }
+        sb.append('。');
+        return sb.toString();
+    }
+
+    /**
+     * 一个用户一天的转写文本，每条20~300字（约5秒到1分钟的语音）
+     *
+     * @param count 条数
+     * @param seed 随机种子
+     * @return 按时间顺序的转写文本
+     */
+    static List<String> day(int count, long seed) {
+        Random random = new Random(seed);
+        List<String> texts = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            texts.add(transcript(20 + random.nextInt(281), random));
+        }
+        return texts;
+    }
+
+    /**
+     * 模拟录音的16位PCM WAV
+     *
+     * 首尾各1秒静音，中间为1.5~4秒的浊音（带包络的谐波）与0.3~1秒停顿交替，叠加低电平底噪，
+     * 使静音裁剪和VAD走到与真实录音相同的分支
+     *
+     * @param sampleRate 采样率（Hz）
+     * @param channels 声道数
+     * @param seconds 时长（秒）
+     * @param seed 随机种子
+     * @return 完整的WAV文件内容
+     */
+    static byte[] wav(int sampleRate, int channels, int seconds, long seed) {
+        Random random = new Random(seed);
+        int frames = sampleRate * seconds;
+        ByteBuffer buf = ByteBuffer.allocate(44 + frames * channels * 2).order(ByteOrder.LITTLE_ENDIAN);
+        int dataLength = frames * channels * 2;
+        buf.put("RIFF".getBytes()).putInt(36 + dataLength).put("WAVE".getBytes());
+        buf.put("fmt ".getBytes()).putInt(16).putShort((short) 1).putShort((short) channels)
+            .putInt(sampleRate).putInt(sampleRate * channels * 2).putShort((short) (channels * 2)).putShort((short) 16);
+        buf.put("data".getBytes()).putInt(dataLength);
+
+        int edge = sampleRate;
+        int next = edge;
+        boolean voiced = false;
+        int burstStart = 0;
+        int burstLength = 0;
+        double pitch = 150;
+        for (int n = 0; n < frames; n++) {
+            if (n >= next && n < frames - edge) {
+                voiced = !voiced;
+                burstStart = n;
+                burstLength = voiced
+                    ? (int) (sampleRate * (1.5 + 2.5 * random.nextDouble()))
+                    : (int) (sampleRate * (0.3 + 0.7 * random.nextDouble()));
+                next = n + burstLength;
+                pitch = 100 + 150 * random.nextDouble();
+            }
+            double sample = random.nextGaussian() * 30;
+            if (voiced && n < frames - edge) {
+                double t = (double) n / sampleRate;
+                double envelope = Math.sin(Math.PI * (n - burstStart) / burstLength);
+                double voice = 0;
+                for (int h = 1; h <= 5; h++) {
+                    voice += Math.sin(2 * Math.PI * pitch * h * t) / h;
+                }
+                sample += 6000 * envelope * voice;
+            }
+            short s = (short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, Math.round(sample)));
+            for (int c = 0; c < channels; c++) {
+                buf.putShort(s);
+            }
+        }
+        return buf.array();
+    }
+}
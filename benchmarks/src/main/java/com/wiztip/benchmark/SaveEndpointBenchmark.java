@@ -0,0 +1,158 @@
+package com.wiztip.benchmark;
+
+import com.wiztip.codec.EmbeddingCodec;
+import com.wiztip.config.WiztipProperties;
+import com.wiztip.controller.AudioController;
+import com.wiztip.entity.VoiceRecord;
+import com.wiztip.metrics.PipelineMetrics;
+import com.wiztip.service.AsrService;
+import com.wiztip.service.AudioDedupService;
+import com.wiztip.service.AudioPreprocessor;
+import com.wiztip.service.AudioStagingCache;
+import com.wiztip.service.EmbeddingService;
+import com.wiztip.service.OssService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * /api/audio/save 请求处理基准（未使用票据、随请求上传音频的路径）
+ *
+ * 覆盖控制器内的全部本地处理：音频落盘、规范化为16kHz单声道、VAD裁剪静音、写库和向量编码。
+ * 音频摘要照常计算，但不查找重复录音（每次迭代上传的是同一份音频）。
+ * OSS上传、向量生成和转写写库替换为桩实现（不访问网络和数据库），
+ * 测得的是服务自身的CPU和磁盘开销，与外部服务的延迟无关
+ *
+ * 音频参数格式为 采样率:声道数:秒数，48000:2:30 约5.5MB，对应手机录制的半分钟立体声
+ *
+ * @author Wiztip Team
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class SaveEndpointBenchmark {
+
+    @Param({"16000:1:15", "48000:2:30", "44100:2:60"})
+    public String audio;
+
+    private AudioController controller;
+    private AudioStagingCache stagingCache;
+    private Path stagingDir;
+    private BytesMultipartFile file;
+    private String transcript;
+
+    @Setup
+    public void setup() throws Exception {
+        String[] parts = audio.split(":");
+        int sampleRate = Integer.parseInt(parts[0]);
+        int channels = Integer.parseInt(parts[1]);
+        int seconds = Integer.parseInt(parts[2]);
+
+        stagingDir = Files.createTempDirectory("wiztip-bench");
+        WiztipProperties props = new WiztipProperties();
+        props.getStaging().setDir(stagingDir.toString());
+
+        stagingCache = Beans.inject(new AudioStagingCache(), "wiztipProperties", props);
+        stagingCache.init();
+        PipelineMetrics metrics = Beans.inject(new PipelineMetrics(), "meterRegistry", new SimpleMeterRegistry());
+
+        controller = new AudioController();
+        Beans.inject(controller, "stagingCache", stagingCache);
+        Beans.inject(controller, "audioPreprocessor", Beans.inject(new AudioPreprocessor(), "wiztipProperties", props));
+        Beans.inject(controller, "ossService", new StubOssService());
+        Beans.inject(controller, "embeddingService", new StubEmbeddingService());
+        Beans.inject(controller, "asrService", new StubAsrService());
+        Beans.inject(controller, "metrics", metrics);
+        Beans.inject(controller, "dedupService", Beans.inject(Beans.inject(new StubAudioDedupService(),
+            "wiztipProperties", props), "metrics", metrics));
+
+        file = new BytesMultipartFile("recording.wav", Payloads.wav(sampleRate, channels, seconds, 11));
+        // 中文语速约每秒4~5字
+        transcript = Payloads.transcript(seconds * 4, new Random(13));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        stagingCache.shutdown();
+        try (Stream<Path> files = Files.walk(stagingDir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public Object save() throws Exception {
+        return controller.saveTranscript(null, file, transcript, "bench-user");
+    }
+
+    /**
+     * 计算摘要但不访问数据库，所有音频都视为首次上传
+     */
+    static final class StubAudioDedupService extends AudioDedupService {
+        @Override
+        public Match find(String userId, String sha256) {
+            return null;
+        }
+
+        @Override
+        public void remember(String userId, String sha256, Long recordId) {
+        }
+    }
+
+    /**
+     * 不访问OSS，直接返回对象地址
+     */
+    static final class StubOssService extends OssService {
+        @Override
+        public String upload(Path file, String originalFilename, String userId) throws IOException {
+            return "https://bench.oss-cn-beijing.aliyuncs.com/user_" + userId + "/" + Files.size(file) + "_" + originalFilename;
+        }
+    }
+
+    /**
+     * 返回固定的1536维向量（不经过凑批队列）
+     */
+    static final class StubEmbeddingService extends EmbeddingService {
+        private final float[] vector = Payloads.vector(1536, 42);
+
+        @Override
+        public float[] embed(String text) {
+            return vector.clone();
+        }
+    }
+
+    /**
+     * 只做写库前的向量编码（EmbeddingConverter的工作）并按顺序分配记录ID，不访问数据库
+     */
+    static final class StubAsrService extends AsrService {
+        private final AtomicLong ids = new AtomicLong();
+        private volatile byte[] lastEncoded;
+
+        @Override
+        public void saveTranscript(VoiceRecord record, String transcript, float[] embedding) {
+            lastEncoded = EmbeddingCodec.encode(embedding, EmbeddingCodec.Precision.FP32);
+            record.setId(ids.incrementAndGet());
+        }
+    }
+}
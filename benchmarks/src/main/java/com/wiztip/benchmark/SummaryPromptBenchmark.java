@@ -0,0 +1,93 @@
+package com.wiztip.benchmark;
+
+import com.wiztip.config.WiztipProperties;
+import com.wiztip.service.SummaryPrompts;
+import com.wiztip.service.TranscriptChunker;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 每日总结提示词组装基准
+ *
+ * 与LlmSummaryService.summarize的本地部分一致：按token预算分块、生成map提示词，
+ * 再以模拟的部分总结逐层分组、生成reduce提示词，直到只剩一份（LLM调用本身不在测量范围内）
+ *
+ * 500条约为重度用户一天的录音量
+ *
+ * @author Wiztip Team
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+public class SummaryPromptBenchmark {
+
+    /** 当天转写条数 */
+    @Param({"50", "500"})
+    public int transcripts;
+
+    private List<String> day;
+    private int tokenBudget;
+    private int fanIn;
+
+    /** 模拟的部分总结（每块约200字要点） */
+    private String partial;
+
+    @Setup
+    public void setup() {
+        WiztipProperties.Llm cfg = new WiztipProperties().getLlm();
+        tokenBudget = cfg.getChunkTokenBudget();
+        fanIn = Math.max(2, cfg.getReduceFanIn());
+        day = Payloads.day(transcripts, 2024);
+        partial = Payloads.transcript(200, new Random(5));
+    }
+
+    @Benchmark
+    public List<String> chunk() {
+        return TranscriptChunker.chunk(day, tokenBudget);
+    }
+
+    @Benchmark
+    public void mapReducePrompts(Blackhole bh) {
+        List<String> chunks = TranscriptChunker.chunk(day, tokenBudget);
+        if (chunks.size() <= 1) {
+            bh.consume(SummaryPrompts.single(day));
+            return;
+        }
+        for (int i = 0; i < chunks.size(); i++) {
+            bh.consume(SummaryPrompts.map(i, chunks.size(), chunks.get(i)));
+        }
+
+        List<String> partials = new ArrayList<>(chunks.size());
+        for (int i = 0; i < chunks.size(); i++) {
+            partials.add(partial);
+        }
+        while (partials.size() > 1) {
+            List<String> next = new ArrayList<>();
+            for (List<String> group : SummaryPrompts.groupForReduce(partials, fanIn, tokenBudget)) {
+                if (group.size() > 1) {
+                    bh.consume(SummaryPrompts.reduce(group, group.size() == partials.size()));
+                }
+                next.add(partial);
+            }
+            partials = next;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.wiztip.loadtest;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 解析 --key=value 形式的命令行参数
+ *
+ * @author Wiztip Team
+ */
+final class Args {
+
+    private Args() {
+    }
+
+    static Map<String, String> parse(String[] args) {
+        Map<String, String> opts = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("参数格式应为 --key=value: " + arg);
+            }
+            int eq = arg.indexOf('=');
+            opts.put(arg.substring(2, eq), arg.substring(eq + 1));
+        }
+        return opts;
+    }
+}
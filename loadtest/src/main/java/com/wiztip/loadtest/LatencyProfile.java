@@ -0,0 +1,69 @@
+package com.wiztip.loadtest;
+
+import java.util.Random;
+
+/**
+ * 上游服务的延迟和错误模型
+ *
+ * 延迟服从对数正态分布，由中位数和p99确定（真实服务的延迟通常是长尾分布，
+ * 固定延迟测不出排队和超时问题）；每个请求以errorRate的概率返回错误
+ *
+ * 命令行格式：中位数毫秒:p99毫秒:错误率，如 300:1500:0.01
+ *
+ * @param medianMs 延迟中位数（毫秒）
+ * @param p99Ms 延迟p99（毫秒），不小于中位数
+ * @param errorRate 错误率（0~1）
+ *
+ * @author Wiztip Team
+ */
+record LatencyProfile(double medianMs, double p99Ms, double errorRate) {
+
+    /** 标准正态分布的99分位点 */
+    private static final double Z99 = 2.326;
+
+    /**
+     * 解析命令行参数
+     *
+     * @param spec 中位数毫秒:p99毫秒:错误率（错误率可省略）
+     * @return 延迟模型
+     */
+    static LatencyProfile parse(String spec) {
+        String[] parts = spec.split(":");
+        double median = Double.parseDouble(parts[0]);
+        double p99 = parts.length > 1 ? Double.parseDouble(parts[1]) : median;
+        double errorRate = parts.length > 2 ? Double.parseDouble(parts[2]) : 0;
+        if (p99 < median) {
+            throw new IllegalArgumentException("p99不能小于中位数: " + spec);
+        }
+        return new LatencyProfile(median, p99, errorRate);
+    }
+
+    /**
+     * 抽取一次延迟
+     *
+     * @param random 随机源
+     * @return 延迟（毫秒）
+     */
+    long sampleMillis(Random random) {
+        if (medianMs <= 0) {
+            return 0;
+        }
+        double sigma = Math.log(p99Ms / medianMs) / Z99;
+        return Math.round(medianMs * Math.exp(sigma * random.nextGaussian()));
+    }
+
+    /**
+     * 本次请求是否返回错误
+     *
+     * @param random 随机源
+     * @return 返回错误时为true
+     */
+    boolean fail(Random random) {
+        return errorRate > 0 && random.nextDouble() < errorRate;
+    }
+
+    @Override
+    public String toString() {
+        return "median=" + medianMs + "ms p99=" + p99Ms + "ms errorRate=" + errorRate;
+    }
+}
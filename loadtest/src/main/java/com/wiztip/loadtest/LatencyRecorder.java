@@ -0,0 +1,80 @@
+package com.wiztip.loadtest;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 单个接口的延迟和结果统计
+ *
+ * 延迟以微秒保存全部样本，结束时排序取分位数（压测样本量在百万以内，无需直方图近似）
+ *
+ * @author Wiztip Team
+ */
+final class LatencyRecorder {
+
+    private final String name;
+    private long[] samples = new long[1024];
+    private int count;
+    private long sent;
+    private final Map<String, Long> errors = new TreeMap<>();
+
+    LatencyRecorder(String name) {
+        this.name = name;
+    }
+
+    synchronized void sent() {
+        sent++;
+    }
+
+    /**
+     * 记录一次成功响应
+     *
+     * @param micros 从计划发送时刻到收到响应的耗时（微秒）
+     */
+    synchronized void success(long micros) {
+        if (count == samples.length) {
+            samples = Arrays.copyOf(samples, count * 2);
+        }
+        samples[count++] = micros;
+    }
+
+    /**
+     * 记录一次失败
+     *
+     * @param reason HTTP状态码或异常类型
+     */
+    synchronized void error(String reason) {
+        errors.merge(reason, 1L, Long::sum);
+    }
+
+    /**
+     * 输出一行统计结果
+     *
+     * @param seconds 统计窗口时长（秒）
+     * @return 统计结果
+     */
+    synchronized String report(double seconds) {
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        long failed = errors.values().stream().mapToLong(Long::longValue).sum();
+        return String.format("%-10s sent=%d ok=%d errors=%d%s throughput=%.1f/s p50=%s p90=%s p99=%s p999=%s max=%s",
+            name, sent, count, failed, errors.isEmpty() ? "" : " " + errors,
+            count / seconds,
+            millis(percentile(sorted, 0.50)), millis(percentile(sorted, 0.90)),
+            millis(percentile(sorted, 0.99)), millis(percentile(sorted, 0.999)),
+            millis(sorted.length == 0 ? -1 : sorted[sorted.length - 1]));
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return -1;
+        }
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    private static String millis(long micros) {
+        return micros < 0 ? "-" : String.format("%.1fms", micros / 1000.0);
+    }
+}
@@ -0,0 +1,191 @@
+package com.wiztip.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 负载生成器
+ *
+ * 以固定速率向 /api/audio/recognize、/save、/upload 发送合成录音，按接口输出吞吐和
+ * p50/p90/p99/p999延迟，用于上线前评估单节点容量：
+ * - 开环调度：第i个请求的计划发送时刻固定为 start + i/rate，不等待前一个请求返回；
+ *   延迟从计划发送时刻算起，服务变慢时排队时间计入延迟，避免协调遗漏（coordinated omission）
+ *   使结果偏乐观
+ * - 预热期内的请求只发送不统计
+ * - 非2xx响应、超时和连接错误按原因分别计数
+ *
+ * 用法：java -jar target/loadtest.jar [--target=http://localhost:8080] [--rate=20] [--duration=60]
+ *        [--warmup=10] [--mix=recognize:6,save:3,upload:1] [--audio=16000:1:10] [--users=100] [--timeout=60]
+ *
+ * @author Wiztip Team
+ */
+public final class LoadGenerator {
+
+    private static final String TRANSCRIPT = "明天下午三点和客户确认项目预算和上线时间，会前把测试报告发给大家。";
+
+    private final URI base;
+    private final double rate;
+    private final int durationSeconds;
+    private final int warmupSeconds;
+    private final int users;
+    private final Duration timeout;
+    private final byte[] audio;
+    private final String[] endpoints;
+    private final int[] cumulativeWeights;
+    private final Map<String, LatencyRecorder> recorders = new LinkedHashMap<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final HttpClient client;
+    private final ExecutorService executor;
+
+    LoadGenerator(Map<String, String> opts) {
+        this.base = URI.create(opts.getOrDefault("target", "http://localhost:8080"));
+        this.rate = Double.parseDouble(opts.getOrDefault("rate", "20"));
+        this.durationSeconds = Integer.parseInt(opts.getOrDefault("duration", "60"));
+        this.warmupSeconds = Integer.parseInt(opts.getOrDefault("warmup", "10"));
+        this.users = Integer.parseInt(opts.getOrDefault("users", "100"));
+        this.timeout = Duration.ofSeconds(Long.parseLong(opts.getOrDefault("timeout", "60")));
+        this.audio = SyntheticAudio.parse(opts.getOrDefault("audio", "16000:1:10"));
+
+        String[] mix = opts.getOrDefault("mix", "recognize:6,save:3,upload:1").split(",");
+        this.endpoints = new String[mix.length];
+        this.cumulativeWeights = new int[mix.length];
+        int total = 0;
+        for (int i = 0; i < mix.length; i++) {
+            String[] kv = mix[i].split(":");
+            if (!List.of("recognize", "save", "upload").contains(kv[0])) {
+                throw new IllegalArgumentException("不支持的接口: " + kv[0]);
+            }
+            endpoints[i] = kv[0];
+            total += kv.length > 1 ? Integer.parseInt(kv[1]) : 1;
+            cumulativeWeights[i] = total;
+            recorders.put(kv[0], new LatencyRecorder(kv[0]));
+        }
+
+        AtomicInteger seq = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(Math.max(4, Runtime.getRuntime().availableProcessors()), r -> {
+            Thread t = new Thread(r, "loadgen-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .executor(executor)
+            .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        new LoadGenerator(Args.parse(args)).run();
+    }
+
+    void run() throws InterruptedException {
+        System.out.printf("目标 %s 速率 %.1f/s 预热 %ds 统计 %ds 音频 %d字节 接口 %s%n",
+            base, rate, warmupSeconds, durationSeconds, audio.length, recorders.keySet());
+
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+        long total = (long) (rate * (warmupSeconds + durationSeconds));
+        long start = System.nanoTime();
+        long measureFrom = start + TimeUnit.SECONDS.toNanos(warmupSeconds);
+        long nextProgress = start + TimeUnit.SECONDS.toNanos(5);
+        Random random = new Random(7);
+        List<CompletableFuture<Void>> pending = new ArrayList<>();
+
+        for (long i = 0; i < total; i++) {
+            long intended = start + i * intervalNanos;
+            long wait;
+            while ((wait = intended - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            if (intended >= nextProgress) {
+                System.out.printf("已发送 %d/%d 在途 %d%n", i, total, inFlight.get());
+                nextProgress += TimeUnit.SECONDS.toNanos(5);
+            }
+            String endpoint = pick(random);
+            String userId = "loadtest-" + random.nextInt(users);
+            LatencyRecorder recorder = intended >= measureFrom ? recorders.get(endpoint) : null;
+            pending.add(send(endpoint, userId, intended, recorder));
+            pending.removeIf(CompletableFuture::isDone);
+        }
+
+        System.out.printf("发送完毕，等待在途请求 %d%n", inFlight.get());
+        try {
+            CompletableFuture.allOf(pending.toArray(new CompletableFuture<?>[0]))
+                .get(timeout.toSeconds() + 5, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            System.out.println("等待在途请求超时，未返回的请求不计入统计");
+        }
+
+        System.out.println();
+        for (LatencyRecorder recorder : recorders.values()) {
+            System.out.println(recorder.report(durationSeconds));
+        }
+        executor.shutdownNow();
+    }
+
+    private String pick(Random random) {
+        int r = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (r < cumulativeWeights[i]) {
+                return endpoints[i];
+            }
+        }
+        return endpoints[endpoints.length - 1];
+    }
+
+    /**
+     * 异步发送一个请求
+     *
+     * @param recorder 统计器，预热期内为null
+     */
+    private CompletableFuture<Void> send(String endpoint, String userId, long intended, LatencyRecorder recorder) {
+        Multipart body = new Multipart().field("userId", userId);
+        if ("save".equals(endpoint)) {
+            body.field("transcript", TRANSCRIPT);
+        }
+        body.file("file", "loadtest.wav", "audio/wav", audio);
+
+        HttpRequest request = HttpRequest.newBuilder(base.resolve("/api/audio/" + endpoint))
+            .timeout(timeout)
+            .header("Content-Type", Multipart.CONTENT_TYPE)
+            .POST(HttpRequest.BodyPublishers.ofByteArrays(body.build()))
+            .build();
+
+        if (recorder != null) {
+            recorder.sent();
+        }
+        inFlight.incrementAndGet();
+        return client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+            .handle((resp, error) -> {
+                inFlight.decrementAndGet();
+                if (recorder == null) {
+                    return null;
+                }
+                if (error != null) {
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause() : error;
+                    recorder.error(cause instanceof HttpTimeoutException ? "timeout" : cause.getClass().getSimpleName());
+                } else if (resp.statusCode() / 100 != 2) {
+                    recorder.error(String.valueOf(resp.statusCode()));
+                } else {
+                    recorder.success(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intended));
+                }
+                return null;
+            });
+    }
+}
@@ -0,0 +1,45 @@
+package com.wiztip.loadtest;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * multipart/form-data请求体
+ *
+ * 文件内容只引用不复制，同一份音频可被所有请求共享
+ *
+ * @author Wiztip Team
+ */
+final class Multipart {
+
+    static final String BOUNDARY = "----wiztip-loadtest-7MA4YWxkTrZu0gW";
+
+    static final String CONTENT_TYPE = "multipart/form-data; boundary=" + BOUNDARY;
+
+    private final List<byte[]> parts = new ArrayList<>();
+
+    Multipart field(String name, String value) {
+        parts.add(("--" + BOUNDARY + "\r\nContent-Disposition: form-data; name=\"" + name + "\"\r\n\r\n"
+            + value + "\r\n").getBytes(StandardCharsets.UTF_8));
+        return this;
+    }
+
+    Multipart file(String name, String filename, String contentType, byte[] content) {
+        parts.add(("--" + BOUNDARY + "\r\nContent-Disposition: form-data; name=\"" + name
+            + "\"; filename=\"" + filename + "\"\r\nContent-Type: " + contentType + "\r\n\r\n")
+            .getBytes(StandardCharsets.UTF_8));
+        parts.add(content);
+        parts.add("\r\n".getBytes(StandardCharsets.UTF_8));
+        return this;
+    }
+
+    /**
+     * @return 按顺序排列的请求体分段，可直接传给BodyPublishers.ofByteArrays
+     */
+    List<byte[]> build() {
+        List<byte[]> body = new ArrayList<>(parts);
+        body.add(("--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.UTF_8));
+        return body;
+    }
+}
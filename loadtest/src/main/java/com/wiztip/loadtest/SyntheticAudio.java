@@ -0,0 +1,86 @@
+package com.wiztip.loadtest;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+
+/**
+ * 压测用的合成录音
+ *
+ * 与benchmarks模块的Payloads.wav相同：首尾各1秒静音，中间为浊音（带包络的谐波）与停顿交替，
+ * 叠加低电平底噪，使服务端的静音裁剪和VAD走到与真实录音相同的分支，不会被判为无语音
+ *
+ * @author Wiztip Team
+ */
+final class SyntheticAudio {
+
+    private SyntheticAudio() {
+    }
+
+    /**
+     * 解析命令行参数并生成WAV
+     *
+     * @param spec 采样率:声道数:秒数，如 16000:1:10
+     * @return 完整的WAV文件内容
+     */
+    static byte[] parse(String spec) {
+        String[] parts = spec.split(":");
+        if (parts.length != 3) {
+            throw new IllegalArgumentException("音频参数格式应为 采样率:声道数:秒数: " + spec);
+        }
+        return wav(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]), Integer.parseInt(parts[2]), 42);
+    }
+
+    /**
+     * 16位PCM WAV
+     *
+     * @param sampleRate 采样率（Hz）
+     * @param channels 声道数
+     * @param seconds 时长（秒）
+     * @param seed 随机种子
+     * @return 完整的WAV文件内容
+     */
+    static byte[] wav(int sampleRate, int channels, int seconds, long seed) {
+        Random random = new Random(seed);
+        int frames = sampleRate * seconds;
+        int dataLength = frames * channels * 2;
+        ByteBuffer buf = ByteBuffer.allocate(44 + dataLength).order(ByteOrder.LITTLE_ENDIAN);
+        buf.put("RIFF".getBytes()).putInt(36 + dataLength).put("WAVE".getBytes());
+        buf.put("fmt ".getBytes()).putInt(16).putShort((short) 1).putShort((short) channels)
+            .putInt(sampleRate).putInt(sampleRate * channels * 2).putShort((short) (channels * 2)).putShort((short) 16);
+        buf.put("data".getBytes()).putInt(dataLength);
+
+        int edge = sampleRate;
+        int next = edge;
+        boolean voiced = false;
+        int burstStart = 0;
+        int burstLength = 0;
+        double pitch = 150;
+        for (int n = 0; n < frames; n++) {
+            if (n >= next && n < frames - edge) {
+                voiced = !voiced;
+                burstStart = n;
+                burstLength = voiced
+                    ? (int) (sampleRate * (1.5 + 2.5 * random.nextDouble()))
+                    : (int) (sampleRate * (0.3 + 0.7 * random.nextDouble()));
+                next = n + burstLength;
+                pitch = 100 + 150 * random.nextDouble();
+            }
+            double sample = random.nextGaussian() * 30;
+            if (voiced && n < frames - edge) {
+                double t = (double) n / sampleRate;
+                double envelope = Math.sin(Math.PI * (n - burstStart) / burstLength);
+                double voice = 0;
+                for (int h = 1; h <= 5; h++) {
+                    voice += Math.sin(2 * Math.PI * pitch * h * t) / h;
+                }
+                sample += 6000 * envelope * voice;
+            }
+            short s = (short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, Math.round(sample)));
+            for (int c = 0; c < channels; c++) {
+                buf.putShort(s);
+            }
+        }
+        return buf.array();
+    }
+}
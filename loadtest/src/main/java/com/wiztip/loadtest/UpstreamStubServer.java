@@ -0,0 +1,205 @@
+package com.wiztip.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 上游服务替身
+ *
+ * 在一个端口上模拟应用依赖的全部外部服务，延迟和错误率按上游分别配置（见LatencyProfile）：
+ * - NLS一句话识别：POST /stream/v1/asr，识别文本长度与音频时长成正比；错误时返回HTTP 503
+ * - LLM：POST /llm，返回DashScope格式的output；错误时返回HTTP 429（限流）
+ * - OSS（路径形式 /bucket/object）：PutObject、分片上传（初始化/上传分片/完成/取消）；错误时返回HTTP 503
+ *
+ * 应用以loadtest配置启动即指向本服务（见application-loadtest.yml），无需阿里云账号和网络
+ *
+ * 用法：java -cp target/loadtest.jar com.wiztip.loadtest.UpstreamStubServer
+ *        [--port=18080] [--asr=300:1500:0.01] [--oss=30:200:0] [--llm=2000:8000:0.02]
+ *
+ * @author Wiztip Team
+ */
+public final class UpstreamStubServer {
+
+    /** 16kHz 16位单声道音频每秒的字节数，用于按请求大小估算识别文本长度 */
+    private static final int BYTES_PER_SECOND = 32000;
+
+    private final LatencyProfile asr;
+    private final LatencyProfile oss;
+    private final LatencyProfile llm;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    private final Map<String, AtomicLong> requests = Map.of(
+        "asr", new AtomicLong(), "oss", new AtomicLong(), "llm", new AtomicLong());
+    private final Map<String, AtomicLong> errors = Map.of(
+        "asr", new AtomicLong(), "oss", new AtomicLong(), "llm", new AtomicLong());
+
+    UpstreamStubServer(int port, LatencyProfile asr, LatencyProfile oss, LatencyProfile llm) throws IOException {
+        this.asr = asr;
+        this.oss = oss;
+        this.llm = llm;
+        AtomicInteger seq = new AtomicInteger();
+        // 延迟通过sleep模拟，每个在途请求占用一个线程
+        this.executor = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "stub-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.server = HttpServer.create(new InetSocketAddress(port), 1024);
+        server.createContext("/stream/v1/asr", this::handleAsr);
+        server.createContext("/llm", this::handleLlm);
+        server.createContext("/", this::handleOss);
+        server.setExecutor(executor);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opts = Args.parse(args);
+        int port = Integer.parseInt(opts.getOrDefault("port", "18080"));
+        UpstreamStubServer stub = new UpstreamStubServer(port,
+            LatencyProfile.parse(opts.getOrDefault("asr", "300:1500:0.01")),
+            LatencyProfile.parse(opts.getOrDefault("oss", "30:200:0")),
+            LatencyProfile.parse(opts.getOrDefault("llm", "2000:8000:0.02")));
+        stub.start();
+        System.out.println("上游替身服务已启动 port=" + port);
+        System.out.println("  asr: " + stub.asr);
+        System.out.println("  oss: " + stub.oss);
+        System.out.println("  llm: " + stub.llm);
+
+        // 每10秒输出一次各上游的请求数和错误数
+        while (true) {
+            Thread.sleep(10_000);
+            StringBuilder sb = new StringBuilder("requests");
+            for (String name : new String[]{"asr", "oss", "llm"}) {
+                sb.append(' ').append(name).append('=').append(stub.requests.get(name).get())
+                    .append('/').append(stub.errors.get(name).get()).append("err");
+            }
+            System.out.println(sb);
+        }
+    }
+
+    void start() {
+        server.start();
+    }
+
+    void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    /**
+     * NLS一句话识别
+     */
+    private void handleAsr(HttpExchange ex) throws IOException {
+        long bytes = ex.getRequestBody().transferTo(OutputStream.nullOutputStream());
+        Random random = ThreadLocalRandom.current();
+        if (simulate("asr", asr, random)) {
+            respond(ex, 503, "application/json",
+                "{\"task_id\":\"" + taskId() + "\",\"status\":50000000,\"message\":\"SERVER_ERROR\"}");
+            return;
+        }
+        // 中文语速约每秒4~5字
+        int chars = (int) Math.max(1, bytes * 4 / BYTES_PER_SECOND);
+        respond(ex, 200, "application/json", "{\"task_id\":\"" + taskId() + "\",\"result\":\"" +
+            "测".repeat(chars) + "\",\"status\":20000000,\"message\":\"SUCCESS\"}");
+    }
+
+    /**
+     * LLM总结
+     */
+    private void handleLlm(HttpExchange ex) throws IOException {
+        ex.getRequestBody().transferTo(OutputStream.nullOutputStream());
+        Random random = ThreadLocalRandom.current();
+        if (simulate("llm", llm, random)) {
+            respond(ex, 429, "application/json",
+                "{\"code\":\"Throttling\",\"message\":\"Requests rate limit exceeded\"}");
+            return;
+        }
+        respond(ex, 200, "application/json", "{\"output\":{\"text\":\"" + "总".repeat(200) +
+            "\",\"finish_reason\":\"stop\"},\"request_id\":\"" + taskId() + "\"}");
+    }
+
+    /**
+     * OSS对象上传（路径形式：/bucket/object）
+     */
+    private void handleOss(HttpExchange ex) throws IOException {
+        ex.getRequestBody().transferTo(OutputStream.nullOutputStream());
+        String method = ex.getRequestMethod();
+        String query = ex.getRequestURI().getRawQuery() == null ? "" : ex.getRequestURI().getRawQuery();
+        String[] path = ex.getRequestURI().getPath().substring(1).split("/", 2);
+        String bucket = path[0];
+        String key = path.length > 1 ? path[1] : "";
+        ex.getResponseHeaders().add("x-oss-request-id", taskId());
+
+        if (simulate("oss", oss, ThreadLocalRandom.current())) {
+            respond(ex, 503, "application/xml", "<?xml version=\"1.0\" encoding=\"UTF-8\"?><Error>" +
+                "<Code>ServiceUnavailable</Code><Message>Please reduce your request rate.</Message>" +
+                "<RequestId>" + taskId() + "</RequestId></Error>");
+            return;
+        }
+        String etag = "\"" + taskId().toUpperCase() + "\"";
+        if ("POST".equals(method) && query.startsWith("uploads")) {
+            respond(ex, 200, "application/xml", "<?xml version=\"1.0\" encoding=\"UTF-8\"?>" +
+                "<InitiateMultipartUploadResult><Bucket>" + bucket + "</Bucket><Key>" + key + "</Key>" +
+                "<UploadId>" + taskId() + "</UploadId></InitiateMultipartUploadResult>");
+        } else if ("POST".equals(method) && query.contains("uploadId=")) {
+            respond(ex, 200, "application/xml", "<?xml version=\"1.0\" encoding=\"UTF-8\"?>" +
+                "<CompleteMultipartUploadResult><Location>http://" + bucket + "/" + key + "</Location>" +
+                "<Bucket>" + bucket + "</Bucket><Key>" + key + "</Key><ETag>" + etag + "</ETag>" +
+                "</CompleteMultipartUploadResult>");
+        } else if ("PUT".equals(method)) {
+            ex.getResponseHeaders().add("ETag", etag);
+            respond(ex, 200, null, "");
+        } else if ("DELETE".equals(method)) {
+            respond(ex, 204, null, "");
+        } else {
+            respond(ex, 405, null, "");
+        }
+    }
+
+    /**
+     * 计数并按延迟模型等待
+     *
+     * @return 本次请求应返回错误时为true
+     */
+    private boolean simulate(String upstream, LatencyProfile profile, Random random) {
+        requests.get(upstream).incrementAndGet();
+        try {
+            Thread.sleep(profile.sampleMillis(random));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (profile.fail(random)) {
+            errors.get(upstream).incrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    private static void respond(HttpExchange ex, int status, String contentType, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        if (contentType != null) {
+            ex.getResponseHeaders().add("Content-Type", contentType + ";charset=UTF-8");
+        }
+        ex.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+        try (OutputStream os = ex.getResponseBody()) {
+            os.write(bytes);
+        }
+    }
+
+    private static String taskId() {
+        return UUID.randomUUID().toString().replace("-", "");
+    }
+}
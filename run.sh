@@ -13,4 +13,4 @@ mvn spring-boot:run
 
 # 方式3: 打包后运行（如果有完整的jar）
 # mvn clean package -DskipTests
-# java -jar target/wiztip-1.0.0.jar
+# java -jar target/wiztip-1.0.0-exec.jar
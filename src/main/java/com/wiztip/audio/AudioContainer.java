@@ -0,0 +1,131 @@
+package com.wiztip.audio;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * 音频容器格式
+ *
+ * 按文件头的魔数识别，而不是信任文件扩展名或Content-Type：
+ * 浏览器MediaRecorder录制的WebM常被标记为.wav上传，按扩展名提交会被NLS拒绝
+ *
+ * nlsFormat为提交NLS一句话识别时的format参数；为null表示NLS不支持、服务端也无法转码的格式
+ *
+ * @author Wiztip Team
+ */
+public enum AudioContainer {
+    WAV("wav"),
+    OPUS("opus"),
+    MP3("mp3"),
+    AAC("aac"),
+    AMR("amr"),
+    WEBM(null),
+    OGG_VORBIS(null),
+    FLAC(null),
+    MP4(null),
+    UNKNOWN(null);
+
+    /** 识别所需读取的文件头字节数（Ogg首页中的OpusHead位于第28字节起） */
+    private static final int SNIFF_BYTES = 64;
+
+    private final String nlsFormat;
+
+    AudioContainer(String nlsFormat) {
+        this.nlsFormat = nlsFormat;
+    }
+
+    /**
+     * @return 提交NLS时的format参数，不支持的格式返回null
+     */
+    public String getNlsFormat() {
+        return nlsFormat;
+    }
+
+    /**
+     * @return NLS是否可以直接识别该格式
+     */
+    public boolean isSupported() {
+        return nlsFormat != null;
+    }
+
+    /**
+     * 根据文件头识别容器格式
+     *
+     * @param file 音频文件
+     * @return 容器格式，无法识别时返回UNKNOWN
+     * @throws IOException 文件读取失败
+     */
+    public static AudioContainer sniff(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            return sniff(in.readNBytes(SNIFF_BYTES));
+        }
+    }
+
+    /**
+     * 根据文件头识别容器格式
+     *
+     * @param head 文件开头的字节（建议不少于64字节）
+     * @return 容器格式，无法识别时返回UNKNOWN
+     */
+    public static AudioContainer sniff(byte[] head) {
+        if (startsWith(head, 0, "RIFF") && startsWith(head, 8, "WAVE")) {
+            return WAV;
+        }
+        if (startsWith(head, 0, "OggS")) {
+            return indexOf(head, "OpusHead") >= 0 ? OPUS : OGG_VORBIS;
+        }
+        if (head.length >= 4 && (head[0] & 0xFF) == 0x1A && (head[1] & 0xFF) == 0x45
+                && (head[2] & 0xFF) == 0xDF && (head[3] & 0xFF) == 0xA3) {
+            return WEBM;
+        }
+        if (startsWith(head, 0, "#!AMR")) {
+            return AMR;
+        }
+        if (startsWith(head, 0, "fLaC")) {
+            return FLAC;
+        }
+        if (startsWith(head, 4, "ftyp")) {
+            return MP4;
+        }
+        if (startsWith(head, 0, "ID3")) {
+            return MP3;
+        }
+        if (head.length >= 2 && (head[0] & 0xFF) == 0xFF) {
+            int b1 = head[1] & 0xFF;
+            // ADTS：同步字12位 + layer固定为00
+            if ((b1 & 0xF6) == 0xF0) {
+                return AAC;
+            }
+            // MPEG音频帧：同步字11位 + Layer III
+            if ((b1 & 0xE0) == 0xE0 && ((b1 >> 1) & 0x03) == 0x01) {
+                return MP3;
+            }
+        }
+        return UNKNOWN;
+    }
+
+    private static boolean startsWith(byte[] head, int offset, String magic) {
+        byte[] m = magic.getBytes(StandardCharsets.US_ASCII);
+        if (head.length < offset + m.length) {
+            return false;
+        }
+        for (int i = 0; i < m.length; i++) {
+            if (head[offset + i] != m[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int indexOf(byte[] head, String magic) {
+        for (int i = 0; i + magic.length() <= head.length; i++) {
+            if (startsWith(head, i, magic)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,234 @@
+package com.wiztip.audio;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * WAV音频规范化：混合为单声道并重采样为16kHz 16位PCM
+ *
+ * NLS一句话识别以16kHz单声道为准，浏览器和手机录音常见48kHz/44.1kHz立体声，
+ * 转换后提交的数据量最多减少到1/6，也不会因采样率与请求参数不符而识别失败
+ *
+ * 重采样使用加Kaiser窗的sinc插值：降采样时截止频率随比例降低以抑制混叠，
+ * 窗函数按0.5%相位精度预先制表，每个输出采样只需查表和乘加
+ *
+ * 输入按块流式读取、输出直接写入文件，内存占用与音频时长无关
+ *
+ * @author Wiztip Team
+ */
+public final class AudioNormalizer {
+
+    /** 目标采样率（Hz） */
+    public static final int TARGET_SAMPLE_RATE = 16000;
+
+    /** sinc核单侧零点数（越大过渡带越陡，计算量越大） */
+    private static final int ZERO_CROSSINGS = 16;
+
+    /** 核函数每个零点间隔的查表精度 */
+    private static final int TABLE_RESOLUTION = 256;
+
+    /** Kaiser窗参数，约80dB阻带衰减 */
+    private static final double KAISER_BETA = 8.0;
+
+    /** 截止频率相对于奈奎斯特频率的比例，为过渡带留出余量 */
+    private static final double ROLLOFF = 0.95;
+
+    /** 预先计算的核函数：sinc(x) * kaiser(x / ZERO_CROSSINGS)，x ∈ [0, ZERO_CROSSINGS] */
+    private static final float[] KERNEL = buildKernel();
+
+    private AudioNormalizer() {
+    }
+
+    /**
+     * 判断WAV是否已经是16kHz单声道16位PCM
+     *
+     * @param format WAV格式
+     * @return 无需转换时返回true
+     */
+    public static boolean isNormalized(WavCodec.Format format) {
+        return format.isPcm16() && format.channels() == 1 && format.sampleRate() == TARGET_SAMPLE_RATE;
+    }
+
+    /**
+     * 将WAV转换为16kHz单声道16位PCM WAV
+     *
+     * @param in 源WAV文件
+     * @param format 源WAV格式
+     * @param out 目标文件（已存在时覆盖）
+     * @return 目标文件的格式
+     * @throws IOException 文件读写失败
+     */
+    public static WavCodec.Format toMono16k(Path in, WavCodec.Format format, Path out) throws IOException {
+        long inFrames = format.frameCount();
+        int inRate = format.sampleRate();
+        long outFrames = (inFrames * TARGET_SAMPLE_RATE + inRate - 1) / inRate;
+
+        try (MonoReader reader = new MonoReader(in, format);
+             OutputStream os = new BufferedOutputStream(Files.newOutputStream(out), 64 * 1024)) {
+            os.write(WavCodec.monoHeader(outFrames, TARGET_SAMPLE_RATE));
+            if (inRate == TARGET_SAMPLE_RATE) {
+                for (long n = 0; n < outFrames; n++) {
+                    writeSample(os, reader.next());
+                }
+            } else {
+                resample(reader, inFrames, inRate, outFrames, os);
+            }
+        }
+        return new WavCodec.Format(1, TARGET_SAMPLE_RATE, 16, false, WavCodec.HEADER_SIZE, outFrames * 2);
+    }
+
+    /**
+     * 带限sinc插值重采样
+     *
+     * 第n个输出采样对应输入时刻 t = n × inRate / outRate，
+     * 取t两侧各halfWidth个输入采样按核函数加权求和；
+     * 输入保存在滑动窗口中，窗口左侧不再需要的采样随读随丢
+     */
+    private static void resample(MonoReader reader, long inFrames, int inRate, long outFrames,
+                                 OutputStream os) throws IOException {
+        double step = (double) inRate / TARGET_SAMPLE_RATE;
+        // 降采样时按比例降低截止频率（核函数在时间上相应展宽）
+        double cutoff = Math.min(1.0, 1.0 / step) * ROLLOFF;
+        int halfWidth = (int) Math.ceil(ZERO_CROSSINGS / cutoff);
+        double tableScale = cutoff * TABLE_RESOLUTION;
+
+        float[] window = new float[Math.max(4 * halfWidth, 8192)];
+        long windowStart = 0;
+        int windowLength = 0;
+
+        for (long n = 0; n < outFrames; n++) {
+            double t = n * step;
+            long center = (long) t;
+            long first = center - halfWidth + 1;
+            long last = Math.min(center + halfWidth, inFrames - 1);
+
+            // 1. 滑动窗口：丢弃first之前的采样，读入到last为止的采样
+            if (windowStart + windowLength <= last) {
+                int drop = (int) Math.max(0, Math.min(first - windowStart, windowLength));
+                System.arraycopy(window, drop, window, 0, windowLength - drop);
+                windowStart += drop;
+                windowLength -= drop;
+                while (windowStart + windowLength <= last && windowLength < window.length) {
+                    window[windowLength++] = reader.next();
+                }
+            }
+
+            // 2. 加权求和（超出音频范围的采样视为0）
+            double sum = 0;
+            for (long k = Math.max(first, 0); k <= last; k++) {
+                double x = Math.abs(t - k) * tableScale;
+                int idx = (int) x;
+                if (idx + 1 >= KERNEL.length) {
+                    continue;
+                }
+                double frac = x - idx;
+                double w = KERNEL[idx] + (KERNEL[idx + 1] - KERNEL[idx]) * frac;
+                sum += window[(int) (k - windowStart)] * w;
+            }
+            writeSample(os, (float) (sum * cutoff));
+        }
+    }
+
+    private static void writeSample(OutputStream os, float v) throws IOException {
+        int s = (int) Math.round(v * 32767.0);
+        if (s > Short.MAX_VALUE) {
+            s = Short.MAX_VALUE;
+        } else if (s < Short.MIN_VALUE) {
+            s = Short.MIN_VALUE;
+        }
+        os.write(s & 0xFF);
+        os.write((s >> 8) & 0xFF);
+    }
+
+    private static float[] buildKernel() {
+        int size = ZERO_CROSSINGS * TABLE_RESOLUTION + 1;
+        float[] kernel = new float[size];
+        double norm = besselI0(KAISER_BETA);
+        for (int i = 0; i < size; i++) {
+            double x = (double) i / TABLE_RESOLUTION;
+            double sinc = i == 0 ? 1.0 : Math.sin(Math.PI * x) / (Math.PI * x);
+            double r = x / ZERO_CROSSINGS;
+            double window = besselI0(KAISER_BETA * Math.sqrt(Math.max(0, 1 - r * r))) / norm;
+            kernel[i] = (float) (sinc * window);
+        }
+        return kernel;
+    }
+
+    /** 第一类零阶修正贝塞尔函数（级数展开） */
+    private static double besselI0(double x) {
+        double sum = 1;
+        double term = 1;
+        double halfX = x / 2;
+        for (int k = 1; k < 50; k++) {
+            term *= (halfX / k) * (halfX / k);
+            sum += term;
+            if (term < sum * 1e-12) {
+                break;
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * 逐帧读取WAV并混合为单声道浮点采样（-1~1）
+     *
+     * 支持8位无符号、16/24/32位有符号整数和32位浮点；读到数据末尾后返回0
+     */
+    private static final class MonoReader implements AutoCloseable {
+
+        private final InputStream in;
+        private final int channels;
+        private final int bytesPerSample;
+        private final boolean floatingPoint;
+        private final byte[] frame;
+        private long remaining;
+
+        MonoReader(Path file, WavCodec.Format format) throws IOException {
+            this.in = new BufferedInputStream(Files.newInputStream(file), 64 * 1024);
+            this.channels = format.channels();
+            this.bytesPerSample = format.bitsPerSample() / 8;
+            this.floatingPoint = format.floatingPoint();
+            this.frame = new byte[format.blockAlign()];
+            this.remaining = format.frameCount();
+            in.skipNBytes(format.dataOffset());
+        }
+
+        float next() throws IOException {
+            if (remaining <= 0 || in.readNBytes(frame, 0, frame.length) < frame.length) {
+                remaining = 0;
+                return 0f;
+            }
+            remaining--;
+            double sum = 0;
+            for (int c = 0, p = 0; c < channels; c++, p += bytesPerSample) {
+                sum += sample(p);
+            }
+            return (float) (sum / channels);
+        }
+
+        private double sample(int p) {
+            switch (bytesPerSample) {
+                case 1:
+                    return ((frame[p] & 0xFF) - 128) / 128.0;
+                case 2:
+                    return (short) ((frame[p] & 0xFF) | (frame[p + 1] << 8)) / 32768.0;
+                case 3:
+                    return ((frame[p] & 0xFF) | ((frame[p + 1] & 0xFF) << 8) | (frame[p + 2] << 16)) / 8388608.0;
+                default:
+                    int bits = (frame[p] & 0xFF) | ((frame[p + 1] & 0xFF) << 8)
+                        | ((frame[p + 2] & 0xFF) << 16) | (frame[p + 3] << 24);
+                    return floatingPoint ? Float.intBitsToFloat(bits) : bits / 2147483648.0;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.wiztip.audio;
+
+/**
+ * 音频片段（以采样帧为单位的半开区间）
+ *
+ * @param startFrame 起始采样帧（含）
+ * @param endFrame 结束采样帧（不含）
+ *
+ * @author Wiztip Team
+ */
+public record AudioSegment(long startFrame, long endFrame) {
+
+    /**
+     * @param sampleRate 采样率（Hz）
+     * @return 起始时间（毫秒）
+     */
+    public long startMs(int sampleRate) {
+        return startFrame * 1000L / sampleRate;
+    }
+
+    /**
+     * @param sampleRate 采样率（Hz）
+     * @return 结束时间（毫秒）
+     */
+    public long endMs(int sampleRate) {
+        return endFrame * 1000L / sampleRate;
+    }
+}
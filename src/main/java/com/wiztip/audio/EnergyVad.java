@@ -0,0 +1,245 @@
+package com.wiztip.audio;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 基于短时能量的语音活动检测（VAD）与切分
+ *
+ * 1. 按frameMs将音频分帧，计算每帧单声道能量（dBFS）
+ * 2. 以全部帧能量的第10百分位作为底噪，底噪 + thresholdDb 以上的帧判为语音
+ *    （底噪估计不超过-45dBFS，避免几乎没有停顿的短录音把语音本身当成底噪；
+ *    阈值不低于-50dBFS，避免纯静音录音把微小噪声判为语音）
+ * 3. 连续静音不短于minSilenceMs的位置作为候选切点（取静音段中点）
+ * 4. 从头贪心切分：在不超过maxSegmentMs的前提下取最远的候选切点；
+ *    找不到时在后半段能量最低的帧处强制切分
+ * 5. 每段裁掉首尾静音（保留padMs余量），不含语音的段直接丢弃
+ *
+ * 能量逐帧流式计算，内存占用只与帧数有关（1小时音频约12万帧）
+ *
+ * @author Wiztip Team
+ */
+public class EnergyVad {
+
+    /** 判为语音的最低能量（dBFS） */
+    private static final double MIN_SPEECH_DB = -50.0;
+
+    /** 底噪估计上限（dBFS） */
+    private static final double MAX_NOISE_FLOOR_DB = -45.0;
+
+    private final int frameMs;
+    private final double thresholdDb;
+    private final int minSilenceMs;
+    private final int maxSegmentMs;
+    private final int padMs;
+
+    /**
+     * @param frameMs 分帧长度（毫秒）
+     * @param thresholdDb 语音帧高出底噪的分贝数
+     * @param minSilenceMs 可作为切点的最短静音（毫秒）
+     * @param maxSegmentMs 单段最长时长（毫秒）
+     * @param padMs 裁剪首尾静音时保留的余量（毫秒）
+     */
+    public EnergyVad(int frameMs, double thresholdDb, int minSilenceMs, int maxSegmentMs, int padMs) {
+        this.frameMs = frameMs;
+        this.thresholdDb = thresholdDb;
+        this.minSilenceMs = minSilenceMs;
+        this.maxSegmentMs = maxSegmentMs;
+        this.padMs = padMs;
+    }
+
+    /**
+     * 按静音边界切分音频
+     *
+     * @param file WAV文件（16位PCM）
+     * @param format 音频格式
+     * @return 按时间顺序排列的语音片段；整段音频都是静音时返回空列表
+     * @throws IOException 文件读取失败
+     */
+    public List<AudioSegment> segment(Path file, WavCodec.Format format) throws IOException {
+        int frameSize = Math.max(1, format.sampleRate() * frameMs / 1000);
+        double[] energy = frameEnergies(file, format, frameSize);
+        int n = energy.length;
+        if (n == 0) {
+            return List.of();
+        }
+
+        // 1. 自适应阈值
+        boolean[] speech = classify(energy);
+
+        // 2. 候选切点：足够长的静音段中点
+        int minSilenceFrames = Math.max(1, minSilenceMs / frameMs);
+        List<Integer> cuts = new ArrayList<>();
+        int runStart = -1;
+        for (int i = 0; i <= n; i++) {
+            boolean silent = i < n && !speech[i];
+            if (silent && runStart < 0) {
+                runStart = i;
+            } else if (!silent && runStart >= 0) {
+                if (i - runStart >= minSilenceFrames) {
+                    cuts.add((runStart + i) / 2);
+                }
+                runStart = -1;
+            }
+        }
+
+        // 3. 贪心切分，单段不超过maxSegmentMs
+        int maxFrames = Math.max(2, maxSegmentMs / frameMs);
+        int padFrames = padMs / frameMs;
+        List<AudioSegment> segments = new ArrayList<>();
+        int start = 0;
+        int c = 0;
+        while (start < n) {
+            int end;
+            if (n - start <= maxFrames) {
+                end = n;
+            } else {
+                end = -1;
+                while (c < cuts.size() && cuts.get(c) <= start + maxFrames) {
+                    if (cuts.get(c) > start) {
+                        end = cuts.get(c);
+                    }
+                    c++;
+                }
+                if (end < 0) {
+                    end = quietestFrame(energy, start + maxFrames / 2, start + maxFrames) + 1;
+                }
+            }
+            addTrimmed(segments, speech, start, end, padFrames, frameSize, format.frameCount());
+            start = end;
+        }
+        return segments;
+    }
+
+    /**
+     * 统计音频中的语音范围，用于裁剪首尾静音和拦截空录音
+     *
+     * @param file WAV文件（16位PCM）
+     * @param format 音频格式
+     * @return 语音范围（首尾保留padMs余量）；没有语音帧时返回null
+     * @throws IOException 文件读取失败
+     */
+    public SpeechSpan speechSpan(Path file, WavCodec.Format format) throws IOException {
+        int frameSize = Math.max(1, format.sampleRate() * frameMs / 1000);
+        double[] energy = frameEnergies(file, format, frameSize);
+        boolean[] speech = classify(energy);
+        int first = -1;
+        int last = -1;
+        int count = 0;
+        for (int i = 0; i < speech.length; i++) {
+            if (speech[i]) {
+                if (first < 0) {
+                    first = i;
+                }
+                last = i;
+                count++;
+            }
+        }
+        if (first < 0) {
+            return null;
+        }
+        int padFrames = padMs / frameMs;
+        long start = (long) Math.max(0, first - padFrames) * frameSize;
+        long end = Math.min((long) (last + 1 + padFrames) * frameSize, format.frameCount());
+        return new SpeechSpan(start, end, (long) count * frameMs);
+    }
+
+    /**
+     * 语音范围
+     *
+     * @param startFrame 第一个语音帧之前（含余量）的起始采样帧
+     * @param endFrame 最后一个语音帧之后（含余量）的结束采样帧（不含）
+     * @param speechMs 语音帧总时长（毫秒，不含其间的静音）
+     */
+    public record SpeechSpan(long startFrame, long endFrame, long speechMs) {}
+
+    /**
+     * 按自适应阈值将每帧判为语音或静音
+     */
+    private boolean[] classify(double[] energy) {
+        int n = energy.length;
+        boolean[] speech = new boolean[n];
+        if (n == 0) {
+            return speech;
+        }
+        double[] sorted = energy.clone();
+        Arrays.sort(sorted);
+        double floor = Math.min(sorted[n / 10], MAX_NOISE_FLOOR_DB);
+        double threshold = Math.max(floor + thresholdDb, MIN_SPEECH_DB);
+        for (int i = 0; i < n; i++) {
+            speech[i] = energy[i] > threshold;
+        }
+        return speech;
+    }
+
+    /**
+     * 裁掉[start, end)首尾的静音帧后加入结果，不含语音帧时丢弃
+     */
+    private void addTrimmed(List<AudioSegment> segments, boolean[] speech, int start, int end,
+                            int padFrames, int frameSize, long totalFrames) {
+        int first = start;
+        while (first < end && !speech[first]) {
+            first++;
+        }
+        if (first == end) {
+            return;
+        }
+        int last = end - 1;
+        while (!speech[last]) {
+            last--;
+        }
+        long from = (long) Math.max(start, first - padFrames) * frameSize;
+        long to = Math.min((long) Math.min(end, last + 1 + padFrames) * frameSize, totalFrames);
+        segments.add(new AudioSegment(from, to));
+    }
+
+    private static int quietestFrame(double[] energy, int from, int to) {
+        int best = from;
+        for (int i = from + 1; i < to; i++) {
+            if (energy[i] < energy[best]) {
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * 流式计算每帧的单声道能量（dBFS）
+     */
+    private static double[] frameEnergies(Path file, WavCodec.Format format, int frameSize) throws IOException {
+        int channels = format.channels();
+        long totalFrames = format.frameCount();
+        double[] energy = new double[(int) ((totalFrames + frameSize - 1) / frameSize)];
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file), 64 * 1024)) {
+            in.skipNBytes(format.dataOffset());
+            byte[] block = new byte[frameSize * format.blockAlign()];
+            for (int f = 0; f < energy.length; f++) {
+                int read = in.readNBytes(block, 0, block.length);
+                int samples = read / format.blockAlign();
+                if (samples == 0) {
+                    energy[f] = -100.0;
+                    continue;
+                }
+                double sum = 0;
+                int p = 0;
+                for (int i = 0; i < samples; i++) {
+                    int mixed = 0;
+                    for (int ch = 0; ch < channels; ch++) {
+                        mixed += (short) ((block[p] & 0xFF) | (block[p + 1] << 8));
+                        p += 2;
+                    }
+                    double v = (double) mixed / channels;
+                    sum += v * v;
+                }
+                energy[f] = 10 * Math.log10(sum / samples / (32768.0 * 32768.0) + 1e-10);
+            }
+        }
+        return energy;
+    }
+}
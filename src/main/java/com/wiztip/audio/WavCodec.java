@@ -0,0 +1,220 @@
+package com.wiztip.audio;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * WAV音频读写
+ *
+ * 支持线性PCM（8/16/24/32位整数，格式码1）和32位浮点（格式码3），
+ * 以及WAVE_FORMAT_EXTENSIBLE中对应的子格式；切分和片段读取（readMono）要求16位PCM，
+ * 其他位深先由AudioNormalizer转换为16kHz单声道16位PCM
+ *
+ * 读取时只解析文件头，采样数据按需从文件对应偏移处读取，不整体载入内存
+ *
+ * @author Wiztip Team
+ */
+public final class WavCodec {
+
+    /** 标准WAV文件头长度（RIFF + fmt + data） */
+    public static final int HEADER_SIZE = 44;
+
+    private static final int FORMAT_PCM = 1;
+    private static final int FORMAT_FLOAT = 3;
+    private static final int FORMAT_EXTENSIBLE = 0xFFFE;
+
+    /**
+     * WAV音频格式
+     *
+     * @param channels 声道数
+     * @param sampleRate 采样率（Hz）
+     * @param bitsPerSample 每个采样的位数
+     * @param floatingPoint 是否为浮点采样
+     * @param dataOffset 采样数据在文件中的起始偏移
+     * @param dataLength 采样数据字节数
+     */
+    public record Format(int channels, int sampleRate, int bitsPerSample, boolean floatingPoint,
+                         long dataOffset, long dataLength) {
+
+        /** 每个采样帧（所有声道各一个采样）的字节数 */
+        public int blockAlign() {
+            return channels * bitsPerSample / 8;
+        }
+
+        /** 是否为16位整数PCM */
+        public boolean isPcm16() {
+            return !floatingPoint && bitsPerSample == 16;
+        }
+
+        /** 采样帧总数 */
+        public long frameCount() {
+            return dataLength / blockAlign();
+        }
+
+        /** 时长（毫秒） */
+        public long durationMs() {
+            return frameCount() * 1000L / sampleRate;
+        }
+    }
+
+    private WavCodec() {
+    }
+
+    /**
+     * 解析WAV文件头
+     *
+     * 依次遍历RIFF子块，定位fmt和data块；data块长度以文件实际大小为上限
+     * （边录边写的文件常把长度写成0或0xFFFFFFFF）
+     *
+     * @param file 音频文件
+     * @return 音频格式；不是WAV文件或采样编码不受支持时返回null
+     * @throws IOException 文件读取失败
+     */
+    public static Format readFormat(Path file) throws IOException {
+        long fileSize = Files.size(file);
+        try (InputStream in = Files.newInputStream(file)) {
+            ByteBuffer riff = read(in, 12);
+            if (riff == null || riff.getInt(0) != 0x46464952 || riff.getInt(8) != 0x45564157) { // "RIFF" / "WAVE"
+                return null;
+            }
+            long pos = 12;
+            int channels = 0;
+            int sampleRate = 0;
+            int bitsPerSample = 0;
+            boolean floatingPoint = false;
+            while (true) {
+                ByteBuffer chunk = read(in, 8);
+                if (chunk == null) {
+                    return null;
+                }
+                int id = chunk.getInt(0);
+                long size = Integer.toUnsignedLong(chunk.getInt(4));
+                pos += 8;
+                if (id == 0x20746d66) { // "fmt "
+                    ByteBuffer fmt = read(in, (int) Math.min(size, 40));
+                    if (fmt == null || size < 16) {
+                        return null;
+                    }
+                    int formatTag = fmt.getShort(0) & 0xFFFF;
+                    if (formatTag == FORMAT_EXTENSIBLE && size >= 26) {
+                        formatTag = fmt.getShort(24) & 0xFFFF;
+                    }
+                    channels = fmt.getShort(2) & 0xFFFF;
+                    sampleRate = fmt.getInt(4);
+                    bitsPerSample = fmt.getShort(14) & 0xFFFF;
+                    floatingPoint = formatTag == FORMAT_FLOAT;
+                    boolean supported = formatTag == FORMAT_PCM
+                        ? bitsPerSample == 8 || bitsPerSample == 16 || bitsPerSample == 24 || bitsPerSample == 32
+                        : floatingPoint && bitsPerSample == 32;
+                    if (!supported || channels == 0 || sampleRate <= 0) {
+                        return null;
+                    }
+                    in.skipNBytes(size + (size & 1) - fmt.capacity());
+                } else if (id == 0x61746164) { // "data"
+                    if (channels == 0) {
+                        return null;
+                    }
+                    long length = size == 0 || pos + size > fileSize ? fileSize - pos : size;
+                    return new Format(channels, sampleRate, bitsPerSample, floatingPoint, pos, length);
+                } else {
+                    in.skipNBytes(size + (size & 1));
+                }
+                pos += size + (size & 1);
+            }
+        } catch (java.io.EOFException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 读取一段音频并混合为单声道
+     *
+     * 要求16位PCM（format.isPcm16()）
+     *
+     * @param file 音频文件
+     * @param format 音频格式
+     * @param startFrame 起始采样帧（含）
+     * @param endFrame 结束采样帧（不含）
+     * @return 单声道16位采样
+     * @throws IOException 文件读取失败
+     */
+    public static short[] readMono(Path file, Format format, long startFrame, long endFrame) throws IOException {
+        int frames = (int) (endFrame - startFrame);
+        int channels = format.channels();
+        ByteBuffer buf = ByteBuffer.allocate(frames * format.blockAlign()).order(ByteOrder.LITTLE_ENDIAN);
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            long pos = format.dataOffset() + startFrame * format.blockAlign();
+            while (buf.hasRemaining()) {
+                int n = ch.read(buf, pos);
+                if (n < 0) {
+                    break;
+                }
+                pos += n;
+            }
+        }
+        buf.flip();
+        short[] mono = new short[buf.remaining() / format.blockAlign()];
+        for (int i = 0; i < mono.length; i++) {
+            int sum = 0;
+            for (int c = 0; c < channels; c++) {
+                sum += buf.getShort();
+            }
+            mono[i] = (short) (sum / channels);
+        }
+        return mono;
+    }
+
+    /**
+     * 将单声道16位采样编码为WAV文件
+     *
+     * @param samples 单声道采样
+     * @param sampleRate 采样率（Hz）
+     * @return 完整的WAV文件字节
+     */
+    public static byte[] encodeMono(short[] samples, int sampleRate) {
+        ByteBuffer out = ByteBuffer.allocate(HEADER_SIZE + samples.length * 2).order(ByteOrder.LITTLE_ENDIAN);
+        out.put(monoHeader(samples.length, sampleRate));
+        for (short s : samples) {
+            out.putShort(s);
+        }
+        return out.array();
+    }
+
+    /**
+     * 生成单声道16位PCM的WAV文件头
+     *
+     * @param frames 采样帧数
+     * @param sampleRate 采样率（Hz）
+     * @return 44字节文件头
+     */
+    public static byte[] monoHeader(long frames, int sampleRate) {
+        int dataLength = (int) Math.min(frames * 2, 0xFFFFFFFFL - 36);
+        ByteBuffer out = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        out.putInt(0x46464952).putInt(36 + dataLength).putInt(0x45564157);
+        out.putInt(0x20746d66).putInt(16)
+            .putShort((short) FORMAT_PCM).putShort((short) 1)
+            .putInt(sampleRate).putInt(sampleRate * 2)
+            .putShort((short) 2).putShort((short) 16);
+        out.putInt(0x61746164).putInt(dataLength);
+        return out.array();
+    }
+
+    /**
+     * 读取固定长度的小端序数据块
+     *
+     * @return 数据块；文件提前结束时返回null
+     */
+    private static ByteBuffer read(InputStream in, int length) throws IOException {
+        byte[] bytes = in.readNBytes(length);
+        if (bytes.length < length) {
+            return null;
+        }
+        return ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+    }
+}
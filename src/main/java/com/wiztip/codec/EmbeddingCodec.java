@@ -0,0 +1,170 @@
+package com.wiztip.codec;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ShortBuffer;
+
+/**
+ * 向量嵌入二进制编解码
+ *
+ * 编码格式：1字节格式头 + 小端序紧凑排列的分量
+ * - FP32：每个分量4字节，无损
+ * - FP16：每个分量2字节（IEEE 754半精度，就近舍入），体积再减半
+ *
+ * 1536维向量FP32编码为6145字节，FP16为3073字节；
+ * 相比JSON文本（约10~15KB）体积显著减小，且解码只需一次内存拷贝，无需文本解析
+ *
+ * 维度由数据长度推出，不单独存储
+ *
+ * @author Wiztip Team
+ */
+public final class EmbeddingCodec {
+
+    /**
+     * 存储精度
+     */
+    public enum Precision {
+        FP32((byte) 1, 4),
+        FP16((byte) 2, 2);
+
+        private final byte header;
+        private final int bytesPerComponent;
+
+        Precision(byte header, int bytesPerComponent) {
+            this.header = header;
+            this.bytesPerComponent = bytesPerComponent;
+        }
+
+        /**
+         * 按配置值解析精度（不区分大小写），无法识别时使用FP32
+         *
+         * @param value 配置值，如"fp32"、"fp16"
+         * @return 存储精度
+         */
+        public static Precision parse(String value) {
+            return "fp16".equalsIgnoreCase(value) ? FP16 : FP32;
+        }
+    }
+
+    private EmbeddingCodec() {
+    }
+
+    /**
+     * 编码向量
+     *
+     * @param vector 向量
+     * @param precision 存储精度
+     * @return 编码后的字节数组
+     */
+    public static byte[] encode(float[] vector, Precision precision) {
+        byte[] out = new byte[1 + vector.length * precision.bytesPerComponent];
+        out[0] = precision.header;
+        ByteBuffer body = ByteBuffer.wrap(out, 1, out.length - 1).slice().order(ByteOrder.LITTLE_ENDIAN);
+        if (precision == Precision.FP32) {
+            body.asFloatBuffer().put(vector);
+        } else {
+            ShortBuffer halves = body.asShortBuffer();
+            for (float v : vector) {
+                halves.put(floatToHalf(v));
+            }
+        }
+        return out;
+    }
+
+    /**
+     * 解码向量
+     *
+     * @param data 编码后的字节数组
+     * @return 向量
+     * @throws IllegalArgumentException 格式头无法识别或数据长度不合法
+     */
+    public static float[] decode(byte[] data) {
+        if (data.length == 0) {
+            throw new IllegalArgumentException("向量数据为空");
+        }
+        Precision precision = precisionOf(data[0]);
+        int bodyLength = data.length - 1;
+        if (bodyLength % precision.bytesPerComponent != 0) {
+            throw new IllegalArgumentException("向量数据长度不合法: " + data.length);
+        }
+        float[] vector = new float[bodyLength / precision.bytesPerComponent];
+        ByteBuffer body = ByteBuffer.wrap(data, 1, bodyLength).slice().order(ByteOrder.LITTLE_ENDIAN);
+        if (precision == Precision.FP32) {
+            body.asFloatBuffer().get(vector);
+        } else {
+            ShortBuffer halves = body.asShortBuffer();
+            for (int i = 0; i < vector.length; i++) {
+                vector[i] = halfToFloat(halves.get(i));
+            }
+        }
+        return vector;
+    }
+
+    private static Precision precisionOf(byte header) {
+        for (Precision p : Precision.values()) {
+            if (p.header == header) {
+                return p;
+            }
+        }
+        throw new IllegalArgumentException("无法识别的向量格式头: " + header);
+    }
+
+    /**
+     * float转半精度（就近舍入，平局取偶），超出范围时饱和为无穷大
+     */
+    static short floatToHalf(float f) {
+        int bits = Float.floatToRawIntBits(f);
+        int sign = (bits >>> 16) & 0x8000;
+        int abs = bits & 0x7fffffff;
+
+        if (abs >= 0x7f800000) {
+            // Inf / NaN
+            return (short) (sign | 0x7c00 | (abs > 0x7f800000 ? 0x200 : 0));
+        }
+        if (abs >= 0x477ff000) {
+            // >= 65520，舍入后超出半精度最大值
+            return (short) (sign | 0x7c00);
+        }
+        if (abs < 0x38800000) {
+            // 小于2^-14，编码为半精度非规格化数
+            if (abs < 0x33000000) {
+                return (short) sign;
+            }
+            int shift = 126 - (abs >>> 23);
+            int mantissa = (abs & 0x7fffff) | 0x800000;
+            int h = mantissa >>> shift;
+            int rem = mantissa & ((1 << shift) - 1);
+            int halfway = 1 << (shift - 1);
+            if (rem > halfway || (rem == halfway && (h & 1) != 0)) {
+                h++;
+            }
+            return (short) (sign | h);
+        }
+        // 规格化数：指数偏置127 -> 15，尾数截为10位后舍入（进位可自然进入指数）
+        int h = (abs - 0x38000000) >>> 13;
+        int rem = abs & 0x1fff;
+        if (rem > 0x1000 || (rem == 0x1000 && (h & 1) != 0)) {
+            h++;
+        }
+        return (short) (sign | h);
+    }
+
+    /**
+     * 半精度转float（无损）
+     */
+    static float halfToFloat(short half) {
+        int h = half & 0xffff;
+        int sign = (h & 0x8000) << 16;
+        int exponent = (h >>> 10) & 0x1f;
+        int mantissa = h & 0x3ff;
+
+        if (exponent == 0) {
+            float v = mantissa * 0x1p-24f;
+            return sign == 0 ? v : -v;
+        }
+        if (exponent == 31) {
+            return Float.intBitsToFloat(sign | 0x7f800000 | (mantissa << 13));
+        }
+        return Float.intBitsToFloat(sign | ((exponent + 112) << 23) | (mantissa << 13));
+    }
+}
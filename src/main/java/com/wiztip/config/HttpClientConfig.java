@@ -0,0 +1,153 @@
+package com.wiztip.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.pool.PoolStats;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Map;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+
+/**
+ * 出站HTTP客户端配置
+ *
+ * 为每个上游服务创建一个长期复用的连接池客户端，替代每次请求都新建并关闭的HttpClient：
+ * - asrHttpClient：阿里云NLS语音识别
+ * - llmHttpClient：LLM总结服务
+ *
+ * 连接池支持Keep-Alive复用、每路由最大连接数、连接/响应超时和空闲连接回收，
+ * 连接池状态通过actuator端点 /actuator/httppools 和 wiztip.http.pool.* 指标暴露
+ *
+ * @author Wiztip Team
+ */
+@Configuration
+public class HttpClientConfig {
+
+    @Autowired
+    private WiztipProperties wiztipProperties;
+
+    /**
+     * ASR服务连接池
+     *
+     * @return 连接池管理器
+     */
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager asrConnectionManager() {
+        return connectionManager(wiztipProperties.getHttp().getAsr());
+    }
+
+    /**
+     * LLM服务连接池
+     *
+     * @return 连接池管理器
+     */
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager llmConnectionManager() {
+        return connectionManager(wiztipProperties.getHttp().getLlm());
+    }
+
+    /**
+     * ASR服务HTTP客户端
+     *
+     * @return 基于asrConnectionManager的客户端
+     */
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient asrHttpClient() {
+        return httpClient(asrConnectionManager(), wiztipProperties.getHttp().getAsr());
+    }
+
+    /**
+     * LLM服务HTTP客户端
+     *
+     * @return 基于llmConnectionManager的客户端
+     */
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient llmHttpClient() {
+        return httpClient(llmConnectionManager(), wiztipProperties.getHttp().getLlm());
+    }
+
+    /**
+     * 将连接池状态注册为Micrometer指标
+     *
+     * 指标：wiztip.http.pool.leased / available / pending / max，按pool标签区分上游
+     *
+     * @param asr ASR连接池
+     * @param llm LLM连接池
+     * @return 指标绑定器
+     */
+    @Bean
+    public MeterBinder httpPoolMetrics(@Qualifier("asrConnectionManager") PoolingHttpClientConnectionManager asr,
+                                       @Qualifier("llmConnectionManager") PoolingHttpClientConnectionManager llm) {
+        return registry -> {
+            for (Map.Entry<String, PoolingHttpClientConnectionManager> e : Map.of("asr", asr, "llm", llm).entrySet()) {
+                registerGauge(registry, "wiztip.http.pool.leased", e, PoolStats::getLeased);
+                registerGauge(registry, "wiztip.http.pool.available", e, PoolStats::getAvailable);
+                registerGauge(registry, "wiztip.http.pool.pending", e, PoolStats::getPending);
+                registerGauge(registry, "wiztip.http.pool.max", e, PoolStats::getMax);
+            }
+        };
+    }
+
+    private void registerGauge(MeterRegistry registry, String name,
+                               Map.Entry<String, PoolingHttpClientConnectionManager> pool,
+                               ToIntFunction<PoolStats> stat) {
+        ToDoubleFunction<PoolingHttpClientConnectionManager> fn = cm -> stat.applyAsInt(cm.getTotalStats());
+        Gauge.builder(name, pool.getValue(), fn)
+                .tag("pool", pool.getKey())
+                .register(registry);
+    }
+
+    /**
+     * 按配置构建连接池
+     *
+     * @param cfg 连接池配置
+     * @return 连接池管理器
+     */
+    private PoolingHttpClientConnectionManager connectionManager(WiztipProperties.HttpPool cfg) {
+        return PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(cfg.getMaxTotal())
+                .setMaxConnPerRoute(cfg.getMaxPerRoute())
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(cfg.getConnectTimeoutMs()))
+                        .setSocketTimeout(Timeout.ofMilliseconds(cfg.getResponseTimeoutMs()))
+                        .build())
+                .build();
+    }
+
+    /**
+     * 按配置构建HTTP客户端
+     *
+     * 服务端返回Keep-Alive头时以服务端为准，否则使用keepAliveSeconds；
+     * 后台线程定期回收过期和空闲超过idleEvictSeconds的连接
+     *
+     * @param cm 连接池
+     * @param cfg 连接池配置
+     * @return HTTP客户端
+     */
+    private CloseableHttpClient httpClient(PoolingHttpClientConnectionManager cm, WiztipProperties.HttpPool cfg) {
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.ofMilliseconds(cfg.getConnectionRequestTimeoutMs()))
+                .setResponseTimeout(Timeout.ofMilliseconds(cfg.getResponseTimeoutMs()))
+                .setConnectionKeepAlive(TimeValue.ofSeconds(cfg.getKeepAliveSeconds()))
+                .build();
+        return HttpClients.custom()
+                .setConnectionManager(cm)
+                .setDefaultRequestConfig(requestConfig)
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofSeconds(cfg.getIdleEvictSeconds()))
+                .build();
+    }
+}
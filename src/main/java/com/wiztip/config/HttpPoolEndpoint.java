@@ -0,0 +1,59 @@
+package com.wiztip.config;
+
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.core5.pool.PoolStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 出站HTTP连接池状态端点
+ *
+ * 访问 GET /actuator/httppools 查看各上游连接池的总体和按路由统计：
+ * leased（使用中）、available（空闲可复用）、pending（等待获取连接）、max（上限）
+ *
+ * @author Wiztip Team
+ */
+@Component
+@Endpoint(id = "httppools")
+public class HttpPoolEndpoint {
+
+    /** 连接池Bean名称 -> 连接池 */
+    @Autowired
+    private Map<String, PoolingHttpClientConnectionManager> connectionManagers;
+
+    /**
+     * 读取所有连接池的统计信息
+     *
+     * @return 以连接池Bean名称为键的统计信息
+     */
+    @ReadOperation
+    public Map<String, Object> pools() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        connectionManagers.forEach((name, cm) -> {
+            Map<String, Object> pool = new LinkedHashMap<>();
+            pool.put("total", toMap(cm.getTotalStats()));
+            Map<String, Object> routes = new LinkedHashMap<>();
+            for (HttpRoute route : cm.getRoutes()) {
+                routes.put(route.getTargetHost().toURI(), toMap(cm.getStats(route)));
+            }
+            pool.put("routes", routes);
+            result.put(name, pool);
+        });
+        return result;
+    }
+
+    private Map<String, Object> toMap(PoolStats stats) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("leased", stats.getLeased());
+        m.put("available", stats.getAvailable());
+        m.put("pending", stats.getPending());
+        m.put("max", stats.getMax());
+        return m;
+    }
+}
@@ -0,0 +1,46 @@
+package com.wiztip.config;
+
+import com.aliyun.oss.ClientBuilderConfiguration;
+import com.aliyun.oss.OSS;
+import com.aliyun.oss.OSSClientBuilder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 阿里云OSS客户端配置
+ *
+ * OSS客户端内部维护连接池和工作线程，应在应用生命周期内单例复用，
+ * 由Spring在应用关闭时调用shutdown()释放资源
+ *
+ * @author Wiztip Team
+ */
+@Configuration
+public class OssClientConfig {
+
+    @Autowired
+    private WiztipProperties wiztipProperties;
+
+    /**
+     * 创建单例OSS客户端
+     *
+     * @return OSS客户端
+     */
+    @Bean(destroyMethod = "shutdown")
+    public OSS ossClient() {
+        WiztipProperties.Oss cfg = wiztipProperties.getAliyun().getOss();
+
+        ClientBuilderConfiguration conf = new ClientBuilderConfiguration();
+        conf.setMaxConnections(cfg.getMaxConnections());
+        conf.setConnectionTimeout(cfg.getConnectionTimeoutMs());
+        conf.setSocketTimeout(cfg.getSocketTimeoutMs());
+        conf.setSLDEnabled(cfg.isPathStyle());
+
+        return new OSSClientBuilder().build(
+            cfg.getEndpoint(),
+            cfg.getAccessKeyId(),
+            cfg.getAccessKeySecret(),
+            conf
+        );
+    }
+}
@@ -0,0 +1,49 @@
+package com.wiztip.config;
+
+import com.wiztip.controller.StreamingAsrHandler;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+import org.springframework.web.socket.server.standard.ServletServerContainerFactoryBean;
+
+/**
+ * WebSocket配置
+ *
+ * 注册流式语音识别端点 /ws/asr（见StreamingAsrHandler），
+ * 并按配置限制单帧大小和连接空闲时间
+ *
+ * @author Wiztip Team
+ */
+@Configuration
+@EnableWebSocket
+public class WebSocketConfig implements WebSocketConfigurer {
+
+    @Autowired
+    private WiztipProperties wiztipProperties;
+
+    @Autowired
+    private StreamingAsrHandler streamingAsrHandler;
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        registry.addHandler(streamingAsrHandler, "/ws/asr");
+    }
+
+    /**
+     * WebSocket容器参数
+     *
+     * @return 容器配置
+     */
+    @Bean
+    public ServletServerContainerFactoryBean createWebSocketContainer() {
+        WiztipProperties.Streaming cfg = wiztipProperties.getStreaming();
+        ServletServerContainerFactoryBean container = new ServletServerContainerFactoryBean();
+        container.setMaxBinaryMessageBufferSize(cfg.getMaxFrameBytes());
+        container.setMaxTextMessageBufferSize(8 * 1024);
+        container.setMaxSessionIdleTimeout(cfg.getMaxIdleSeconds() * 1000L);
+        return container;
+    }
+}
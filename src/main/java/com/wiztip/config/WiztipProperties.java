@@ -13,6 +13,15 @@ public class WiztipProperties {
     
     private Aliyun aliyun = new Aliyun();
     private Llm llm = new Llm();
+    private Pipeline pipeline = new Pipeline();
+    private Http http = new Http();
+    private Staging staging = new Staging();
+    private Embedding embedding = new Embedding();
+    private Search search = new Search();
+    private Audio audio = new Audio();
+    private Streaming streaming = new Streaming();
+    private Resilience resilience = new Resilience();
+    private Persistence persistence = new Persistence();
     
     public Aliyun getAliyun() {
         return aliyun;
@@ -30,6 +39,78 @@ public class WiztipProperties {
         this.llm = llm;
     }
     
+    public Pipeline getPipeline() {
+        return pipeline;
+    }
+    
+    public void setPipeline(Pipeline pipeline) {
+        this.pipeline = pipeline;
+    }
+    
+    public Http getHttp() {
+        return http;
+    }
+    
+    public void setHttp(Http http) {
+        this.http = http;
+    }
+    
+    public Staging getStaging() {
+        return staging;
+    }
+    
+    public void setStaging(Staging staging) {
+        this.staging = staging;
+    }
+    
+    public Embedding getEmbedding() {
+        return embedding;
+    }
+    
+    public void setEmbedding(Embedding embedding) {
+        this.embedding = embedding;
+    }
+    
+    public Search getSearch() {
+        return search;
+    }
+    
+    public void setSearch(Search search) {
+        this.search = search;
+    }
+    
+    public Audio getAudio() {
+        return audio;
+    }
+    
+    public void setAudio(Audio audio) {
+        this.audio = audio;
+    }
+    
+    public Streaming getStreaming() {
+        return streaming;
+    }
+    
+    public void setStreaming(Streaming streaming) {
+        this.streaming = streaming;
+    }
+    
+    public Resilience getResilience() {
+        return resilience;
+    }
+    
+    public void setResilience(Resilience resilience) {
+        this.resilience = resilience;
+    }
+    
+    public Persistence getPersistence() {
+        return persistence;
+    }
+    
+    public void setPersistence(Persistence persistence) {
+        this.persistence = persistence;
+    }
+    
     public static class Aliyun {
         private Oss oss = new Oss();
         private Asr asr = new Asr();
@@ -52,26 +133,67 @@ public class WiztipProperties {
     }
     
     public static class Oss {
+        /** OSS地址，不带协议时使用https，如 cn-beijing.oss.aliyuncs.com 或 http://127.0.0.1:18080 */
         private String endpoint;
         private String bucket;
+        /** 使用路径形式访问（endpoint/bucket/object），本地替身服务等不支持二级域名的地址需开启 */
+        private boolean pathStyle = false;
         private String accessKeyId;
         private String accessKeySecret;
+        /** OSS客户端最大连接数 */
+        private int maxConnections = 128;
+        /** 建立连接超时（毫秒） */
+        private int connectionTimeoutMs = 5000;
+        /** Socket读写超时（毫秒） */
+        private int socketTimeoutMs = 60000;
+        /** 超过该大小（字节）的文件使用分片上传，默认8MB */
+        private long multipartThreshold = 8L * 1024 * 1024;
+        /** 分片大小（字节），OSS要求不小于100KB，默认4MB */
+        private long partSize = 4L * 1024 * 1024;
+        /** 单个文件同时上传的分片数 */
+        private int uploadConcurrency = 4;
+        /** 分片上传共享线程池大小 */
+        private int partUploadThreads = 16;
         
         // Getters and setters
         public String getEndpoint() { return endpoint; }
         public void setEndpoint(String endpoint) { this.endpoint = endpoint; }
         public String getBucket() { return bucket; }
         public void setBucket(String bucket) { this.bucket = bucket; }
+        public boolean isPathStyle() { return pathStyle; }
+        public void setPathStyle(boolean pathStyle) { this.pathStyle = pathStyle; }
         public String getAccessKeyId() { return accessKeyId; }
         public void setAccessKeyId(String accessKeyId) { this.accessKeyId = accessKeyId; }
         public String getAccessKeySecret() { return accessKeySecret; }
         public void setAccessKeySecret(String accessKeySecret) { this.accessKeySecret = accessKeySecret; }
+        public int getMaxConnections() { return maxConnections; }
+        public void setMaxConnections(int maxConnections) { this.maxConnections = maxConnections; }
+        public int getConnectionTimeoutMs() { return connectionTimeoutMs; }
+        public void setConnectionTimeoutMs(int connectionTimeoutMs) { this.connectionTimeoutMs = connectionTimeoutMs; }
+        public int getSocketTimeoutMs() { return socketTimeoutMs; }
+        public void setSocketTimeoutMs(int socketTimeoutMs) { this.socketTimeoutMs = socketTimeoutMs; }
+        public long getMultipartThreshold() { return multipartThreshold; }
+        public void setMultipartThreshold(long multipartThreshold) { this.multipartThreshold = multipartThreshold; }
+        public long getPartSize() { return partSize; }
+        public void setPartSize(long partSize) { this.partSize = partSize; }
+        public int getUploadConcurrency() { return uploadConcurrency; }
+        public void setUploadConcurrency(int uploadConcurrency) { this.uploadConcurrency = uploadConcurrency; }
+        public int getPartUploadThreads() { return partUploadThreads; }
+        public void setPartUploadThreads(int partUploadThreads) { this.partUploadThreads = partUploadThreads; }
     }
     
     public static class Asr {
         private String appKey;
         private String accessKeyId;
         private String accessKeySecret;
+        /** NLS一句话识别接口地址（压测时可指向本地替身服务） */
+        private String gatewayUrl = "https://nls-gateway-cn-shanghai.aliyuncs.com/stream/v1/asr";
+        /** 固定Token，配置后不再向阿里云申请Token（仅用于本地替身服务和压测） */
+        private String staticToken;
+        /** 在Token过期前多少秒主动刷新 */
+        private int tokenRefreshAheadSeconds = 600;
+        /** 后台刷新失败后的重试间隔（秒） */
+        private int tokenRetrySeconds = 30;
         
         // Getters and setters
         public String getAppKey() { return appKey; }
@@ -80,16 +202,438 @@ public class WiztipProperties {
         public void setAccessKeyId(String accessKeyId) { this.accessKeyId = accessKeyId; }
         public String getAccessKeySecret() { return accessKeySecret; }
         public void setAccessKeySecret(String accessKeySecret) { this.accessKeySecret = accessKeySecret; }
+        public String getGatewayUrl() { return gatewayUrl; }
+        public void setGatewayUrl(String gatewayUrl) { this.gatewayUrl = gatewayUrl; }
+        public String getStaticToken() { return staticToken; }
+        public void setStaticToken(String staticToken) { this.staticToken = staticToken; }
+        public int getTokenRefreshAheadSeconds() { return tokenRefreshAheadSeconds; }
+        public void setTokenRefreshAheadSeconds(int tokenRefreshAheadSeconds) { this.tokenRefreshAheadSeconds = tokenRefreshAheadSeconds; }
+        public int getTokenRetrySeconds() { return tokenRetrySeconds; }
+        public void setTokenRetrySeconds(int tokenRetrySeconds) { this.tokenRetrySeconds = tokenRetrySeconds; }
     }
     
     public static class Llm {
         private String apiKey;
         private String endpoint;
+        /** 每日总结并行处理的用户数 */
+        private int summaryConcurrency = 8;
+        /** 每日总结读取转写时每页的行数（每页一次查询） */
+        private int summaryPageSize = 1000;
+        /** LLM全局限流：每秒请求数 */
+        private double rateLimitPerSecond = 5.0;
+        /** LLM全局限流：允许的突发请求数 */
+        private int rateLimitBurst = 5;
+        /** 单个用户总结的最大尝试次数（含首次） */
+        private int maxAttempts = 3;
+        /** 重试初始退避时间（毫秒），之后按2倍递增 */
+        private long retryBackoffMs = 1000;
+        /** 每日总结的用户分区数，各分区作为独立任务在集群节点间分配执行 */
+        private int summaryPartitions = 8;
+        /** 单次总结任务的最长运行时间（分钟），超时未完成的用户计入未完成 */
+        private int summaryRunTimeoutMinutes = 55;
+        /** 分区有失败或未完成的用户时的最多运行次数（含首次），之后只记录错误 */
+        private int summaryRetryAttempts = 3;
+        /** 分区重新运行前的等待时间（分钟） */
+        private int summaryRetryDelayMinutes = 10;
+        /** 分块总结：每块的token预算，当天文本超出时按块分别总结再合并 */
+        private int chunkTokenBudget = 3000;
+        /** 分块总结：分块/合并请求共享线程数，单个用户的分块也可并行占满 */
+        private int mapParallelism = 16;
+        /** 分块总结：每次合并的部分总结数，超出时逐层合并 */
+        private int reduceFanIn = 8;
+        /** 增量草稿：保存转写后增量更新当日总结草稿，23点只需定稿 */
+        private boolean draftEnabled = true;
+        /** 增量草稿：用户最后一次保存转写后静默多少秒再更新（防抖） */
+        private int draftDebounceSeconds = 120;
+        /** 增量草稿：持续有新转写时，最长多少秒必须更新一次 */
+        private int draftMaxDelaySeconds = 900;
+        /** 增量草稿：同时更新的用户数 */
+        private int draftConcurrency = 2;
         
         // Getters and setters
         public String getApiKey() { return apiKey; }
         public void setApiKey(String apiKey) { this.apiKey = apiKey; }
         public String getEndpoint() { return endpoint; }
         public void setEndpoint(String endpoint) { this.endpoint = endpoint; }
+        public int getSummaryConcurrency() { return summaryConcurrency; }
+        public void setSummaryConcurrency(int summaryConcurrency) { this.summaryConcurrency = summaryConcurrency; }
+        public int getSummaryPageSize() { return summaryPageSize; }
+        public void setSummaryPageSize(int summaryPageSize) { this.summaryPageSize = summaryPageSize; }
+        public double getRateLimitPerSecond() { return rateLimitPerSecond; }
+        public void setRateLimitPerSecond(double rateLimitPerSecond) { this.rateLimitPerSecond = rateLimitPerSecond; }
+        public int getRateLimitBurst() { return rateLimitBurst; }
+        public void setRateLimitBurst(int rateLimitBurst) { this.rateLimitBurst = rateLimitBurst; }
+        public int getMaxAttempts() { return maxAttempts; }
+        public void setMaxAttempts(int maxAttempts) { this.maxAttempts = maxAttempts; }
+        public long getRetryBackoffMs() { return retryBackoffMs; }
+        public void setRetryBackoffMs(long retryBackoffMs) { this.retryBackoffMs = retryBackoffMs; }
+        public int getSummaryPartitions() { return summaryPartitions; }
+        public void setSummaryPartitions(int summaryPartitions) { this.summaryPartitions = summaryPartitions; }
+        public int getSummaryRunTimeoutMinutes() { return summaryRunTimeoutMinutes; }
+        public void setSummaryRunTimeoutMinutes(int summaryRunTimeoutMinutes) { this.summaryRunTimeoutMinutes = summaryRunTimeoutMinutes; }
+        public int getSummaryRetryAttempts() { return summaryRetryAttempts; }
+        public void setSummaryRetryAttempts(int summaryRetryAttempts) { this.summaryRetryAttempts = summaryRetryAttempts; }
+        public int getSummaryRetryDelayMinutes() { return summaryRetryDelayMinutes; }
+        public void setSummaryRetryDelayMinutes(int summaryRetryDelayMinutes) { this.summaryRetryDelayMinutes = summaryRetryDelayMinutes; }
+        public int getChunkTokenBudget() { return chunkTokenBudget; }
+        public void setChunkTokenBudget(int chunkTokenBudget) { this.chunkTokenBudget = chunkTokenBudget; }
+        public int getMapParallelism() { return mapParallelism; }
+        public void setMapParallelism(int mapParallelism) { this.mapParallelism = mapParallelism; }
+        public int getReduceFanIn() { return reduceFanIn; }
+        public void setReduceFanIn(int reduceFanIn) { this.reduceFanIn = reduceFanIn; }
+        public boolean isDraftEnabled() { return draftEnabled; }
+        public void setDraftEnabled(boolean draftEnabled) { this.draftEnabled = draftEnabled; }
+        public int getDraftDebounceSeconds() { return draftDebounceSeconds; }
+        public void setDraftDebounceSeconds(int draftDebounceSeconds) { this.draftDebounceSeconds = draftDebounceSeconds; }
+        public int getDraftMaxDelaySeconds() { return draftMaxDelaySeconds; }
+        public void setDraftMaxDelaySeconds(int draftMaxDelaySeconds) { this.draftMaxDelaySeconds = draftMaxDelaySeconds; }
+        public int getDraftConcurrency() { return draftConcurrency; }
+        public void setDraftConcurrency(int draftConcurrency) { this.draftConcurrency = draftConcurrency; }
+    }
+    
+    /**
+     * 异步处理流水线配置
+     * 用于/api/audio/upload的后台转写任务
+     */
+    public static class Pipeline {
+        /** 工作线程数 */
+        private int workerThreads = 4;
+        /** 等待队列容量，队列满时拒绝新任务 */
+        private int queueCapacity = 200;
+        /** 音频暂存目录（任务完成前音频落盘于此） */
+        private String spoolDir = System.getProperty("java.io.tmpdir") + "/wiztip/spool";
+        /** NLS繁忙、熔断或临时故障时的最多识别次数（含首次） */
+        private int asrRetryAttempts = 3;
+        /** 重新识别前的等待时间（秒），按次数线性递增 */
+        private int asrRetryDelaySeconds = 10;
+        
+        // Getters and setters
+        public int getWorkerThreads() { return workerThreads; }
+        public void setWorkerThreads(int workerThreads) { this.workerThreads = workerThreads; }
+        public int getQueueCapacity() { return queueCapacity; }
+        public void setQueueCapacity(int queueCapacity) { this.queueCapacity = queueCapacity; }
+        public String getSpoolDir() { return spoolDir; }
+        public void setSpoolDir(String spoolDir) { this.spoolDir = spoolDir; }
+        public int getAsrRetryAttempts() { return asrRetryAttempts; }
+        public void setAsrRetryAttempts(int asrRetryAttempts) { this.asrRetryAttempts = asrRetryAttempts; }
+        public int getAsrRetryDelaySeconds() { return asrRetryDelaySeconds; }
+        public void setAsrRetryDelaySeconds(int asrRetryDelaySeconds) { this.asrRetryDelaySeconds = asrRetryDelaySeconds; }
+    }
+    
+    /**
+     * 出站HTTP连接池配置
+     * 每个上游服务（ASR、LLM）各自使用独立的连接池
+     */
+    public static class Http {
+        private HttpPool asr = new HttpPool();
+        private HttpPool llm = new HttpPool();
+        
+        // Getters and setters
+        public HttpPool getAsr() { return asr; }
+        public void setAsr(HttpPool asr) { this.asr = asr; }
+        public HttpPool getLlm() { return llm; }
+        public void setLlm(HttpPool llm) { this.llm = llm; }
+    }
+    
+    public static class HttpPool {
+        /** 连接池最大连接数 */
+        private int maxTotal = 100;
+        /** 每个路由（目标主机）最大连接数 */
+        private int maxPerRoute = 50;
+        /** 建立连接超时（毫秒） */
+        private int connectTimeoutMs = 3000;
+        /** 等待响应超时（毫秒） */
+        private int responseTimeoutMs = 30000;
+        /** 从连接池获取连接的超时（毫秒） */
+        private int connectionRequestTimeoutMs = 2000;
+        /** 服务端未声明Keep-Alive时连接的保活时长（秒） */
+        private int keepAliveSeconds = 60;
+        /** 空闲连接回收时长（秒） */
+        private int idleEvictSeconds = 30;
+        
+        // Getters and setters
+        public int getMaxTotal() { return maxTotal; }
+        public void setMaxTotal(int maxTotal) { this.maxTotal = maxTotal; }
+        public int getMaxPerRoute() { return maxPerRoute; }
+        public void setMaxPerRoute(int maxPerRoute) { this.maxPerRoute = maxPerRoute; }
+        public int getConnectTimeoutMs() { return connectTimeoutMs; }
+        public void setConnectTimeoutMs(int connectTimeoutMs) { this.connectTimeoutMs = connectTimeoutMs; }
+        public int getResponseTimeoutMs() { return responseTimeoutMs; }
+        public void setResponseTimeoutMs(int responseTimeoutMs) { this.responseTimeoutMs = responseTimeoutMs; }
+        public int getConnectionRequestTimeoutMs() { return connectionRequestTimeoutMs; }
+        public void setConnectionRequestTimeoutMs(int connectionRequestTimeoutMs) { this.connectionRequestTimeoutMs = connectionRequestTimeoutMs; }
+        public int getKeepAliveSeconds() { return keepAliveSeconds; }
+        public void setKeepAliveSeconds(int keepAliveSeconds) { this.keepAliveSeconds = keepAliveSeconds; }
+        public int getIdleEvictSeconds() { return idleEvictSeconds; }
+        public void setIdleEvictSeconds(int idleEvictSeconds) { this.idleEvictSeconds = idleEvictSeconds; }
+    }
+    
+    /**
+     * 识别音频暂存缓存配置
+     * /recognize识别过的音频暂存在本地磁盘，/save凭票据直接使用，无需客户端再次上传
+     */
+    public static class Staging {
+        /** 暂存目录 */
+        private String dir = System.getProperty("java.io.tmpdir") + "/wiztip/staging";
+        /** 暂存有效期（秒） */
+        private int ttlSeconds = 1800;
+        /** 暂存总容量上限（字节），超出时淘汰最早的暂存，默认512MB */
+        private long maxTotalBytes = 512L * 1024 * 1024;
+        
+        // Getters and setters
+        public String getDir() { return dir; }
+        public void setDir(String dir) { this.dir = dir; }
+        public int getTtlSeconds() { return ttlSeconds; }
+        public void setTtlSeconds(int ttlSeconds) { this.ttlSeconds = ttlSeconds; }
+        public long getMaxTotalBytes() { return maxTotalBytes; }
+        public void setMaxTotalBytes(long maxTotalBytes) { this.maxTotalBytes = maxTotalBytes; }
+    }
+    
+    /**
+     * 向量嵌入配置（存储格式、批量请求、结果缓存）
+     */
+    public static class Embedding {
+        /** 向量存储精度：fp32（无损）或fp16（体积减半，精度约3位有效数字） */
+        private String storagePrecision = "fp32";
+        /** 启动时将历史embedding_json回填为二进制embedding列 */
+        private boolean backfillOnStartup = false;
+        /** 回填每批处理的行数 */
+        private int backfillBatchSize = 500;
+        /** 单次后端请求最多合并的文本数 */
+        private int maxBatchSize = 32;
+        /** 凑批最长等待时间（毫秒） */
+        private long maxWaitMs = 10;
+        /** 同时进行的后端请求数 */
+        private int batchConcurrency = 2;
+        /** 调用方等待向量结果的超时（毫秒） */
+        private long timeoutMs = 10000;
+        /** 向量结果缓存条数（按规范化文本的SHA-256去重），0表示不缓存 */
+        private int cacheSize = 10000;
+        
+        // Getters and setters
+        public String getStoragePrecision() { return storagePrecision; }
+        public void setStoragePrecision(String storagePrecision) { this.storagePrecision = storagePrecision; }
+        public boolean isBackfillOnStartup() { return backfillOnStartup; }
+        public void setBackfillOnStartup(boolean backfillOnStartup) { this.backfillOnStartup = backfillOnStartup; }
+        public int getBackfillBatchSize() { return backfillBatchSize; }
+        public void setBackfillBatchSize(int backfillBatchSize) { this.backfillBatchSize = backfillBatchSize; }
+        public int getMaxBatchSize() { return maxBatchSize; }
+        public void setMaxBatchSize(int maxBatchSize) { this.maxBatchSize = maxBatchSize; }
+        public long getMaxWaitMs() { return maxWaitMs; }
+        public void setMaxWaitMs(long maxWaitMs) { this.maxWaitMs = maxWaitMs; }
+        public int getBatchConcurrency() { return batchConcurrency; }
+        public void setBatchConcurrency(int batchConcurrency) { this.batchConcurrency = batchConcurrency; }
+        public long getTimeoutMs() { return timeoutMs; }
+        public void setTimeoutMs(long timeoutMs) { this.timeoutMs = timeoutMs; }
+        public int getCacheSize() { return cacheSize; }
+        public void setCacheSize(int cacheSize) { this.cacheSize = cacheSize; }
+    }
+    
+    /**
+     * 检索配置
+     * 语义检索是每个用户一个内存HNSW索引，启动时从数据库加载，保存转写时增量写入并定期同步其他节点的新增数据；
+     * 关键词检索直接使用MySQL的ngram全文索引
+     */
+    public static class Search {
+        /** 每层邻居数上限（第0层为2倍） */
+        private int m = 16;
+        /** 构建时的候选集宽度 */
+        private int efConstruction = 200;
+        /** 查询时的搜索宽度，越大召回越高 */
+        private int efSearch = 64;
+        /** 单次查询返回的最大条数 */
+        private int maxTopK = 100;
+        /** 启动加载时每批读取的行数 */
+        private int loadBatchSize = 1000;
+        /** 语义检索索引增量同步间隔（秒），其他节点保存的转写在该时间内可查；0表示不同步（单节点部署） */
+        private int syncIntervalSeconds = 30;
+        /** 增量同步时往前多读的秒数，覆盖转写写入到事务提交之间的延迟 */
+        private int syncLagSeconds = 60;
+        /** 关键词检索每页的最大条数 */
+        private int maxPageSize = 50;
+        /** 关键词检索结果片段中命中前后保留的字数 */
+        private int snippetContext = 30;
+        
+        // Getters and setters
+        public int getM() { return m; }
+        public void setM(int m) { this.m = m; }
+        public int getEfConstruction() { return efConstruction; }
+        public void setEfConstruction(int efConstruction) { this.efConstruction = efConstruction; }
+        public int getEfSearch() { return efSearch; }
+        public void setEfSearch(int efSearch) { this.efSearch = efSearch; }
+        public int getMaxTopK() { return maxTopK; }
+        public void setMaxTopK(int maxTopK) { this.maxTopK = maxTopK; }
+        public int getLoadBatchSize() { return loadBatchSize; }
+        public void setLoadBatchSize(int loadBatchSize) { this.loadBatchSize = loadBatchSize; }
+        public int getSyncIntervalSeconds() { return syncIntervalSeconds; }
+        public void setSyncIntervalSeconds(int syncIntervalSeconds) { this.syncIntervalSeconds = syncIntervalSeconds; }
+        public int getSyncLagSeconds() { return syncLagSeconds; }
+        public void setSyncLagSeconds(int syncLagSeconds) { this.syncLagSeconds = syncLagSeconds; }
+        public int getMaxPageSize() { return maxPageSize; }
+        public void setMaxPageSize(int maxPageSize) { this.maxPageSize = maxPageSize; }
+        public int getSnippetContext() { return snippetContext; }
+        public void setSnippetContext(int snippetContext) { this.snippetContext = snippetContext; }
+    }
+    
+    /**
+     * 音频规范化与长音频切分识别配置
+     * 识别前WAV统一转换为16kHz单声道；一句话识别接口只支持约60秒音频，更长的WAV按静音切分后并行识别再按时间顺序拼接
+     */
+    public static class Audio {
+        /** 识别前将WAV混合为单声道并重采样为16kHz */
+        private boolean normalize = true;
+        /** 上传后裁剪WAV首尾静音，并拦截几乎没有语音的录音 */
+        private boolean trimSilence = true;
+        /** 语音总时长低于该值（毫秒）的录音视为误触发，直接拒绝 */
+        private int minSpeechMs = 300;
+        /** 单段最长时长（秒），不超过该时长的音频整体识别 */
+        private int maxSegmentSeconds = 50;
+        /** VAD分帧长度（毫秒） */
+        private int vadFrameMs = 30;
+        /** 语音帧高出底噪的分贝数 */
+        private double vadThresholdDb = 12.0;
+        /** 可作为切点的最短静音（毫秒） */
+        private int minSilenceMs = 400;
+        /** 裁剪录音/片段首尾静音时保留的余量（毫秒） */
+        private int segmentPadMs = 200;
+        /** 全局同时识别的片段数（受NLS并发配额限制） */
+        private int segmentConcurrency = 8;
+        /** 按音频SHA-256摘要识别同一用户的重复上传，复用已有的OSS文件、转写和向量 */
+        private boolean dedup = true;
+        
+        // Getters and setters
+        public boolean isNormalize() { return normalize; }
+        public void setNormalize(boolean normalize) { this.normalize = normalize; }
+        public boolean isTrimSilence() { return trimSilence; }
+        public void setTrimSilence(boolean trimSilence) { this.trimSilence = trimSilence; }
+        public int getMinSpeechMs() { return minSpeechMs; }
+        public void setMinSpeechMs(int minSpeechMs) { this.minSpeechMs = minSpeechMs; }
+        public int getMaxSegmentSeconds() { return maxSegmentSeconds; }
+        public void setMaxSegmentSeconds(int maxSegmentSeconds) { this.maxSegmentSeconds = maxSegmentSeconds; }
+        public int getVadFrameMs() { return vadFrameMs; }
+        public void setVadFrameMs(int vadFrameMs) { this.vadFrameMs = vadFrameMs; }
+        public double getVadThresholdDb() { return vadThresholdDb; }
+        public void setVadThresholdDb(double vadThresholdDb) { this.vadThresholdDb = vadThresholdDb; }
+        public int getMinSilenceMs() { return minSilenceMs; }
+        public void setMinSilenceMs(int minSilenceMs) { this.minSilenceMs = minSilenceMs; }
+        public int getSegmentPadMs() { return segmentPadMs; }
+        public void setSegmentPadMs(int segmentPadMs) { this.segmentPadMs = segmentPadMs; }
+        public int getSegmentConcurrency() { return segmentConcurrency; }
+        public void setSegmentConcurrency(int segmentConcurrency) { this.segmentConcurrency = segmentConcurrency; }
+        public boolean isDedup() { return dedup; }
+        public void setDedup(boolean dedup) { this.dedup = dedup; }
+    }
+    
+    /**
+     * 流式识别配置（WebSocket /ws/asr）
+     * 客户端边录音边推送16kHz单声道PCM，服务端转发给流式识别器并实时推回中间结果
+     */
+    public static class Streaming {
+        /** 识别器：nls（阿里云实时语音识别）或stub（本地模拟） */
+        private String recognizer = "nls";
+        /** NLS实时语音识别网关地址 */
+        private String nlsUrl = "wss://nls-gateway-cn-shanghai.aliyuncs.com/ws/v1";
+        /** 同时进行的流式识别会话上限（受NLS并发配额限制），超出时拒绝新会话 */
+        private int maxSessions = 50;
+        /** 连接空闲超时（秒），超时未收到任何消息即断开 */
+        private int maxIdleSeconds = 30;
+        /** 单条二进制消息（音频帧）的最大字节数 */
+        private int maxFrameBytes = 64 * 1024;
+        /** 向客户端推送结果的发送超时（毫秒），慢客户端超时后断开 */
+        private int sendTimeLimitMs = 5000;
+        /** 向客户端推送结果的缓冲上限（字节） */
+        private int sendBufferBytes = 512 * 1024;
+        
+        // Getters and setters
+        public String getRecognizer() { return recognizer; }
+        public void setRecognizer(String recognizer) { this.recognizer = recognizer; }
+        public String getNlsUrl() { return nlsUrl; }
+        public void setNlsUrl(String nlsUrl) { this.nlsUrl = nlsUrl; }
+        public int getMaxSessions() { return maxSessions; }
+        public void setMaxSessions(int maxSessions) { this.maxSessions = maxSessions; }
+        public int getMaxIdleSeconds() { return maxIdleSeconds; }
+        public void setMaxIdleSeconds(int maxIdleSeconds) { this.maxIdleSeconds = maxIdleSeconds; }
+        public int getMaxFrameBytes() { return maxFrameBytes; }
+        public void setMaxFrameBytes(int maxFrameBytes) { this.maxFrameBytes = maxFrameBytes; }
+        public int getSendTimeLimitMs() { return sendTimeLimitMs; }
+        public void setSendTimeLimitMs(int sendTimeLimitMs) { this.sendTimeLimitMs = sendTimeLimitMs; }
+        public int getSendBufferBytes() { return sendBufferBytes; }
+        public void setSendBufferBytes(int sendBufferBytes) { this.sendBufferBytes = sendBufferBytes; }
+    }
+    
+    public static class Resilience {
+        private Guard asr = new Guard();
+        
+        // Getters and setters
+        public Guard getAsr() { return asr; }
+        public void setAsr(Guard asr) { this.asr = asr; }
+    }
+    
+    /**
+     * 上游调用保护：自适应并发限制（见AdaptiveLimiter）和熔断（见CircuitBreaker）
+     */
+    public static class Guard {
+        /** 初始并发上限 */
+        private int initialLimit = 20;
+        /** 并发上限的下限 */
+        private int minLimit = 4;
+        /** 并发上限的上限（不超过对应连接池的maxTotal才有意义） */
+        private int maxLimit = 100;
+        /** 拥塞时并发上限的缩减比例 */
+        private double backoffRatio = 0.9;
+        /** 单次请求超过该耗时（毫秒）视为拥塞 */
+        private long latencyThresholdMs = 10000;
+        /** 统计失败率的最近调用次数 */
+        private int breakerWindowSize = 50;
+        /** 计算失败率所需的最少调用次数 */
+        private int breakerMinimumCalls = 20;
+        /** 打开熔断的失败率（百分比） */
+        private int breakerFailureRatePercent = 50;
+        /** 熔断打开的持续时间（秒） */
+        private int breakerOpenSeconds = 30;
+        /** 半开状态放行的试探请求数 */
+        private int breakerHalfOpenCalls = 3;
+        
+        // Getters and setters
+        public int getInitialLimit() { return initialLimit; }
+        public void setInitialLimit(int initialLimit) { this.initialLimit = initialLimit; }
+        public int getMinLimit() { return minLimit; }
+        public void setMinLimit(int minLimit) { this.minLimit = minLimit; }
+        public int getMaxLimit() { return maxLimit; }
+        public void setMaxLimit(int maxLimit) { this.maxLimit = maxLimit; }
+        public double getBackoffRatio() { return backoffRatio; }
+        public void setBackoffRatio(double backoffRatio) { this.backoffRatio = backoffRatio; }
+        public long getLatencyThresholdMs() { return latencyThresholdMs; }
+        public void setLatencyThresholdMs(long latencyThresholdMs) { this.latencyThresholdMs = latencyThresholdMs; }
+        public int getBreakerWindowSize() { return breakerWindowSize; }
+        public void setBreakerWindowSize(int breakerWindowSize) { this.breakerWindowSize = breakerWindowSize; }
+        public int getBreakerMinimumCalls() { return breakerMinimumCalls; }
+        public void setBreakerMinimumCalls(int breakerMinimumCalls) { this.breakerMinimumCalls = breakerMinimumCalls; }
+        public int getBreakerFailureRatePercent() { return breakerFailureRatePercent; }
+        public void setBreakerFailureRatePercent(int breakerFailureRatePercent) { this.breakerFailureRatePercent = breakerFailureRatePercent; }
+        public int getBreakerOpenSeconds() { return breakerOpenSeconds; }
+        public void setBreakerOpenSeconds(int breakerOpenSeconds) { this.breakerOpenSeconds = breakerOpenSeconds; }
+        public int getBreakerHalfOpenCalls() { return breakerHalfOpenCalls; }
+        public void setBreakerHalfOpenCalls(int breakerHalfOpenCalls) { this.breakerHalfOpenCalls = breakerHalfOpenCalls; }
+    }
+    
+    /**
+     * 语音记录和转写结果的写库配置（见RecordWriter）
+     */
+    public static class Persistence {
+        /** 开启后并发的写库请求攒成一批，在同一个事务中批量插入/更新 */
+        private boolean writeBehind = false;
+        /** 每批最多写入的语音记录数 */
+        private int maxBatchSize = 50;
+        /** 凑批最长等待时间（毫秒） */
+        private long maxWaitMs = 20;
+        
+        // Getters and setters
+        public boolean isWriteBehind() { return writeBehind; }
+        public void setWriteBehind(boolean writeBehind) { this.writeBehind = writeBehind; }
+        public int getMaxBatchSize() { return maxBatchSize; }
+        public void setMaxBatchSize(int maxBatchSize) { this.maxBatchSize = maxBatchSize; }
+        public long getMaxWaitMs() { return maxWaitMs; }
+        public void setMaxWaitMs(long maxWaitMs) { this.maxWaitMs = maxWaitMs; }
     }
 }
@@ -0,0 +1,41 @@
+package com.wiztip.controller;
+
+import com.wiztip.service.AsrException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * 语音识别失败的统一响应
+ *
+ * 按AsrException的失败原因返回状态码：
+ * - 503：本地并发已满、熔断中或NLS限流，附带Retry-After，客户端稍后重试
+ * - 502：NLS超时或故障
+ * - 422/415：音频被NLS拒绝或格式不受支持，重试无效
+ *
+ * @author Wiztip Team
+ */
+@RestControllerAdvice
+public class AsrExceptionHandler {
+
+    @ExceptionHandler(AsrException.class)
+    public ResponseEntity<?> handle(AsrException e) {
+        AsrException.Reason reason = e.getReason();
+        java.util.Map<String, Object> response = new java.util.HashMap<>();
+        response.put("success", false);
+        response.put("reason", reason.name());
+        response.put("retryable", reason.isRetryable());
+        switch (reason) {
+            case OVERLOADED, CIRCUIT_OPEN, THROTTLED -> response.put("message", "语音识别服务繁忙，请稍后重试");
+            case UPSTREAM -> response.put("message", "语音识别服务暂时不可用，请稍后重试");
+            default -> response.put("message", e.getMessage());
+        }
+
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(reason.getHttpStatus());
+        if (reason.getHttpStatus() == 503) {
+            builder.header(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, e.getRetryAfterSeconds())));
+        }
+        return builder.body(response);
+    }
+}
@@ -1,24 +1,44 @@
 package com.wiztip.controller;
 
+import com.wiztip.metrics.PipelineMetrics;
+import com.wiztip.service.AsrException;
 import com.wiztip.service.AsrService;
+import com.wiztip.service.AudioDedupService;
+import com.wiztip.service.AudioPreprocessor;
+import com.wiztip.service.AudioStagingCache;
 import com.wiztip.service.OssService;
 import com.wiztip.service.EmbeddingService;
+import com.wiztip.service.IngestionPipelineService;
+import com.wiztip.service.LongAudioAsrService;
+import com.wiztip.entity.RecordStatus;
 import com.wiztip.entity.VoiceRecord;
 import com.wiztip.repository.VoiceRecordRepository;
+import com.wiztip.repository.VoiceTranscriptRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.concurrent.RejectedExecutionException;
+
 /**
  * 音频处理控制器
  * 
  * 提供音频文件上传和处理的REST API接口
  * 主要功能包括：
- * 1. 接收客户端上传的音频文件
+ * 1. 接收客户端上传的音频文件，裁剪首尾静音并拦截无有效语音的录音（见AudioPreprocessor），
+ *    同一用户重复上传的录音复用已有结果（见AudioDedupService）
  * 2. 将音频文件上传到阿里云OSS存储
  * 3. 调用ASR服务进行语音识别
  * 4. 生成文本向量嵌入
@@ -30,6 +50,8 @@ import org.springframework.web.multipart.MultipartFile;
 @RequestMapping("/api/audio")
 public class AudioController {
 
+    private static final Logger log = LoggerFactory.getLogger(AudioController.class);
+
     @Autowired
     private OssService ossService;
     
@@ -41,6 +63,27 @@ public class AudioController {
     
     @Autowired
     private VoiceRecordRepository recordRepository;
+    
+    @Autowired
+    private VoiceTranscriptRepository transcriptRepository;
+    
+    @Autowired
+    private IngestionPipelineService ingestionPipeline;
+    
+    @Autowired
+    private AudioStagingCache stagingCache;
+    
+    @Autowired
+    private LongAudioAsrService longAudioAsrService;
+    
+    @Autowired
+    private AudioPreprocessor audioPreprocessor;
+    
+    @Autowired
+    private AudioDedupService dedupService;
+    
+    @Autowired
+    private PipelineMetrics metrics;
 
     /**
      * 仅识别音频文件，不保存到数据库
@@ -48,33 +91,97 @@ public class AudioController {
      * 用于预览识别结果，让用户确认后再决定是否保存
      * 直接从本地文件流读取进行识别，无需先上传到OSS
      * 
+     * 音频会暂存到本地缓存并返回票据（ticket），确认保存时将票据传给/save即可，无需再次上传音频
+     * 超过60秒的WAV录音在静音处切分后并行识别，响应中的segments给出每段的起止时间（毫秒）和文本
+     * 识别前裁剪首尾静音，几乎没有语音的录音直接返回422，不调用ASR
+     * 该用户已保存过同一段录音时直接返回已有的转写文本（duplicateOf为已有记录ID），不调用ASR
+     * 
      * @param file 音频文件（MultipartFile格式）
      * @param userId 用户ID
-     * @return ResponseEntity 返回识别结果的JSON响应
+     * @return ResponseEntity 返回识别结果的JSON响应；识别服务繁忙或不可用时返回503/502（见AsrExceptionHandler）
      * @throws Exception 识别过程中的异常
      */
     @PostMapping("/recognize")
     public ResponseEntity<?> recognizeOnly(@RequestParam("file") MultipartFile file,
                                            @RequestParam("userId") String userId) throws Exception {
-        // 1. 读取音频文件数据
-        byte[] fileData = file.getBytes();
+        // 1. 接收音频并计算摘要；不是重复录音时裁剪静音，无有效语音时直接拒绝
+        Path received = stagingCache.receive(file);
+        String sha256;
+        AudioDedupService.Match dup;
+        AudioPreprocessor.Result prepared = null;
+        try {
+            sha256 = dedupService.digest(received);
+            dup = dedupService.find(userId, sha256);
+            if (dup == null || dup.transcript() == null) {
+                dup = null;
+                prepared = audioPreprocessor.prepare(received);
+            }
+        } catch (Exception e) {
+            stagingCache.discard(received);
+            throw e;
+        }
+        if (prepared != null && !prepared.speech()) {
+            stagingCache.discard(received);
+            metrics.recordOutcome("sync", "no_speech");
+            return noSpeech();
+        }
+        
+        // 2. 暂存音频文件，供确认保存时使用
+        AudioStagingCache.StagedAudio staged = stagingCache.stage(received, file.getOriginalFilename(), userId,
+            dup != null ? dup.record().getDuration() : prepared.durationSeconds(), sha256);
+        if (dup != null) {
+            stagingCache.unpin(staged.ticket());
+            metrics.recordOutcome("sync", "duplicate");
+            java.util.Map<String, Object> response = new java.util.HashMap<>();
+            response.put("success", true);
+            response.put("transcript", dup.transcript().getTranscriptText());
+            response.put("duplicateOf", dup.record().getId());
+            response.put("fileName", file.getOriginalFilename());
+            response.put("fileSize", staged.size());
+            response.put("ticket", staged.ticket());
+            response.put("ticketExpiresIn", stagingCache.getTtlSeconds());
+            response.put("message", "该录音已保存过，返回已有的识别结果");
+            return ResponseEntity.ok().body(response);
+        }
         
-        // 2. 获取文件格式（从文件名提取）
+        // 3. 获取文件格式（从文件名提取）
         String originalFilename = file.getOriginalFilename();
         String format = "wav"; // 默认格式
         if (originalFilename != null && originalFilename.contains(".")) {
             format = originalFilename.substring(originalFilename.lastIndexOf(".") + 1).toLowerCase();
         }
         
-        // 3. 直接从本地文件流调用ASR识别（不上传到OSS）
-        String transcript = asrService.transcribeFromLocalFile(fileData, format);
+        // 4. 直接从暂存文件调用ASR识别（不上传到OSS，不将音频整体读入内存；长音频切分后并行识别）
+        //    识别期间暂存处于使用中，其他请求暂存音频时不会淘汰它
+        LongAudioAsrService.Transcription result;
+        try {
+            result = longAudioAsrService.transcribe(staged.path(), format);
+        } catch (AsrException e) {
+            // 识别失败时客户端拿不到票据，暂存音频立即删除
+            AudioStagingCache.StagedAudio unused = stagingCache.take(staged.ticket(), userId);
+            if (unused != null) {
+                stagingCache.release(unused);
+            }
+            throw e;
+        } finally {
+            stagingCache.unpin(staged.ticket());
+        }
+        String transcript = result.text();
         
-        // 4. 返回识别结果（不保存到数据库，不上传OSS）
+        // 5. 返回识别结果（不保存到数据库，不上传OSS）
         java.util.Map<String, Object> response = new java.util.HashMap<>();
         response.put("success", true);
         response.put("transcript", transcript);
+        if (!result.segments().isEmpty()) {
+            response.put("segments", result.segments());
+        }
+        if (result.durationMs() != null) {
+            response.put("durationMs", result.durationMs());
+        }
         response.put("fileName", originalFilename);
-        response.put("fileSize", fileData.length);
+        response.put("fileSize", staged.size());
+        response.put("ticket", staged.ticket());
+        response.put("ticketExpiresIn", stagingCache.getTtlSeconds());
         response.put("message", "语音识别成功，请确认是否保存");
 
         return ResponseEntity.ok().body(response);
@@ -84,125 +191,225 @@ public class AudioController {
      * 保存已识别的音频记录到数据库
      * 
      * 在用户确认识别结果后调用，将音频上传到OSS并持久化数据
+     * 优先使用/recognize返回的票据获取暂存音频；票据缺失时使用随请求上传的音频文件
+     * 该用户已保存过同一段录音且文本相同时直接返回已有记录（duplicate为true）；
+     * 文本被修改过时复用已上传的OSS文件，只为新文本生成向量
+     * 上传OSS失败时票据仍然有效，可凭同一票据重试
      * 
-     * @param file 音频文件（MultipartFile格式）
+     * @param ticket 识别时返回的暂存票据（可选）
+     * @param file 音频文件（MultipartFile格式，未提供票据时必填）
      * @param transcript 识别文本
      * @param userId 用户ID
-     * @return ResponseEntity 返回保存结果
+     * @return ResponseEntity 返回保存结果；票据已失效且未附带音频时返回410
      * @throws Exception 保存过程中的异常
      */
     @PostMapping("/save")
-    public ResponseEntity<?> saveTranscript(@RequestParam("file") MultipartFile file,
+    public ResponseEntity<?> saveTranscript(@RequestParam(value = "ticket", required = false) String ticket,
+                                           @RequestParam(value = "file", required = false) MultipartFile file,
                                            @RequestParam("transcript") String transcript,
                                            @RequestParam("userId") String userId) throws Exception {
-        System.out.println("========================================");
-        System.out.println("开始保存语音记录");
-        System.out.println("用户ID: " + userId);
-        System.out.println("文件名: " + file.getOriginalFilename());
-        System.out.println("识别文本: " + transcript);
-        System.out.println("========================================");
+        // 0. 通过票据取出暂存音频
+        AudioStagingCache.StagedAudio staged = ticket == null ? null : stagingCache.take(ticket, userId);
+        if (staged == null && (file == null || file.isEmpty())) {
+            java.util.Map<String, Object> response = new java.util.HashMap<>();
+            response.put("success", false);
+            response.put("message", "暂存音频已过期，请重新上传音频文件");
+            return ResponseEntity.status(HttpStatus.GONE).body(response);
+        }
+        String fileName = staged != null ? staged.fileName() : file.getOriginalFilename();
+        long start = System.currentTimeMillis();
         
-        // 1. 上传文件到OSS（用户确认后才上传）
-        System.out.println("步骤1: 上传音频到OSS...");
-        String ossUrl = ossService.upload(file, userId);
-        System.out.println("✅ OSS上传成功: " + ossUrl);
+        // 1. 上传文件到OSS（用户确认后才上传；暂存音频已在识别时裁剪过静音），已上传过的录音直接复用
+        String ossUrl;
+        Double duration;
+        String sha256 = staged != null ? staged.sha256() : null;
+        Path received = staged == null ? stagingCache.receive(file) : null;
+        boolean consumed = false;
+        try {
+            if (received != null) {
+                sha256 = dedupService.digest(received);
+            }
+            AudioDedupService.Match dup = dedupService.find(userId, sha256);
+            if (dup != null && dup.transcript() != null) {
+                if (transcript.equals(dup.transcript().getTranscriptText())) {
+                    consumed = true;
+                    metrics.recordOutcome("sync", "duplicate");
+                    float[] existing = dup.transcript().getEmbedding();
+                    return saved(dup.record(), transcript, existing == null ? 0 : existing.length, true);
+                }
+                ossUrl = dup.record().getOssUrl();
+                duration = dup.record().getDuration();
+                sha256 = null;
+            } else if (staged != null) {
+                ossUrl = ossService.upload(staged.path(), fileName, userId);
+                duration = staged.durationSeconds();
+            } else {
+                AudioPreprocessor.Result prepared = audioPreprocessor.prepare(received);
+                if (!prepared.speech()) {
+                    metrics.recordOutcome("sync", "no_speech");
+                    return noSpeech();
+                }
+                ossUrl = ossService.upload(received, fileName, userId);
+                duration = prepared.durationSeconds();
+            }
+            consumed = true;
+        } finally {
+            if (staged != null && consumed) {
+                stagingCache.release(staged);
+            } else if (staged != null) {
+                // 上传等步骤失败时票据重新生效，客户端可凭同一票据重试，不必重新上传音频
+                stagingCache.restore(staged);
+            } else {
+                stagingCache.discard(received);
+            }
+        }
         
-        // 2. 创建语音记录
-        System.out.println("步骤2: 创建语音记录...");
+        // 2. 生成文本向量嵌入
+        float[] emb = embeddingService.embed(transcript);
+
+        // 3. 创建语音记录，与转写结果和向量在同一个事务中写库；登记音频摘要（复用已有OSS文件时不重复登记）
         VoiceRecord r = new VoiceRecord();
         r.setUserId(userId);
-        r.setFileName(file.getOriginalFilename());
+        r.setFileName(fileName);
         r.setOssUrl(ossUrl);
-        r.setStatus(1); // 状态：1-已完成
+        r.setDuration(duration);
+        r.transitionTo(RecordStatus.DONE);
         r.setUploadTime(java.time.LocalDateTime.now());
-        recordRepository.save(r);
-        System.out.println("✅ 语音记录已保存，ID: " + r.getId());
-
-        // 3. 生成文本向量嵌入
-        System.out.println("步骤3: 生成文本向量...");
-        float[] emb = embeddingService.embed(transcript);
-        System.out.println("✅ 向量生成完成，维度: " + emb.length);
-
-        // 4. 保存转写结果和向量到数据库
-        System.out.println("步骤4: 保存转写记录...");
         asrService.saveTranscript(r, transcript, emb);
-        System.out.println("✅ 转写记录已保存");
-
-        // 5. 打印最终日志
-        System.out.println("========================================");
-        System.out.println("✅ 保存完成！");
-        System.out.println("记录ID: " + r.getId());
-        System.out.println("用户: " + userId);
-        System.out.println("识别结果: " + transcript);
-        System.out.println("OSS URL: " + ossUrl);
-        System.out.println("向量维度: " + emb.length);
-        System.out.println("保存时间: " + r.getUploadTime());
-        System.out.println("========================================");
-
-        // 6. 返回保存结果
-        java.util.Map<String, Object> response = new java.util.HashMap<>();
-        response.put("success", true);
-        response.put("recordId", r.getId());
-        response.put("ossUrl", ossUrl);
-        response.put("transcript", transcript);
-        response.put("fileName", file.getOriginalFilename());
-        response.put("vectorDimension", emb.length);
-        response.put("saveTime", r.getUploadTime().toString());
-        response.put("message", "数据已保存到数据库");
+        dedupService.remember(userId, sha256, r.getId());
 
-        return ResponseEntity.ok().body(response);
+        // 4. 记录结果（不输出识别文本）
+        metrics.recordOutcome("sync", "done");
+        log.info("语音记录已保存 recordId={} userId={} fromTicket={} chars={} durationSec={} costMs={}", r.getId(), userId,
+            staged != null, transcript.length(), duration, System.currentTimeMillis() - start);
+
+        // 5. 返回保存结果
+        return saved(r, transcript, emb.length, false);
     }
 
     /**
-     * 上传音频文件并进行处理
+     * 上传音频文件并异步处理
      * 
-     * 处理流程：
+     * 请求线程只负责暂存音频并创建记录，随即返回记录ID（HTTP 202），
+     * 后台流水线依次完成：
      * 1. 上传音频文件到OSS
-     * 2. 创建语音记录到数据库
-     * 3. 调用ASR服务进行语音转文字
-     * 4. 生成文本向量嵌入
-     * 5. 保存转写结果和向量
+     * 2. 调用ASR服务进行语音转文字
+     * 3. 生成文本向量嵌入
+     * 4. 保存转写结果和向量
+     * 
+     * 处理进度和结果通过 GET /api/audio/upload/{recordId}?userId= 查询
+     * 该用户重复上传同一段录音时直接返回已有记录（HTTP 200，duplicate为true）
      * 
      * @param file 音频文件（MultipartFile格式）
      * @param userId 用户ID，用于标识音频归属
-     * @return ResponseEntity 返回包含转写文本的JSON响应
-     * @throws Exception 文件上传或处理过程中的异常
+     * @return ResponseEntity 返回记录ID和状态查询地址；处理队列已满时返回503
+     * @throws Exception 音频暂存过程中的异常
      */
     @PostMapping("/upload")
     public ResponseEntity<?> upload(@RequestParam("file") MultipartFile file,
                                     @RequestParam("userId") String userId) throws Exception {
-        // 1. 上传文件到OSS存储
-        String ossUrl = ossService.upload(file, userId);
+        java.util.Map<String, Object> response = new java.util.HashMap<>();
         
-        // 2. 创建语音记录
-        VoiceRecord r = new VoiceRecord();
-        r.setUserId(userId);
-        r.setFileName(file.getOriginalFilename());
-        r.setOssUrl(ossUrl);
-        r.setStatus(0); // 状态：0-处理中
-        recordRepository.save(r);
+        // 1. 暂存音频并提交后台处理
+        IngestionPipelineService.Submission submission;
+        try {
+            submission = ingestionPipeline.submit(file, userId);
+        } catch (RejectedExecutionException e) {
+            response.put("success", false);
+            response.put("message", "系统繁忙，请稍后重试");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(response);
+        }
 
-        // 3. 调用ASR服务进行语音识别（同步调用，生产环境建议异步处理）
-        String transcript = asrService.transcribeFromOssUrl(ossUrl);
-        
-        // 4. 生成文本向量嵌入
-        float[] emb = embeddingService.embed(transcript);
+        // 2. 返回记录ID，客户端轮询处理结果
+        VoiceRecord r = submission.record();
+        response.put("success", true);
+        response.put("recordId", r.getId());
+        response.put("status", r.getStatus());
+        response.put("statusUrl", "/api/audio/upload/" + r.getId() + "?userId="
+            + URLEncoder.encode(userId, StandardCharsets.UTF_8));
+        if (submission.duplicate()) {
+            response.put("duplicate", true);
+            response.put("message", "该录音已上传过，返回已有记录");
+            return ResponseEntity.ok().body(response);
+        }
+        response.put("message", "音频已接收，正在后台识别");
 
-        // 5. 保存转写结果和向量到数据库
-        asrService.saveTranscript(r, transcript, emb);
+        return ResponseEntity.accepted().body(response);
+    }
 
-        // 6. 更新记录状态为已完成
-        r.setStatus(1); // 状态：1-已完成
-        recordRepository.save(r);
+    /**
+     * 查询异步处理任务的状态和结果
+     * 
+     * 状态：0-处理中，1-已完成（附带转写文本），2-失败（附带失败原因）
+     * 只能查询自己的记录；记录ID是连续分配的，不校验归属会被遍历读取他人的转写
+     * 
+     * @param recordId 语音记录ID（由/upload接口返回）
+     * @param userId 用户ID
+     * @return ResponseEntity 返回任务状态；记录不存在或不属于该用户时返回404
+     */
+    @GetMapping("/upload/{recordId}")
+    public ResponseEntity<?> uploadStatus(@PathVariable("recordId") Long recordId,
+                                          @RequestParam("userId") String userId) {
+        VoiceRecord r = recordRepository.findById(recordId).orElse(null);
+        // 不属于该用户的记录同样返回404，不暴露记录是否存在
+        if (r == null || !userId.equals(r.getUserId())) {
+            return ResponseEntity.notFound().build();
+        }
 
-        // 7. 返回转写结果
         java.util.Map<String, Object> response = new java.util.HashMap<>();
-        response.put("success", true);
-        response.put("ossUrl", ossUrl);
-        response.put("transcript", transcript);
         response.put("recordId", r.getId());
-        response.put("message", "语音识别成功");
+        response.put("status", r.getStatus());
+        response.put("state", r.getRecordStatus().name());
+        response.put("fileName", r.getFileName());
+        response.put("ossUrl", r.getOssUrl());
+        
+        if (r.getRecordStatus() == RecordStatus.DONE) {
+            transcriptRepository.findFirstByRecordId(recordId)
+                .ifPresent(t -> response.put("transcript", t.getTranscriptText()));
+        } else if (r.getRecordStatus() == RecordStatus.FAILED) {
+            response.put("errorMessage", r.getErrorMessage());
+        }
+
+        return ResponseEntity.ok().body(response);
+    }
 
+    /**
+     * 保存成功的响应
+     * 
+     * @param r 语音记录
+     * @param transcript 转写文本
+     * @param vectorDimension 向量维度
+     * @param duplicate 是否为已保存过的录音
+     * @return ResponseEntity 保存结果
+     */
+    private ResponseEntity<?> saved(VoiceRecord r, String transcript, int vectorDimension, boolean duplicate) {
+        java.util.Map<String, Object> response = new java.util.HashMap<>();
+        response.put("success", true);
+        response.put("recordId", r.getId());
+        response.put("ossUrl", r.getOssUrl());
+        response.put("transcript", transcript);
+        response.put("fileName", r.getFileName());
+        response.put("vectorDimension", vectorDimension);
+        response.put("saveTime", r.getUploadTime().toString());
+        if (duplicate) {
+            response.put("duplicate", true);
+            response.put("message", "该录音已保存过，返回已有记录");
+        } else {
+            response.put("message", "数据已保存到数据库");
+        }
         return ResponseEntity.ok().body(response);
     }
+
+    /**
+     * 录音中没有检测到有效语音时的响应（422）
+     * 
+     * @return ResponseEntity 提示重新录音
+     */
+    private ResponseEntity<?> noSpeech() {
+        java.util.Map<String, Object> response = new java.util.HashMap<>();
+        response.put("success", false);
+        response.put("noSpeech", true);
+        response.put("message", "未检测到有效语音，请重新录音");
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(response);
+    }
 }
@@ -0,0 +1,128 @@
+package com.wiztip.controller;
+
+import com.wiztip.config.WiztipProperties;
+import com.wiztip.entity.VoiceTranscript;
+import com.wiztip.search.Highlighter;
+import com.wiztip.service.KeywordSearchService;
+import com.wiztip.service.VectorSearchService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 检索控制器
+ *
+ * 提供转写记录的检索接口：语义检索（向量相似度）和关键词检索（MySQL ngram全文索引，分页并高亮）
+ *
+ * @author Wiztip Team
+ */
+@RestController
+@RequestMapping("/api/search")
+public class SearchController {
+
+    @Autowired
+    private VectorSearchService vectorSearchService;
+
+    @Autowired
+    private KeywordSearchService keywordSearchService;
+
+    @Autowired
+    private WiztipProperties wiztipProperties;
+
+    /**
+     * 语义检索用户的转写记录
+     *
+     * 在该用户的向量索引中检索与查询文本语义最接近的转写记录
+     *
+     * @param userId 用户ID
+     * @param q 查询文本
+     * @param k 返回条数，默认10
+     * @return ResponseEntity 返回按相似度降序排列的转写记录
+     */
+    @GetMapping("/semantic")
+    public ResponseEntity<?> semantic(@RequestParam("userId") String userId,
+                                      @RequestParam("q") String q,
+                                      @RequestParam(value = "k", defaultValue = "10") int k) {
+        long start = System.nanoTime();
+        List<VectorSearchService.Result> results = vectorSearchService.search(userId, q, k);
+
+        List<Map<String, Object>> items = new ArrayList<>(results.size());
+        for (VectorSearchService.Result r : results) {
+            VoiceTranscript t = r.transcript();
+            Map<String, Object> item = new HashMap<>();
+            item.put("transcriptId", t.getId());
+            item.put("recordId", t.getRecordId());
+            item.put("transcript", t.getTranscriptText());
+            item.put("createTime", t.getCreateTime() == null ? null : t.getCreateTime().toString());
+            item.put("score", r.score());
+            items.add(item);
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("results", items);
+        response.put("indexReady", vectorSearchService.isReady());
+        response.put("tookMs", (System.nanoTime() - start) / 1_000_000.0);
+        return ResponseEntity.ok().body(response);
+    }
+
+    /**
+     * 关键词检索用户的转写记录
+     *
+     * 查询文本按空白和标点拆成多个词，返回包含所有词的转写记录（英文不区分大小写，全角半角视为相同），
+     * 按时间从新到旧分页；snippet为第一个命中附近的片段（已做HTML转义，命中部分以{@code <em>}包裹），
+     * highlights为各命中在完整转写文本中的 [起始, 结束) 位置
+     *
+     * @param userId 用户ID
+     * @param q 查询文本
+     * @param page 页码（从0开始），默认0
+     * @param size 每页条数，默认20
+     * @return ResponseEntity 返回命中总数和当前页的转写记录；查询文本中没有可检索的字符时返回400
+     */
+    @GetMapping("/keyword")
+    public ResponseEntity<?> keyword(@RequestParam("userId") String userId,
+                                     @RequestParam("q") String q,
+                                     @RequestParam(value = "page", defaultValue = "0") int page,
+                                     @RequestParam(value = "size", defaultValue = "20") int size) {
+        long start = System.nanoTime();
+        KeywordSearchService.Result result = keywordSearchService.search(userId, q, page, size);
+        if (result.terms().isEmpty()) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("message", "请输入要检索的关键词");
+            return ResponseEntity.badRequest().body(response);
+        }
+
+        int context = wiztipProperties.getSearch().getSnippetContext();
+        List<Map<String, Object>> items = new ArrayList<>(result.transcripts().size());
+        for (VoiceTranscript t : result.transcripts()) {
+            String text = t.getTranscriptText() == null ? "" : t.getTranscriptText();
+            List<int[]> ranges = Highlighter.ranges(text, result.terms());
+            Map<String, Object> item = new HashMap<>();
+            item.put("transcriptId", t.getId());
+            item.put("recordId", t.getRecordId());
+            item.put("transcript", text);
+            item.put("createTime", t.getCreateTime() == null ? null : t.getCreateTime().toString());
+            item.put("snippet", Highlighter.snippet(text, ranges, context));
+            item.put("highlights", ranges);
+            items.add(item);
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("total", result.total());
+        response.put("page", Math.max(0, page));
+        response.put("size", Math.max(1, Math.min(size, wiztipProperties.getSearch().getMaxPageSize())));
+        response.put("results", items);
+        response.put("tookMs", (System.nanoTime() - start) / 1_000_000.0);
+        return ResponseEntity.ok().body(response);
+    }
+}
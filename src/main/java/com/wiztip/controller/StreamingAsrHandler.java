@@ -0,0 +1,243 @@
+package com.wiztip.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wiztip.config.WiztipProperties;
+import com.wiztip.streaming.StreamingListener;
+import com.wiztip.streaming.StreamingRecognizer;
+import com.wiztip.streaming.StreamingSession;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.AbstractWebSocketHandler;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 流式语音识别WebSocket处理器（/ws/asr）
+ *
+ * 客户端边录音边推送音频，服务端实时推回识别结果，用户说话的同时即可看到文字
+ *
+ * 协议（文本消息为JSON，音频为二进制消息）：
+ * 1. 客户端发送 {"type":"start"} 开启识别
+ * 2. 客户端持续发送二进制音频帧（16kHz单声道16位小端PCM，建议每帧100~200毫秒）
+ * 3. 服务端推送 {"type":"partial","index":1,"text":"..."}（当前句中间结果）
+ *    和 {"type":"sentence","index":1,"beginMs":0,"endMs":1800,"text":"..."}（整句结果）
+ * 4. 客户端发送 {"type":"stop"}，服务端推送 {"type":"completed","transcript":"全文"} 后关闭连接
+ * 出错时推送 {"type":"error","message":"..."} 并关闭连接
+ *
+ * 同时进行的会话数不超过maxSessions（对应NLS并发配额），超出时以1013（稍后重试）关闭连接
+ *
+ * @author Wiztip Team
+ */
+@Component
+public class StreamingAsrHandler extends AbstractWebSocketHandler {
+
+    private static final Logger log = LoggerFactory.getLogger(StreamingAsrHandler.class);
+
+    /** 连接状态在WebSocketSession属性中的键 */
+    private static final String ATTR_STATE = "wiztip.streaming";
+
+    @Autowired
+    private WiztipProperties wiztipProperties;
+
+    @Autowired
+    private StreamingRecognizer recognizer;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    /** 会话配额 */
+    private Semaphore sessionPermits;
+
+    /**
+     * 初始化会话配额
+     */
+    @PostConstruct
+    public void init() {
+        sessionPermits = new Semaphore(wiztipProperties.getStreaming().getMaxSessions());
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) {
+        WiztipProperties.Streaming cfg = wiztipProperties.getStreaming();
+        // 识别结果在识别器线程上推送，经装饰器串行化发送，慢客户端不会阻塞识别器
+        WebSocketSession out = new ConcurrentWebSocketSessionDecorator(session,
+            cfg.getSendTimeLimitMs(), cfg.getSendBufferBytes());
+        session.getAttributes().put(ATTR_STATE, new Connection(out));
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) throws Exception {
+        Connection conn = connection(session);
+        JsonNode node = mapper.readTree(message.getPayload());
+        String type = node.path("type").asText();
+
+        if ("start".equals(type)) {
+            if (conn.recognition != null) {
+                conn.fail("识别已开始");
+                return;
+            }
+            if (!sessionPermits.tryAcquire()) {
+                conn.send(Map.of("type", "error", "message", "实时识别繁忙，请稍后重试"));
+                conn.out.close(CloseStatus.SERVICE_OVERLOAD);
+                return;
+            }
+            conn.permitHeld.set(true);
+            try {
+                conn.recognition = recognizer.open(conn);
+            } catch (Exception e) {
+                conn.fail("实时识别启动失败: " + e.getMessage());
+                return;
+            }
+            conn.send(Map.of("type", "started"));
+        } else if ("stop".equals(type)) {
+            if (conn.recognition == null) {
+                conn.fail("识别尚未开始");
+                return;
+            }
+            try {
+                conn.recognition.finish();
+            } catch (Exception e) {
+                conn.fail("实时识别结束失败: " + e.getMessage());
+            }
+        } else {
+            conn.fail("未知消息类型: " + type);
+        }
+    }
+
+    @Override
+    protected void handleBinaryMessage(WebSocketSession session, BinaryMessage message) throws Exception {
+        Connection conn = connection(session);
+        if (conn.recognition == null) {
+            conn.fail("请先发送start消息");
+            return;
+        }
+        ByteBuffer payload = message.getPayload();
+        byte[] pcm = new byte[payload.remaining()];
+        payload.get(pcm);
+        try {
+            conn.recognition.sendAudio(pcm);
+        } catch (Exception e) {
+            conn.fail("音频发送失败: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void handleTransportError(WebSocketSession session, Throwable exception) {
+        release(session);
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        release(session);
+    }
+
+    /**
+     * 连接关闭时释放识别会话和配额（只执行一次）
+     */
+    private void release(WebSocketSession session) {
+        Connection conn = (Connection) session.getAttributes().get(ATTR_STATE);
+        if (conn == null) {
+            return;
+        }
+        if (conn.recognition != null) {
+            conn.recognition.close();
+        }
+        if (conn.permitHeld.compareAndSet(true, false)) {
+            sessionPermits.release();
+        }
+    }
+
+    private static Connection connection(WebSocketSession session) {
+        return (Connection) session.getAttributes().get(ATTR_STATE);
+    }
+
+    /**
+     * 单个WebSocket连接的识别状态，同时作为识别结果监听器把结果推送给客户端
+     */
+    private final class Connection implements StreamingListener {
+
+        /** 线程安全的发送端 */
+        private final WebSocketSession out;
+
+        /** 是否占用会话配额 */
+        private final AtomicBoolean permitHeld = new AtomicBoolean();
+
+        /** 已完成的句子，拼接为最终全文 */
+        private final StringBuilder transcript = new StringBuilder();
+
+        /** 识别会话（start之后非空） */
+        private StreamingSession recognition;
+
+        Connection(WebSocketSession out) {
+            this.out = out;
+        }
+
+        @Override
+        public void onPartial(int index, String text) {
+            send(Map.of("type", "partial", "index", index, "text", text));
+        }
+
+        @Override
+        public void onSentence(int index, long beginMs, long endMs, String text) {
+            synchronized (transcript) {
+                transcript.append(text);
+            }
+            send(Map.of("type", "sentence", "index", index, "beginMs", beginMs, "endMs", endMs, "text", text));
+        }
+
+        @Override
+        public void onComplete() {
+            String full;
+            synchronized (transcript) {
+                full = transcript.toString();
+            }
+            send(Map.of("type", "completed", "transcript", full));
+            closeQuietly(CloseStatus.NORMAL);
+        }
+
+        @Override
+        public void onError(String message) {
+            fail(message);
+        }
+
+        /**
+         * 推送错误并关闭连接
+         */
+        void fail(String message) {
+            send(Map.of("type", "error", "message", message));
+            closeQuietly(CloseStatus.SERVER_ERROR);
+        }
+
+        void send(Map<String, Object> payload) {
+            if (!out.isOpen()) {
+                return;
+            }
+            try {
+                out.sendMessage(new TextMessage(mapper.writeValueAsString(payload)));
+            } catch (Exception e) {
+                // 发送超时或缓冲溢出时装饰器已关闭连接，afterConnectionClosed负责清理
+                log.warn("实时识别结果推送失败 session={} error={}", out.getId(), e.getMessage());
+            }
+        }
+
+        private void closeQuietly(CloseStatus status) {
+            try {
+                out.close(status);
+            } catch (IOException ignored) {
+                // 连接已断开
+            }
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.wiztip.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 音频内容索引实体类
+ * 
+ * 以用户ID + 原始上传音频的SHA-256摘要为键，指向处理过该音频的语音记录，
+ * 重复上传同一段录音时可直接复用记录上的OSS文件、转写文本和向量
+ * 
+ * 摘要按用户隔离，不同用户上传相同内容时互不复用
+ * 
+ * @author Wiztip Team
+ */
+@Entity
+@Table(name = "audio_content", uniqueConstraints =
+    @UniqueConstraint(name = "uk_content_user_sha256", columnNames = {"user_id", "sha256"}))
+public class AudioContent {
+    
+    /** 主键ID */
+    @Id 
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "audio_content_id")
+    @TableGenerator(name = "audio_content_id", table = "id_generator", pkColumnName = "name",
+        valueColumnName = "next_val", pkColumnValue = "audio_content", allocationSize = 50)
+    private Long id;
+    
+    /** 用户ID */
+    private String userId;
+    
+    /** 原始上传音频的SHA-256摘要（64位小写十六进制） */
+    @Column(length = 64)
+    private String sha256;
+    
+    /** 处理该音频的语音记录ID */
+    private Long recordId;
+    
+    /** 创建时间 */
+    private LocalDateTime createTime;
+
+    // ========== Getters and Setters ==========
+    public Long getId(){return id;}
+    public void setId(Long id){this.id=id;}
+    public String getUserId(){return userId;}
+    public void setUserId(String userId){this.userId=userId;}
+    public String getSha256(){return sha256;}
+    public void setSha256(String sha256){this.sha256=sha256;}
+    public Long getRecordId(){return recordId;}
+    public void setRecordId(Long recordId){this.recordId=recordId;}
+    public LocalDateTime getCreateTime(){return createTime;}
+    public void setCreateTime(LocalDateTime createTime){this.createTime=createTime;}
+}
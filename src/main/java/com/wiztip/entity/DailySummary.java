@@ -7,17 +7,21 @@ import java.time.LocalDate;
  * 每日总结实体类
  * 
  * 用于存储用户每日语音内容的智能总结
- * 系统会在每天指定时间（默认23:00）自动生成当日总结
+ * 白天随新转写增量更新草稿，每天指定时间（默认23:00）定稿
+ * 每个用户每天只有一条总结
  * 
  * @author Wiztip Team
  */
 @Entity
-@Table(name = "daily_summary")
+@Table(name = "daily_summary", uniqueConstraints =
+    @UniqueConstraint(name = "uk_summary_user_date", columnNames = {"user_id", "date"}))
 public class DailySummary {
     
     /** 主键ID */
     @Id 
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "daily_summary_id")
+    @TableGenerator(name = "daily_summary_id", table = "id_generator", pkColumnName = "name",
+        valueColumnName = "next_val", pkColumnValue = "daily_summary", allocationSize = 50)
     private Long id;
     
     /** 用户ID */
@@ -38,6 +42,25 @@ public class DailySummary {
     
     /** 创建时间 */
     private java.time.LocalDateTime createdAt;
+    
+    /** 总结状态：0-草稿，1-已定稿（取值见SummaryStatus） */
+    private Integer status;
+    
+    /** 最近一次合并的转写中最后一条的ID（仅供排查；哪些转写已汇总以voice_transcript.summarized为准） */
+    private Long lastTranscriptId;
+    
+    /** 最后更新时间 */
+    private java.time.LocalDateTime updatedAt;
+
+    /**
+     * 乐观锁版本号
+     * 
+     * 草稿更新和定稿可能在不同节点同时进行，保存时版本号已变化说明期间被别人改过，
+     * 保存失败后重新读取再处理（见LlmSummaryService），已定稿的总结不会被草稿覆盖
+     */
+    @Version
+    @Column(nullable = false, columnDefinition = "BIGINT NOT NULL DEFAULT 0")
+    private Long version;
 
     // ========== Getters and Setters ==========
     public Long getId(){return id;}
@@ -54,4 +77,21 @@ public class DailySummary {
     public void setPushStatus(Integer pushStatus){this.pushStatus=pushStatus;}
     public java.time.LocalDateTime getCreatedAt(){return createdAt;}
     public void setCreatedAt(java.time.LocalDateTime createdAt){this.createdAt=createdAt;}
+    public Integer getStatus(){return status;}
+    public void setStatus(Integer status){this.status=status;}
+    public Long getLastTranscriptId(){return lastTranscriptId;}
+    public void setLastTranscriptId(Long lastTranscriptId){this.lastTranscriptId=lastTranscriptId;}
+    public java.time.LocalDateTime getUpdatedAt(){return updatedAt;}
+    public void setUpdatedAt(java.time.LocalDateTime updatedAt){this.updatedAt=updatedAt;}
+    public Long getVersion(){return version;}
+    public void setVersion(Long version){this.version=version;}
+
+    /**
+     * 获取总结状态
+     * 
+     * @return 总结状态，status为空的历史数据视为已定稿
+     */
+    public SummaryStatus getSummaryStatus() {
+        return SummaryStatus.fromCode(status);
+    }
 }
@@ -0,0 +1,48 @@
+package com.wiztip.entity;
+
+import com.wiztip.codec.EmbeddingCodec;
+import com.wiztip.config.WiztipProperties;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * 向量嵌入JPA转换器
+ *
+ * 实体中的float[]与数据库BLOB列之间按EmbeddingCodec编解码
+ *
+ * 写入精度取自wiztip.embedding.storagePrecision；
+ * Hibernate通过Spring容器创建转换器实例，容器之外创建时默认使用FP32。
+ * 读取时按格式头解码，FP32和FP16数据可混存
+ *
+ * @author Wiztip Team
+ */
+@Converter
+public class EmbeddingConverter implements AttributeConverter<float[], byte[]> {
+
+    @Autowired(required = false)
+    private WiztipProperties wiztipProperties;
+
+    @Override
+    public byte[] convertToDatabaseColumn(float[] attribute) {
+        if (attribute == null) {
+            return null;
+        }
+        return EmbeddingCodec.encode(attribute, precision());
+    }
+
+    @Override
+    public float[] convertToEntityAttribute(byte[] dbData) {
+        if (dbData == null || dbData.length == 0) {
+            return null;
+        }
+        return EmbeddingCodec.decode(dbData);
+    }
+
+    private EmbeddingCodec.Precision precision() {
+        if (wiztipProperties == null) {
+            return EmbeddingCodec.Precision.FP32;
+        }
+        return EmbeddingCodec.Precision.parse(wiztipProperties.getEmbedding().getStoragePrecision());
+    }
+}
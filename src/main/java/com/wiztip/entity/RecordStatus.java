@@ -0,0 +1,73 @@
+package com.wiztip.entity;
+
+/**
+ * 语音记录处理状态
+ *
+ * 对应voice_record.status列的取值，并约束合法的状态流转：
+ * PROCESSING -> DONE
+ * PROCESSING -> FAILED
+ * DONE和FAILED为终态，不允许再变更
+ *
+ * @author Wiztip Team
+ */
+public enum RecordStatus {
+
+    /** 处理中（音频已暂存，等待或正在转写） */
+    PROCESSING(0),
+
+    /** 已完成 */
+    DONE(1),
+
+    /** 失败 */
+    FAILED(2);
+
+    private final int code;
+
+    RecordStatus(int code) {
+        this.code = code;
+    }
+
+    /**
+     * 获取数据库中存储的状态码
+     *
+     * @return 状态码
+     */
+    public int getCode() {
+        return code;
+    }
+
+    /**
+     * 是否为终态
+     *
+     * @return DONE或FAILED时返回true
+     */
+    public boolean isTerminal() {
+        return this != PROCESSING;
+    }
+
+    /**
+     * 判断能否流转到目标状态
+     *
+     * @param target 目标状态
+     * @return 合法流转返回true
+     */
+    public boolean canTransitionTo(RecordStatus target) {
+        return this == PROCESSING && target != PROCESSING;
+    }
+
+    /**
+     * 根据状态码解析状态
+     *
+     * @param code 数据库中的状态码
+     * @return 对应的状态
+     * @throws IllegalArgumentException 未知状态码
+     */
+    public static RecordStatus fromCode(int code) {
+        for (RecordStatus s : values()) {
+            if (s.code == code) {
+                return s;
+            }
+        }
+        throw new IllegalArgumentException("未知的记录状态码: " + code);
+    }
+}
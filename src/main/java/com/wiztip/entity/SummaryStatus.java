@@ -0,0 +1,55 @@
+package com.wiztip.entity;
+
+/**
+ * 每日总结状态
+ *
+ * 对应daily_summary.status列的取值：
+ * - DRAFT：白天随新转写增量更新的草稿
+ * - FINAL：23点定时任务定稿后不再变更
+ *
+ * 增加该列之前生成的总结（status为空）视为已定稿
+ *
+ * @author Wiztip Team
+ */
+public enum SummaryStatus {
+
+    /** 草稿（增量更新中） */
+    DRAFT(0),
+
+    /** 已定稿 */
+    FINAL(1);
+
+    private final int code;
+
+    SummaryStatus(int code) {
+        this.code = code;
+    }
+
+    /**
+     * 获取数据库中存储的状态码
+     *
+     * @return 状态码
+     */
+    public int getCode() {
+        return code;
+    }
+
+    /**
+     * 根据状态码解析状态
+     *
+     * @param code 数据库中的状态码，为空时视为已定稿
+     * @return 对应的状态
+     * @throws IllegalArgumentException 未知状态码
+     */
+    public static SummaryStatus fromCode(Integer code) {
+        if (code == null) {
+            return FINAL;
+        }
+        for (SummaryStatus s : values()) {
+            if (s.code == code) {
+                return s;
+            }
+        }
+        throw new IllegalArgumentException("未知的总结状态码: " + code);
+    }
+}
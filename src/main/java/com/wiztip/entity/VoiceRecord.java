@@ -15,9 +15,11 @@ import java.time.LocalDateTime;
 @Table(name = "voice_record")
 public class VoiceRecord {
     
-    /** 主键ID */
+    /** 主键ID（从id_generator表按50个一段预分配：persist时不需要回读自增值，插入语句才能批量执行） */
     @Id 
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "voice_record_id")
+    @TableGenerator(name = "voice_record_id", table = "id_generator", pkColumnName = "name",
+        valueColumnName = "next_val", pkColumnValue = "voice_record", allocationSize = 50)
     private Long id;
     
     /** 用户ID */
@@ -32,12 +34,20 @@ public class VoiceRecord {
     /** 音频时长（秒） */
     private Double duration;
     
-    /** 处理状态：0-处理中，1-已完成，2-失败 */
+    /** 处理状态：0-处理中，1-已完成，2-失败（取值见RecordStatus） */
     private Integer status;
     
+    /** 失败原因（仅状态为失败时有值） */
+    @Column(length = 500)
+    private String errorMessage;
+    
     /** 上传时间 */
     private LocalDateTime uploadTime;
 
+    /** 持有暂存音频的节点（异步流水线的节点标识，见IngestionPipelineService；同步保存的记录为空） */
+    @Column(length = 64)
+    private String nodeId;
+
     // ========== Getters and Setters ==========
     public Long getId(){return id;}
     public void setId(Long id){this.id=id;}
@@ -53,4 +63,36 @@ public class VoiceRecord {
     public void setStatus(Integer status){this.status=status;}
     public LocalDateTime getUploadTime(){return uploadTime;}
     public void setUploadTime(LocalDateTime uploadTime){this.uploadTime=uploadTime;}
+    public String getErrorMessage(){return errorMessage;}
+    public void setErrorMessage(String errorMessage){this.errorMessage=errorMessage;}
+    public String getNodeId(){return nodeId;}
+    public void setNodeId(String nodeId){this.nodeId=nodeId;}
+
+    // ========== 状态机 ==========
+
+    /**
+     * 获取当前处理状态
+     * 
+     * @return 处理状态，未设置时返回null
+     */
+    public RecordStatus getRecordStatus() {
+        return status == null ? null : RecordStatus.fromCode(status);
+    }
+
+    /**
+     * 按状态机规则变更处理状态
+     * 
+     * 新建记录（状态为空）可直接进入任意状态，
+     * 已有状态的记录只允许 处理中 -> 已完成/失败
+     * 
+     * @param target 目标状态
+     * @throws IllegalStateException 非法的状态流转
+     */
+    public void transitionTo(RecordStatus target) {
+        RecordStatus current = getRecordStatus();
+        if (current != null && !current.canTransitionTo(target)) {
+            throw new IllegalStateException("记录" + id + "不允许从" + current + "变更为" + target);
+        }
+        this.status = target.getCode();
+    }
 }
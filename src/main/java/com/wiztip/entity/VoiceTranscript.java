@@ -12,12 +12,19 @@ import java.time.LocalDateTime;
  * @author Wiztip Team
  */
 @Entity
-@Table(name = "voice_transcript")
+@Table(name = "voice_transcript", indexes = {
+    // 按用户按时间顺序读取某段时间的转写（每日总结逐个用户读取）
+    @Index(name = "idx_transcript_user_time_id", columnList = "user_id, create_time, id"),
+    // 按时间范围扫描（每日总结取分区用户）
+    @Index(name = "idx_transcript_time_user", columnList = "create_time, user_id")
+})
 public class VoiceTranscript {
     
-    /** 主键ID */
+    /** 主键ID（与语音记录相同，从id_generator表按号段分配） */
     @Id 
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "voice_transcript_id")
+    @TableGenerator(name = "voice_transcript_id", table = "id_generator", pkColumnName = "name",
+        valueColumnName = "next_val", pkColumnValue = "voice_transcript", allocationSize = 50)
     private Long id;
     
     /** 关联的语音记录ID */
@@ -26,13 +33,14 @@ public class VoiceTranscript {
     /** 用户ID */
     private String userId;
     
-    /** 转写文本内容（使用TEXT类型支持长文本） */
+    /** 转写文本内容（使用TEXT类型支持长文本；关键词检索用的ngram全文索引ft_transcript_text见schema.sql，JPA无法声明） */
     @Column(columnDefinition = "TEXT")
     private String transcriptText;
     
-    /** 文本向量嵌入的JSON表示（用于语义检索） */
-    @Column(columnDefinition = "JSON")
-    private String embeddingJson;
+    /** 文本向量嵌入（二进制编码，格式见EmbeddingCodec，用于语义检索） */
+    @Convert(converter = EmbeddingConverter.class)
+    @Column(columnDefinition = "BLOB")
+    private float[] embedding;
     
     /** ASR识别置信度（0-1之间） */
     private Float confidence;
@@ -40,6 +48,15 @@ public class VoiceTranscript {
     /** 创建时间 */
     private LocalDateTime createTime;
 
+    /**
+     * 是否已汇总进当天的每日总结
+     * 
+     * 与总结在同一个事务中置位（见LlmSummaryService），不依赖ID或时间的先后：
+     * 号段分配的ID在多节点间不按提交顺序递增，按水位线判断会漏掉晚提交的小ID
+     */
+    @Column(nullable = false, columnDefinition = "TINYINT(1) NOT NULL DEFAULT 0")
+    private boolean summarized;
+
     // ========== Getters and Setters ==========
     public Long getId(){return id;}
     public void setId(Long id){this.id=id;}
@@ -49,10 +66,12 @@ public class VoiceTranscript {
     public void setUserId(String userId){this.userId=userId;}
     public String getTranscriptText(){return transcriptText;}
     public void setTranscriptText(String transcriptText){this.transcriptText=transcriptText;}
-    public String getEmbeddingJson(){return embeddingJson;}
-    public void setEmbeddingJson(String embeddingJson){this.embeddingJson=embeddingJson;}
+    public float[] getEmbedding(){return embedding;}
+    public void setEmbedding(float[] embedding){this.embedding=embedding;}
     public Float getConfidence(){return confidence;}
     public void setConfidence(Float confidence){this.confidence=confidence;}
     public LocalDateTime getCreateTime(){return createTime;}
     public void setCreateTime(LocalDateTime createTime){this.createTime=createTime;}
+    public boolean isSummarized(){return summarized;}
+    public void setSummarized(boolean summarized){this.summarized=summarized;}
 }
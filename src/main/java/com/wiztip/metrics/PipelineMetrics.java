@@ -0,0 +1,143 @@
+package com.wiztip.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 语音处理流水线指标
+ *
+ * 为流水线的每个阶段记录耗时，用于定位尾延迟出在哪个阶段：
+ * - wiztip.pipeline.stage（Timer，stage=阶段名，outcome=success|failure）：阶段耗时，
+ *   发布百分位直方图，可在监控系统中按stage聚合p99
+ * - wiztip.pipeline.bytes（DistributionSummary，stage=oss.upload|asr）：每次提交的音频字节数
+ * - wiztip.pipeline.records（Counter，mode=sync|async，outcome=done|failed|no_speech|duplicate）：语音记录处理结果
+ *
+ * 阶段名见本类常量；同一阶段名+结果对应的计量器只注册一次，之后直接从缓存取出
+ *
+ * @author Wiztip Team
+ */
+@Component
+public class PipelineMetrics {
+
+    /** 计算上传音频的SHA-256摘要（用于识别重复上传） */
+    public static final String DIGEST = "digest";
+
+    /** OSS上传 */
+    public static final String OSS_UPLOAD = "oss.upload";
+
+    /** 获取NLS Token（缓存命中时接近0，等待刷新时体现为长尾） */
+    public static final String NLS_TOKEN = "nls.token";
+
+    /** NLS一句话识别请求 */
+    public static final String ASR = "asr";
+
+    /** 文本向量生成（含排队凑批时间） */
+    public static final String EMBEDDING = "embedding";
+
+    /** 语音记录和转写结果写库（开启write-behind时含排队凑批时间） */
+    public static final String DB_SAVE = "db.save";
+
+    /** LLM总结请求（单次调用，不含重试退避） */
+    public static final String LLM = "llm";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<String, DistributionSummary> sizes = new ConcurrentHashMap<>();
+    private final Map<String, Counter> records = new ConcurrentHashMap<>();
+
+    /**
+     * 执行并计时一个阶段，抛出异常时记为failure
+     *
+     * @param stage 阶段名
+     * @param call 阶段逻辑
+     * @return 阶段返回值
+     * @throws E 阶段逻辑抛出的异常（原样抛出）
+     */
+    public <T, E extends Exception> T time(String stage, StageCall<T, E> call) throws E {
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            T result = call.call();
+            success = true;
+            return result;
+        } finally {
+            record(stage, success, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * 记录一次阶段耗时
+     *
+     * 用于不以异常表示失败的阶段
+     *
+     * @param stage 阶段名
+     * @param success 是否成功
+     * @param nanos 耗时（纳秒）
+     */
+    public void record(String stage, boolean success, long nanos) {
+        String outcome = success ? "success" : "failure";
+        timers.computeIfAbsent(stage + "|" + outcome, k -> Timer.builder("wiztip.pipeline.stage")
+                .description("语音处理流水线各阶段耗时")
+                .tag("stage", stage)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofMinutes(2))
+                .register(meterRegistry))
+            .record(Duration.ofNanos(nanos));
+    }
+
+    /**
+     * 记录一次提交的音频大小
+     *
+     * @param stage 阶段名
+     * @param bytes 字节数，未知（小于0）时忽略
+     */
+    public void recordBytes(String stage, long bytes) {
+        if (bytes < 0) {
+            return;
+        }
+        sizes.computeIfAbsent(stage, k -> DistributionSummary.builder("wiztip.pipeline.bytes")
+                .description("各阶段提交的音频字节数")
+                .baseUnit("bytes")
+                .tag("stage", stage)
+                .register(meterRegistry))
+            .record(bytes);
+    }
+
+    /**
+     * 统计一条语音记录的处理结果
+     *
+     * @param mode 处理方式：sync（/recognize、/save）或async（/upload流水线）
+     * @param outcome 结果：done、failed、no_speech或duplicate（复用已处理过的同一段录音）
+     */
+    public void recordOutcome(String mode, String outcome) {
+        records.computeIfAbsent(mode + "|" + outcome, k -> Counter.builder("wiztip.pipeline.records")
+                .description("语音记录处理结果")
+                .tag("mode", mode)
+                .tag("outcome", outcome)
+                .register(meterRegistry))
+            .increment();
+    }
+
+    /**
+     * 可抛出受检异常的阶段逻辑
+     *
+     * @param <T> 返回值类型
+     * @param <E> 异常类型
+     */
+    @FunctionalInterface
+    public interface StageCall<T, E extends Exception> {
+        T call() throws E;
+    }
+}
@@ -0,0 +1,27 @@
+package com.wiztip.repository;
+
+import com.wiztip.entity.AudioContent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+/**
+ * 音频内容索引数据访问层
+ * 
+ * 提供对audio_content表的CRUD操作，按用户和音频摘要查找已处理过的录音
+ * 
+ * @author Wiztip Team
+ */
+@Repository
+public interface AudioContentRepository extends JpaRepository<AudioContent, Long> {
+
+    /**
+     * 查询用户上传过的同一段音频
+     * 
+     * @param userId 用户ID
+     * @param sha256 音频摘要
+     * @return 内容索引，未上传过时为空
+     */
+    Optional<AudioContent> findByUserIdAndSha256(String userId, String sha256);
+}
@@ -4,14 +4,26 @@ import com.wiztip.entity.DailySummary;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.Optional;
+
 /**
  * 每日总结数据访问层
  * 
  * 提供对daily_summary表的CRUD操作
- * 继承JpaRepository获得基础的数据库操作方法
+ * 继承JpaRepository获得基础的数据库操作方法，并支持按用户和日期查询
  * 
  * @author Wiztip Team
  */
 @Repository
 public interface DailySummaryRepository extends JpaRepository<DailySummary, Long> {
+
+    /**
+     * 查询用户某天的总结（草稿或定稿）
+     * 
+     * @param userId 用户ID
+     * @param date 日期
+     * @return 总结，尚未生成时为空
+     */
+    Optional<DailySummary> findByUserIdAndDate(String userId, LocalDate date);
 }
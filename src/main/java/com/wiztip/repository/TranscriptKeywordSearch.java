@@ -0,0 +1,36 @@
+package com.wiztip.repository;
+
+import com.wiztip.entity.VoiceTranscript;
+
+import java.util.List;
+
+/**
+ * 转写文本关键词检索（VoiceTranscriptRepository的自定义片段，实现见TranscriptKeywordSearchImpl）
+ *
+ * 查询词个数不固定，SQL按查询词动态拼接：两个字及以上的查询词走transcript_text上的ngram全文索引，
+ * 单字查询词用LOCATE在同一用户的结果中确认
+ *
+ * @author Wiztip Team
+ */
+public interface TranscriptKeywordSearch {
+
+    /**
+     * 统计包含所有查询词的转写记录数
+     *
+     * @param userId 用户ID
+     * @param terms 查询词（非空，只含字母和数字，见Highlighter.terms()）
+     * @return 命中总数
+     */
+    long countByKeywords(String userId, List<String> terms);
+
+    /**
+     * 分页查询包含所有查询词的转写记录
+     *
+     * @param userId 用户ID
+     * @param terms 查询词（非空，只含字母和数字，见Highlighter.terms()）
+     * @param offset 跳过的条数
+     * @param limit 返回的最大条数
+     * @return 按时间从新到旧排列的转写记录
+     */
+    List<VoiceTranscript> findByKeywords(String userId, List<String> terms, int offset, int limit);
+}
@@ -0,0 +1,84 @@
+package com.wiztip.repository;
+
+import com.wiztip.entity.VoiceTranscript;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+
+import java.util.List;
+
+/**
+ * 转写文本关键词检索的实现
+ *
+ * - 两个字及以上的查询词拼成一个布尔模式的全文检索条件：+"词1" +"词2"，
+ *   ngram分词（ngram_token_size=2）下短语匹配要求各二元组连续出现，即查询词在原文中连续出现
+ * - 单字查询词没有二元组，用LOCATE确认（大小写、全角半角按列的排序规则比较）；
+ *   全部为单字时只按user_id过滤后逐行确认
+ *
+ * 全文索引和数据同在MySQL中，保存转写的事务提交后所有节点立即可查
+ *
+ * @author Wiztip Team
+ */
+public class TranscriptKeywordSearchImpl implements TranscriptKeywordSearch {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public long countByKeywords(String userId, List<String> terms) {
+        Query query = entityManager.createNativeQuery("SELECT COUNT(*) FROM voice_transcript" + where(terms));
+        bind(query, userId, terms);
+        return ((Number) query.getSingleResult()).longValue();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<VoiceTranscript> findByKeywords(String userId, List<String> terms, int offset, int limit) {
+        Query query = entityManager.createNativeQuery(
+            "SELECT * FROM voice_transcript" + where(terms) + " ORDER BY create_time DESC, id DESC",
+            VoiceTranscript.class);
+        bind(query, userId, terms);
+        query.setFirstResult(offset);
+        query.setMaxResults(limit);
+        return query.getResultList();
+    }
+
+    private static String where(List<String> terms) {
+        StringBuilder sql = new StringBuilder(" WHERE user_id = :userId");
+        if (!against(terms).isEmpty()) {
+            sql.append(" AND MATCH(transcript_text) AGAINST(:against IN BOOLEAN MODE)");
+        }
+        for (int i = 0; i < terms.size(); i++) {
+            if (terms.get(i).length() == 1) {
+                sql.append(" AND LOCATE(:t").append(i).append(", transcript_text) > 0");
+            }
+        }
+        return sql.toString();
+    }
+
+    private static void bind(Query query, String userId, List<String> terms) {
+        query.setParameter("userId", userId);
+        String against = against(terms);
+        if (!against.isEmpty()) {
+            query.setParameter("against", against);
+        }
+        for (int i = 0; i < terms.size(); i++) {
+            if (terms.get(i).length() == 1) {
+                query.setParameter("t" + i, terms.get(i));
+            }
+        }
+    }
+
+    /**
+     * 布尔模式检索串：每个多字查询词作为必须出现的短语（查询词只含字母数字，无需转义）
+     */
+    private static String against(List<String> terms) {
+        StringBuilder sb = new StringBuilder();
+        for (String term : terms) {
+            if (term.length() > 1) {
+                sb.append(sb.length() == 0 ? "" : " ").append("+\"").append(term).append('"');
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,13 @@
+package com.wiztip.repository;
+
+/**
+ * 转写记录的轻量投影（不含向量），用于批量读取转写文本
+ *
+ * @param id 转写记录ID
+ * @param userId 用户ID
+ * @param text 转写文本
+ *
+ * @author Wiztip Team
+ */
+public record TranscriptRow(Long id, String userId, String text) {
+}
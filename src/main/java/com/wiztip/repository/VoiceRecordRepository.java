@@ -4,14 +4,25 @@ import com.wiztip.entity.VoiceRecord;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 /**
  * 语音记录数据访问层
  * 
  * 提供对voice_record表的CRUD操作
  * 继承JpaRepository获得基础的数据库操作方法
+ * 支持按处理状态查询，用于异步流水线重启后恢复未完成的任务
  * 
  * @author Wiztip Team
  */
 @Repository
 public interface VoiceRecordRepository extends JpaRepository<VoiceRecord, Long> {
+
+    /**
+     * 查询指定处理状态的所有记录
+     * 
+     * @param status 状态码（见RecordStatus）
+     * @return 记录列表
+     */
+    List<VoiceRecord> findByStatus(Integer status);
 }
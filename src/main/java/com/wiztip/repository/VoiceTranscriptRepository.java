@@ -1,40 +1,119 @@
 package com.wiztip.repository;
 
 import com.wiztip.entity.VoiceTranscript;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * 语音转写记录数据访问层
  * 
  * 提供对voice_transcript表的CRUD操作和自定义查询
- * 支持查询所有用户ID和指定用户当日的转写文本
+ * 支持按时间范围分页读取转写文本、按用户读取转写文本、按主键分批读取向量、按关键词检索（见TranscriptKeywordSearch）
  * 
  * @author Wiztip Team
  */
 @Repository
-public interface VoiceTranscriptRepository extends JpaRepository<VoiceTranscript, Long> {
+public interface VoiceTranscriptRepository extends JpaRepository<VoiceTranscript, Long>, TranscriptKeywordSearch {
 
     /**
-     * 查询所有不重复的用户ID
-     * 用于定时任务遍历所有用户生成总结
+     * 按(user_id, create_time, id)键集分页读取时间范围内、某个用户分区的转写
+     * 用于生成每日总结：每页一次短查询，读完即释放连接，由调用方按用户分组；
+     * 已汇总的转写只返回标记不返回文本（草稿已是最新的用户也要读到，以便定稿）
      * 
-     * @return 用户ID列表
+     * 用户按 CRC32(user_id) MOD partitions 划分分区，各分区可在不同节点并行处理；
+     * 时间范围为左闭右开 [from, to)，按(user_id, create_time, id)索引顺序读取，无需排序；
+     * 下一页从上一页最后一行之后开始（首页传空字符串、from和0）
+     * 
+     * @param from 起始时间（含）
+     * @param to 结束时间（不含）
+     * @param partition 分区号（0 ~ partitions-1）
+     * @param partitions 分区总数
+     * @param afterUser 上一页最后一行的用户ID
+     * @param afterTime 上一页最后一行的创建时间
+     * @param afterId 上一页最后一行的ID
+     * @param limit 每页行数
+     * @return 每行为 [id, user_id, create_time, summarized, transcript_text（已汇总时为null）]
      */
-    @Query("SELECT DISTINCT v.userId FROM VoiceTranscript v")
-    List<String> findAllUserIds();
+    @Query(value = "SELECT id, user_id, create_time, summarized, IF(summarized = 0, transcript_text, NULL) " +
+                   "FROM voice_transcript " +
+                   "WHERE create_time >= :from AND create_time < :to " +
+                   "AND MOD(CRC32(user_id), :partitions) = :partition " +
+                   "AND (user_id > :afterUser OR (user_id = :afterUser AND (create_time > :afterTime " +
+                   "OR (create_time = :afterTime AND id > :afterId)))) " +
+                   "ORDER BY user_id, create_time, id LIMIT :limit",
+           nativeQuery = true)
+    List<Object[]> findTextsPage(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+                                        @Param("partition") int partition, @Param("partitions") int partitions,
+                                        @Param("afterUser") String afterUser,
+                                        @Param("afterTime") LocalDateTime afterTime,
+                                        @Param("afterId") long afterId, @Param("limit") int limit);
 
     /**
-     * 查询指定用户当天的所有转写文本
-     * 用于生成每日总结时获取当天的所有语音内容
+     * 查询用户某段时间内尚未汇总的转写文本
+     * 用于增量更新每日总结草稿，以及定稿保存冲突后重新读取，可使用(user_id, create_time, id)索引
      * 
      * @param userId 用户ID
-     * @return 当天的转写文本列表
+     * @param from 起始时间（含）
+     * @param to 结束时间（不含）
+     * @return 按时间顺序排列的转写文本
+     */
+    @Query("SELECT new com.wiztip.repository.TranscriptRow(v.id, v.userId, v.transcriptText) FROM VoiceTranscript v " +
+           "WHERE v.userId = :userId AND v.createTime >= :from AND v.createTime < :to AND v.summarized = false " +
+           "ORDER BY v.createTime, v.id")
+    List<TranscriptRow> findUnsummarizedTexts(@Param("userId") String userId, @Param("from") LocalDateTime from,
+                                              @Param("to") LocalDateTime to);
+
+    /**
+     * 标记转写已汇总进每日总结
+     * 须与总结的保存在同一个事务中执行；已被标记的行不计入更新行数
+     * 
+     * @param ids 转写记录ID
+     * @return 更新的行数（小于ids的个数说明部分转写已被其他更新汇总）
+     */
+    @Modifying
+    @Query("UPDATE VoiceTranscript v SET v.summarized = true WHERE v.id IN :ids AND v.summarized = false")
+    int markSummarized(@Param("ids") List<Long> ids);
+
+    /**
+     * 查询语音记录对应的转写结果
+     * 用于异步任务的结果查询
+     * 
+     * @param recordId 语音记录ID
+     * @return 转写记录，尚未生成时为空
+     */
+    Optional<VoiceTranscript> findFirstByRecordId(Long recordId);
+
+    /**
+     * 按主键分批读取向量（不加载转写文本）
+     * 用于启动时构建语义检索索引
+     * 
+     * @param afterId 上一批最后一条的ID（首批传0）
+     * @param pageable 每批条数
+     * @return 每行为 [id, userId, embedding(float[])]
+     */
+    @Query("SELECT v.id, v.userId, v.embedding FROM VoiceTranscript v " +
+           "WHERE v.id > :afterId AND v.embedding IS NOT NULL ORDER BY v.id")
+    List<Object[]> findEmbeddingsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * 分批读取某个时刻之后创建的向量（不加载转写文本）
+     * 用于各节点把其他节点新保存的转写同步进语义检索索引，可使用(create_time, user_id)索引
+     * 
+     * @param since 起始时间（含）
+     * @param afterId 上一批最后一条的ID（首批传0）
+     * @param pageable 每批条数
+     * @return 每行为 [id, userId, embedding(float[])]
      */
-    @Query("SELECT v.transcriptText FROM VoiceTranscript v WHERE v.userId = :userId AND DATE(v.createTime) = CURRENT_DATE")
-    List<String> findTodayTextsByUser(@Param("userId") String userId);
+    @Query("SELECT v.id, v.userId, v.embedding FROM VoiceTranscript v " +
+           "WHERE v.createTime >= :since AND v.id > :afterId AND v.embedding IS NOT NULL ORDER BY v.id")
+    List<Object[]> findEmbeddingsSince(@Param("since") LocalDateTime since, @Param("afterId") Long afterId,
+                                       Pageable pageable);
 }
@@ -0,0 +1,141 @@
+package com.wiztip.resilience;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 自适应并发限制（AIMD）
+ *
+ * 限制同时在途的上游请求数，超出时立即拒绝而不是排队等待：上游变慢时请求线程不会在连接池或锁上越积越多，
+ * 调用方可以马上向客户端返回"繁忙"。并发上限根据上游的表现自动调整：
+ * - 请求失败（超时、限流、5xx）或耗时超过latencyThreshold时视为拥塞，上限乘以backoffRatio（乘性减）
+ * - 请求正常完成且在途数已达到上限的一半时，上限加1（加性增）；上游空闲时上限不增长，避免虚高
+ * - 上限始终在 [minLimit, maxLimit] 之间
+ *
+ * 用法：
+ * <pre>
+ * AdaptiveLimiter.Permit permit = limiter.tryAcquire();
+ * if (permit == null) { 拒绝 }
+ * try { 调用上游; permit.success(); } catch (上游故障) { permit.dropped(); }
+ * </pre>
+ * 每个Permit必须以success、dropped或ignore之一结束，否则在途数不会释放
+ *
+ * 线程安全
+ *
+ * @author Wiztip Team
+ */
+public class AdaptiveLimiter {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final long latencyThresholdNanos;
+
+    /** 当前并发上限（受this锁保护） */
+    private double limit;
+
+    /** 当前在途请求数（受this锁保护） */
+    private int inFlight;
+
+    /**
+     * @param initialLimit 初始并发上限
+     * @param minLimit 并发上限的下限
+     * @param maxLimit 并发上限的上限
+     * @param backoffRatio 拥塞时上限的缩减比例（0~1）
+     * @param latencyThresholdMs 单次请求超过该耗时（毫秒）视为拥塞
+     */
+    public AdaptiveLimiter(int initialLimit, int minLimit, int maxLimit, double backoffRatio, long latencyThresholdMs) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("并发上限范围无效: [" + minLimit + ", " + maxLimit + "]");
+        }
+        if (backoffRatio <= 0 || backoffRatio >= 1) {
+            throw new IllegalArgumentException("backoffRatio必须在0~1之间: " + backoffRatio);
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.latencyThresholdNanos = TimeUnit.MILLISECONDS.toNanos(latencyThresholdMs);
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    /**
+     * 尝试获取一个并发许可，不等待
+     *
+     * @return 许可；在途数已达上限时返回null
+     */
+    public synchronized Permit tryAcquire() {
+        if (inFlight >= (int) limit) {
+            return null;
+        }
+        inFlight++;
+        return new Permit(System.nanoTime());
+    }
+
+    /**
+     * @return 当前并发上限
+     */
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    /**
+     * @return 当前在途请求数
+     */
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    private synchronized void release(long rttNanos, boolean dropped, boolean sample) {
+        int observed = inFlight;
+        inFlight--;
+        if (!sample) {
+            return;
+        }
+        if (dropped || rttNanos > latencyThresholdNanos) {
+            limit = Math.max(minLimit, limit * backoffRatio);
+        } else if (observed * 2 >= (int) limit) {
+            limit = Math.min(maxLimit, limit + 1);
+        }
+    }
+
+    /**
+     * 并发许可
+     */
+    public final class Permit {
+
+        private final long start;
+        private boolean released;
+
+        private Permit(long start) {
+            this.start = start;
+        }
+
+        /**
+         * 上游正常完成（耗时从获取许可时算起）
+         */
+        public void success() {
+            finish(false, true);
+        }
+
+        /**
+         * 上游故障（超时、限流、5xx等），按拥塞处理
+         */
+        public void dropped() {
+            finish(true, true);
+        }
+
+        /**
+         * 释放许可但不参与上限调整（如请求本身不合法、调用方在发出请求前放弃）
+         */
+        public void ignore() {
+            finish(false, false);
+        }
+
+        private void finish(boolean dropped, boolean sample) {
+            if (released) {
+                return;
+            }
+            released = true;
+            release(System.nanoTime() - start, dropped, sample);
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.wiztip.resilience;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 熔断器
+ *
+ * 按最近windowSize次调用的结果统计失败率：
+ * - 关闭（CLOSED）：正常放行；窗口内至少minimumCalls次调用且失败率达到failureRateThreshold时打开
+ * - 打开（OPEN）：所有调用立即拒绝，不再访问上游；openDuration后进入半开
+ * - 半开（HALF_OPEN）：只放行halfOpenCalls次试探调用，全部成功则关闭，任一失败则重新打开
+ *
+ * 只有上游故障（超时、限流、5xx）应记为失败；请求本身不合法等调用方原因的错误不应计入
+ *
+ * 线程安全
+ *
+ * @author Wiztip Team
+ */
+public class CircuitBreaker {
+
+    /** 熔断器状态 */
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int windowSize;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long openNanos;
+    private final int halfOpenCalls;
+
+    /** 最近调用结果的环形缓冲区，true为失败（以下字段均受this锁保护） */
+    private final boolean[] window;
+    private int position;
+    private int recorded;
+    private int failures;
+
+    private State state = State.CLOSED;
+    private long openedAt;
+    private int halfOpenPermits;
+    private int halfOpenSuccesses;
+
+    /**
+     * @param windowSize 统计失败率的调用次数
+     * @param minimumCalls 计算失败率所需的最少调用次数
+     * @param failureRatePercent 打开熔断的失败率（百分比）
+     * @param openSeconds 打开状态的持续时间（秒）
+     * @param halfOpenCalls 半开状态放行的试探调用次数
+     */
+    public CircuitBreaker(int windowSize, int minimumCalls, int failureRatePercent, int openSeconds, int halfOpenCalls) {
+        if (windowSize < 1 || minimumCalls < 1 || halfOpenCalls < 1) {
+            throw new IllegalArgumentException("熔断器参数必须大于0");
+        }
+        this.windowSize = windowSize;
+        this.minimumCalls = Math.min(minimumCalls, windowSize);
+        this.failureRateThreshold = failureRatePercent / 100.0;
+        this.openNanos = TimeUnit.SECONDS.toNanos(openSeconds);
+        this.halfOpenCalls = halfOpenCalls;
+        this.window = new boolean[windowSize];
+    }
+
+    /**
+     * 判断是否放行本次调用
+     *
+     * 放行后必须调用onSuccess、onFailure或onIgnored之一报告结果
+     *
+     * @return 放行时为true
+     */
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (System.nanoTime() - openedAt < openNanos) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+            halfOpenPermits = 0;
+            halfOpenSuccesses = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (halfOpenPermits >= halfOpenCalls) {
+                return false;
+            }
+            halfOpenPermits++;
+        }
+        return true;
+    }
+
+    /**
+     * 报告一次成功调用
+     */
+    public synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            if (++halfOpenSuccesses >= halfOpenCalls) {
+                close();
+            }
+            return;
+        }
+        record(false);
+    }
+
+    /**
+     * 报告一次上游故障
+     */
+    public synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            open();
+            return;
+        }
+        if (state == State.CLOSED) {
+            record(true);
+            if (recorded >= minimumCalls && failures >= failureRateThreshold * recorded) {
+                open();
+            }
+        }
+    }
+
+    /**
+     * 报告一次不计入统计的调用（如请求本身不合法），归还半开状态的试探名额
+     */
+    public synchronized void onIgnored() {
+        if (state == State.HALF_OPEN && halfOpenPermits > 0) {
+            halfOpenPermits--;
+        }
+    }
+
+    /**
+     * @return 当前状态（打开状态超时后在下一次tryAcquire时才进入半开）
+     */
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * @return 打开状态的剩余时间（毫秒），非打开状态时为0
+     */
+    public synchronized long remainingOpenMillis() {
+        if (state != State.OPEN) {
+            return 0;
+        }
+        return Math.max(0, TimeUnit.NANOSECONDS.toMillis(openNanos - (System.nanoTime() - openedAt)));
+    }
+
+    private void record(boolean failure) {
+        if (recorded == windowSize) {
+            if (window[position]) {
+                failures--;
+            }
+        } else {
+            recorded++;
+        }
+        window[position] = failure;
+        if (failure) {
+            failures++;
+        }
+        position = (position + 1) % windowSize;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = System.nanoTime();
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        position = 0;
+        recorded = 0;
+        failures = 0;
+    }
+}
@@ -0,0 +1,69 @@
+package com.wiztip.resilience;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 令牌桶限流器
+ *
+ * 令牌按permitsPerSecond匀速生成，最多累积burst个；
+ * 令牌不足时调用方预支令牌并按欠额等待，多个线程按到达顺序依次错开，整体速率不超过上限
+ *
+ * 线程安全
+ *
+ * @author Wiztip Team
+ */
+public class RateLimiter {
+
+    /** 每个令牌的生成间隔（纳秒） */
+    private final double nanosPerPermit;
+
+    /** 令牌桶容量 */
+    private final double capacity;
+
+    /** 当前令牌数（可为负，表示已被预支） */
+    private double tokens;
+
+    /** 上次补充令牌的时间（纳秒） */
+    private long lastRefill;
+
+    /**
+     * @param permitsPerSecond 每秒生成的令牌数
+     * @param burst 允许的突发数（令牌桶容量）
+     */
+    public RateLimiter(double permitsPerSecond, int burst) {
+        if (permitsPerSecond <= 0) {
+            throw new IllegalArgumentException("permitsPerSecond必须大于0: " + permitsPerSecond);
+        }
+        this.nanosPerPermit = TimeUnit.SECONDS.toNanos(1) / permitsPerSecond;
+        this.capacity = Math.max(1, burst);
+        this.tokens = this.capacity;
+        this.lastRefill = System.nanoTime();
+    }
+
+    /**
+     * 获取一个令牌，必要时阻塞等待
+     *
+     * @return 实际等待的时间（纳秒）
+     * @throws InterruptedException 等待被中断
+     */
+    public long acquire() throws InterruptedException {
+        long waitNanos = reserve();
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+        return waitNanos;
+    }
+
+    /**
+     * 预支一个令牌
+     *
+     * @return 需要等待的时间（纳秒），令牌充足时为0
+     */
+    private synchronized long reserve() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefill) / nanosPerPermit);
+        lastRefill = now;
+        tokens -= 1;
+        return tokens >= 0 ? 0 : (long) (-tokens * nanosPerPermit);
+    }
+}
@@ -14,6 +14,9 @@ import org.springframework.context.annotation.Configuration;
  * 配置每日总结任务的Job和Trigger
  * 默认配置为每天23:00执行总结任务
  * 
+ * 调度器使用JDBC集群模式（见application.yml的spring.quartz），
+ * 多个副本中同一次触发只会由一个节点执行
+ * 
  * @author Wiztip Team
  */
 @Configuration
@@ -24,6 +27,7 @@ public class QuartzConfig {
      * 
      * JobDetail定义了要执行的任务类（SummaryJob）
      * storeDurably()表示即使没有Trigger关联也保留Job定义
+     * requestRecovery()表示执行节点宕机时由其他节点重新执行
      * 
      * @return JobDetail实例
      */
@@ -32,6 +36,7 @@ public class QuartzConfig {
         return JobBuilder.newJob(SummaryJob.class)
                 .withIdentity("dailySummaryJob")
                 .storeDurably()
+                .requestRecovery()
                 .build();
     }
 
@@ -45,12 +50,15 @@ public class QuartzConfig {
      * - 秒 分 时 日 月 周
      * - 0 0 23 * * ? = 每天23:00:00
      * 
+     * 所有节点都停机错过触发时，恢复后立即补执行一次
+     * 
      * @return Trigger实例
      */
     @Bean
     public Trigger summaryJobTrigger() {
         // Cron表达式：每天23:00执行
-        CronScheduleBuilder scheduleBuilder = CronScheduleBuilder.cronSchedule("0 0 23 * * ?");
+        CronScheduleBuilder scheduleBuilder = CronScheduleBuilder.cronSchedule("0 0 23 * * ?")
+                .withMisfireHandlingInstructionFireAndProceed();
         return TriggerBuilder.newTrigger()
                 .forJob(summaryJobDetail())
                 .withIdentity("dailySummaryTrigger")
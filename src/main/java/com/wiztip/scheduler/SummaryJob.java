@@ -1,46 +1,159 @@
 package com.wiztip.scheduler;
 
+import com.wiztip.config.WiztipProperties;
+import org.quartz.DisallowConcurrentExecution;
 import org.quartz.Job;
+import org.quartz.JobDataMap;
+import org.quartz.JobBuilder;
+import org.quartz.JobDetail;
 import org.quartz.JobExecutionContext;
 import org.quartz.JobExecutionException;
+import org.quartz.JobKey;
+import org.quartz.Scheduler;
+import org.quartz.SchedulerException;
+import org.quartz.SimpleScheduleBuilder;
+import org.quartz.Trigger;
+import org.quartz.TriggerBuilder;
+import org.quartz.TriggerKey;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
-import com.wiztip.service.LlmSummaryService;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
 
 /**
  * 每日总结定时任务
  * 
  * 实现Quartz的Job接口，定义定时任务的执行逻辑
- * 每天23:00自动触发，为所有用户生成当日语音内容的智能总结
+ * 每天23:00自动触发，为所有用户定稿当日语音内容的智能总结
+ * （白天已由SummaryDraftUpdater增量更新草稿，这里只需定稿和补齐）
+ * 
+ * 本任务只负责拆分：将用户按哈希划分为summaryPartitions个分区，
+ * 每个分区注册为一个立即执行的SummaryPartitionJob。Quartz集群中各节点从共享的作业表中认领分区任务，
+ * 总结生成随副本数水平扩展
+ * 
+ * 分区任务以"日期+分区号"命名，重复触发（如错过触发后补执行）不会重复注册；
+ * 注册失败（如作业表所在的数据库不可用）时，延迟summaryRetryDelayMinutes后为同一天重新运行本任务补注册，
+ * 最多运行summaryRetryAttempts次
  * 
  * @author Wiztip Team
  */
 @Component
+@DisallowConcurrentExecution
 public class SummaryJob implements Job {
 
+    private static final Logger log = LoggerFactory.getLogger(SummaryJob.class);
+
+    /** 分区任务所在的分组 */
+    static final String PARTITION_GROUP = "summary-partitions";
+
+    /** 总结日期（ISO格式，只记录在重新运行的触发器上） */
+    static final String KEY_DATE = "date";
+
+    /** 第几次运行（从1开始，只记录在重新运行的触发器上） */
+    static final String KEY_ATTEMPT = "attempt";
+
     @Autowired
-    private LlmSummaryService llmSummaryService;
+    private WiztipProperties wiztipProperties;
 
     /**
      * 定时任务执行方法
      * 
      * 由Quartz调度器按配置的Cron表达式自动触发
-     * 调用LlmSummaryService生成所有用户的每日总结
+     * 为计划触发时刻所在的那一天注册所有分区任务：错过触发后补执行或宕机恢复时，即使已过零点也仍总结原来那一天
+     * （重新运行时使用触发器上记录的日期）
      * 
      * @param context Job执行上下文
-     * @throws JobExecutionException 任务执行异常
+     * @throws JobExecutionException 注册失败（不立即重新执行，见scheduleRetry）
      */
     @Override
     public void execute(JobExecutionContext context) throws JobExecutionException {
-        System.out.println("SummaryJob triggered - 开始生成每日总结");
+        JobDataMap data = context.getMergedJobDataMap();
+        LocalDate date;
+        if (data.containsKey(KEY_DATE)) {
+            date = LocalDate.parse(data.getString(KEY_DATE));
+        } else {
+            Date fireTime = context.getScheduledFireTime();
+            date = (fireTime != null ? fireTime.toInstant() : Instant.now())
+                    .atZone(ZoneId.systemDefault()).toLocalDate();
+        }
+        int attempt = data.containsKey(KEY_ATTEMPT) ? data.getInt(KEY_ATTEMPT) : 1;
+        int partitions = Math.max(1, wiztipProperties.getLlm().getSummaryPartitions());
+        log.info("每日总结任务触发 date={} partitions={}", date, partitions);
+        
+        Scheduler scheduler = context.getScheduler();
+        int scheduled = 0;
+        try {
+            for (int p = 0; p < partitions; p++) {
+                JobKey key = JobKey.jobKey("summary-" + date + "-" + p, PARTITION_GROUP);
+                if (scheduler.checkExists(key)) {
+                    continue;
+                }
+                JobDetail job = JobBuilder.newJob(SummaryPartitionJob.class)
+                        .withIdentity(key)
+                        .usingJobData(SummaryPartitionJob.KEY_DATE, date.toString())
+                        .usingJobData(SummaryPartitionJob.KEY_PARTITION, p)
+                        .usingJobData(SummaryPartitionJob.KEY_PARTITIONS, partitions)
+                        // 执行节点宕机时由集群中其他节点重新执行
+                        .requestRecovery(true)
+                        .build();
+                Trigger trigger = TriggerBuilder.newTrigger()
+                        .withIdentity(key.getName(), PARTITION_GROUP)
+                        .startNow()
+                        .withSchedule(SimpleScheduleBuilder.simpleSchedule()
+                                // 线程池繁忙错过触发时，空闲后立即执行
+                                .withMisfireHandlingInstructionFireNow())
+                        .build();
+                scheduler.scheduleJob(job, trigger);
+                scheduled++;
+            }
+            log.info("每日总结分区任务已注册 date={} scheduled={}", date, scheduled);
+        } catch (SchedulerException e) {
+            log.error("每日总结分区任务注册失败 date={} attempt={}", date, attempt, e);
+            // 已注册的分区会正常执行；立即重新执行会在数据库不可用期间空转刷错误日志，改为稍后补注册剩余分区
+            scheduleRetry(context, date, attempt);
+            throw new JobExecutionException(e, false);
+        }
+    }
+
+    /**
+     * 为本任务注册一个延迟执行的触发器，稍后为同一天补注册分区任务
+     * 
+     * 数据库仍不可用时注册同样会失败，只记录错误；剩余分区需人工补跑
+     */
+    private void scheduleRetry(JobExecutionContext context, LocalDate date, int attempt) {
+        WiztipProperties.Llm cfg = wiztipProperties.getLlm();
+        if (attempt >= cfg.getSummaryRetryAttempts()) {
+            log.error("每日总结分区任务注册重试次数已用完 date={} attempts={}", date, attempt);
+            return;
+        }
+        JobKey jobKey = context.getJobDetail().getKey();
+        TriggerKey triggerKey = TriggerKey.triggerKey(jobKey.getName() + "-retry-" + date + "-" + attempt);
+        Trigger trigger = TriggerBuilder.newTrigger()
+                .withIdentity(triggerKey)
+                .forJob(jobKey)
+                .usingJobData(KEY_DATE, date.toString())
+                .usingJobData(KEY_ATTEMPT, attempt + 1)
+                .startAt(Date.from(Instant.now().plus(cfg.getSummaryRetryDelayMinutes(), ChronoUnit.MINUTES)))
+                .withSchedule(SimpleScheduleBuilder.simpleSchedule()
+                        // 线程池繁忙错过触发时，空闲后立即执行
+                        .withMisfireHandlingInstructionFireNow())
+                .build();
         try {
-            // 调用LLM服务生成所有用户的每日总结
-            llmSummaryService.generateDailySummaries();
-            System.out.println("SummaryJob completed - 每日总结生成完成");
-        } catch (Exception e) {
-            System.err.println("SummaryJob failed - 每日总结生成失败");
-            e.printStackTrace();
-            // 可以在这里添加告警通知逻辑
+            Scheduler scheduler = context.getScheduler();
+            if (scheduler.checkExists(triggerKey)) {
+                return;
+            }
+            scheduler.scheduleJob(trigger);
+            log.warn("每日总结分区任务稍后补注册 date={} attempt={} delayMinutes={}", date, attempt + 1,
+                cfg.getSummaryRetryDelayMinutes());
+        } catch (SchedulerException e) {
+            log.error("每日总结补注册触发器注册失败，剩余分区需人工补跑 date={}", date, e);
         }
     }
 }
@@ -0,0 +1,125 @@
+package com.wiztip.scheduler;
+
+import com.wiztip.config.WiztipProperties;
+import com.wiztip.service.LlmSummaryService;
+import org.quartz.Job;
+import org.quartz.JobDataMap;
+import org.quartz.JobExecutionContext;
+import org.quartz.JobExecutionException;
+import org.quartz.JobKey;
+import org.quartz.Scheduler;
+import org.quartz.SchedulerException;
+import org.quartz.SimpleScheduleBuilder;
+import org.quartz.Trigger;
+import org.quartz.TriggerBuilder;
+import org.quartz.TriggerKey;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+
+/**
+ * 每日总结分区任务
+ * 
+ * 由SummaryJob按分区注册，为 CRC32(user_id) MOD partitions = partition 的用户定稿当日总结
+ * 
+ * 任务声明了requestsRecovery：执行节点宕机时，集群中其他节点会重新执行该分区；
+ * 已定稿的用户会被跳过，重新执行只处理剩余用户
+ * 
+ * 运行结束后仍有失败或未完成（超时、中断）的用户时，为同一任务注册一个延迟summaryRetryDelayMinutes的触发器重新运行，
+ * 最多运行summaryRetryAttempts次；重新运行同样跳过已定稿的用户
+ * 
+ * @author Wiztip Team
+ */
+@Component
+public class SummaryPartitionJob implements Job {
+
+    private static final Logger log = LoggerFactory.getLogger(SummaryPartitionJob.class);
+
+    /** 总结日期（ISO格式） */
+    static final String KEY_DATE = "date";
+
+    /** 分区号 */
+    static final String KEY_PARTITION = "partition";
+
+    /** 分区总数 */
+    static final String KEY_PARTITIONS = "partitions";
+
+    /** 第几次运行（从1开始，记录在重新运行的触发器上） */
+    static final String KEY_ATTEMPT = "attempt";
+
+    @Autowired
+    private LlmSummaryService llmSummaryService;
+
+    @Autowired
+    private WiztipProperties wiztipProperties;
+
+    /**
+     * 定稿本分区用户的每日总结，有失败或未完成的用户时安排重新运行
+     * 
+     * @param context Job执行上下文
+     * @throws JobExecutionException 重新运行的触发器注册失败
+     */
+    @Override
+    public void execute(JobExecutionContext context) throws JobExecutionException {
+        JobDataMap data = context.getMergedJobDataMap();
+        LocalDate date = LocalDate.parse(data.getString(KEY_DATE));
+        int partition = data.getInt(KEY_PARTITION);
+        int partitions = data.getInt(KEY_PARTITIONS);
+        int attempt = data.containsKey(KEY_ATTEMPT) ? data.getInt(KEY_ATTEMPT) : 1;
+
+        log.info("每日总结分区任务触发 date={} partition={}/{} attempt={} recovering={}", date, partition, partitions,
+            attempt, context.isRecovering());
+        try {
+            LlmSummaryService.RunReport report = llmSummaryService.generateDailySummaries(date, partition, partitions);
+            if (report.failed() == 0 && report.unfinished() == 0) {
+                return;
+            }
+        } catch (Exception e) {
+            log.error("每日总结分区任务失败 date={} partition={}/{} attempt={}", date, partition, partitions, attempt, e);
+        }
+        scheduleRetry(context, date, partition, partitions, attempt);
+    }
+
+    /**
+     * 为本任务注册一个延迟执行的触发器，重新运行本分区
+     */
+    private void scheduleRetry(JobExecutionContext context, LocalDate date, int partition, int partitions,
+                               int attempt) throws JobExecutionException {
+        WiztipProperties.Llm cfg = wiztipProperties.getLlm();
+        if (attempt >= cfg.getSummaryRetryAttempts()) {
+            log.error("每日总结分区重试次数已用完，剩余用户不再处理 date={} partition={}/{} attempts={}", date, partition,
+                partitions, attempt);
+            return;
+        }
+        JobKey jobKey = context.getJobDetail().getKey();
+        TriggerKey triggerKey = TriggerKey.triggerKey(jobKey.getName() + "-retry-" + attempt, SummaryJob.PARTITION_GROUP);
+        Trigger trigger = TriggerBuilder.newTrigger()
+                .withIdentity(triggerKey)
+                .forJob(jobKey)
+                .usingJobData(KEY_ATTEMPT, attempt + 1)
+                .startAt(Date.from(Instant.now().plus(cfg.getSummaryRetryDelayMinutes(), ChronoUnit.MINUTES)))
+                .withSchedule(SimpleScheduleBuilder.simpleSchedule()
+                        // 线程池繁忙错过触发时，空闲后立即执行
+                        .withMisfireHandlingInstructionFireNow())
+                .build();
+        try {
+            Scheduler scheduler = context.getScheduler();
+            // 宕机恢复后重复执行同一次运行时，重新运行的触发器可能已经注册过
+            if (scheduler.checkExists(triggerKey)) {
+                return;
+            }
+            scheduler.scheduleJob(trigger);
+            log.warn("每日总结分区有失败或未完成的用户，稍后重新运行 date={} partition={}/{} attempt={} delayMinutes={}",
+                date, partition, partitions, attempt + 1, cfg.getSummaryRetryDelayMinutes());
+        } catch (SchedulerException e) {
+            log.error("每日总结分区重新运行注册失败 date={} partition={}/{}", date, partition, partitions, e);
+            throw new JobExecutionException(e, false);
+        }
+    }
+}
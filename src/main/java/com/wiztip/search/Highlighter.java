@@ -0,0 +1,159 @@
+package com.wiztip.search;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 关键词高亮
+ *
+ * 把查询文本拆成查询词，在原文中标出查询词的位置，
+ * 并截取第一个命中附近的片段，命中部分用{@code <em>}包裹，其余文本做HTML转义
+ *
+ * 只有字母和数字（含汉字）组成查询词，标点和空白是分隔符；英文不区分大小写，全角字母数字按半角处理，
+ * 与数据库检索（utf8mb4_0900_ai_ci排序规则）的匹配规则一致。折叠是逐字进行的，不改变文本长度，命中位置可直接用于高亮
+ *
+ * @author Wiztip Team
+ */
+public final class Highlighter {
+
+    private Highlighter() {
+    }
+
+    /**
+     * 查询词在原文中的所有命中区间
+     *
+     * @param text 原文
+     * @param terms 查询词（已折叠，见terms()）
+     * @return 按起始位置排序、互不重叠的 [start, end) 区间
+     */
+    public static List<int[]> ranges(String text, List<String> terms) {
+        boolean[] hit = new boolean[text.length()];
+        for (String term : terms) {
+            for (int i = indexOf(text, term, 0); i >= 0; i = indexOf(text, term, i + 1)) {
+                for (int j = i; j < i + term.length(); j++) {
+                    hit[j] = true;
+                }
+            }
+        }
+        List<int[]> ranges = new ArrayList<>();
+        for (int i = 0; i < hit.length; i++) {
+            if (hit[i]) {
+                int start = i;
+                while (i < hit.length && hit[i]) {
+                    i++;
+                }
+                ranges.add(new int[]{start, i});
+            }
+        }
+        return ranges;
+    }
+
+    /**
+     * 拆分并折叠查询文本
+     *
+     * @param query 查询文本
+     * @return 去重后的查询词（按出现顺序），没有字母数字时为空
+     */
+    public static List<String> terms(String query) {
+        Set<String> terms = new LinkedHashSet<>();
+        if (query == null) {
+            return List.of();
+        }
+        StringBuilder current = new StringBuilder();
+        for (int i = 0; i <= query.length(); i++) {
+            char c = i < query.length() ? fold(query.charAt(i)) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                current.append(c);
+            } else if (current.length() > 0) {
+                terms.add(current.toString());
+                current.setLength(0);
+            }
+        }
+        return new ArrayList<>(terms);
+    }
+
+    /**
+     * 截取第一个命中前后各context个字的片段并高亮其中的命中
+     *
+     * @param text 原文
+     * @param ranges 命中区间（见ranges()）
+     * @param context 命中前后保留的字数
+     * @return HTML片段，截断处以省略号表示
+     */
+    public static String snippet(String text, List<int[]> ranges, int context) {
+        int start = ranges.isEmpty() ? 0 : Math.max(0, ranges.get(0)[0] - context);
+        int end = ranges.isEmpty()
+            ? Math.min(text.length(), 2 * context)
+            : Math.min(text.length(), ranges.get(0)[1] + context);
+
+        StringBuilder sb = new StringBuilder(end - start + 32);
+        if (start > 0) {
+            sb.append('…');
+        }
+        int pos = start;
+        for (int[] r : ranges) {
+            if (r[0] >= end) {
+                break;
+            }
+            if (r[1] <= pos) {
+                continue;
+            }
+            escape(sb, text, pos, Math.max(pos, r[0]));
+            sb.append("<em>");
+            escape(sb, text, Math.max(pos, r[0]), Math.min(end, r[1]));
+            sb.append("</em>");
+            pos = Math.min(end, r[1]);
+        }
+        escape(sb, text, pos, end);
+        if (end < text.length()) {
+            sb.append('…');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 在原文中查找折叠后的查询词
+     */
+    private static int indexOf(String text, String term, int from) {
+        int last = text.length() - term.length();
+        outer:
+        for (int i = Math.max(0, from); i <= last; i++) {
+            for (int j = 0; j < term.length(); j++) {
+                if (fold(text.charAt(i + j)) != term.charAt(j)) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    /**
+     * 字符折叠：全角字母数字和标点转为半角、全角空格转为空格、字母转为小写
+     */
+    private static char fold(char c) {
+        if (c == '\u3000') {
+            return ' ';
+        }
+        if (c >= '\uFF01' && c <= '\uFF5E') {
+            c = (char) (c - 0xFEE0);
+        }
+        return Character.toLowerCase(c);
+    }
+
+    private static void escape(StringBuilder sb, String text, int from, int to) {
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '&' -> sb.append("&amp;");
+                case '<' -> sb.append("&lt;");
+                case '>' -> sb.append("&gt;");
+                case '"' -> sb.append("&quot;");
+                case '\'' -> sb.append("&#39;");
+                default -> sb.append(c);
+            }
+        }
+    }
+}
@@ -0,0 +1,380 @@
+package com.wiztip.search;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 内存HNSW（Hierarchical Navigable Small World）近似最近邻索引
+ *
+ * 按余弦相似度检索：向量写入时归一化，距离为 1 - 点积
+ *
+ * 结构：
+ * - 每个节点随机分配层数（按1/ln(M)指数衰减），高层稀疏、低层稠密
+ * - 查询从最高层入口点贪心下降，在第0层以efSearch宽度做束搜索
+ * - 邻居按启发式选择（优先保留方向分散的邻居），第0层最多2M个邻居，其余层最多M个
+ *
+ * 并发：读写锁保护，查询可并发执行，写入互斥；索引按用户分区，单个索引的写入竞争很小
+ *
+ * @author Wiztip Team
+ */
+public class HnswIndex {
+
+    /** 每层邻居数上限（第0层为2倍） */
+    private final int m;
+
+    /** 构建时的候选集宽度 */
+    private final int efConstruction;
+
+    /** 层数分布参数 1/ln(M) */
+    private final double levelMultiplier;
+
+    /** 节点列表，节点下标即内部编号 */
+    private final List<Node> nodes = new ArrayList<>();
+
+    /** 外部ID -> 内部编号 */
+    private final Map<Long, Integer> idToNode = new HashMap<>();
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /** 入口节点（最高层的节点），索引为空时为-1 */
+    private int entryPoint = -1;
+
+    /** 当前最高层 */
+    private int maxLevel = -1;
+
+    /**
+     * @param m 每层邻居数上限，常用16
+     * @param efConstruction 构建时的候选集宽度，常用100~200，越大召回越高、写入越慢
+     */
+    public HnswIndex(int m, int efConstruction) {
+        if (m < 2) {
+            throw new IllegalArgumentException("M不能小于2: " + m);
+        }
+        this.m = m;
+        this.efConstruction = Math.max(efConstruction, m);
+        this.levelMultiplier = 1.0 / Math.log(m);
+    }
+
+    /**
+     * 写入向量
+     *
+     * @param id 外部ID（如转写记录ID）
+     * @param vector 向量，维度需与索引中已有向量一致
+     * @return 写入成功返回true；ID已存在时忽略并返回false
+     */
+    public boolean add(long id, float[] vector) {
+        float[] v = normalize(vector);
+        lock.writeLock().lock();
+        try {
+            if (idToNode.containsKey(id)) {
+                return false;
+            }
+            if (!nodes.isEmpty() && nodes.get(0).vector.length != v.length) {
+                throw new IllegalArgumentException("向量维度不一致: " + v.length + " != " + nodes.get(0).vector.length);
+            }
+
+            int level = randomLevel();
+            int node = nodes.size();
+            nodes.add(new Node(id, v, level, m));
+            idToNode.put(id, node);
+
+            if (entryPoint < 0) {
+                entryPoint = node;
+                maxLevel = level;
+                return true;
+            }
+
+            // 1. 在高于新节点层数的各层贪心下降
+            int current = entryPoint;
+            for (int l = maxLevel; l > level; l--) {
+                current = greedyClosest(v, current, l);
+            }
+
+            // 2. 在新节点所在的各层搜索候选并双向连接
+            List<Scored> entries = List.of(new Scored(current, distance(v, nodes.get(current).vector)));
+            for (int l = Math.min(level, maxLevel); l >= 0; l--) {
+                List<Scored> candidates = searchLayer(v, entries, efConstruction, l);
+                List<Scored> selected = selectNeighbors(candidates, m);
+                for (Scored s : selected) {
+                    nodes.get(node).addNeighbor(l, s.node);
+                    connect(s.node, node, l);
+                }
+                entries = candidates;
+            }
+
+            if (level > maxLevel) {
+                entryPoint = node;
+                maxLevel = level;
+            }
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 检索最相似的k个向量
+     *
+     * @param query 查询向量
+     * @param k 返回数量
+     * @param efSearch 搜索宽度（不小于k），越大召回越高、越慢
+     * @return 按相似度降序排列的结果
+     */
+    public List<SearchHit> search(float[] query, int k, int efSearch) {
+        float[] q = normalize(query);
+        lock.readLock().lock();
+        try {
+            if (entryPoint < 0 || k <= 0) {
+                return List.of();
+            }
+            int current = entryPoint;
+            for (int l = maxLevel; l > 0; l--) {
+                current = greedyClosest(q, current, l);
+            }
+            List<Scored> candidates = searchLayer(q,
+                List.of(new Scored(current, distance(q, nodes.get(current).vector))), Math.max(efSearch, k), 0);
+
+            List<SearchHit> hits = new ArrayList<>(Math.min(k, candidates.size()));
+            for (int i = 0; i < candidates.size() && hits.size() < k; i++) {
+                Scored s = candidates.get(i);
+                hits.add(new SearchHit(nodes.get(s.node).id, 1f - s.distance));
+            }
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return 索引中的向量数
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return nodes.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @param id 外部ID
+     * @return 索引中是否已有该ID
+     */
+    public boolean contains(long id) {
+        lock.readLock().lock();
+        try {
+            return idToNode.containsKey(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 在指定层从起点出发贪心移动到离查询最近的节点
+     */
+    private int greedyClosest(float[] q, int start, int level) {
+        int current = start;
+        float currentDist = distance(q, nodes.get(current).vector);
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            Node n = nodes.get(current);
+            for (int i = 0; i < n.counts[level]; i++) {
+                int candidate = n.neighbors[level][i];
+                float d = distance(q, nodes.get(candidate).vector);
+                if (d < currentDist) {
+                    current = candidate;
+                    currentDist = d;
+                    improved = true;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * 在指定层做宽度为ef的束搜索
+     *
+     * @return 按距离升序排列的最多ef个候选
+     */
+    private List<Scored> searchLayer(float[] q, List<Scored> entries, int ef, int level) {
+        BitSet visited = new BitSet(nodes.size());
+        PriorityQueue<Scored> candidates = new PriorityQueue<>(Scored.NEAREST_FIRST);
+        PriorityQueue<Scored> results = new PriorityQueue<>(Scored.FARTHEST_FIRST);
+        for (Scored e : entries) {
+            visited.set(e.node);
+            candidates.add(e);
+            results.add(e);
+        }
+        while (results.size() > ef) {
+            results.poll();
+        }
+
+        while (!candidates.isEmpty()) {
+            Scored c = candidates.poll();
+            if (results.size() >= ef && c.distance > results.peek().distance) {
+                break;
+            }
+            Node n = nodes.get(c.node);
+            for (int i = 0; i < n.counts[level]; i++) {
+                int neighbor = n.neighbors[level][i];
+                if (visited.get(neighbor)) {
+                    continue;
+                }
+                visited.set(neighbor);
+                float d = distance(q, nodes.get(neighbor).vector);
+                if (results.size() < ef || d < results.peek().distance) {
+                    Scored s = new Scored(neighbor, d);
+                    candidates.add(s);
+                    results.add(s);
+                    if (results.size() > ef) {
+                        results.poll();
+                    }
+                }
+            }
+        }
+
+        List<Scored> sorted = new ArrayList<>(results);
+        sorted.sort(Scored.NEAREST_FIRST);
+        return sorted;
+    }
+
+    /**
+     * 启发式邻居选择
+     *
+     * 按距离从近到远遍历候选，只有当候选离目标比离所有已选邻居都近时才选入，
+     * 使邻居分布在不同方向上；数量不足时用被跳过的候选补齐
+     *
+     * @param candidates 按距离升序排列的候选
+     * @param max 最多选择的邻居数
+     */
+    private List<Scored> selectNeighbors(List<Scored> candidates, int max) {
+        if (candidates.size() <= max) {
+            return candidates;
+        }
+        List<Scored> selected = new ArrayList<>(max);
+        List<Scored> skipped = new ArrayList<>();
+        for (Scored c : candidates) {
+            if (selected.size() >= max) {
+                break;
+            }
+            float[] cv = nodes.get(c.node).vector;
+            boolean diverse = true;
+            for (Scored s : selected) {
+                if (distance(cv, nodes.get(s.node).vector) < c.distance) {
+                    diverse = false;
+                    break;
+                }
+            }
+            if (diverse) {
+                selected.add(c);
+            } else {
+                skipped.add(c);
+            }
+        }
+        for (int i = 0; i < skipped.size() && selected.size() < max; i++) {
+            selected.add(skipped.get(i));
+        }
+        return selected;
+    }
+
+    /**
+     * 将target加入from在指定层的邻居，超出上限时重新选择邻居
+     */
+    private void connect(int from, int target, int level) {
+        Node n = nodes.get(from);
+        int max = level == 0 ? 2 * m : m;
+        if (n.counts[level] < max) {
+            n.addNeighbor(level, target);
+            return;
+        }
+        List<Scored> candidates = new ArrayList<>(n.counts[level] + 1);
+        candidates.add(new Scored(target, distance(n.vector, nodes.get(target).vector)));
+        for (int i = 0; i < n.counts[level]; i++) {
+            int neighbor = n.neighbors[level][i];
+            candidates.add(new Scored(neighbor, distance(n.vector, nodes.get(neighbor).vector)));
+        }
+        candidates.sort(Scored.NEAREST_FIRST);
+        List<Scored> selected = selectNeighbors(candidates, max);
+        n.counts[level] = 0;
+        for (Scored s : selected) {
+            n.addNeighbor(level, s.node);
+        }
+    }
+
+    private int randomLevel() {
+        double r = 1.0 - ThreadLocalRandom.current().nextDouble();
+        return (int) Math.floor(-Math.log(r) * levelMultiplier);
+    }
+
+    /**
+     * 余弦距离（向量已归一化）
+     */
+    private static float distance(float[] a, float[] b) {
+        float dot = 0f;
+        for (int i = 0; i < a.length; i++) {
+            dot += a[i] * b[i];
+        }
+        return 1f - dot;
+    }
+
+    /**
+     * 返回归一化后的副本；零向量原样复制
+     */
+    private static float[] normalize(float[] v) {
+        double norm = 0;
+        for (float x : v) {
+            norm += (double) x * x;
+        }
+        float[] out = v.clone();
+        if (norm > 0) {
+            float inv = (float) (1.0 / Math.sqrt(norm));
+            for (int i = 0; i < out.length; i++) {
+                out[i] *= inv;
+            }
+        }
+        return out;
+    }
+
+    /**
+     * 索引节点
+     */
+    private static final class Node {
+        final long id;
+        final float[] vector;
+        /** 每层的邻居（内部编号） */
+        final int[][] neighbors;
+        /** 每层的邻居数 */
+        final int[] counts;
+
+        Node(long id, float[] vector, int level, int m) {
+            this.id = id;
+            this.vector = vector;
+            this.neighbors = new int[level + 1][];
+            this.counts = new int[level + 1];
+            for (int l = 0; l <= level; l++) {
+                neighbors[l] = new int[l == 0 ? 2 * m : m];
+            }
+        }
+
+        void addNeighbor(int level, int node) {
+            neighbors[level][counts[level]++] = node;
+        }
+    }
+
+    /**
+     * 带距离的候选节点
+     */
+    private record Scored(int node, float distance) {
+        static final Comparator<Scored> NEAREST_FIRST = Comparator.comparingDouble(Scored::distance);
+        static final Comparator<Scored> FARTHEST_FIRST = NEAREST_FIRST.reversed();
+    }
+}
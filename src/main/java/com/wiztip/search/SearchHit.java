@@ -0,0 +1,12 @@
+package com.wiztip.search;
+
+/**
+ * 向量检索结果
+ *
+ * @param id 外部ID（如转写记录ID）
+ * @param score 余弦相似度（-1~1，越大越相似）
+ *
+ * @author Wiztip Team
+ */
+public record SearchHit(long id, float score) {
+}
@@ -0,0 +1,74 @@
+package com.wiztip.service;
+
+/**
+ * 语音识别失败
+ *
+ * 取代原先以"ASR_ERROR: ..."开头的返回文本，调用方不会再把错误信息当作识别结果保存。
+ * 失败原因决定对客户端的HTTP状态码（见AsrExceptionHandler）以及是否计入上游故障（限流和熔断）
+ *
+ * @author Wiztip Team
+ */
+public class AsrException extends RuntimeException {
+
+    /**
+     * 失败原因
+     */
+    public enum Reason {
+        /** 本地并发已达上限，请求未发出即被拒绝 */
+        OVERLOADED(503, false, true),
+        /** 熔断器打开，请求未发出即被拒绝 */
+        CIRCUIT_OPEN(503, false, true),
+        /** NLS限流（HTTP 429或配额不足） */
+        THROTTLED(503, true, true),
+        /** NLS不可用（超时、连接失败、5xx、鉴权失败） */
+        UPSTREAM(502, true, true),
+        /** NLS拒绝了本次请求（音频或参数不合法），重试无效 */
+        REJECTED(422, false, false),
+        /** 音频格式不受支持 */
+        UNSUPPORTED_AUDIO(415, false, false),
+        /** 本地音频读取、规范化或切分失败 */
+        AUDIO_ERROR(500, false, false);
+
+        private final int httpStatus;
+        private final boolean upstreamFault;
+        private final boolean retryable;
+
+        Reason(int httpStatus, boolean upstreamFault, boolean retryable) {
+            this.httpStatus = httpStatus;
+            this.upstreamFault = upstreamFault;
+            this.retryable = retryable;
+        }
+
+        /** 返回给客户端的HTTP状态码 */
+        public int getHttpStatus() { return httpStatus; }
+
+        /** 是否为上游故障（计入并发上限调整和熔断统计） */
+        public boolean isUpstreamFault() { return upstreamFault; }
+
+        /** 客户端稍后重试是否可能成功 */
+        public boolean isRetryable() { return retryable; }
+    }
+
+    private final Reason reason;
+
+    /** 建议客户端重试的等待时间（秒），0表示不指定 */
+    private final long retryAfterSeconds;
+
+    public AsrException(Reason reason, String message) {
+        this(reason, message, 0, null);
+    }
+
+    public AsrException(Reason reason, String message, Throwable cause) {
+        this(reason, message, 0, cause);
+    }
+
+    public AsrException(Reason reason, String message, long retryAfterSeconds, Throwable cause) {
+        super(message, cause);
+        this.reason = reason;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public Reason getReason() { return reason; }
+
+    public long getRetryAfterSeconds() { return retryAfterSeconds; }
+}
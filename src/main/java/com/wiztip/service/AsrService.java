@@ -3,17 +3,35 @@ package com.wiztip.service;
 import com.wiztip.config.WiztipProperties;
 import com.wiztip.entity.VoiceRecord;
 import com.wiztip.entity.VoiceTranscript;
-import com.wiztip.repository.VoiceTranscriptRepository;
+import com.wiztip.metrics.PipelineMetrics;
+import com.wiztip.resilience.AdaptiveLimiter;
+import com.wiztip.resilience.CircuitBreaker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.hc.client5.http.classic.methods.HttpPost;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
-import org.apache.hc.client5.http.impl.classic.CloseableHttpResponse;
-import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.HttpEntity;
+import org.apache.hc.core5.http.io.entity.ByteArrayEntity;
+import org.apache.hc.core5.http.io.entity.EntityUtils;
+import org.apache.hc.core5.http.io.entity.InputStreamEntity;
 import org.apache.hc.core5.http.io.entity.StringEntity;
-import com.alibaba.nls.client.AccessToken;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 /**
  * 阿里云语音识别（ASR）服务
@@ -23,105 +41,90 @@ import com.alibaba.nls.client.AccessToken;
  * 
  * 认证方式：
  * - 使用AccessKeyId和AccessKeySecret动态获取Token
- * - Token自动缓存和刷新机制，避免频繁请求
+ * - Token的缓存和刷新由NlsTokenManager负责，避免频繁请求
+ * 
+ * 上游保护（配置见wiztip.resilience.asr）：
+ * - 自适应并发限制（AdaptiveLimiter）：在途请求达到上限时立即拒绝，NLS变慢时上限自动收缩，
+ *   请求线程不会堆积在NLS后面拖垮其他接口
+ * - 熔断（CircuitBreaker）：NLS持续故障时直接拒绝，不再等待超时
+ * 识别失败统一抛出AsrException（按原因区分限流、熔断、上游故障和请求被拒），不再返回错误文本；
+ * 本地音频文件在发出请求前打开，打不开时按AUDIO_ERROR失败，不计入上游故障
+ * 
+ * 日志只记录音频大小、耗时和识别文本长度，不输出识别文本和NLS原始响应；
+ * Token获取、识别请求和转写写库的耗时记录在wiztip.pipeline.stage指标中；
+ * 并发上限、在途数和熔断状态见wiztip.asr.limit、wiztip.asr.inflight、wiztip.asr.circuit.state，
+ * 被拒绝的请求计入wiztip.asr.rejected（reason=overloaded|circuit_open）
  * 
  * @author Wiztip Team
  */
 @Service
 public class AsrService {
 
+    private static final Logger log = LoggerFactory.getLogger(AsrService.class);
+
+    /** 错误日志中NLS响应内容的最大长度 */
+    private static final int MAX_LOGGED_BODY = 200;
+
     @Autowired
     private WiztipProperties wiztipProperties;
 
     @Autowired
-    private VoiceTranscriptRepository transcriptRepo;
+    private RecordWriter recordWriter;
+
+    /** NLS专用的连接池HTTP客户端（见HttpClientConfig） */
+    @Autowired
+    @Qualifier("asrHttpClient")
+    private CloseableHttpClient asrHttpClient;
+
+    /** NLS Token管理器（缓存、单飞刷新、后台提前刷新） */
+    @Autowired
+    private NlsTokenManager tokenManager;
+
+    @Autowired
+    private VectorSearchService vectorSearchService;
+
+
+    @Autowired
+    private SummaryDraftUpdater summaryDraftUpdater;
+
+    @Autowired
+    private PipelineMetrics metrics;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
 
     private final ObjectMapper mapper = new ObjectMapper();
-    
-    /** 阿里云NLS Token客户端 */
-    private AccessToken accessTokenClient = null;
-    
-    /** 缓存的NLS Token */
-    private String cachedToken = null;
-    
-    /** Token过期时间（毫秒） */
-    private long tokenExpireTime = 0;
+
+    /** NLS请求并发限制 */
+    private AdaptiveLimiter limiter;
+
+    /** NLS熔断器 */
+    private CircuitBreaker breaker;
+
+    private Counter overloadedRejections;
+    private Counter circuitOpenRejections;
 
     /**
-     * 获取或刷新NLS Token
-     * 
-     * 使用阿里云NLS SDK自动管理Token：
-     * 1. SDK会使用AccessKeyId和AccessKeySecret自动获取Token
-     * 2. Token会自动缓存和刷新
-     * 3. 无需手动配置Token
-     * 
-     * @return 有效的NLS Token
-     * @throws Exception Token获取失败时抛出异常
+     * 按配置创建并发限制和熔断器，并注册监控指标
      */
-    private String getToken() throws Exception {
-        long now = System.currentTimeMillis();
-        
-        // 1. 检查缓存的Token是否仍然有效
-        if (cachedToken != null && now < tokenExpireTime) {
-            return cachedToken;
-        }
-        
-        // 2. 使用阿里云NLS SDK获取Token
-        try {
-            // 初始化AccessToken客户端（如果还没有初始化）
-            if (accessTokenClient == null) {
-                System.out.println("初始化阿里云NLS Token客户端...");
-                accessTokenClient = new AccessToken(
-                    wiztipProperties.getAliyun().getAsr().getAccessKeyId(),
-                    wiztipProperties.getAliyun().getAsr().getAccessKeySecret()
-                );
-                System.out.println("NLS Token客户端初始化成功");
-            }
-            
-            // 获取Token
-            System.out.println("正在通过AppKey和AccessKey获取NLS Token...");
-            accessTokenClient.apply();
-            
-            String token = accessTokenClient.getToken();
-            long expireTime = accessTokenClient.getExpireTime();
-            
-            if (token == null || token.isEmpty()) {
-                throw new Exception("获取到的Token为空");
-            }
-            
-            // 缓存Token，设置为过期前5分钟刷新
-            cachedToken = token;
-            tokenExpireTime = expireTime * 1000L - 300000;
-            
-            System.out.println("✅ NLS Token获取成功！");
-            System.out.println("   Token: " + token.substring(0, Math.min(20, token.length())) + "...");
-            System.out.println("   过期时间: " + new java.util.Date(expireTime * 1000L));
-            
-            return cachedToken;
-            
-        } catch (Exception e) {
-            System.err.println("❌ 获取NLS Token失败: " + e.getMessage());
-            e.printStackTrace();
-            
-            // 提供详细的错误提示
-            String errorMsg = "\n" +
-                "========================================\n" +
-                "NLS Token获取失败\n" +
-                "========================================\n" +
-                "错误信息: " + e.getMessage() + "\n\n" +
-                "请检查以下配置：\n" +
-                "1. AccessKeyId 是否正确\n" +
-                "2. AccessKeySecret 是否正确\n" +
-                "3. AccessKey是否有NLS服务权限\n" +
-                "4. 网络是否能访问阿里云API\n\n" +
-                "当前配置：\n" +
-                "  AccessKeyId: " + wiztipProperties.getAliyun().getAsr().getAccessKeyId().substring(0, Math.min(8, wiztipProperties.getAliyun().getAsr().getAccessKeyId().length())) + "...\n" +
-                "  Region: cn-shanghai\n" +
-                "========================================\n";
-            
-            System.err.println(errorMsg);
-            throw new Exception("NLS Token获取失败: " + e.getMessage(), e);
-        }
+    @PostConstruct
+    public void init() {
+        WiztipProperties.Guard cfg = wiztipProperties.getResilience().getAsr();
+        limiter = new AdaptiveLimiter(cfg.getInitialLimit(), cfg.getMinLimit(), cfg.getMaxLimit(),
+            cfg.getBackoffRatio(), cfg.getLatencyThresholdMs());
+        breaker = new CircuitBreaker(cfg.getBreakerWindowSize(), cfg.getBreakerMinimumCalls(),
+            cfg.getBreakerFailureRatePercent(), cfg.getBreakerOpenSeconds(), cfg.getBreakerHalfOpenCalls());
+
+        Gauge.builder("wiztip.asr.limit", limiter, AdaptiveLimiter::getLimit)
+            .description("NLS请求并发上限").register(meterRegistry);
+        Gauge.builder("wiztip.asr.inflight", limiter, AdaptiveLimiter::getInFlight)
+            .description("NLS在途请求数").register(meterRegistry);
+        Gauge.builder("wiztip.asr.circuit.state", breaker, b -> b.getState().ordinal())
+            .description("NLS熔断状态：0-关闭，1-打开，2-半开").register(meterRegistry);
+        overloadedRejections = Counter.builder("wiztip.asr.rejected").tag("reason", "overloaded")
+            .description("未发出即被拒绝的NLS请求").register(meterRegistry);
+        circuitOpenRejections = Counter.builder("wiztip.asr.rejected").tag("reason", "circuit_open")
+            .description("未发出即被拒绝的NLS请求").register(meterRegistry);
     }
 
     /**
@@ -132,26 +135,109 @@ public class AsrService {
      * 
      * @param fileData 音频文件的字节数据
      * @param format 音频格式（如：wav、mp3、pcm等）
-     * @return 识别结果文本，失败时返回错误信息
+     * @return 识别结果文本
+     * @throws AsrException 识别失败
      */
     public String transcribeFromLocalFile(byte[] fileData, String format) {
+        return transcribeFromLocalFile(fileData, format, 16000);
+    }
+
+    /**
+     * 从内存中的音频数据进行语音识别（指定采样率）
+     * 
+     * 用于长音频切分后的片段识别，片段采样率与原音频一致
+     * 
+     * @param fileData 音频文件的字节数据
+     * @param format 音频格式（如：wav、mp3、pcm等）
+     * @param sampleRate 音频采样率（Hz）
+     * @return 识别结果文本
+     * @throws AsrException 识别失败
+     */
+    public String transcribeFromLocalFile(byte[] fileData, String format, int sampleRate) {
+        return transcribe(new ByteArrayEntity(fileData, ContentType.APPLICATION_OCTET_STREAM), format, sampleRate);
+    }
+
+    /**
+     * 从本地磁盘文件进行语音识别
+     * 
+     * 请求体直接从文件流式写出（固定大小缓冲区），
+     * 堆内存占用与音频大小和并发数无关
+     * 
+     * @param file 音频文件路径
+     * @param format 音频格式（如：wav、mp3、pcm等）
+     * @return 识别结果文本
+     * @throws AsrException 识别失败
+     */
+    public String transcribeFromLocalFile(Path file, String format) {
+        return transcribeFromLocalFile(file, format, 16000);
+    }
+
+    /**
+     * 从本地磁盘文件进行语音识别（指定采样率）
+     * 
+     * 文件在申请NLS并发许可之前打开：文件缺失或不可读是本地问题，按AUDIO_ERROR失败，
+     * 不能收缩NLS并发上限或计入熔断；打开后文件被删除也不影响读取
+     * 
+     * @param file 音频文件路径
+     * @param format 音频格式（如：wav、mp3、pcm等）
+     * @param sampleRate 音频采样率（Hz）
+     * @return 识别结果文本
+     * @throws AsrException 识别失败
+     */
+    public String transcribeFromLocalFile(Path file, String format, int sampleRate) {
+        InputStream in;
+        long size;
+        try {
+            in = Files.newInputStream(file);
+        } catch (IOException e) {
+            throw new AsrException(AsrException.Reason.AUDIO_ERROR, "音频文件读取失败: " + e.getMessage(), e);
+        }
+        try {
+            size = Files.size(file);
+        } catch (IOException e) {
+            closeQuietly(in);
+            throw new AsrException(AsrException.Reason.AUDIO_ERROR, "音频文件读取失败: " + e.getMessage(), e);
+        }
+        try {
+            return transcribe(new InputStreamEntity(in, size, ContentType.APPLICATION_OCTET_STREAM), format, sampleRate);
+        } finally {
+            closeQuietly(in);
+        }
+    }
+
+    private static void closeQuietly(InputStream in) {
+        try {
+            in.close();
+        } catch (IOException e) {
+            log.warn("音频文件关闭失败 error={}", e.getMessage());
+        }
+    }
+
+    /**
+     * 调用NLS一句话识别接口
+     * 
+     * @param audio 音频请求体
+     * @param format 音频格式
+     * @param sampleRate 音频采样率（Hz）
+     * @return 识别结果文本
+     * @throws AsrException 识别失败
+     */
+    private String transcribe(HttpEntity audio, String format, int sampleRate) {
         // 使用阿里云NLS一句话识别接口
-        String baseUrl = "https://nls-gateway-cn-shanghai.aliyuncs.com/stream/v1/asr";
+        String baseUrl = wiztipProperties.getAliyun().getAsr().getGatewayUrl();
+        long bytes = audio.getContentLength();
+        metrics.recordBytes(PipelineMetrics.ASR, bytes);
         
-        try (CloseableHttpClient client = HttpClients.createDefault()) {
+        long start = System.nanoTime();
+        String result = guarded(() -> {
             // 获取有效Token
-            String token = getToken();
+            String token = metrics.time(PipelineMetrics.NLS_TOKEN, tokenManager::getToken);
             
             // 构造完整URL（带查询参数）
-                String urlWithParams = baseUrl + String.format(
-                    "?appkey=%s&format=%s&sample_rate=16000&enable_intermediate_result=false&enable_punctuation_prediction=true&enable_inverse_text_normalization=true",
-                    wiztipProperties.getAliyun().getAsr().getAppKey(), format
-                );
-            
-            System.out.println("调用NLS一句话识别API: " + baseUrl);
-            System.out.println("AppKey: " + wiztipProperties.getAliyun().getAsr().getAppKey());
-            System.out.println("文件大小: " + fileData.length + " bytes");
-            System.out.println("音频格式: " + format);
+            String urlWithParams = baseUrl + String.format(
+                "?appkey=%s&format=%s&sample_rate=%d&enable_intermediate_result=false&enable_punctuation_prediction=true&enable_inverse_text_normalization=true",
+                wiztipProperties.getAliyun().getAsr().getAppKey(), format, sampleRate
+            );
             
             // 构造HTTP POST请求
             HttpPost post = new HttpPost(urlWithParams);
@@ -159,74 +245,166 @@ public class AsrService {
             post.setHeader("Content-Type", "application/octet-stream");
             
             // 设置音频数据为请求体
-            post.setEntity(new org.apache.hc.core5.http.io.entity.ByteArrayEntity(
-                fileData, org.apache.hc.core5.http.ContentType.APPLICATION_OCTET_STREAM
-            ));
+            post.setEntity(audio);
             
-            // 发送请求并解析响应
-            try (CloseableHttpResponse resp = client.execute(post)) {
-                int statusCode = resp.getCode();
-                String responseBody = new String(resp.getEntity().getContent().readAllBytes());
-                
-                System.out.println("NLS响应状态码: " + statusCode);
-                System.out.println("NLS响应内容: " + responseBody);
-                
-                if (statusCode != 200) {
-                    System.err.println("NLS识别失败，状态码: " + statusCode);
-                    return "ASR_ERROR: HTTP " + statusCode + " - " + responseBody;
-                }
-                
-                JsonNode node = mapper.readTree(responseBody);
-                
-                // 解析一句话识别的响应格式
-                // 标准格式: {"status": 20000000, "result": "识别文本"}
-                if (node.has("result")) {
-                    String result = node.get("result").asText();
-                    System.out.println("✅ 识别成功: " + result);
-                    return result;
-                }
-                
-                // 检查是否有错误信息
-                if (node.has("status")) {
-                    int status = node.get("status").asInt();
-                    if (status != 20000000) {
-                        String message = node.has("message") ? node.get("message").asText() : "未知错误";
-                        System.err.println("识别返回错误状态: " + status + ", 消息: " + message);
-                        return "ASR_ERROR: " + message;
-                    }
-                }
-                
-                // 尝试其他可能的字段
-                if (node.has("data")) {
-                    return node.get("data").toString();
-                }
-                
-                // 如果无法解析，返回原始响应
-                System.err.println("⚠️ 无法解析识别结果，返回原始响应");
-                return responseBody;
-                
+            // 发送请求并解析响应（连接在响应体读取完毕后自动归还连接池）
+            return metrics.time(PipelineMetrics.ASR, () -> asrHttpClient.execute(post, resp -> parseResponse(resp.getCode(),
+                EntityUtils.toString(resp.getEntity(), StandardCharsets.UTF_8))));
+        });
+        log.info("识别完成 format={} sampleRate={} bytes={} chars={} costMs={}", format, sampleRate, bytes,
+            result.length(), (System.nanoTime() - start) / 1_000_000);
+        return result;
+    }
+
+    /**
+     * 经过并发限制和熔断器调用NLS
+     * 
+     * 先申请并发许可，再检查熔断器，都通过后才发出请求；
+     * 结果按失败原因反馈给两者：上游故障（超时、限流、5xx）收缩并发上限并计入熔断统计，
+     * 请求被拒（音频不合法等）只释放许可
+     * 
+     * @param call NLS调用
+     * @return 调用结果
+     * @throws AsrException 被拒绝或调用失败
+     */
+    private <T> T guarded(PipelineMetrics.StageCall<T, Exception> call) {
+        AdaptiveLimiter.Permit permit = limiter.tryAcquire();
+        if (permit == null) {
+            overloadedRejections.increment();
+            throw new AsrException(AsrException.Reason.OVERLOADED,
+                "语音识别并发已达上限 limit=" + limiter.getLimit(), 1, null);
+        }
+        if (!breaker.tryAcquire()) {
+            permit.ignore();
+            circuitOpenRejections.increment();
+            throw new AsrException(AsrException.Reason.CIRCUIT_OPEN, "语音识别服务熔断中",
+                Math.max(1, (breaker.remainingOpenMillis() + 999) / 1000), null);
+        }
+        try {
+            T result = call.call();
+            permit.success();
+            breaker.onSuccess();
+            return result;
+        } catch (AsrException e) {
+            if (e.getReason().isUpstreamFault()) {
+                permit.dropped();
+                breaker.onFailure();
+            } else {
+                permit.ignore();
+                breaker.onIgnored();
             }
+            log.warn("NLS识别失败 reason={} error={}", e.getReason(), e.getMessage());
+            throw e;
         } catch (Exception e) {
-            System.err.println("❌ 本地文件识别异常: " + e.getMessage());
-            e.printStackTrace();
-            return "ASR_ERROR: " + e.getMessage();
+            if (e instanceof InterruptedException || e instanceof InterruptedIOException
+                    || Thread.currentThread().isInterrupted()) {
+                // 调用方取消（如长音频其他片段已失败），与NLS状态无关
+                Thread.currentThread().interrupt();
+                permit.ignore();
+                breaker.onIgnored();
+                throw new AsrException(AsrException.Reason.AUDIO_ERROR, "识别被中断", e);
+            }
+            // 超时、连接失败、Token获取失败、响应无法解析（本地文件已在调用前打开，这里只有上游问题）
+            permit.dropped();
+            breaker.onFailure();
+            log.warn("NLS请求异常 reason={} error={}", AsrException.Reason.UPSTREAM, e.toString());
+            throw new AsrException(AsrException.Reason.UPSTREAM, "语音识别请求失败: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 解析NLS一句话识别响应
+     * 
+     * 标准格式: {"status": 20000000, "result": "识别文本"}
+     * 
+     * @param statusCode HTTP状态码
+     * @param responseBody 响应内容
+     * @return 识别结果文本
+     * @throws AsrException HTTP错误、status不为20000000或响应中没有识别结果
+     * @throws IOException 响应不是合法的JSON
+     */
+    public String parseResponse(int statusCode, String responseBody) throws IOException {
+        if (statusCode != 200) {
+            throw new AsrException(reasonOfHttpStatus(statusCode),
+                "NLS返回HTTP " + statusCode + ": " + abbreviate(responseBody));
+        }
+        
+        JsonNode node = mapper.readTree(responseBody);
+        
+        // 解析一句话识别的响应格式
+        if (node.has("result")) {
+            return node.get("result").asText();
+        }
+        
+        // 检查是否有错误信息
+        if (node.has("status")) {
+            int status = node.get("status").asInt();
+            if (status != 20000000) {
+                String message = node.has("message") ? node.get("message").asText() : "未知错误";
+                throw new AsrException(reasonOfNlsStatus(status), "NLS识别失败 status=" + status + " message=" + message);
+            }
+        }
+        
+        // 尝试其他可能的字段
+        if (node.has("data")) {
+            return node.get("data").toString();
+        }
+        
+        // 没有识别结果字段：不能把原始响应当作转写文本保存
+        throw new AsrException(AsrException.Reason.UPSTREAM, "NLS响应缺少result字段: " + abbreviate(responseBody));
+    }
+
+    /**
+     * 按HTTP状态码区分失败原因
+     */
+    private static AsrException.Reason reasonOfHttpStatus(int statusCode) {
+        if (statusCode == 429) {
+            return AsrException.Reason.THROTTLED;
+        }
+        // 5xx，以及Token失效等鉴权错误（与音频无关，重试或刷新Token后可恢复）
+        if (statusCode >= 500 || statusCode == 401 || statusCode == 403) {
+            return AsrException.Reason.UPSTREAM;
+        }
+        return AsrException.Reason.REJECTED;
+    }
+
+    /**
+     * 按NLS状态码区分失败原因（4xxxxxxx为请求错误，5xxxxxxx为服务端错误）
+     */
+    private static AsrException.Reason reasonOfNlsStatus(int status) {
+        if (status == 40000005) {
+            // TOO_MANY_REQUESTS：并发或QPS超出配额
+            return AsrException.Reason.THROTTLED;
+        }
+        if (status == 40000001 || status >= 50000000) {
+            // 40000001：Token无效或已过期
+            return AsrException.Reason.UPSTREAM;
         }
+        return AsrException.Reason.REJECTED;
+    }
+
+    /**
+     * 截断日志中的响应内容
+     */
+    private static String abbreviate(String body) {
+        return body.length() <= MAX_LOGGED_BODY ? body : body.substring(0, MAX_LOGGED_BODY) + "...";
     }
 
     /**
      * 从OSS URL进行语音识别
      * 
      * 使用阿里云NLS一句话识别接口，支持短音频文件（60秒内）
-     * 对于长音频，建议使用录音文件识别接口
+     * 对于长音频，使用LongAudioAsrService从本地文件切分识别
      * 
      * @param ossUrl 音频文件的OSS访问URL
-     * @return 识别结果文本，失败时返回错误信息
+     * @return 识别结果文本
+     * @throws AsrException 识别失败
      */
     public String transcribeFromOssUrl(String ossUrl) {
-        String asrUrl = "https://nls-gateway-cn-shanghai.aliyuncs.com/stream/v1/asr";
-        try (CloseableHttpClient client = HttpClients.createDefault()) {
+        String asrUrl = wiztipProperties.getAliyun().getAsr().getGatewayUrl();
+        return guarded(() -> {
             // 获取有效Token
-            String token = getToken();
+            String token = metrics.time(PipelineMetrics.NLS_TOKEN, tokenManager::getToken);
             
             // 构造ASR请求
             HttpPost post = new HttpPost(asrUrl);
@@ -236,58 +414,33 @@ public class AsrService {
             // 构造请求参数：appkey、音频URL、音频格式
             String payload = String.format("{\"appkey\":\"%s\",\"url\":\"%s\",\"format\":\"wav\"}", 
                 wiztipProperties.getAliyun().getAsr().getAppKey(), ossUrl);
-            post.setEntity(new StringEntity(payload));
+            post.setEntity(new StringEntity(payload, StandardCharsets.UTF_8));
             
-            // 发送请求并解析响应
-            try (CloseableHttpResponse resp = client.execute(post)) {
-                String json = new String(resp.getEntity().getContent().readAllBytes());
-                JsonNode node = mapper.readTree(json);
-                
-                // 根据ASR响应格式提取识别结果
-                if (node.has("result")) {
-                    return node.get("result").asText();
-                } else if (node.has("data")) {
-                    return node.get("data").toString();
-                }
-                return json;
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
-            return "ASR_ERROR: " + e.getMessage();
-        }
+            // 发送请求并解析响应（连接在响应体读取完毕后自动归还连接池）
+            return metrics.time(PipelineMetrics.ASR, () -> asrHttpClient.execute(post, resp -> parseResponse(resp.getCode(),
+                EntityUtils.toString(resp.getEntity(), StandardCharsets.UTF_8))));
+        });
     }
 
     /**
      * 保存语音转写结果到数据库
      * 
-     * 将ASR识别结果和文本向量嵌入存储到voice_transcript表
+     * 将ASR识别结果和文本向量嵌入存储到voice_transcript表，语音记录（新建或状态变更）在同一个事务中写入（见RecordWriter）
+     * 向量以二进制形式写入embedding列（见EmbeddingConverter），并写入本节点的语义检索索引（关键词检索直接查询数据库全文索引），
+     * 同时通知SummaryDraftUpdater增量更新当日总结草稿
      * 
-     * @param record 关联的语音记录
+     * @param record 关联的语音记录（没有ID时新建，返回后ID已分配）
      * @param transcript 转写文本
      * @param embedding 文本向量嵌入
      */
     public void saveTranscript(VoiceRecord record, String transcript, float[] embedding) {
         VoiceTranscript t = new VoiceTranscript();
-        t.setRecordId(record.getId());
         t.setUserId(record.getUserId());
         t.setTranscriptText(transcript);
-        t.setEmbeddingJson(embeddingToJson(embedding));
-        transcriptRepo.save(t);
-    }
-
-    /**
-     * 将浮点数组转换为JSON字符串
-     * 
-     * 用于将向量嵌入存储为JSON格式
-     * 
-     * @param emb 向量数组
-     * @return JSON字符串，失败时返回空数组"[]"
-     */
-    private String embeddingToJson(float[] emb) {
-        try {
-            return mapper.writeValueAsString(emb);
-        } catch (Exception e) {
-            return "[]";
-        }
+        t.setEmbedding(embedding);
+        t.setCreateTime(java.time.LocalDateTime.now());
+        recordWriter.write(record, t);
+        vectorSearchService.add(t);
+        summaryDraftUpdater.onTranscriptSaved(t.getUserId(), t.getCreateTime().toLocalDate());
     }
 }
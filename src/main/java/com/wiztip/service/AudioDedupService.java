@@ -0,0 +1,170 @@
+package com.wiztip.service;
+
+import com.wiztip.config.WiztipProperties;
+import com.wiztip.entity.AudioContent;
+import com.wiztip.entity.RecordStatus;
+import com.wiztip.entity.VoiceRecord;
+import com.wiztip.entity.VoiceTranscript;
+import com.wiztip.metrics.PipelineMetrics;
+import com.wiztip.repository.AudioContentRepository;
+import com.wiztip.repository.VoiceRecordRepository;
+import com.wiztip.repository.VoiceTranscriptRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+
+/**
+ * 重复音频识别
+ *
+ * 移动端网络不稳定时客户端会重试上传，用户也会重复发送同一段录音，
+ * 每次都完整执行OSS上传、NLS识别和向量生成。本服务按原始上传内容的SHA-256摘要
+ * （裁剪静音前计算，同一文件每次得到相同的摘要）在audio_content表中查找该用户处理过的录音：
+ * - /upload：已完成或仍在处理的同一录音直接返回已有记录，不再排队处理
+ * - /recognize：已完成的录音直接返回已有转写文本，不调用ASR
+ * - /save：转写文本相同时返回已有记录；文本被用户修改过时复用已上传的OSS文件，只重新生成向量
+ *
+ * 已有记录处理失败时不复用，按新录音重新处理并更新索引。
+ * 关闭wiztip.audio.dedup后digest返回null，find/remember对null摘要不做任何操作
+ *
+ * @author Wiztip Team
+ */
+@Service
+public class AudioDedupService {
+
+    private static final Logger log = LoggerFactory.getLogger(AudioDedupService.class);
+
+    /** 计算摘要时的读缓冲区大小 */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    @Autowired
+    private WiztipProperties wiztipProperties;
+
+    @Autowired
+    private AudioContentRepository contentRepository;
+
+    @Autowired
+    private VoiceRecordRepository recordRepository;
+
+    @Autowired
+    private VoiceTranscriptRepository transcriptRepository;
+
+    @Autowired
+    private PipelineMetrics metrics;
+
+    /**
+     * 计算音频文件的SHA-256摘要
+     *
+     * 上传文件由容器落盘后直接移动到暂存目录（不复制），此处顺序读一遍刚写入的文件，通常命中页缓存
+     *
+     * @param file 原始上传的音频文件（预处理之前）
+     * @return 64位小写十六进制摘要；未开启去重时返回null
+     * @throws IOException 文件读取失败
+     */
+    public String digest(Path file) throws IOException {
+        if (!wiztipProperties.getAudio().isDedup()) {
+            return null;
+        }
+        return metrics.time(PipelineMetrics.DIGEST, () -> {
+            MessageDigest md = sha256();
+            byte[] buf = new byte[BUFFER_SIZE];
+            try (InputStream in = Files.newInputStream(file)) {
+                int n;
+                while ((n = in.read(buf)) > 0) {
+                    md.update(buf, 0, n);
+                }
+            }
+            return HexFormat.of().formatHex(md.digest());
+        });
+    }
+
+    /**
+     * 查找用户处理过的同一段音频
+     *
+     * @param userId 用户ID
+     * @param sha256 音频摘要，为null时不查找
+     * @return 可复用的记录；记录仍在处理中时transcript为null；没有可复用的记录时返回null
+     */
+    public Match find(String userId, String sha256) {
+        if (sha256 == null) {
+            return null;
+        }
+        return contentRepository.findByUserIdAndSha256(userId, sha256).map(this::reusable).orElse(null);
+    }
+
+    /**
+     * 登记音频对应的语音记录
+     *
+     * 已有索引指向的记录不可复用（已失败或已删除）时改为指向新记录；
+     * 并发上传同一段音频时只有一条能插入成功，另一条忽略
+     *
+     * @param userId 用户ID
+     * @param sha256 音频摘要，为null时不登记
+     * @param recordId 语音记录ID
+     */
+    public void remember(String userId, String sha256, Long recordId) {
+        if (sha256 == null) {
+            return;
+        }
+        AudioContent content = contentRepository.findByUserIdAndSha256(userId, sha256).orElse(null);
+        if (content == null) {
+            content = new AudioContent();
+            content.setUserId(userId);
+            content.setSha256(sha256);
+            content.setCreateTime(LocalDateTime.now());
+        } else if (reusable(content) != null) {
+            return;
+        }
+        content.setRecordId(recordId);
+        try {
+            contentRepository.save(content);
+        } catch (DataIntegrityViolationException e) {
+            log.info("音频内容已由并发请求登记 userId={} recordId={}", userId, recordId);
+        }
+    }
+
+    /**
+     * 判断索引指向的记录能否复用
+     *
+     * @param content 内容索引
+     * @return 可复用的记录，不可复用时返回null
+     */
+    private Match reusable(AudioContent content) {
+        VoiceRecord r = recordRepository.findById(content.getRecordId()).orElse(null);
+        if (r == null || r.getRecordStatus() == RecordStatus.FAILED) {
+            return null;
+        }
+        if (r.getRecordStatus() == RecordStatus.PROCESSING) {
+            return new Match(r, null);
+        }
+        return transcriptRepository.findFirstByRecordId(r.getId())
+            .map(t -> new Match(r, t))
+            .orElse(null);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 可复用的已处理录音
+     *
+     * @param record 语音记录
+     * @param transcript 转写结果，记录仍在处理中时为null
+     */
+    public record Match(VoiceRecord record, VoiceTranscript transcript) {}
+}
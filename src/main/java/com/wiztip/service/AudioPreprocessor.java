@@ -0,0 +1,133 @@
+package com.wiztip.service;
+
+import com.wiztip.audio.AudioContainer;
+import com.wiztip.audio.AudioNormalizer;
+import com.wiztip.audio.EnergyVad;
+import com.wiztip.audio.WavCodec;
+import com.wiztip.config.WiztipProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 服务端音频预处理（语音活动检测与静音裁剪）
+ *
+ * 唤醒词和VAD原本只在浏览器端运行，上传的录音常带有较长的首尾静音，误触发的录音也会完整走一遍流程。
+ * 上传的WAV在交给ASR和OSS之前先经过本服务：
+ * 1. 规范化为16kHz单声道16位PCM（见AudioNormalizer）
+ * 2. EnergyVad统计语音范围，语音总时长不足minSpeechMs的录音判为无效
+ * 3. 裁掉首尾静音（保留segmentPadMs余量），就地替换原文件
+ *
+ * 语音识别按音频时长计费，裁剪后ASR计费时长、OSS存储字节数同步减少。
+ * 压缩格式无法在服务端解码，原样放行
+ *
+ * @author Wiztip Team
+ */
+@Service
+public class AudioPreprocessor {
+
+    private static final Logger log = LoggerFactory.getLogger(AudioPreprocessor.class);
+
+    @Autowired
+    private WiztipProperties wiztipProperties;
+
+    /**
+     * 预处理音频文件（就地替换）
+     *
+     * @param file 音频文件
+     * @return 预处理结果
+     * @throws IOException 文件读写失败
+     */
+    public Result prepare(Path file) throws IOException {
+        WiztipProperties.Audio cfg = wiztipProperties.getAudio();
+        if (!cfg.isTrimSilence() || AudioContainer.sniff(file) != AudioContainer.WAV) {
+            return new Result(true, null, Files.size(file));
+        }
+        WavCodec.Format wav = WavCodec.readFormat(file);
+        if (wav == null) {
+            return new Result(true, null, Files.size(file));
+        }
+
+        long originalSize = Files.size(file);
+        Path normalized = file.resolveSibling(file.getFileName() + ".norm");
+        Path trimmed = file.resolveSibling(file.getFileName() + ".trim");
+        try {
+            // 1. 规范化
+            Path work = file;
+            if (cfg.isNormalize() && !AudioNormalizer.isNormalized(wav)) {
+                wav = AudioNormalizer.toMono16k(file, wav, normalized);
+                work = normalized;
+            }
+            if (!wav.isPcm16()) {
+                return new Result(true, wav.durationMs() / 1000.0, originalSize);
+            }
+
+            // 2. 语音活动检测
+            EnergyVad vad = new EnergyVad(cfg.getVadFrameMs(), cfg.getVadThresholdDb(), cfg.getMinSilenceMs(),
+                cfg.getMaxSegmentSeconds() * 1000, cfg.getSegmentPadMs());
+            EnergyVad.SpeechSpan span = vad.speechSpan(work, wav);
+            if (span == null || span.speechMs() < cfg.getMinSpeechMs()) {
+                return new Result(false, 0.0, originalSize);
+            }
+
+            // 3. 裁剪首尾静音（仅单声道时按字节直接截取；立体声在关闭规范化时保持原样）
+            long frames = wav.frameCount();
+            if (wav.channels() == 1 && (span.startFrame() > 0 || span.endFrame() < frames)) {
+                writeRange(work, wav, span.startFrame(), span.endFrame(), trimmed);
+                work = trimmed;
+                frames = span.endFrame() - span.startFrame();
+            }
+            if (work != file) {
+                Files.move(work, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+            long size = Files.size(file);
+            log.info("音频预处理完成 bytes={} trimmedBytes={} speechMs={} keptMs={}", originalSize, size,
+                span.speechMs(), frames * 1000 / wav.sampleRate());
+            return new Result(true, frames / (double) wav.sampleRate(), size);
+        } finally {
+            Files.deleteIfExists(normalized);
+            Files.deleteIfExists(trimmed);
+        }
+    }
+
+    /**
+     * 将单声道16位WAV的[startFrame, endFrame)写为新的WAV文件（数据区按字节直接拷贝）
+     */
+    private static void writeRange(Path source, WavCodec.Format wav, long startFrame, long endFrame,
+                                   Path target) throws IOException {
+        long frames = endFrame - startFrame;
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE,
+                 StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            out.write(ByteBuffer.wrap(WavCodec.monoHeader(frames, wav.sampleRate())));
+            long pos = wav.dataOffset() + startFrame * 2;
+            long remaining = frames * 2;
+            while (remaining > 0) {
+                long n = in.transferTo(pos, remaining, out);
+                if (n <= 0) {
+                    break;
+                }
+                pos += n;
+                remaining -= n;
+            }
+        }
+    }
+
+    /**
+     * 预处理结果
+     *
+     * @param speech 是否包含有效语音；为false时调用方应拒绝该录音
+     * @param durationSeconds 处理后的音频时长（秒），无法解码的格式为null
+     * @param size 处理后的文件大小（字节）
+     */
+    public record Result(boolean speech, Double durationSeconds, long size) {}
+}
@@ -0,0 +1,292 @@
+package com.wiztip.service;
+
+import com.wiztip.config.WiztipProperties;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * 识别音频暂存缓存
+ *
+ * /api/audio/recognize识别过的音频暂存到本地磁盘并返回票据（ticket），
+ * 用户确认后/api/audio/save凭票据直接使用暂存的音频，客户端无需再次上传
+ *
+ * 缓存策略：
+ * - 音频只落盘，内存中仅保存元数据（接收后可先预处理再登记票据）
+ * - 超过ttlSeconds的暂存过期删除
+ * - 总大小超过maxTotalBytes时按暂存先后淘汰最早的音频
+ * - 登记后的音频在识别完成（unpin）前处于使用中，过期清理和容量淘汰都会跳过，不会在识别途中被删除
+ * - 票据被取走（take）后即从缓存移除，由调用方负责删除文件（release）或在失败时归还（restore）
+ *
+ * 应用重启时清空暂存目录（元数据不持久化）
+ *
+ * @author Wiztip Team
+ */
+@Service
+public class AudioStagingCache {
+
+    private static final Logger log = LoggerFactory.getLogger(AudioStagingCache.class);
+
+    @Autowired
+    private WiztipProperties wiztipProperties;
+
+    /** 票据 -> 暂存音频，按暂存先后排序 */
+    private final LinkedHashMap<String, StagedAudio> entries = new LinkedHashMap<>();
+
+    /** 使用中（识别尚未完成）的票据，淘汰时跳过（受entries锁保护） */
+    private final Set<String> pinned = new HashSet<>();
+
+    /** 当前暂存总字节数（受entries锁保护） */
+    private long totalBytes = 0;
+
+    /** 暂存目录 */
+    private Path dir;
+
+    /** 过期清理调度器 */
+    private ScheduledExecutorService sweeper;
+
+    /**
+     * 初始化暂存目录并启动过期清理
+     *
+     * @throws IOException 暂存目录创建失败
+     */
+    @PostConstruct
+    public void init() throws IOException {
+        dir = Paths.get(wiztipProperties.getStaging().getDir()).toAbsolutePath();
+        Files.createDirectories(dir);
+        try (Stream<Path> stale = Files.list(dir)) {
+            stale.forEach(this::deleteQuietly);
+        }
+
+        sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "audio-staging-sweeper");
+            t.setDaemon(true);
+            return t;
+        });
+        sweeper.scheduleWithFixedDelay(this::evictExpired, 60, 60, TimeUnit.SECONDS);
+    }
+
+    /**
+     * 停止过期清理
+     */
+    @PreDestroy
+    public void shutdown() {
+        sweeper.shutdownNow();
+    }
+
+    /**
+     * 接收上传的音频文件到暂存目录（尚未登记票据）
+     *
+     * 调用方可在登记前对文件做预处理（如裁剪静音），之后调用stage登记，或调用discard丢弃
+     *
+     * @param file 上传的音频文件
+     * @return 暂存目录中的文件路径
+     * @throws IOException 音频落盘失败
+     */
+    public Path receive(MultipartFile file) throws IOException {
+        Path path = dir.resolve(UUID.randomUUID() + ".upload");
+        // 传入绝对路径的File时，磁盘上的上传临时文件直接移动到目标位置，无需复制
+        file.transferTo(path.toFile());
+        return path;
+    }
+
+    /**
+     * 丢弃已接收但未登记的音频文件
+     *
+     * @param received receive返回的文件路径
+     */
+    public void discard(Path received) {
+        deleteQuietly(received);
+    }
+
+    /**
+     * 登记暂存音频
+     *
+     * 登记后的音频处于使用中，调用方识别完成后须调用unpin，之后才参与过期清理和容量淘汰
+     *
+     * @param received receive返回的文件路径
+     * @param fileName 原始文件名
+     * @param userId 用户ID，票据只允许同一用户使用
+     * @param durationSeconds 音频时长（秒），未知时为null
+     * @param sha256 原始上传音频的摘要（见AudioDedupService），未计算时为null
+     * @return 暂存结果（包含票据）
+     * @throws IOException 文件移动失败
+     */
+    public StagedAudio stage(Path received, String fileName, String userId, Double durationSeconds,
+                             String sha256) throws IOException {
+        String ticket = UUID.randomUUID().toString();
+        Path path = dir.resolve(ticket + ".audio");
+        Files.move(received, path);
+
+        StagedAudio staged = new StagedAudio(ticket, userId, fileName,
+            path, Files.size(path), durationSeconds, sha256, System.currentTimeMillis());
+
+        List<StagedAudio> evicted = new ArrayList<>();
+        synchronized (entries) {
+            entries.put(ticket, staged);
+            pinned.add(ticket);
+            totalBytes += staged.size();
+            // 超出容量时从最早的暂存开始淘汰，跳过使用中的（包括本次暂存）；全部使用中时暂时超出容量
+            Iterator<StagedAudio> it = entries.values().iterator();
+            while (totalBytes > wiztipProperties.getStaging().getMaxTotalBytes() && it.hasNext()) {
+                StagedAudio oldest = it.next();
+                if (pinned.contains(oldest.ticket())) {
+                    continue;
+                }
+                it.remove();
+                totalBytes -= oldest.size();
+                evicted.add(oldest);
+            }
+        }
+        evicted.forEach(e -> deleteQuietly(e.path()));
+        return staged;
+    }
+
+    /**
+     * 结束使用暂存音频（识别完成或失败后调用）
+     *
+     * 之后该音频参与过期清理和容量淘汰；票据已被取走时不做任何事
+     *
+     * @param ticket 票据
+     */
+    public void unpin(String ticket) {
+        synchronized (entries) {
+            pinned.remove(ticket);
+        }
+    }
+
+    /**
+     * 取走暂存音频
+     *
+     * 取走后票据失效，调用方使用完毕后需调用release删除文件
+     *
+     * @param ticket 票据
+     * @param userId 用户ID
+     * @return 暂存音频；票据不存在、已过期或不属于该用户时返回null
+     */
+    public StagedAudio take(String ticket, String userId) {
+        StagedAudio staged;
+        synchronized (entries) {
+            staged = entries.get(ticket);
+            if (staged == null || !staged.userId().equals(userId)) {
+                return null;
+            }
+            entries.remove(ticket);
+            pinned.remove(ticket);
+            totalBytes -= staged.size();
+        }
+        if (isExpired(staged, System.currentTimeMillis())) {
+            deleteQuietly(staged.path());
+            return null;
+        }
+        return staged;
+    }
+
+    /**
+     * 归还已取走的暂存音频
+     *
+     * 使用暂存音频的操作失败（如上传OSS出错）时调用，票据重新生效，客户端可凭同一票据重试；
+     * 有效期仍从最初暂存时算起，已过期时直接删除文件。
+     * 归还的音频排在最后，不再按暂存先后排列（过期清理会检查所有暂存）
+     *
+     * @param staged take取走的暂存音频
+     */
+    public void restore(StagedAudio staged) {
+        if (isExpired(staged, System.currentTimeMillis())) {
+            deleteQuietly(staged.path());
+            return;
+        }
+        synchronized (entries) {
+            if (entries.putIfAbsent(staged.ticket(), staged) == null) {
+                totalBytes += staged.size();
+            }
+        }
+    }
+
+    /**
+     * 删除已取走的暂存音频文件
+     *
+     * @param staged 暂存音频
+     */
+    public void release(StagedAudio staged) {
+        deleteQuietly(staged.path());
+    }
+
+    /**
+     * 获取暂存有效期（秒）
+     *
+     * @return 有效期
+     */
+    public int getTtlSeconds() {
+        return wiztipProperties.getStaging().getTtlSeconds();
+    }
+
+    /**
+     * 清理过期的暂存音频
+     */
+    private void evictExpired() {
+        long now = System.currentTimeMillis();
+        List<StagedAudio> expired = new ArrayList<>();
+        synchronized (entries) {
+            Iterator<StagedAudio> it = entries.values().iterator();
+            while (it.hasNext()) {
+                StagedAudio staged = it.next();
+                // 归还的暂存排在最后，顺序不一定按暂存时间，须检查所有暂存
+                if (!isExpired(staged, now) || pinned.contains(staged.ticket())) {
+                    continue;
+                }
+                it.remove();
+                totalBytes -= staged.size();
+                expired.add(staged);
+            }
+        }
+        expired.forEach(e -> deleteQuietly(e.path()));
+    }
+
+    private boolean isExpired(StagedAudio staged, long now) {
+        return now - staged.stagedAt() > wiztipProperties.getStaging().getTtlSeconds() * 1000L;
+    }
+
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("暂存文件删除失败 path={}", path);
+        }
+    }
+
+    /**
+     * 暂存的音频
+     *
+     * @param ticket 票据
+     * @param userId 用户ID
+     * @param fileName 原始文件名
+     * @param path 暂存文件路径
+     * @param size 文件大小（字节）
+     * @param durationSeconds 音频时长（秒），未知时为null
+     * @param sha256 原始上传音频的摘要，未计算时为null
+     * @param stagedAt 暂存时间（毫秒时间戳）
+     */
+    public record StagedAudio(String ticket, String userId, String fileName, Path path, long size,
+                              Double durationSeconds, String sha256, long stagedAt) {}
+}
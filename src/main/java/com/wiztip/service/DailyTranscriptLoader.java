@@ -0,0 +1,106 @@
+package com.wiztip.service;
+
+import com.wiztip.config.WiztipProperties;
+import com.wiztip.repository.TranscriptRow;
+import com.wiztip.repository.VoiceTranscriptRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * 每日转写文本加载器
+ *
+ * 以左闭右开的时间范围按(user_id, create_time, id)键集分页读取某天某个用户分区的转写，
+ * 边读边按用户分组，每读完一个用户即把他尚未汇总的转写交给调用方处理：
+ * - 每页一次查询（summaryPageSize行），与用户数无关；查询读完即返回，两页之间不占用数据库游标，
+ *   调用方阻塞再久也不会被MySQL按net_write_timeout断开
+ * - 按索引顺序读取，不需要对当天数据排序
+ * - 内存中只保留一页数据和正在分组的用户的文本
+ *
+ * @author Wiztip Team
+ */
+@Service
+public class DailyTranscriptLoader {
+
+    @Autowired
+    private WiztipProperties wiztipProperties;
+
+    @Autowired
+    private VoiceTranscriptRepository transcriptRepo;
+
+    /**
+     * 按用户分组分页读取某天某个用户分区的转写
+     *
+     * 当天有转写的用户都会交给sink，转写已全部汇总进草稿的用户rows为空；
+     * sink在读取线程中同步调用，可以阻塞以形成背压（阻塞期间不读取下一页）
+     *
+     * @param date 日期
+     * @param partition 分区号（0 ~ partitions-1）
+     * @param partitions 分区总数，1表示全部用户
+     * @param sink 每个用户当天尚未汇总的转写
+     * @return 读取的用户数
+     */
+    public int forEachUser(LocalDate date, int partition, int partitions, Consumer<UserDay> sink) {
+        LocalDateTime from = date.atStartOfDay();
+        LocalDateTime to = date.plusDays(1).atStartOfDay();
+        int pageSize = Math.max(1, wiztipProperties.getLlm().getSummaryPageSize());
+
+        String afterUser = "";
+        LocalDateTime afterTime = from;
+        long afterId = 0;
+        String currentUser = null;
+        List<TranscriptRow> rows = new ArrayList<>();
+        int users = 0;
+        while (true) {
+            List<Object[]> page = transcriptRepo.findTextsPage(
+                from, to, partition, partitions, afterUser, afterTime, afterId, pageSize);
+            for (Object[] r : page) {
+                long id = ((Number) r[0]).longValue();
+                String userId = (String) r[1];
+                if (currentUser != null && !currentUser.equals(userId)) {
+                    sink.accept(new UserDay(currentUser, rows));
+                    users++;
+                    rows = new ArrayList<>();
+                }
+                currentUser = userId;
+                if (!toBoolean(r[3])) {
+                    rows.add(new TranscriptRow(id, userId, (String) r[4]));
+                }
+                afterUser = userId;
+                afterTime = toLocalDateTime(r[2]);
+                afterId = id;
+            }
+            if (page.size() < pageSize) {
+                break;
+            }
+        }
+        if (currentUser != null) {
+            sink.accept(new UserDay(currentUser, rows));
+            users++;
+        }
+        return users;
+    }
+
+    private static LocalDateTime toLocalDateTime(Object value) {
+        return value instanceof Timestamp ts ? ts.toLocalDateTime() : (LocalDateTime) value;
+    }
+
+    /** TINYINT(1)按驱动配置可能映射为Boolean或数字 */
+    private static boolean toBoolean(Object value) {
+        return value instanceof Boolean b ? b : ((Number) value).intValue() != 0;
+    }
+
+    /**
+     * 某个用户一天尚未汇总的转写
+     *
+     * @param userId 用户ID
+     * @param rows 尚未汇总的转写（按创建时间、ID排序，含空文本，空文本的记录同样需要标记为已汇总；全部已汇总时为空）
+     */
+    public record UserDay(String userId, List<TranscriptRow> rows) {}
+}
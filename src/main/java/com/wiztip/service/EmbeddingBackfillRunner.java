@@ -0,0 +1,94 @@
+package com.wiztip.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wiztip.codec.EmbeddingCodec;
+import com.wiztip.config.WiztipProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 历史向量回填
+ *
+ * 将voice_transcript.embedding_json（JSON文本）中的历史向量转换为二进制embedding列，
+ * 转换成功的行同时清空embedding_json以释放空间，重复执行是安全的
+ *
+ * 通过wiztip.embedding.backfillOnStartup=true开启，按主键分批处理（每批backfillBatchSize行）；
+ * 数据库中已没有embedding_json列时直接跳过。迁移步骤见db/migration_embedding_blob.sql
+ *
+ * @author Wiztip Team
+ */
+@Component
+public class EmbeddingBackfillRunner implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(EmbeddingBackfillRunner.class);
+
+    @Autowired
+    private WiztipProperties wiztipProperties;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Override
+    public void run(ApplicationArguments args) {
+        WiztipProperties.Embedding cfg = wiztipProperties.getEmbedding();
+        if (!cfg.isBackfillOnStartup()) {
+            return;
+        }
+        if (!hasLegacyColumn()) {
+            log.info("voice_transcript.embedding_json列不存在，跳过向量回填");
+            return;
+        }
+
+        EmbeddingCodec.Precision precision = EmbeddingCodec.Precision.parse(cfg.getStoragePrecision());
+        long lastId = 0;
+        int converted = 0;
+        int failed = 0;
+        while (true) {
+            List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "SELECT id, embedding_json FROM voice_transcript " +
+                "WHERE id > ? AND embedding IS NULL AND embedding_json IS NOT NULL ORDER BY id LIMIT ?",
+                lastId, cfg.getBackfillBatchSize());
+            if (rows.isEmpty()) {
+                break;
+            }
+
+            List<Object[]> updates = new ArrayList<>(rows.size());
+            for (Map<String, Object> row : rows) {
+                long id = ((Number) row.get("id")).longValue();
+                lastId = id;
+                try {
+                    float[] vector = mapper.readValue(String.valueOf(row.get("embedding_json")), float[].class);
+                    updates.add(new Object[]{EmbeddingCodec.encode(vector, precision), id});
+                } catch (Exception e) {
+                    failed++;
+                    log.warn("向量回填解析失败 transcriptId={} error={}", id, e.getMessage());
+                }
+            }
+            if (!updates.isEmpty()) {
+                jdbcTemplate.batchUpdate(
+                    "UPDATE voice_transcript SET embedding = ?, embedding_json = NULL WHERE id = ?", updates);
+                converted += updates.size();
+            }
+        }
+        log.info("向量回填完成 converted={} failed={}", converted, failed);
+    }
+
+    private boolean hasLegacyColumn() {
+        Integer count = jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM information_schema.columns " +
+            "WHERE table_schema = DATABASE() AND table_name = 'voice_transcript' AND column_name = 'embedding_json'",
+            Integer.class);
+        return count != null && count > 0;
+    }
+}
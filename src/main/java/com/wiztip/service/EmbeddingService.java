@@ -1,44 +1,305 @@
 package com.wiztip.service;
 
+import com.wiztip.config.WiztipProperties;
+import com.wiztip.metrics.PipelineMetrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * 文本向量嵌入服务
- * 
+ *
  * 将文本转换为向量表示，用于语义检索和相似度计算
  * 当前为示例实现，生产环境需要集成真实的Embedding API（如通义千问、OpenAI等）
- * 
+ *
+ * 调用embed()的线程不直接请求后端，而是经过批量前端：
+ * 1. 结果缓存：按规范化文本的SHA-256命中LRU缓存，重复的短语音不再重新计算
+ * 2. 请求合并：同一文本的并发请求共享同一个结果
+ * 3. 批量请求：后台线程将并发请求攒成一批（最多maxBatchSize条，最长等待maxWaitMs）调用embedBatch()，
+ *    同时进行的后端请求数不超过batchConcurrency；后端繁忙时请求继续排队，自然攒成更大的批次
+ *
+ * 指标：wiztip.embedding.batch.size（每批文本数）、wiztip.embedding.cache（result=hit|miss），
+ * embed()的耗时（含排队凑批）记录在wiztip.pipeline.stage（stage=embedding）
+ *
  * @author Wiztip Team
  */
 @Service
 public class EmbeddingService {
 
+    /** 向量维度 */
+    private static final int DIMENSION = 1536;
+
     /** LLM API密钥 */
     @Value("${wiztip.llm.apiKey:}")
     private String apiKey;
 
+    @Autowired
+    private WiztipProperties wiztipProperties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private PipelineMetrics metrics;
+
+    /** 等待凑批的请求 */
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+
+    /** 正在计算的文本（按缓存键合并并发请求） */
+    private final Map<String, CompletableFuture<float[]>> inFlight = new ConcurrentHashMap<>();
+
+    /** 缓存键 -> 向量，按访问顺序淘汰（受自身锁保护） */
+    private LinkedHashMap<String, float[]> cache;
+
+    /** 限制同时进行的后端请求数 */
+    private Semaphore batchPermits;
+
+    /** 凑批线程 */
+    private Thread dispatcher;
+
+    /** 后端请求线程池 */
+    private ExecutorService batchExecutor;
+
+    private DistributionSummary batchSize;
+    private Counter cacheHit;
+    private Counter cacheMiss;
+
+    /**
+     * 初始化缓存、指标和批量处理线程
+     */
+    @PostConstruct
+    public void init() {
+        WiztipProperties.Embedding cfg = wiztipProperties.getEmbedding();
+        int cacheSize = cfg.getCacheSize();
+        cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, float[]> eldest) {
+                return size() > cacheSize;
+            }
+        };
+
+        batchSize = DistributionSummary.builder("wiztip.embedding.batch.size")
+                .description("每次后端请求合并的文本数")
+                .register(meterRegistry);
+        cacheHit = Counter.builder("wiztip.embedding.cache").tag("result", "hit").register(meterRegistry);
+        cacheMiss = Counter.builder("wiztip.embedding.cache").tag("result", "miss").register(meterRegistry);
+
+        int concurrency = Math.max(1, cfg.getBatchConcurrency());
+        batchPermits = new Semaphore(concurrency);
+        AtomicInteger seq = new AtomicInteger();
+        batchExecutor = Executors.newFixedThreadPool(concurrency, r -> {
+            Thread t = new Thread(r, "embedding-batch-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        dispatcher = new Thread(this::dispatchLoop, "embedding-batcher");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    /**
+     * 停止批量处理线程
+     */
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.interrupt();
+        batchExecutor.shutdownNow();
+    }
+
     /**
      * 将文本转换为向量嵌入
-     * 
+     *
+     * 优先读取缓存；未命中时加入批量队列，等待所在批次完成
+     *
+     * @param text 待转换的文本内容
+     * @return 文本的向量表示（浮点数组）
+     */
+    public float[] embed(String text) {
+        return metrics.time(PipelineMetrics.EMBEDDING, () -> embedNow(text));
+    }
+
+    private float[] embedNow(String text) {
+        String normalized = normalize(text);
+        String key = sha256(normalized);
+
+        float[] cached = cacheGet(key);
+        if (cached != null) {
+            cacheHit.increment();
+            return cached.clone();
+        }
+        cacheMiss.increment();
+
+        CompletableFuture<float[]> future = inFlight.computeIfAbsent(key, k -> {
+            CompletableFuture<float[]> f = new CompletableFuture<>();
+            queue.add(new Pending(k, normalized, f));
+            return f;
+        });
+
+        try {
+            return future.get(wiztipProperties.getEmbedding().getTimeoutMs(), TimeUnit.MILLISECONDS).clone();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("等待向量结果被中断", e);
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("等待向量结果超时", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("向量生成失败: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    /**
+     * 批量将文本转换为向量嵌入（后端调用）
+     *
      * 当前实现：返回固定的零向量（仅用于演示）
      * 生产环境建议：
-     * 1. 使用通义千问text-embedding-v1等API
+     * 1. 使用通义千问text-embedding-v1等API（均支持一次请求提交多条文本）
      * 2. 或使用开源模型如sentence-transformers
      * 3. 向量维度根据实际模型调整（常见：768/1536维）
-     * 
-     * @param text 待转换的文本内容
-     * @return 文本的向量表示（浮点数组）
+     *
+     * @param texts 待转换的文本（已规范化、已去重）
+     * @return 与texts一一对应的向量
      */
-    public float[] embed(String text) {
+    protected List<float[]> embedBatch(List<String> texts) {
         // TODO: 替换为真实的Embedding API调用
         // 示例：调用通义千问、OpenAI或其他Embedding服务
-        
+
         // 当前返回1536维零向量（仅用于演示）
-        float[] v = new float[1536];
-        for (int i = 0; i < v.length; i++) {
-            v[i] = 0.0f;
+        List<float[]> vectors = new ArrayList<>(texts.size());
+        for (int i = 0; i < texts.size(); i++) {
+            vectors.add(new float[DIMENSION]);
+        }
+        return vectors;
+    }
+
+    /**
+     * 凑批循环
+     *
+     * 取得一个后端请求许可后阻塞等待第一条请求，然后在maxWaitMs内继续收集，
+     * 直到凑满maxBatchSize或超时，再交给线程池执行
+     */
+    private void dispatchLoop() {
+        WiztipProperties.Embedding cfg = wiztipProperties.getEmbedding();
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                batchPermits.acquire();
+                List<Pending> batch = new ArrayList<>();
+                batch.add(queue.take());
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(cfg.getMaxWaitMs());
+                while (batch.size() < cfg.getMaxBatchSize()) {
+                    long remaining = deadline - System.nanoTime();
+                    Pending next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                batchExecutor.execute(() -> runBatch(batch));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * 执行一批后端请求并分发结果
+     */
+    private void runBatch(List<Pending> batch) {
+        try {
+            batchSize.record(batch.size());
+            List<String> texts = new ArrayList<>(batch.size());
+            for (Pending p : batch) {
+                texts.add(p.text());
+            }
+            List<float[]> vectors = embedBatch(texts);
+            if (vectors.size() != batch.size()) {
+                throw new IllegalStateException("向量数量与文本数量不一致: " + vectors.size() + " != " + batch.size());
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                Pending p = batch.get(i);
+                cachePut(p.key(), vectors.get(i));
+                inFlight.remove(p.key());
+                p.future().complete(vectors.get(i));
+            }
+        } catch (Throwable e) {
+            // Error（如OOM）也要让等待者失败返回，并清掉inFlight，否则同一文本之后的请求都会挂在这个future上
+            for (Pending p : batch) {
+                inFlight.remove(p.key());
+                p.future().completeExceptionally(e);
+            }
+            if (e instanceof Error err) {
+                throw err;
+            }
+        } finally {
+            batchPermits.release();
+        }
+    }
+
+    private float[] cacheGet(String key) {
+        synchronized (cache) {
+            return cache.get(key);
         }
-        return v;
     }
+
+    private void cachePut(String key, float[] vector) {
+        if (wiztipProperties.getEmbedding().getCacheSize() <= 0) {
+            return;
+        }
+        synchronized (cache) {
+            cache.put(key, vector);
+        }
+    }
+
+    /**
+     * 规范化文本：Unicode NFKC（统一全角/半角），去除首尾空白，连续空白合并为一个空格
+     */
+    private static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        return Normalizer.normalize(text, Normalizer.Form.NFKC).strip().replaceAll("\\s+", " ");
+    }
+
+    private static String sha256(String text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(text.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 等待计算的文本
+     *
+     * @param key 缓存键
+     * @param text 规范化后的文本
+     * @param future 结果
+     */
+    private record Pending(String key, String text, CompletableFuture<float[]> future) {}
 }
@@ -0,0 +1,449 @@
+package com.wiztip.service;
+
+import com.wiztip.config.WiztipProperties;
+import com.wiztip.entity.RecordStatus;
+import com.wiztip.entity.VoiceRecord;
+import com.wiztip.metrics.PipelineMetrics;
+import com.wiztip.repository.VoiceRecordRepository;
+import com.wiztip.repository.VoiceTranscriptRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * 音频异步处理流水线
+ *
+ * 为/api/audio/upload提供"先暂存、后处理"的异步模型：
+ * 1. 请求线程只负责创建语音记录并将音频落盘到暂存目录，随即返回记录ID
+ * 2. 有界工作线程池在后台完成 静音裁剪 -> OSS上传 -> ASR识别 -> 向量生成 -> 保存转写
+ *    （ASR直接读取暂存文件，长音频由LongAudioAsrService切分后并行识别）
+ * 3. 处理结果通过VoiceRecord的状态机（处理中 -> 已完成/失败）对外暴露
+ *
+ * 暂存文件在任务进入终态后删除；应用重启时会重新提交本节点仍处于"处理中"的任务。
+ * 暂存目录是节点本地的，记录上登记持有暂存音频的节点标识（首次启动时生成并保存在暂存目录中），
+ * 多节点部署时各节点只恢复自己的记录，不会因为看不到其他节点的暂存文件而误判为丢失
+ * NLS繁忙、熔断或临时故障（可重试的AsrException）时保留暂存文件，延迟后重新识别，超过asrRetryAttempts次才标记失败；
+ * 同一用户重复上传同一段录音（按SHA-256摘要判断，见AudioDedupService）时直接返回已有记录，不再排队处理
+ *
+ * 各阶段耗时见wiztip.pipeline.stage指标，每条记录的处理结果计入wiztip.pipeline.records（mode=async）
+ *
+ * @author Wiztip Team
+ */
+@Service
+public class IngestionPipelineService {
+
+    private static final Logger log = LoggerFactory.getLogger(IngestionPipelineService.class);
+
+    @Autowired
+    private WiztipProperties wiztipProperties;
+
+    @Autowired
+    private OssService ossService;
+
+    @Autowired
+    private AsrService asrService;
+
+    @Autowired
+    private LongAudioAsrService longAudioAsrService;
+
+    @Autowired
+    private AudioPreprocessor audioPreprocessor;
+
+    @Autowired
+    private EmbeddingService embeddingService;
+
+    @Autowired
+    private VoiceRecordRepository recordRepository;
+
+    @Autowired
+    private VoiceTranscriptRepository transcriptRepo;
+
+    @Autowired
+    private AudioDedupService dedupService;
+
+    @Autowired
+    private PipelineMetrics metrics;
+
+    /** 后台工作线程池（有界队列，满时直接拒绝） */
+    private ThreadPoolExecutor executor;
+
+    /** 延迟重新识别的调度器（到期后重新提交到工作线程池） */
+    private ScheduledExecutorService retryScheduler;
+
+    /** 音频暂存目录 */
+    private Path spoolDir;
+
+    /** 本节点标识（与暂存目录绑定：暂存目录保留时重启后不变） */
+    private String nodeId;
+
+    /**
+     * 初始化暂存目录和工作线程池
+     *
+     * @throws IOException 暂存目录创建失败
+     */
+    @PostConstruct
+    public void init() throws IOException {
+        WiztipProperties.Pipeline cfg = wiztipProperties.getPipeline();
+        spoolDir = Paths.get(cfg.getSpoolDir()).toAbsolutePath();
+        Files.createDirectories(spoolDir);
+        nodeId = loadNodeId(spoolDir);
+        // 清理上次运行中尚未登记到记录的落盘文件
+        try (Stream<Path> stale = Files.list(spoolDir)) {
+            stale.filter(p -> p.getFileName().toString().endsWith(".upload")).forEach(p -> {
+                try {
+                    Files.deleteIfExists(p);
+                } catch (IOException e) {
+                    log.warn("暂存文件删除失败 path={}", p);
+                }
+            });
+        }
+
+        AtomicInteger seq = new AtomicInteger();
+        executor = new ThreadPoolExecutor(
+            cfg.getWorkerThreads(), cfg.getWorkerThreads(),
+            0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(cfg.getQueueCapacity()),
+            r -> {
+                Thread t = new Thread(r, "ingest-worker-" + seq.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            },
+            new ThreadPoolExecutor.AbortPolicy()
+        );
+        retryScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "ingest-retry");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * 应用停止时等待正在执行的任务结束
+     *
+     * 未完成的任务（含等待重新识别的任务）保持"处理中"状态且暂存文件保留，下次启动时恢复
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        retryScheduler.shutdownNow();
+        executor.shutdown();
+        if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * 应用启动完成后恢复未完成的任务
+     *
+     * 只处理本节点的记录：暂存文件仍存在的重新提交处理，暂存文件已丢失的标记为失败。
+     * 其他节点的记录由各自节点恢复；没有节点标识的历史记录只在本地有暂存文件时恢复，否则保持原状
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recoverPendingJobs() {
+        List<VoiceRecord> pending = recordRepository.findByStatus(RecordStatus.PROCESSING.getCode());
+        int resumed = 0;
+        int owned = 0;
+        for (VoiceRecord r : pending) {
+            boolean mine = nodeId.equals(r.getNodeId());
+            if (!mine && r.getNodeId() != null) {
+                continue;
+            }
+            boolean spooled = Files.exists(spoolFile(r.getId()));
+            if (!spooled) {
+                if (mine) {
+                    owned++;
+                    markFailed(r, "暂存音频已丢失，无法恢复处理");
+                }
+                continue;
+            }
+            owned++;
+            try {
+                Long recordId = r.getId();
+                executor.execute(() -> process(recordId, 1));
+                resumed++;
+            } catch (RejectedExecutionException e) {
+                // 队列已满，剩余任务留待下次启动恢复
+                break;
+            }
+        }
+        if (owned > 0) {
+            log.info("异步流水线恢复任务 nodeId={} resumed={} owned={} pending={}", nodeId, resumed, owned,
+                pending.size());
+        }
+    }
+
+    /**
+     * 暂存音频并提交后台处理
+     *
+     * 方法返回时语音记录已落库（状态为处理中）、音频已落盘，
+     * 后续处理结果通过记录状态查询；同一段录音已处理完成或仍在处理中时直接返回已有记录
+     *
+     * @param file 音频文件
+     * @param userId 用户ID
+     * @return 提交结果
+     * @throws IOException 音频暂存失败
+     * @throws RejectedExecutionException 处理队列已满
+     */
+    public Submission submit(MultipartFile file, String userId) throws IOException {
+        // 1. 队列已满时在落盘前快速拒绝，避免无效的磁盘写入
+        if (executor.getQueue().remainingCapacity() == 0) {
+            throw new RejectedExecutionException("处理队列已满");
+        }
+
+        // 2. 音频落盘并计算摘要，重复上传直接返回已有记录
+        Path landed = spoolDir.resolve(UUID.randomUUID() + ".upload");
+        AudioDedupService.Match dup;
+        String sha256;
+        try {
+            // 传入绝对路径的File时，磁盘上的上传临时文件直接移动到目标位置，无需复制
+            file.transferTo(landed.toFile());
+            sha256 = dedupService.digest(landed);
+            dup = dedupService.find(userId, sha256);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(landed);
+            throw e;
+        }
+        if (dup != null) {
+            Files.deleteIfExists(landed);
+            metrics.recordOutcome("async", "duplicate");
+            log.info("重复上传，复用已有记录 recordId={} userId={} state={}", dup.record().getId(), userId,
+                dup.record().getRecordStatus());
+            return new Submission(dup.record(), true);
+        }
+
+        // 3. 创建语音记录（状态：处理中），音频移动到记录对应的暂存文件
+        VoiceRecord r = new VoiceRecord();
+        r.setUserId(userId);
+        r.setFileName(file.getOriginalFilename());
+        r.setUploadTime(LocalDateTime.now());
+        r.transitionTo(RecordStatus.PROCESSING);
+        r.setNodeId(nodeId);
+        recordRepository.save(r);
+
+        Path spool = spoolFile(r.getId());
+        try {
+            Files.move(landed, spool);
+        } catch (IOException e) {
+            Files.deleteIfExists(landed);
+            markFailed(r, "音频暂存失败: " + e.getMessage());
+            throw e;
+        }
+        dedupService.remember(userId, sha256, r.getId());
+
+        // 4. 提交后台处理
+        Long recordId = r.getId();
+        try {
+            executor.execute(() -> process(recordId, 1));
+        } catch (RejectedExecutionException e) {
+            Files.deleteIfExists(spool);
+            markFailed(r, "处理队列已满");
+            throw e;
+        }
+        return new Submission(r, false);
+    }
+
+    /**
+     * 后台处理单条语音记录
+     *
+     * 每个步骤完成后都会落库，重启恢复时可跳过已完成的步骤：
+     * 已有ossUrl则不再重复上传，已有转写结果则直接标记完成
+     *
+     * @param recordId 语音记录ID
+     * @param attempt 第几次处理（从1开始）
+     */
+    private void process(Long recordId, int attempt) {
+        VoiceRecord r = recordRepository.findById(recordId).orElse(null);
+        Path spool = spoolFile(recordId);
+        boolean retrying = false;
+        try {
+            if (r == null || r.getRecordStatus() != RecordStatus.PROCESSING) {
+                return;
+            }
+
+            // 0. 裁剪首尾静音并填写时长，无有效语音的录音不再上传和识别
+            if (r.getOssUrl() == null) {
+                AudioPreprocessor.Result prepared = audioPreprocessor.prepare(spool);
+                if (!prepared.speech()) {
+                    markFailed(r, "未检测到有效语音");
+                    metrics.recordOutcome("async", "no_speech");
+                    return;
+                }
+                r.setDuration(prepared.durationSeconds());
+            }
+
+            // 1. 上传音频到OSS
+            if (r.getOssUrl() == null) {
+                r.setOssUrl(ossService.upload(spool, r.getFileName(), r.getUserId()));
+                recordRepository.save(r);
+            }
+
+            if (transcriptRepo.findFirstByRecordId(recordId).isEmpty()) {
+                // 2. 调用ASR服务进行语音识别（从暂存文件读取，长音频切分后并行识别）
+                String transcript = longAudioAsrService.transcribe(spool, formatOf(r.getFileName())).text();
+
+                // 3. 生成文本向量嵌入
+                float[] emb = embeddingService.embed(transcript);
+
+                // 4. 保存转写结果和向量，记录状态在同一个事务中更新为已完成
+                r.transitionTo(RecordStatus.DONE);
+                try {
+                    asrService.saveTranscript(r, transcript, emb);
+                } catch (RuntimeException e) {
+                    // 事务已回滚，记录仍为处理中
+                    r.setStatus(RecordStatus.PROCESSING.getCode());
+                    throw e;
+                }
+            } else {
+                // 转写结果已保存（上次处理在更新状态前中断），直接更新记录状态为已完成
+                r.transitionTo(RecordStatus.DONE);
+                recordRepository.save(r);
+            }
+            metrics.recordOutcome("async", "done");
+        } catch (AsrException e) {
+            if (e.getReason().isRetryable() && attempt < wiztipProperties.getPipeline().getAsrRetryAttempts()) {
+                retrying = scheduleRetry(recordId, attempt, e);
+                if (retrying) {
+                    return;
+                }
+            }
+            fail(r, recordId, e);
+        } catch (Exception e) {
+            fail(r, recordId, e);
+        } finally {
+            if (!retrying) {
+                try {
+                    Files.deleteIfExists(spool);
+                } catch (IOException e) {
+                    log.warn("暂存文件删除失败 path={}", spool);
+                }
+            }
+        }
+    }
+
+    /**
+     * 延迟后重新提交处理（暂存文件保留）
+     *
+     * @param recordId 语音记录ID
+     * @param attempt 本次是第几次处理
+     * @param cause 本次识别失败的原因
+     * @return 已安排重新处理时为true
+     */
+    private boolean scheduleRetry(Long recordId, int attempt, AsrException cause) {
+        long delay = Math.max(cause.getRetryAfterSeconds(),
+            (long) wiztipProperties.getPipeline().getAsrRetryDelaySeconds() * attempt);
+        try {
+            retryScheduler.schedule(() -> {
+                try {
+                    executor.execute(() -> process(recordId, attempt + 1));
+                } catch (RejectedExecutionException e) {
+                    // 队列已满或正在停机：记录保持处理中，下次启动时恢复
+                    log.warn("重新识别提交失败 recordId={} attempt={}", recordId, attempt + 1);
+                }
+            }, delay, TimeUnit.SECONDS);
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+        log.warn("识别暂时失败，稍后重试 recordId={} attempt={} reason={} delaySec={}", recordId, attempt,
+            cause.getReason(), delay);
+        return true;
+    }
+
+    /**
+     * 记录处理失败
+     */
+    private void fail(VoiceRecord r, Long recordId, Exception e) {
+        log.error("异步处理失败 recordId={} error={}", recordId, e.getMessage());
+        if (r != null) {
+            markFailed(r, e.getMessage());
+        }
+        metrics.recordOutcome("async", "failed");
+    }
+
+    /**
+     * 将记录标记为失败并保存失败原因
+     *
+     * @param r 语音记录
+     * @param reason 失败原因
+     */
+    private void markFailed(VoiceRecord r, String reason) {
+        if (r.getRecordStatus() != null && r.getRecordStatus().isTerminal()) {
+            return;
+        }
+        if (reason != null && reason.length() > 500) {
+            reason = reason.substring(0, 500);
+        }
+        r.setErrorMessage(reason);
+        r.transitionTo(RecordStatus.FAILED);
+        recordRepository.save(r);
+    }
+
+    /**
+     * 从文件名提取音频格式，无扩展名时按wav处理
+     *
+     * @param fileName 原始文件名
+     * @return 小写的音频格式
+     */
+    private static String formatOf(String fileName) {
+        if (fileName != null && fileName.contains(".")) {
+            return fileName.substring(fileName.lastIndexOf(".") + 1).toLowerCase();
+        }
+        return "wav";
+    }
+
+    /**
+     * 获取记录对应的暂存文件路径
+     *
+     * @param recordId 语音记录ID
+     * @return 暂存文件路径
+     */
+    private Path spoolFile(Long recordId) {
+        return spoolDir.resolve(recordId + ".audio");
+    }
+
+    /**
+     * 读取暂存目录中的节点标识，不存在时生成并写入
+     *
+     * 标识跟着暂存目录走：同一个暂存目录（如挂载的持久卷）重启后仍是同一个节点，能接着处理上次留下的记录
+     */
+    private static String loadNodeId(Path dir) throws IOException {
+        Path file = dir.resolve("node-id");
+        if (Files.exists(file)) {
+            String id = Files.readString(file).strip();
+            if (!id.isEmpty()) {
+                return id;
+            }
+        }
+        String id = UUID.randomUUID().toString();
+        Files.writeString(file, id);
+        return id;
+    }
+
+    /**
+     * 提交结果
+     *
+     * @param record 语音记录
+     * @param duplicate 是否为重复上传（record为之前上传的记录）
+     */
+    public record Submission(VoiceRecord record, boolean duplicate) {}
+}
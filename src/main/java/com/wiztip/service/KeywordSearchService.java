@@ -0,0 +1,65 @@
+package com.wiztip.service;
+
+import com.wiztip.config.WiztipProperties;
+import com.wiztip.entity.VoiceTranscript;
+import com.wiztip.repository.VoiceTranscriptRepository;
+import com.wiztip.search.Highlighter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * 转写文本关键词检索服务
+ *
+ * transcript_text是普通TEXT列，LIKE '%关键词%'只能全表扫描；检索改用列上的ngram全文索引（ft_transcript_text，
+ * 按相邻两个字切分），由TranscriptKeywordSearch按查询词拼接全文检索条件并限定用户：
+ * - 全文索引和数据同在MySQL中，转写保存的事务提交后所有节点立即可查，不需要在各节点内存中维护索引
+ * - 先统计命中总数，再按时间从新到旧读取当前页
+ *
+ * @author Wiztip Team
+ */
+@Service
+public class KeywordSearchService {
+
+    @Autowired
+    private WiztipProperties wiztipProperties;
+
+    @Autowired
+    private VoiceTranscriptRepository transcriptRepo;
+
+    /**
+     * 按关键词检索用户的转写记录
+     *
+     * 查询文本按空白和标点拆成多个词，所有词都出现的转写才算命中
+     *
+     * @param userId 用户ID
+     * @param query 查询文本
+     * @param page 页码（从0开始）
+     * @param size 每页条数（不超过maxPageSize）
+     * @return 命中总数、查询词和当前页的转写记录
+     */
+    public Result search(String userId, String query, int page, int size) {
+        List<String> terms = Highlighter.terms(query);
+        if (terms.isEmpty()) {
+            return new Result(0, terms, List.of());
+        }
+        int limit = Math.max(1, Math.min(size, wiztipProperties.getSearch().getMaxPageSize()));
+        int offset = (int) Math.min(Integer.MAX_VALUE, (long) Math.max(0, page) * limit);
+
+        long total = transcriptRepo.countByKeywords(userId, terms);
+        if (total <= offset) {
+            return new Result(total, terms, List.of());
+        }
+        return new Result(total, terms, transcriptRepo.findByKeywords(userId, terms, offset, limit));
+    }
+
+    /**
+     * 检索结果
+     *
+     * @param total 命中总数
+     * @param terms 拆分后的查询词（用于高亮）
+     * @param transcripts 当前页的转写记录（按时间从新到旧）
+     */
+    public record Result(long total, List<String> terms, List<VoiceTranscript> transcripts) {}
+}
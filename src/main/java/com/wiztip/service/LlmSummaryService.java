@@ -2,33 +2,73 @@ package com.wiztip.service;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.wiztip.repository.VoiceTranscriptRepository;
 import com.wiztip.repository.DailySummaryRepository;
 import com.wiztip.entity.DailySummary;
+import com.wiztip.entity.SummaryStatus;
+import com.wiztip.repository.TranscriptRow;
+import com.wiztip.repository.VoiceTranscriptRepository;
+import com.wiztip.config.WiztipProperties;
+import com.wiztip.metrics.PipelineMetrics;
+import com.wiztip.resilience.RateLimiter;
 import org.apache.hc.client5.http.classic.methods.HttpPost;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
-import org.apache.hc.client5.http.impl.classic.CloseableHttpResponse;
-import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.core5.http.io.entity.EntityUtils;
 import org.apache.hc.core5.http.io.entity.StringEntity;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * LLM智能总结服务
  * 
  * 使用大语言模型（如通义千问）生成用户每日语音内容的智能总结
- * 由定时任务每天23点自动触发
+ * 由定时任务每天23点自动触发，用户按哈希分区，各分区作为独立任务在集群节点间分配执行，
+ * 输入由DailyTranscriptLoader按用户分页提供
+ * 
+ * 用户之间并行处理（固定大小线程池），所有LLM请求共享一个全局令牌桶限流器，
+ * 单个用户失败按指数退避重试，重试耗尽后仅记录失败，不影响其他用户
+ * 
+ * 当天文本超出单次请求的token预算时按map-reduce分块总结（见summarize，提示词见SummaryPrompts）
  * 
  * @author Wiztip Team
  */
 @Service
 public class LlmSummaryService {
 
+    private static final Logger log = LoggerFactory.getLogger(LlmSummaryService.class);
+
+    /** 与其他节点并发保存冲突时的最多尝试次数 */
+    private static final int MAX_SAVE_ATTEMPTS = 3;
+
     /** LLM API密钥 */
     @Value("${wiztip.llm.apiKey}")
     private String apiKey;
@@ -38,71 +78,433 @@ public class LlmSummaryService {
     private String endpoint;
 
     @Autowired
-    private VoiceTranscriptRepository transcriptRepo;
+    private WiztipProperties wiztipProperties;
+
+    @Autowired
+    private DailyTranscriptLoader transcriptLoader;
     
     @Autowired
     private DailySummaryRepository summaryRepo;
 
+    @Autowired
+    private VoiceTranscriptRepository transcriptRepo;
+
+    /** LLM专用的连接池HTTP客户端（见HttpClientConfig） */
+    @Autowired
+    @Qualifier("llmHttpClient")
+    private CloseableHttpClient llmHttpClient;
+
+    @Autowired
+    private PipelineMetrics metrics;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
     private final ObjectMapper mapper = new ObjectMapper();
 
+    /** LLM全局限流器（所有总结请求共享） */
+    private RateLimiter llmLimiter;
+
+    /** 分块总结和合并请求的共享线程池 */
+    private ExecutorService chunkExecutor;
+
+    /** 草稿更新的累计计数器 */
+    private final RunStats draftStats = new RunStats();
+
+    /**
+     * 初始化全局限流器、分块线程池和事务模板
+     */
+    @PostConstruct
+    public void init() {
+        WiztipProperties.Llm cfg = wiztipProperties.getLlm();
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        llmLimiter = new RateLimiter(cfg.getRateLimitPerSecond(), cfg.getRateLimitBurst());
+        AtomicInteger seq = new AtomicInteger();
+        chunkExecutor = Executors.newFixedThreadPool(Math.max(1, cfg.getMapParallelism()), r -> {
+            Thread t = new Thread(r, "summary-chunk-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
     /**
-     * 为所有用户生成每日总结
+     * 关闭分块线程池
+     */
+    @PreDestroy
+    public void shutdown() {
+        chunkExecutor.shutdownNow();
+    }
+
+    /**
+     * 为一个用户分区定稿每日总结
      * 
      * 执行流程：
-     * 1. 查询所有有语音记录的用户
-     * 2. 逐个用户获取当天的转写文本
-     * 3. 调用LLM生成总结
+     * 1. DailyTranscriptLoader按(user_id, create_time, id)分页读取该分区当天的转写，按用户分组
+     * 2. 每读完一个用户即提交到线程池，按summaryConcurrency并行处理
+     *    （在途用户数有上限，线程池繁忙时暂停读取下一页；两页之间不占用数据库游标）
+     * 3. 调用LLM生成总结（全局限流，失败按指数退避重试）
      * 4. 保存总结到数据库
      * 
-     * 该方法由定时任务SummaryJob每天23点调用
-     */
-    public void generateDailySummaries() {
-        // 1. 获取所有用户ID
-        List<String> users = transcriptRepo.findAllUserIds();
-        
-        // 2. 遍历每个用户
-        for (String userId : users) {
-            // 2.1 获取该用户今天的所有转写文本
-            List<String> texts = transcriptRepo.findTodayTextsByUser(userId);
-            if (texts.isEmpty()) {
-                continue; // 如果当天没有语音记录，跳过
+     * 单个用户失败不影响其他用户，失败的用户不会写入总结；
+     * 超过summaryRunTimeoutMinutes仍未完成的用户计入未完成。
+     * 已定稿的用户直接跳过，因此同一分区重复执行（如节点宕机后由其他节点恢复）会从未完成的用户继续
+     * 
+     * 该方法由分区任务SummaryPartitionJob调用
+     * 
+     * @param date 总结日期
+     * @param partition 分区号（0 ~ partitions-1）
+     * @param partitions 分区总数
+     * @return 本次运行的统计报告
+     */
+    public RunReport generateDailySummaries(LocalDate date, int partition, int partitions) {
+        WiztipProperties.Llm cfg = wiztipProperties.getLlm();
+        long start = System.currentTimeMillis();
+        long deadline = start + TimeUnit.MINUTES.toMillis(cfg.getSummaryRunTimeoutMinutes());
+
+        int concurrency = Math.max(1, cfg.getSummaryConcurrency());
+        RunStats stats = new RunStats();
+        // 在途用户上限：正在处理的加上排队的，超过时阻塞读取
+        Semaphore slots = new Semaphore(concurrency * 2);
+        AtomicInteger seq = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency, r -> {
+            Thread t = new Thread(r, "summary-worker-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+
+        // 1~2. 分页读取当天文本，按用户并行处理
+        try {
+            transcriptLoader.forEachUser(date, partition, partitions, day -> {
+                try {
+                    if (!slots.tryAcquire(deadline - System.currentTimeMillis(), TimeUnit.MILLISECONDS)) {
+                        throw new CancellationException("超过运行时间上限");
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new CancellationException("运行被中断");
+                }
+                stats.submitted.incrementAndGet();
+                executor.execute(() -> {
+                    try {
+                        stats.record(day.userId(), summarizeUser(day, date, stats));
+                    } finally {
+                        slots.release();
+                    }
+                });
+            });
+            executor.shutdown();
+            if (!executor.awaitTermination(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS)) {
+                log.warn("每日总结超时，取消剩余用户 date={} partition={} timeoutMinutes={}", date, partition,
+                    cfg.getSummaryRunTimeoutMinutes());
             }
-            
-            // 2.2 将所有文本合并
-            String joined = String.join("\n", texts);
-            
-            // 2.3 调用LLM生成总结
-            String summary = callLlmForSummary(joined);
-            
-            // 2.4 保存总结到数据库
-            DailySummary ds = new DailySummary();
-            ds.setUserId(userId);
-            ds.setSummaryText(summary);
-            ds.setDate(LocalDate.now());
-            ds.setPushStatus(0); // 0-未推送
-            summaryRepo.save(ds);
+        } catch (CancellationException e) {
+            log.warn("每日总结读取提前结束，取消剩余用户 date={} partition={} error={}", date, partition, e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        RunReport report = stats.toReport(date, partition, partitions, System.currentTimeMillis() - start);
+        log.info("每日总结运行报告 {}", report.format());
+        return report;
+    }
+
+    /**
+     * 定稿单个用户的每日总结
+     * 
+     * - 已定稿：跳过
+     * - 草稿已汇总到当天最后一条转写：直接定稿，无需调用LLM
+     * - 草稿落后：将尚未汇总的转写合并进草稿后定稿
+     * - 没有草稿：按当天全部文本生成总结（超出单块预算时分块总结再合并），当天没有有效文本时跳过
+     * 
+     * 首次处理使用分页读取时已取得的转写；保存冲突后重新读取总结和剩余的转写
+     * 
+     * @return 处理结果
+     */
+    private Outcome summarizeUser(DailyTranscriptLoader.UserDay day, LocalDate date, RunStats stats) {
+        String userId = day.userId();
+        AtomicInteger attempts = new AtomicInteger();
+        try {
+            return retryOnConflict(userId, date, () -> finalizeUser(userId, date,
+                attempts.getAndIncrement() == 0 ? day.rows() : unsummarizedRows(userId, date), stats));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Outcome.UNFINISHED;
+        } catch (Exception e) {
+            log.warn("用户每日总结失败 userId={} date={} error={}", userId, date, e.getMessage());
+            return Outcome.FAILED;
+        }
+    }
+
+    private Outcome finalizeUser(String userId, LocalDate date, List<TranscriptRow> rows, RunStats stats)
+            throws Exception {
+        DailySummary ds = summaryRepo.findByUserIdAndDate(userId, date).orElse(null);
+        if (ds != null && ds.getSummaryStatus() == SummaryStatus.FINAL) {
+            return Outcome.SKIPPED;
+        }
+
+        Outcome outcome;
+        List<Long> folded;
+        if (ds != null) {
+            folded = foldNewTranscripts(ds, rows, stats);
+            outcome = folded.isEmpty() ? Outcome.FINALIZED_DRAFT : Outcome.SUCCEEDED;
+        } else {
+            ds = newSummary(userId, date);
+            folded = foldNewTranscripts(ds, rows, stats);
+            if (folded.isEmpty() || ds.getSummaryText() == null) {
+                return Outcome.SKIPPED;
+            }
+            outcome = Outcome.SUCCEEDED;
+        }
+
+        // 保存定稿
+        ds.setStatus(SummaryStatus.FINAL.getCode());
+        save(ds, folded);
+        return outcome;
+    }
+
+    /**
+     * 将用户某天的新转写合并进总结草稿
+     * 
+     * 由SummaryDraftUpdater在用户保存转写后（防抖）调用；已定稿的总结不再更新
+     * 
+     * @param userId 用户ID
+     * @param date 日期
+     * @return 是否更新了草稿
+     * @throws Exception LLM调用失败或等待被中断
+     */
+    public boolean updateDraft(String userId, LocalDate date) throws Exception {
+        return retryOnConflict(userId, date, () -> draftUser(userId, date));
+    }
+
+    private boolean draftUser(String userId, LocalDate date) throws Exception {
+        DailySummary ds = summaryRepo.findByUserIdAndDate(userId, date).orElse(null);
+        if (ds != null && ds.getSummaryStatus() == SummaryStatus.FINAL) {
+            return false;
+        }
+        if (ds == null) {
+            ds = newSummary(userId, date);
         }
+        List<Long> folded = foldNewTranscripts(ds, unsummarizedRows(userId, date), draftStats);
+        if (folded.isEmpty()) {
+            return false;
+        }
+        ds.setStatus(SummaryStatus.DRAFT.getCode());
+        save(ds, folded);
+        return true;
     }
 
     /**
-     * 调用LLM API生成内容总结
+     * 读取用户某天尚未汇总的转写
+     */
+    private List<TranscriptRow> unsummarizedRows(String userId, LocalDate date) {
+        return transcriptRepo.findUnsummarizedTexts(userId, date.atStartOfDay(), date.plusDays(1).atStartOfDay());
+    }
+
+    /**
+     * 将尚未汇总的转写合并进总结（不保存）
+     * 
+     * 已有总结时只把新增内容交给LLM，请求长度与当天累计的数据量无关；
+     * 新增内容本身超出单块预算时先分块压缩
+     * 
+     * @param rows 尚未汇总的转写（按时间顺序）
+     * @return 合并的转写ID，没有新增转写时为空；须随总结一起标记为已汇总（见save）
+     */
+    private List<Long> foldNewTranscripts(DailySummary ds, List<TranscriptRow> rows, RunStats stats)
+            throws Exception {
+        if (rows.isEmpty()) {
+            return List.of();
+        }
+
+        List<Long> ids = new ArrayList<>(rows.size());
+        List<String> texts = new ArrayList<>(rows.size());
+        for (TranscriptRow row : rows) {
+            ids.add(row.id());
+            if (row.text() != null && !row.text().isBlank()) {
+                texts.add(row.text());
+            }
+        }
+        if (!texts.isEmpty()) {
+            if (ds.getSummaryText() == null) {
+                ds.setSummaryText(summarize(texts, stats));
+            } else {
+                String added = TranscriptChunker.chunk(texts, wiztipProperties.getLlm().getChunkTokenBudget()).size() <= 1
+                    ? String.join("\n", texts)
+                    : summarize(texts, stats);
+                ds.setSummaryText(callWithRetry(
+                    "以下是用户今天已有的总结和之后新增的语音内容，请把新增内容合并进去，输出更新后的完整总结：\n" +
+                    "【已有总结】\n" + ds.getSummaryText() + "\n【新增内容】\n" + added, stats));
+            }
+        }
+        ds.setLastTranscriptId(rows.get(rows.size() - 1).id());
+        return ids;
+    }
+
+    /**
+     * 保存总结并把合并进去的转写标记为已汇总（同一个事务）
+     * 
+     * 两者一起提交或一起回滚；是否已汇总看的是转写自身的标记，与转写ID的分配顺序和提交先后无关。
+     * 转写读取后已被其他更新（如草稿更新）汇总时，按保存冲突回滚，由retryOnConflict重新读取
+     */
+    private void save(DailySummary ds, List<Long> folded) {
+        ds.setUpdatedAt(LocalDateTime.now());
+        transactionTemplate.executeWithoutResult(status -> {
+            // 立即flush，版本号冲突和唯一约束冲突在这里抛出，由retryOnConflict处理
+            summaryRepo.saveAndFlush(ds);
+            if (!folded.isEmpty() && transcriptRepo.markSummarized(folded) != folded.size()) {
+                throw new OptimisticLockingFailureException("部分转写已被其他更新汇总");
+            }
+        });
+    }
+
+    private DailySummary newSummary(String userId, LocalDate date) {
+        DailySummary ds = new DailySummary();
+        ds.setUserId(userId);
+        ds.setDate(date);
+        ds.setPushStatus(0); // 0-未推送
+        ds.setCreatedAt(LocalDateTime.now());
+        return ds;
+    }
+
+    /**
+     * 执行一次"读取-合并-保存"，保存时与其他更新冲突则重新读取再执行
+     * 
+     * 同一用户的草稿更新与定稿（无论在同一节点还是不同节点）不再用锁互斥：读取总结时记下版本号，
+     * LLM调用期间不持有任何锁，保存时由版本号检查期间是否被别人改过。
+     * 冲突有两种：总结已被别人更新（版本号不符），或双方同时为该用户当天新建总结（唯一约束冲突）。
+     * 冲突的一方整个事务回滚（转写仍是未汇总状态），重新执行时读到对方保存后的总结和剩余的转写，
+     * 对方已定稿时直接结束
+     */
+    private <T> T retryOnConflict(String userId, LocalDate date, Callable<T> update) throws Exception {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return update.call();
+            } catch (OptimisticLockingFailureException | DataIntegrityViolationException e) {
+                if (attempt >= MAX_SAVE_ATTEMPTS) {
+                    throw e;
+                }
+                log.info("总结保存冲突，重新读取 userId={} date={} attempt={}", userId, date, attempt);
+            }
+        }
+    }
+
+    /**
+     * 总结一组转写文本
+     * 
+     * 文本在单块token预算内时直接总结；否则按map-reduce分块处理：
+     * 1. map：按chunkTokenBudget切块，各块并行提炼要点
+     * 2. reduce：每reduceFanIn个部分总结合并一次，逐层合并直到只剩一份
+     * 
+     * 分块和合并请求在共享线程池中执行，受全局限流约束，单次请求的长度和耗时有上限
+     * 
+     * @param texts 转写文本（按时间顺序）
+     * @param stats 运行计数器
+     * @return 总结文本
+     * @throws Exception 任一请求重试后仍失败，或等待被中断
+     */
+    private String summarize(List<String> texts, RunStats stats) throws Exception {
+        WiztipProperties.Llm cfg = wiztipProperties.getLlm();
+        List<String> chunks = TranscriptChunker.chunk(texts, cfg.getChunkTokenBudget());
+        if (chunks.size() <= 1) {
+            return callWithRetry(SummaryPrompts.single(texts), stats);
+        }
+
+        // map：各块并行提炼要点
+        int total = chunks.size();
+        List<Callable<String>> mapTasks = new ArrayList<>(total);
+        for (int i = 0; i < total; i++) {
+            String prompt = SummaryPrompts.map(i, total, chunks.get(i));
+            mapTasks.add(() -> callWithRetry(prompt, stats));
+        }
+        List<String> partials = invokeAll(mapTasks);
+
+        // reduce：逐层合并部分总结
+        int fanIn = Math.max(2, cfg.getReduceFanIn());
+        while (partials.size() > 1) {
+            List<Callable<String>> reduceTasks = new ArrayList<>();
+            for (List<String> group : SummaryPrompts.groupForReduce(partials, fanIn, cfg.getChunkTokenBudget())) {
+                if (group.size() == 1) {
+                    String only = group.get(0);
+                    reduceTasks.add(() -> only);
+                    continue;
+                }
+                String prompt = SummaryPrompts.reduce(group, group.size() == partials.size());
+                reduceTasks.add(() -> callWithRetry(prompt, stats));
+            }
+            partials = invokeAll(reduceTasks);
+        }
+        return partials.get(0);
+    }
+
+    /**
+     * 在分块线程池中并行执行并按顺序返回结果；任一失败时取消其余任务
+     */
+    private List<String> invokeAll(List<Callable<String>> tasks) throws Exception {
+        List<Future<String>> futures = new ArrayList<>(tasks.size());
+        try {
+            for (Callable<String> task : tasks) {
+                futures.add(chunkExecutor.submit(task));
+            }
+            List<String> results = new ArrayList<>(futures.size());
+            for (Future<String> f : futures) {
+                results.add(f.get());
+            }
+            return results;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof Exception ? (Exception) cause : e;
+        } finally {
+            futures.forEach(f -> f.cancel(true));
+        }
+    }
+
+    /**
+     * 调用LLM，可重试的错误按指数退避重试
+     * 
+     * @param prompt 提示词
+     * @param stats 运行计数器
+     * @return 模型输出
+     * @throws Exception 重试耗尽或遇到不可重试的错误，或等待被中断
+     */
+    private String callWithRetry(String prompt, RunStats stats) throws Exception {
+        WiztipProperties.Llm cfg = wiztipProperties.getLlm();
+        long backoff = cfg.getRetryBackoffMs();
+        for (int attempt = 1; ; attempt++) {
+            llmLimiter.acquire();
+            stats.llmCalls.incrementAndGet();
+            try {
+                return metrics.time(PipelineMetrics.LLM, () -> callLlm(prompt));
+            } catch (LlmCallException e) {
+                if (!e.isRetryable() || attempt >= cfg.getMaxAttempts()) {
+                    throw e;
+                }
+                stats.retries.incrementAndGet();
+                Thread.sleep(backoff + ThreadLocalRandom.current().nextLong(backoff / 2 + 1));
+                backoff *= 2;
+            }
+        }
+    }
+
+    /**
+     * 调用LLM API
      * 
      * 使用通义千问等大语言模型对文本内容进行智能总结
      * 根据实际使用的LLM服务调整请求格式和响应解析
      * 
-     * @param content 待总结的文本内容
-     * @return 生成的总结文本，失败时返回错误信息
+     * @param prompt 完整的提示词
+     * @return 模型输出
+     * @throws LlmCallException 调用失败；网络错误、429和5xx可重试，其余不可重试
      */
-    private String callLlmForSummary(String content) {
-        try (CloseableHttpClient client = HttpClients.createDefault()) {
+    private String callLlm(String prompt) throws LlmCallException {
+        try {
             // 构造HTTP POST请求
             HttpPost post = new HttpPost(endpoint);
             post.setHeader("Content-Type", "application/json");
             post.setHeader("Authorization", "Bearer " + apiKey);
             
-            // 构造Prompt提示词
-            String prompt = "请基于以下内容生成精炼总结：\n" + content;
-            
             // 构造请求体（根据实际LLM API格式调整）
             String payload = mapper.writeValueAsString(java.util.Map.of(
                     "model", "qwen", 
@@ -114,9 +516,13 @@ public class LlmSummaryService {
             ));
             post.setEntity(new StringEntity(payload, StandardCharsets.UTF_8));
             
-            // 发送请求并处理响应
-            try (CloseableHttpResponse resp = client.execute(post)) {
-                String json = new String(resp.getEntity().getContent().readAllBytes(), StandardCharsets.UTF_8);
+            // 发送请求并处理响应（连接在响应体读取完毕后自动归还连接池）
+            return llmHttpClient.execute(post, resp -> {
+                String json = EntityUtils.toString(resp.getEntity(), StandardCharsets.UTF_8);
+                int code = resp.getCode();
+                if (code < 200 || code >= 300) {
+                    throw new LlmCallException("LLM HTTP " + code + ": " + json, code == 429 || code >= 500);
+                }
                 JsonNode node = mapper.readTree(json);
                 
                 // 解析响应（根据实际LLM API返回格式调整）
@@ -124,10 +530,134 @@ public class LlmSummaryService {
                     return node.get("output").toString();
                 }
                 return json;
+            });
+        } catch (LlmCallException e) {
+            throw e;
+        } catch (IOException e) {
+            // 网络错误、超时等
+            throw new LlmCallException("LLM请求失败: " + e.getMessage(), true, e);
+        }
+    }
+
+    /**
+     * 单个用户的处理结果
+     */
+    private enum Outcome { SUCCEEDED, FINALIZED_DRAFT, SKIPPED, FAILED, UNFINISHED }
+
+    /**
+     * LLM调用异常
+     */
+    static class LlmCallException extends IOException {
+        private final boolean retryable;
+
+        LlmCallException(String message, boolean retryable) {
+            super(message);
+            this.retryable = retryable;
+        }
+
+        LlmCallException(String message, boolean retryable, Throwable cause) {
+            super(message, cause);
+            this.retryable = retryable;
+        }
+
+        boolean isRetryable() {
+            return retryable;
+        }
+    }
+
+    /**
+     * 单次运行的计数器（各工作线程并发更新）
+     */
+    private static final class RunStats {
+        /** 报告中最多列出的失败用户数 */
+        private static final int MAX_LISTED_FAILURES = 50;
+
+        /** 每处理多少个用户输出一次进度 */
+        private static final int PROGRESS_STEP = 100;
+
+        final AtomicInteger submitted = new AtomicInteger();
+        final AtomicInteger succeeded = new AtomicInteger();
+        final AtomicInteger finalizedDrafts = new AtomicInteger();
+        final AtomicInteger skipped = new AtomicInteger();
+        final AtomicInteger failed = new AtomicInteger();
+        final AtomicInteger done = new AtomicInteger();
+        final AtomicLong llmCalls = new AtomicLong();
+        final AtomicLong retries = new AtomicLong();
+        final Queue<String> failedUsers = new ConcurrentLinkedQueue<>();
+        final long startMillis = System.currentTimeMillis();
+
+        void record(String userId, Outcome outcome) {
+            switch (outcome) {
+                case SUCCEEDED -> succeeded.incrementAndGet();
+                case FINALIZED_DRAFT -> {
+                    succeeded.incrementAndGet();
+                    finalizedDrafts.incrementAndGet();
+                }
+                case SKIPPED -> skipped.incrementAndGet();
+                case FAILED -> {
+                    failed.incrementAndGet();
+                    if (failedUsers.size() < MAX_LISTED_FAILURES) {
+                        failedUsers.add(userId);
+                    }
+                }
+                case UNFINISHED -> {
+                    return;
+                }
             }
-        } catch (Exception e) {
-            e.printStackTrace();
-            return "LLM_ERROR: " + e.getMessage();
+            int n = done.incrementAndGet();
+            if (n % PROGRESS_STEP == 0) {
+                long elapsed = Math.max(1, System.currentTimeMillis() - startMillis);
+                log.info("每日总结进度 done={} submitted={} usersPerSec={}", n, submitted.get(),
+                    String.format("%.2f", n * 1000.0 / elapsed));
+            }
+        }
+
+        RunReport toReport(LocalDate date, int partition, int partitions, long elapsedMs) {
+            int total = submitted.get();
+            return new RunReport(date, partition, partitions, total, succeeded.get(), finalizedDrafts.get(),
+                skipped.get(), failed.get(), total - done.get(),
+                llmCalls.get(), retries.get(), elapsedMs, List.copyOf(failedUsers));
+        }
+    }
+
+    /**
+     * 每日总结运行报告
+     * 
+     * @param date 总结日期
+     * @param partition 分区号
+     * @param partitions 分区总数
+     * @param totalUsers 当天有转写记录的用户数（已读取的）
+     * @param succeeded 成功定稿的用户数
+     * @param finalizedDrafts 其中草稿已是最新、直接定稿（未调用LLM）的用户数
+     * @param skipped 已定稿或当天转写文本全为空而跳过的用户数
+     * @param failed 重试后仍失败的用户数
+     * @param unfinished 超时或中断未处理完的用户数
+     * @param llmCalls LLM调用次数（含重试）
+     * @param retries 重试次数
+     * @param elapsedMs 总耗时（毫秒）
+     * @param failedUsers 失败用户ID（最多列出50个）
+     */
+    public record RunReport(LocalDate date, int partition, int partitions, int totalUsers, int succeeded,
+                            int finalizedDrafts, int skipped, int failed, int unfinished, long llmCalls,
+                            long retries, long elapsedMs, List<String> failedUsers) {
+
+        /**
+         * @return 每秒处理的用户数
+         */
+        public double usersPerSecond() {
+            return elapsedMs == 0 ? 0 : (totalUsers - unfinished) * 1000.0 / elapsedMs;
+        }
+
+        /**
+         * @return 可读的报告文本
+         */
+        public String format() {
+            return "date=" + date + " partition=" + partition + "/" + partitions +
+                " users=" + totalUsers + " succeeded=" + succeeded + " finalizedDrafts=" + finalizedDrafts +
+                " skipped=" + skipped + " failed=" + failed + " unfinished=" + unfinished +
+                " llmCalls=" + llmCalls + " retries=" + retries + " costMs=" + elapsedMs +
+                " usersPerSec=" + String.format("%.2f", usersPerSecond()) +
+                (failedUsers.isEmpty() ? "" : " failedUsers=" + String.join(",", failedUsers));
         }
     }
 }
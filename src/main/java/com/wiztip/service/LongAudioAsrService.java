@@ -0,0 +1,263 @@
+package com.wiztip.service;
+
+import com.wiztip.audio.AudioContainer;
+import com.wiztip.audio.AudioNormalizer;
+import com.wiztip.audio.AudioSegment;
+import com.wiztip.audio.EnergyVad;
+import com.wiztip.audio.WavCodec;
+import com.wiztip.config.WiztipProperties;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 长音频识别服务
+ *
+ * 识别前先规范化音频：
+ * - 按文件头魔数识别实际格式（忽略扩展名），NLS不支持的格式（如浏览器录制的WebM）直接返回错误
+ * - WAV混合为单声道并重采样为16kHz 16位PCM（AudioNormalizer），压缩格式按实际格式标注后原样提交
+ *
+ * NLS一句话识别接口只支持约60秒音频，长录音（如会议）整体提交会失败或被截断。
+ * 超过maxSegmentSeconds的16位PCM WAV按以下步骤识别：
+ * 1. EnergyVad在静音处切分为不超过maxSegmentSeconds的片段，并丢弃纯静音片段
+ * 2. 各片段混合为单声道WAV，在全局共享的线程池上并行调用一句话识别，
+ *    同时识别的片段数不超过segmentConcurrency（所有请求共享，对应NLS并发配额）
+ * 3. 按时间顺序拼接识别文本，并返回每段的起止时间
+ *
+ * 短音频和压缩格式整体识别。识别失败时抛出AsrException；长音频任一片段失败即取消其余片段，
+ * 片段同样受AsrService的并发限制，NLS繁忙时整段录音快速失败而不是部分片段排队等待
+ *
+ * @author Wiztip Team
+ */
+@Service
+public class LongAudioAsrService {
+
+    private static final Logger log = LoggerFactory.getLogger(LongAudioAsrService.class);
+
+    @Autowired
+    private WiztipProperties wiztipProperties;
+
+    @Autowired
+    private AsrService asrService;
+
+    /** 片段识别线程池（全局共享，线程数即片段识别并发上限） */
+    private ExecutorService segmentExecutor;
+
+    /**
+     * 初始化片段识别线程池
+     */
+    @PostConstruct
+    public void init() {
+        AtomicInteger seq = new AtomicInteger();
+        segmentExecutor = Executors.newFixedThreadPool(
+            Math.max(1, wiztipProperties.getAudio().getSegmentConcurrency()), r -> {
+                Thread t = new Thread(r, "asr-segment-" + seq.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+    }
+
+    /**
+     * 关闭片段识别线程池
+     */
+    @PreDestroy
+    public void shutdown() {
+        segmentExecutor.shutdownNow();
+    }
+
+    /**
+     * 识别本地音频文件
+     *
+     * @param file 音频文件路径
+     * @param format 客户端声明的音频格式（如：wav、mp3、pcm等），仅在文件头无法识别时使用
+     * @return 识别结果
+     * @throws AsrException 识别失败
+     */
+    public Transcription transcribe(Path file, String format) {
+        AudioContainer container;
+        try {
+            container = AudioContainer.sniff(file);
+        } catch (IOException e) {
+            throw new AsrException(AsrException.Reason.AUDIO_ERROR, "音频读取失败: " + e.getMessage(), e);
+        }
+        if (container == AudioContainer.UNKNOWN) {
+            // 无文件头的裸PCM等格式，沿用客户端声明
+            return Transcription.single(asrService.transcribeFromLocalFile(file, format), null);
+        }
+        if (!container.isSupported()) {
+            throw new AsrException(AsrException.Reason.UNSUPPORTED_AUDIO, "不支持的音频格式: " +
+                container.name().toLowerCase() + "（支持WAV/PCM/MP3/AAC/AMR/OPUS）");
+        }
+        if (container != AudioContainer.WAV) {
+            return Transcription.single(asrService.transcribeFromLocalFile(file, container.getNlsFormat()), null);
+        }
+
+        WavCodec.Format wav = readWavFormat(file);
+        if (wav == null) {
+            // ADPCM等WAV编码无法在服务端解码，原样提交
+            return Transcription.single(asrService.transcribeFromLocalFile(file, "wav"), null);
+        }
+        if (!wiztipProperties.getAudio().isNormalize() || AudioNormalizer.isNormalized(wav)) {
+            return transcribeWav(file, wav);
+        }
+
+        Path normalized = file.resolveSibling(file.getFileName() + ".16k.wav");
+        try {
+            long start = System.currentTimeMillis();
+            WavCodec.Format converted = AudioNormalizer.toMono16k(file, wav, normalized);
+            log.info("音频规范化完成 sampleRate={} channels={} bits={} bytes={} normalizedBytes={} costMs={}",
+                wav.sampleRate(), wav.channels(), wav.bitsPerSample(), Files.size(file), Files.size(normalized),
+                System.currentTimeMillis() - start);
+            return transcribeWav(normalized, converted);
+        } catch (IOException e) {
+            throw new AsrException(AsrException.Reason.AUDIO_ERROR, "音频规范化失败: " + e.getMessage(), e);
+        } finally {
+            try {
+                Files.deleteIfExists(normalized);
+            } catch (IOException e) {
+                log.warn("规范化临时文件删除失败 path={}", normalized);
+            }
+        }
+    }
+
+    /**
+     * 识别WAV：短音频整体识别，16位PCM长音频切分后并行识别
+     */
+    private Transcription transcribeWav(Path file, WavCodec.Format wav) {
+        WiztipProperties.Audio cfg = wiztipProperties.getAudio();
+        if (!wav.isPcm16() || wav.durationMs() <= cfg.getMaxSegmentSeconds() * 1000L) {
+            return Transcription.single(asrService.transcribeFromLocalFile(file, "wav", wav.sampleRate()), wav.durationMs());
+        }
+
+        long start = System.currentTimeMillis();
+        List<AudioSegment> segments;
+        try {
+            EnergyVad vad = new EnergyVad(cfg.getVadFrameMs(), cfg.getVadThresholdDb(), cfg.getMinSilenceMs(),
+                cfg.getMaxSegmentSeconds() * 1000, cfg.getSegmentPadMs());
+            segments = vad.segment(file, wav);
+        } catch (Exception e) {
+            throw new AsrException(AsrException.Reason.AUDIO_ERROR, "音频切分失败: " + e.getMessage(), e);
+        }
+        log.info("长音频切分完成 durationMs={} segments={}", wav.durationMs(), segments.size());
+
+        // 1. 提交所有片段（线程池大小即全局并发上限，多余片段排队等待）
+        List<Future<String>> futures = new ArrayList<>(segments.size());
+        for (AudioSegment seg : segments) {
+            futures.add(segmentExecutor.submit(() -> recognizeSegment(file, wav, seg)));
+        }
+
+        // 2. 按时间顺序收集结果，任一片段失败即取消其余片段
+        List<TranscriptSegment> results = new ArrayList<>(segments.size());
+        for (int i = 0; i < segments.size(); i++) {
+            AudioSegment seg = segments.get(i);
+            String text;
+            try {
+                text = futures.get(i).get();
+            } catch (InterruptedException e) {
+                futures.forEach(f -> f.cancel(true));
+                Thread.currentThread().interrupt();
+                throw new AsrException(AsrException.Reason.AUDIO_ERROR, "识别被中断", e);
+            } catch (ExecutionException e) {
+                futures.forEach(f -> f.cancel(true));
+                String where = "第" + (i + 1) + "段（" + seg.startMs(wav.sampleRate()) / 1000 + "秒起）识别失败: ";
+                if (e.getCause() instanceof AsrException cause) {
+                    throw new AsrException(cause.getReason(), where + cause.getMessage(),
+                        cause.getRetryAfterSeconds(), cause);
+                }
+                throw new AsrException(AsrException.Reason.AUDIO_ERROR, where + e.getCause().getMessage(), e.getCause());
+            }
+            results.add(new TranscriptSegment(seg.startMs(wav.sampleRate()), seg.endMs(wav.sampleRate()), text));
+        }
+
+        log.info("长音频识别完成 segments={} costMs={}", segments.size(), System.currentTimeMillis() - start);
+        return new Transcription(stitch(results), results, wav.durationMs());
+    }
+
+    /**
+     * 解析WAV文件头，文件损坏或采样编码不受支持时返回null
+     */
+    private static WavCodec.Format readWavFormat(Path file) {
+        try {
+            return WavCodec.readFormat(file);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * 识别单个片段：读取片段采样、混合为单声道WAV后提交一句话识别
+     */
+    private String recognizeSegment(Path file, WavCodec.Format wav, AudioSegment seg) {
+        short[] samples;
+        try {
+            samples = WavCodec.readMono(file, wav, seg.startFrame(), seg.endFrame());
+        } catch (IOException e) {
+            throw new AsrException(AsrException.Reason.AUDIO_ERROR, "片段读取失败: " + e.getMessage(), e);
+        }
+        return asrService.transcribeFromLocalFile(WavCodec.encodeMono(samples, wav.sampleRate()), "wav", wav.sampleRate());
+    }
+
+    /**
+     * 按时间顺序拼接片段文本
+     *
+     * 中文片段直接相连；两侧都不是中文字符时以空格分隔，避免英文单词粘连
+     */
+    private static String stitch(List<TranscriptSegment> segments) {
+        StringBuilder sb = new StringBuilder();
+        for (TranscriptSegment seg : segments) {
+            String text = seg.text().strip();
+            if (text.isEmpty()) {
+                continue;
+            }
+            if (sb.length() > 0 && !isCjk(sb.charAt(sb.length() - 1)) && !isCjk(text.charAt(0))) {
+                sb.append(' ');
+            }
+            sb.append(text);
+        }
+        return sb.toString();
+    }
+
+    private static boolean isCjk(char c) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(c);
+        return script == Character.UnicodeScript.HAN
+            || Character.UnicodeBlock.of(c) == Character.UnicodeBlock.CJK_SYMBOLS_AND_PUNCTUATION
+            || Character.UnicodeBlock.of(c) == Character.UnicodeBlock.HALFWIDTH_AND_FULLWIDTH_FORMS;
+    }
+
+    /**
+     * 识别结果
+     *
+     * @param text 完整识别文本
+     * @param segments 各片段的起止时间和文本；整体识别时为空
+     * @param durationMs 音频时长（毫秒），无法解析时为null
+     */
+    public record Transcription(String text, List<TranscriptSegment> segments, Long durationMs) {
+
+        static Transcription single(String text, Long durationMs) {
+            return new Transcription(text, List.of(), durationMs);
+        }
+    }
+
+    /**
+     * 片段识别结果
+     *
+     * @param startMs 片段起始时间（毫秒）
+     * @param endMs 片段结束时间（毫秒）
+     * @param text 片段识别文本
+     */
+    public record TranscriptSegment(long startMs, long endMs, String text) {}
+}
@@ -0,0 +1,243 @@
+package com.wiztip.service;
+
+import com.alibaba.nls.client.AccessToken;
+import com.wiztip.config.WiztipProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
+
+/**
+ * 阿里云NLS Token管理器
+ *
+ * 负责NLS Token的获取、缓存和刷新：
+ * 1. 读取无锁：Token保存在volatile字段中，有效期内直接返回
+ * 2. 单飞刷新：同一时刻只有一个线程调用accessTokenClient.apply()，并发请求等待同一次刷新结果
+ * 3. 提前刷新：后台调度器在Token过期前refreshAheadSeconds主动刷新，请求线程通常感知不到刷新过程
+ * 4. 失败重试：后台刷新失败后按tokenRetrySeconds重试，旧Token在真正过期前继续可用
+ *
+ * 指标：
+ * - wiztip.nls.token.refresh（Timer，outcome=success|failure）：刷新耗时和失败次数
+ * - wiztip.nls.token.ttl（Gauge，秒）：当前Token剩余有效期
+ *
+ * @author Wiztip Team
+ */
+@Service
+public class NlsTokenManager {
+
+    private static final Logger log = LoggerFactory.getLogger(NlsTokenManager.class);
+
+    /** Token实际过期前保留的安全余量（毫秒），余量内不再使用旧Token */
+    private static final long EXPIRY_SAFETY_MS = 60_000L;
+
+    /** 固定Token的名义有效期（毫秒），到期后按正常流程再次“刷新”为同一个Token */
+    private static final long STATIC_TOKEN_TTL_MS = TimeUnit.DAYS.toMillis(1);
+
+    @Autowired
+    private WiztipProperties wiztipProperties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /** 当前Token（无锁读取） */
+    private volatile CachedToken current;
+
+    /** 正在进行中的刷新，用于合并并发刷新请求 */
+    private final AtomicReference<CompletableFuture<CachedToken>> inFlight = new AtomicReference<>();
+
+    /** 阿里云NLS Token客户端（仅由持有刷新权的线程访问） */
+    private AccessToken accessTokenClient;
+
+    /** 后台刷新调度器 */
+    private ScheduledExecutorService scheduler;
+
+    private Timer refreshSuccess;
+    private Timer refreshFailure;
+
+    /**
+     * 初始化指标和后台调度器，并立即在后台获取首个Token
+     */
+    @PostConstruct
+    public void init() {
+        refreshSuccess = Timer.builder("wiztip.nls.token.refresh")
+                .description("NLS Token刷新耗时")
+                .tag("outcome", "success")
+                .register(meterRegistry);
+        refreshFailure = Timer.builder("wiztip.nls.token.refresh")
+                .description("NLS Token刷新耗时")
+                .tag("outcome", "failure")
+                .register(meterRegistry);
+        Gauge.builder("wiztip.nls.token.ttl", this, m -> {
+                    CachedToken t = m.current;
+                    return t == null ? 0 : Math.max(0, t.expireAtMillis() - System.currentTimeMillis()) / 1000.0;
+                })
+                .description("当前NLS Token剩余有效期（秒）")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "nls-token-refresh");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.execute(this::backgroundRefresh);
+    }
+
+    /**
+     * 关闭后台调度器
+     */
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * 获取有效的NLS Token
+     *
+     * 有效期内直接返回缓存值；已过期或尚未获取时触发（或等待）一次刷新
+     *
+     * @return 有效的NLS Token
+     * @throws Exception Token获取失败时抛出异常
+     */
+    public String getToken() throws Exception {
+        CachedToken t = current;
+        if (t != null && t.isUsable(System.currentTimeMillis())) {
+            return t.value();
+        }
+        return refresh(c -> c.isUsable(System.currentTimeMillis())).value();
+    }
+
+    /**
+     * 后台刷新任务
+     *
+     * Token进入提前刷新窗口时刷新，成功后按新Token的过期时间安排下一次刷新，
+     * 失败则按tokenRetrySeconds重试
+     */
+    private void backgroundRefresh() {
+        long aheadMs = wiztipProperties.getAliyun().getAsr().getTokenRefreshAheadSeconds() * 1000L;
+        try {
+            CachedToken t = refresh(c -> System.currentTimeMillis() < c.expireAtMillis() - aheadMs);
+            scheduleNext(t.expireAtMillis() - aheadMs - System.currentTimeMillis());
+        } catch (Exception e) {
+            scheduleNext(wiztipProperties.getAliyun().getAsr().getTokenRetrySeconds() * 1000L);
+        }
+    }
+
+    private void scheduleNext(long delayMs) {
+        if (scheduler.isShutdown()) {
+            return;
+        }
+        scheduler.schedule(this::backgroundRefresh, Math.max(delayMs, 1000L), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 单飞刷新
+     *
+     * 第一个到达的线程负责调用NLS接口，其余线程等待同一个结果；
+     * 进入刷新前再次检查当前Token，避免在他人刚刷新完成后重复刷新
+     *
+     * @param fresh 判断当前Token是否无需刷新
+     * @return 刷新后（或已是最新）的Token
+     * @throws Exception Token获取失败时抛出异常
+     */
+    private CachedToken refresh(Predicate<CachedToken> fresh) throws Exception {
+        CompletableFuture<CachedToken> mine = new CompletableFuture<>();
+        CompletableFuture<CachedToken> existing = inFlight.compareAndExchange(null, mine);
+        if (existing != null) {
+            return await(existing);
+        }
+        try {
+            CachedToken t = current;
+            if (t == null || !fresh.test(t)) {
+                t = fetch();
+                current = t;
+            }
+            mine.complete(t);
+            return t;
+        } catch (Exception e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.set(null);
+        }
+    }
+
+    private CachedToken await(CompletableFuture<CachedToken> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof Exception ? (Exception) cause : e;
+        }
+    }
+
+    /**
+     * 调用阿里云NLS SDK获取新Token
+     *
+     * 配置了staticToken（本地替身服务、压测）时直接使用，不访问阿里云
+     *
+     * @return 新Token
+     * @throws Exception Token获取失败时抛出异常
+     */
+    private CachedToken fetch() throws Exception {
+        WiztipProperties.Asr asr = wiztipProperties.getAliyun().getAsr();
+        if (asr.getStaticToken() != null && !asr.getStaticToken().isEmpty()) {
+            return new CachedToken(asr.getStaticToken(), System.currentTimeMillis() + STATIC_TOKEN_TTL_MS);
+        }
+        long start = System.nanoTime();
+        try {
+            // 初始化AccessToken客户端（如果还没有初始化）
+            if (accessTokenClient == null) {
+                accessTokenClient = new AccessToken(asr.getAccessKeyId(), asr.getAccessKeySecret());
+            }
+
+            accessTokenClient.apply();
+            String token = accessTokenClient.getToken();
+            long expireTime = accessTokenClient.getExpireTime();
+            if (token == null || token.isEmpty()) {
+                throw new Exception("获取到的Token为空");
+            }
+
+            refreshSuccess.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            log.info("NLS Token获取成功 expireAt={} costMs={}", java.time.Instant.ofEpochSecond(expireTime),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            return new CachedToken(token, expireTime * 1000L);
+
+        } catch (Exception e) {
+            refreshFailure.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+            // 提供排查提示：检查AccessKeyId/AccessKeySecret是否正确、是否有NLS服务权限、网络能否访问阿里云API
+            String accessKeyId = asr.getAccessKeyId() == null ? "" : asr.getAccessKeyId();
+            log.error("NLS Token获取失败，请检查AccessKey配置、NLS服务权限和网络 accessKeyId={}... region=cn-shanghai error={}",
+                accessKeyId.substring(0, Math.min(8, accessKeyId.length())), e.getMessage());
+            throw new Exception("NLS Token获取失败: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 缓存的Token
+     *
+     * @param value Token值
+     * @param expireAtMillis 过期时间（毫秒时间戳）
+     */
+    private record CachedToken(String value, long expireAtMillis) {
+
+        /** 距离过期还有安全余量时可继续使用 */
+        boolean isUsable(long now) {
+            return now < expireAtMillis - EXPIRY_SAFETY_MS;
+        }
+    }
+}
@@ -1,20 +1,47 @@
 package com.wiztip.service;
 
 import com.aliyun.oss.OSS;
-import com.aliyun.oss.OSSClientBuilder;
+import com.aliyun.oss.model.AbortMultipartUploadRequest;
+import com.aliyun.oss.model.CompleteMultipartUploadRequest;
+import com.aliyun.oss.model.InitiateMultipartUploadRequest;
+import com.aliyun.oss.model.ObjectMetadata;
+import com.aliyun.oss.model.PartETag;
+import com.aliyun.oss.model.UploadPartRequest;
 import com.wiztip.config.WiztipProperties;
+import com.wiztip.metrics.PipelineMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * 阿里云OSS对象存储服务
- * 
+ *
  * 提供文件上传到阿里云OSS的功能
  * 支持音频文件的持久化存储和URL访问
- * 
+ *
+ * 使用单例OSS客户端（见OssClientConfig），小文件直接putObject，
+ * 超过multipartThreshold的文件按partSize切片并行上传，单文件同时上传的分片数由uploadConcurrency限制
+ *
+ * 上传耗时和文件大小记录在wiztip.pipeline.stage/bytes指标中（stage=oss.upload）
+ *
  * @author Wiztip Team
  */
 @Service
@@ -23,36 +50,249 @@ public class OssService {
     @Autowired
     private WiztipProperties wiztipProperties;
 
+    @Autowired
+    private OSS ossClient;
+
+    @Autowired
+    private PipelineMetrics metrics;
+
+    /** 分片上传共享线程池 */
+    private ThreadPoolExecutor partExecutor;
+
+    /**
+     * 初始化分片上传线程池
+     */
+    @PostConstruct
+    public void init() {
+        int threads = wiztipProperties.getAliyun().getOss().getPartUploadThreads();
+        AtomicInteger seq = new AtomicInteger();
+        partExecutor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(),
+            r -> {
+                Thread t = new Thread(r, "oss-part-" + seq.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+        partExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * 关闭分片上传线程池
+     */
+    @PreDestroy
+    public void shutdown() {
+        partExecutor.shutdown();
+    }
+
     /**
      * 上传文件到阿里云OSS
-     * 
+     *
      * 文件按用户ID分目录存储，文件名添加时间戳避免重复
      * 存储路径格式：user_{userId}/{timestamp}_{原始文件名}
-     * 
+     *
      * @param file 待上传的文件
      * @param userId 用户ID，用于文件路径分类
      * @return 上传后的文件访问URL
      * @throws IOException 文件读取或上传失败时抛出异常
      */
     public String upload(MultipartFile file, String userId) throws IOException {
-        // 创建OSS客户端
-        OSS ossClient = new OSSClientBuilder().build(
-            wiztipProperties.getAliyun().getOss().getEndpoint(),
-            wiztipProperties.getAliyun().getOss().getAccessKeyId(),
-            wiztipProperties.getAliyun().getOss().getAccessKeySecret()
-        );
-        
-        // 构造对象名称：按用户分目录，添加时间戳避免重名
-        String objectName = "user_" + userId + "/" + System.currentTimeMillis() + "_" + file.getOriginalFilename();
-        
-        // 上传文件到OSS
-        ossClient.putObject(wiztipProperties.getAliyun().getOss().getBucket(), objectName, file.getInputStream());
-        
-        // 关闭客户端
-        ossClient.shutdown();
-        
-        // 返回文件的完整访问URL
-        return "https://" + wiztipProperties.getAliyun().getOss().getBucket() + "." + 
-               wiztipProperties.getAliyun().getOss().getEndpoint() + "/" + objectName;
+        try (InputStream in = file.getInputStream()) {
+            return upload(in, file.getSize(), file.getOriginalFilename(), userId);
+        }
+    }
+
+    /**
+     * 从输入流上传文件到阿里云OSS
+     *
+     * 大文件按分片顺序读取输入流并并行上传，内存占用不超过 partSize × uploadConcurrency
+     *
+     * @param in 文件内容输入流（由调用方负责关闭）
+     * @param size 文件大小（字节），未知时传-1（按分片上传处理）
+     * @param originalFilename 原始文件名
+     * @param userId 用户ID，用于文件路径分类
+     * @return 上传后的文件访问URL
+     * @throws IOException 上传失败时抛出异常
+     */
+    public String upload(InputStream in, long size, String originalFilename, String userId) throws IOException {
+        metrics.recordBytes(PipelineMetrics.OSS_UPLOAD, size);
+        return metrics.time(PipelineMetrics.OSS_UPLOAD, () -> doUpload(in, size, originalFilename, userId));
+    }
+
+    private String doUpload(InputStream in, long size, String originalFilename, String userId) throws IOException {
+        WiztipProperties.Oss cfg = wiztipProperties.getAliyun().getOss();
+        String objectName = objectName(originalFilename, userId);
+
+        if (size >= 0 && size < cfg.getMultipartThreshold()) {
+            ObjectMetadata meta = new ObjectMetadata();
+            meta.setContentLength(size);
+            ossClient.putObject(cfg.getBucket(), objectName, in, meta);
+        } else {
+            long partSize = cfg.getPartSize();
+            AtomicInteger partNumber = new AtomicInteger();
+            multipartUpload(objectName, () -> {
+                byte[] buf = in.readNBytes((int) partSize);
+                if (buf.length == 0) {
+                    return null;
+                }
+                return new Part(partNumber.incrementAndGet(), buf.length, () -> new ByteArrayInputStream(buf));
+            });
+        }
+        return objectUrl(objectName);
+    }
+
+    /**
+     * 上传本地文件到阿里云OSS
+     *
+     * 大文件的每个分片直接从文件对应偏移处读取，不经过堆内缓冲
+     *
+     * @param file 本地文件路径
+     * @param originalFilename 原始文件名
+     * @param userId 用户ID，用于文件路径分类
+     * @return 上传后的文件访问URL
+     * @throws IOException 文件读取或上传失败时抛出异常
+     */
+    public String upload(Path file, String originalFilename, String userId) throws IOException {
+        long size = Files.size(file);
+        metrics.recordBytes(PipelineMetrics.OSS_UPLOAD, size);
+        return metrics.time(PipelineMetrics.OSS_UPLOAD, () -> doUpload(file, size, originalFilename, userId));
+    }
+
+    private String doUpload(Path file, long size, String originalFilename, String userId) throws IOException {
+        WiztipProperties.Oss cfg = wiztipProperties.getAliyun().getOss();
+        String objectName = objectName(originalFilename, userId);
+
+        if (size < cfg.getMultipartThreshold()) {
+            ossClient.putObject(cfg.getBucket(), objectName, file.toFile());
+        } else {
+            long partSize = cfg.getPartSize();
+            AtomicInteger partNumber = new AtomicInteger();
+            multipartUpload(objectName, () -> {
+                long offset = (long) partNumber.get() * partSize;
+                if (offset >= size) {
+                    return null;
+                }
+                long length = Math.min(partSize, size - offset);
+                return new Part(partNumber.incrementAndGet(), length, () -> {
+                    InputStream in = Files.newInputStream(file);
+                    in.skipNBytes(offset);
+                    return in;
+                });
+            });
+        }
+        return objectUrl(objectName);
+    }
+
+    /**
+     * 分片并行上传
+     *
+     * 1. 初始化分片上传获取uploadId
+     * 2. 依次从分片来源取出分片提交到线程池，同时在途的分片数不超过uploadConcurrency
+     * 3. 按分片号顺序收集ETag并完成上传；任一分片失败则取消整个上传
+     *
+     * @param objectName OSS对象名称
+     * @param source 分片来源
+     * @throws IOException 上传失败时抛出异常
+     */
+    private void multipartUpload(String objectName, PartSource source) throws IOException {
+        WiztipProperties.Oss cfg = wiztipProperties.getAliyun().getOss();
+        String bucket = cfg.getBucket();
+        String uploadId = ossClient.initiateMultipartUpload(
+            new InitiateMultipartUploadRequest(bucket, objectName)).getUploadId();
+
+        Semaphore inFlight = new Semaphore(cfg.getUploadConcurrency());
+        List<Future<PartETag>> futures = new ArrayList<>();
+        try {
+            while (true) {
+                inFlight.acquire();
+                Part part;
+                try {
+                    part = source.next();
+                } catch (IOException | RuntimeException e) {
+                    inFlight.release();
+                    throw e;
+                }
+                if (part == null) {
+                    inFlight.release();
+                    break;
+                }
+                futures.add(partExecutor.submit(() -> {
+                    try (InputStream partIn = part.opener().call()) {
+                        UploadPartRequest req = new UploadPartRequest();
+                        req.setBucketName(bucket);
+                        req.setKey(objectName);
+                        req.setUploadId(uploadId);
+                        req.setPartNumber(part.number());
+                        req.setPartSize(part.size());
+                        req.setInputStream(partIn);
+                        return ossClient.uploadPart(req).getPartETag();
+                    } finally {
+                        inFlight.release();
+                    }
+                }));
+            }
+
+            List<PartETag> etags = new ArrayList<>(futures.size());
+            for (Future<PartETag> f : futures) {
+                etags.add(f.get());
+            }
+            ossClient.completeMultipartUpload(
+                new CompleteMultipartUploadRequest(bucket, objectName, uploadId, etags));
+        } catch (Exception e) {
+            futures.forEach(f -> f.cancel(true));
+            try {
+                ossClient.abortMultipartUpload(new AbortMultipartUploadRequest(bucket, objectName, uploadId));
+            } catch (Exception abortError) {
+                e.addSuppressed(abortError);
+            }
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            Throwable cause = e instanceof ExecutionException && e.getCause() != null ? e.getCause() : e;
+            throw new IOException("OSS分片上传失败: " + cause.getMessage(), cause);
+        }
+    }
+
+    /**
+     * 构造对象名称：按用户分目录，添加时间戳避免重名
+     */
+    private String objectName(String originalFilename, String userId) {
+        return "user_" + userId + "/" + System.currentTimeMillis() + "_" + originalFilename;
+    }
+
+    /**
+     * 返回文件的完整访问URL
+     */
+    private String objectUrl(String objectName) {
+        WiztipProperties.Oss cfg = wiztipProperties.getAliyun().getOss();
+        String scheme = "https://";
+        String host = cfg.getEndpoint();
+        int sep = host.indexOf("://");
+        if (sep >= 0) {
+            scheme = host.substring(0, sep + 3);
+            host = host.substring(sep + 3);
+        }
+        return cfg.isPathStyle()
+            ? scheme + host + "/" + cfg.getBucket() + "/" + objectName
+            : scheme + cfg.getBucket() + "." + host + "/" + objectName;
+    }
+
+    /**
+     * 待上传的分片
+     *
+     * @param number 分片号（从1开始）
+     * @param size 分片字节数
+     * @param opener 打开分片内容的输入流
+     */
+    private record Part(int number, long size, Callable<InputStream> opener) {}
+
+    /**
+     * 分片来源，按顺序产出分片
+     */
+    @FunctionalInterface
+    private interface PartSource {
+        /**
+         * @return 下一个分片，没有更多数据时返回null
+         */
+        Part next() throws IOException;
     }
 }
@@ -0,0 +1,255 @@
+package com.wiztip.service;
+
+import com.wiztip.config.WiztipProperties;
+import com.wiztip.entity.VoiceRecord;
+import com.wiztip.entity.VoiceTranscript;
+import com.wiztip.metrics.PipelineMetrics;
+import com.wiztip.repository.VoiceRecordRepository;
+import com.wiztip.repository.VoiceTranscriptRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 语音记录写入器
+ *
+ * 语音记录（新建或状态变更）和它的转写结果在同一个事务中写入，每条录音只提交一次。
+ * 主键从id_generator表按号段预分配，配合hibernate.jdbc.batch_size，同一事务内的插入和更新按批发送
+ *
+ * 开启wiztip.persistence.writeBehind时，并发的写入请求先进入队列，由后台线程攒成一批
+ * （最多maxBatchSize条，最长等待maxWaitMs）在一个事务中写入，多条录音共用一次提交；
+ * 调用方等待所在批次提交后才返回，返回即已落库，不会因宕机丢失已确认的结果。
+ * 一批中任意一条写入失败时整批回滚，再逐条重新写入，只有出错的那条返回失败
+ *
+ * 指标：wiztip.db.write.batch.size（每个事务写入的录音数），
+ * write()的耗时（含排队凑批）记录在wiztip.pipeline.stage（stage=db.save）
+ *
+ * @author Wiztip Team
+ */
+@Service
+public class RecordWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(RecordWriter.class);
+
+    @Autowired
+    private WiztipProperties wiztipProperties;
+
+    @Autowired
+    private VoiceRecordRepository recordRepository;
+
+    @Autowired
+    private VoiceTranscriptRepository transcriptRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private PipelineMetrics metrics;
+
+    /** 等待写入的请求 */
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+
+    private TransactionTemplate transactionTemplate;
+
+    private DistributionSummary batchSize;
+
+    /** 凑批写入线程（仅开启writeBehind时启动） */
+    private Thread flusher;
+
+    private volatile boolean running;
+
+    /**
+     * 初始化事务模板、指标和凑批写入线程
+     */
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        batchSize = DistributionSummary.builder("wiztip.db.write.batch.size")
+                .description("每个事务写入的语音记录数")
+                .register(meterRegistry);
+        if (wiztipProperties.getPersistence().isWriteBehind()) {
+            running = true;
+            flusher = new Thread(this::flushLoop, "record-writer");
+            flusher.setDaemon(true);
+            flusher.start();
+        }
+    }
+
+    /**
+     * 停止凑批线程，队列中剩余的请求在当前线程写完
+     *
+     * 与write()的竞争：先置running=false再清空队列，write()入队后重新检查running，
+     * 请求要么被这里清出写入，要么由调用方取回自己写入，不会留在队列里无人处理
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (flusher == null) {
+            return;
+        }
+        running = false;
+        flusher.join(TimeUnit.SECONDS.toMillis(10));
+        List<Pending> rest = new ArrayList<>();
+        queue.drainTo(rest);
+        if (!rest.isEmpty()) {
+            writeBatch(rest);
+        }
+    }
+
+    /**
+     * 写入语音记录及其转写结果
+     *
+     * 语音记录没有ID时新建，否则按当前内容更新；转写结果的recordId在写入时填为语音记录的ID。
+     * 返回后两者的ID均已分配
+     *
+     * @param record 语音记录
+     * @param transcript 转写结果，为null时只写语音记录
+     */
+    public void write(VoiceRecord record, VoiceTranscript transcript) {
+        metrics.time(PipelineMetrics.DB_SAVE, () -> {
+            Pending pending = new Pending(record, transcript);
+            if (running) {
+                queue.add(pending);
+                // 入队后凑批线程可能已经停止、shutdown()也已清空队列：取回成功说明没人会再处理，自己写
+                if (!running && queue.remove(pending)) {
+                    writeBatch(List.of(pending));
+                }
+            } else {
+                writeBatch(List.of(pending));
+            }
+            try {
+                return pending.done().get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("等待写库被中断", e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException re) {
+                    throw re;
+                }
+                throw new IllegalStateException("写库失败: " + e.getCause().getMessage(), e.getCause());
+            }
+        });
+    }
+
+    /**
+     * 凑批循环
+     *
+     * 阻塞等待第一条请求，然后在maxWaitMs内继续收集，直到凑满maxBatchSize或超时，再写入这一批
+     */
+    private void flushLoop() {
+        WiztipProperties.Persistence cfg = wiztipProperties.getPersistence();
+        while (running) {
+            try {
+                Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                List<Pending> batch = new ArrayList<>();
+                batch.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(cfg.getMaxWaitMs());
+                while (batch.size() < cfg.getMaxBatchSize()) {
+                    long remaining = deadline - System.nanoTime();
+                    Pending next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                writeBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * 在一个事务中写入一批，失败时逐条重新写入，并分发各自的结果
+     */
+    private void writeBatch(List<Pending> batch) {
+        try {
+            writeInTransaction(batch);
+            batch.forEach(p -> p.done().complete(null));
+            return;
+        } catch (RuntimeException e) {
+            batch.forEach(Pending::reset);
+            if (batch.size() == 1) {
+                batch.get(0).done().completeExceptionally(e);
+                return;
+            }
+            log.warn("批量写库失败，逐条重试 size={} error={}", batch.size(), e.getMessage());
+        }
+        for (Pending p : batch) {
+            try {
+                writeInTransaction(List.of(p));
+                p.done().complete(null);
+            } catch (RuntimeException e) {
+                p.reset();
+                p.done().completeExceptionally(e);
+            }
+        }
+    }
+
+    private void writeInTransaction(List<Pending> batch) {
+        transactionTemplate.executeWithoutResult(status -> {
+            // 已有的语音记录一次查询载入持久化上下文，随后的merge不再逐条SELECT
+            List<Long> existing = new ArrayList<>();
+            for (Pending p : batch) {
+                if (p.record().getId() != null) {
+                    existing.add(p.record().getId());
+                }
+            }
+            if (!existing.isEmpty()) {
+                recordRepository.findAllById(existing);
+            }
+            for (Pending p : batch) {
+                VoiceRecord saved = recordRepository.save(p.record());
+                p.record().setId(saved.getId());
+                if (p.transcript() != null) {
+                    p.transcript().setRecordId(saved.getId());
+                    transcriptRepository.save(p.transcript());
+                }
+            }
+        });
+        batchSize.record(batch.size());
+    }
+
+    /**
+     * 等待写入的语音记录和转写结果
+     *
+     * @param record 语音记录
+     * @param transcript 转写结果（可为null）
+     * @param done 所在事务提交后完成
+     * @param recordId 写入前语音记录的ID（事务回滚后恢复，避免带着未落库的ID重试）
+     */
+    private record Pending(VoiceRecord record, VoiceTranscript transcript, CompletableFuture<Void> done, Long recordId) {
+
+        Pending(VoiceRecord record, VoiceTranscript transcript) {
+            this(record, transcript, new CompletableFuture<>(), record.getId());
+        }
+
+        void reset() {
+            record.setId(recordId);
+            if (transcript != null) {
+                transcript.setId(null);
+            }
+        }
+    }
+}
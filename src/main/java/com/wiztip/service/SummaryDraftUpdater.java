@@ -0,0 +1,149 @@
+package com.wiztip.service;
+
+import com.wiztip.config.WiztipProperties;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 每日总结草稿增量更新器
+ *
+ * AsrService.saveTranscript保存转写后通知本类，由后台线程把新转写合并进用户当日的总结草稿，
+ * 将LLM调用分散到白天，23点的定时任务只需定稿
+ *
+ * 防抖：用户最后一次保存后静默draftDebounceSeconds才更新，连续录音只触发一次更新；
+ * 持续有新转写时，最晚draftMaxDelaySeconds更新一次。
+ * 同一用户同一时刻只有一个更新在执行，执行期间到达的新转写在本次完成后重新排期
+ *
+ * 待更新状态只在内存中，重启丢失的部分由23点定时任务补齐（尚未汇总的转写见voice_transcript.summarized）
+ *
+ * @author Wiztip Team
+ */
+@Service
+public class SummaryDraftUpdater {
+
+    private static final Logger log = LoggerFactory.getLogger(SummaryDraftUpdater.class);
+
+    @Autowired
+    private WiztipProperties wiztipProperties;
+
+    @Autowired
+    private LlmSummaryService llmSummaryService;
+
+    /** 待更新的用户日 -> 排期 */
+    private final Map<Key, Due> pending = new ConcurrentHashMap<>();
+
+    /** 正在更新的用户日 */
+    private final Set<Key> running = ConcurrentHashMap.newKeySet();
+
+    /** 排期检查调度器 */
+    private ScheduledExecutorService ticker;
+
+    /** 草稿更新线程池 */
+    private ExecutorService workers;
+
+    /**
+     * 启动排期检查和更新线程
+     */
+    @PostConstruct
+    public void init() {
+        ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "summary-draft-ticker");
+            t.setDaemon(true);
+            return t;
+        });
+        AtomicInteger seq = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(Math.max(1, wiztipProperties.getLlm().getDraftConcurrency()), r -> {
+            Thread t = new Thread(r, "summary-draft-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        ticker.scheduleWithFixedDelay(this::dispatchDue, 1, 1, TimeUnit.SECONDS);
+    }
+
+    /**
+     * 停止排期检查和更新线程
+     */
+    @PreDestroy
+    public void shutdown() {
+        ticker.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    /**
+     * 通知用户保存了新转写
+     *
+     * @param userId 用户ID
+     * @param date 转写所属日期
+     */
+    public void onTranscriptSaved(String userId, LocalDate date) {
+        WiztipProperties.Llm cfg = wiztipProperties.getLlm();
+        if (!cfg.isDraftEnabled()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        long debounce = cfg.getDraftDebounceSeconds() * 1000L;
+        long maxDelay = cfg.getDraftMaxDelaySeconds() * 1000L;
+        pending.merge(new Key(userId, date), new Due(now, now + debounce),
+            (old, fresh) -> new Due(old.firstAt(), Math.min(fresh.dueAt(), old.firstAt() + maxDelay)));
+    }
+
+    /**
+     * 将到期的用户日提交到更新线程池
+     */
+    private void dispatchDue() {
+        long now = System.currentTimeMillis();
+        for (Map.Entry<Key, Due> e : pending.entrySet()) {
+            Key key = e.getKey();
+            if (e.getValue().dueAt() > now || running.contains(key)) {
+                continue;
+            }
+            if (!pending.remove(key, e.getValue())) {
+                continue;
+            }
+            running.add(key);
+            try {
+                workers.execute(() -> update(key));
+            } catch (RejectedExecutionException ex) {
+                running.remove(key);
+            }
+        }
+    }
+
+    private void update(Key key) {
+        try {
+            llmSummaryService.updateDraft(key.userId(), key.date());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            // 失败时转写仍是未汇总状态，由下次更新或23点定稿时补上
+            log.warn("总结草稿更新失败 userId={} date={} error={}", key.userId(), key.date(), e.getMessage());
+        } finally {
+            running.remove(key);
+        }
+    }
+
+    private record Key(String userId, LocalDate date) {}
+
+    /**
+     * 排期
+     *
+     * @param firstAt 本轮第一次通知的时间
+     * @param dueAt 计划更新的时间
+     */
+    private record Due(long firstAt, long dueAt) {}
+}
@@ -0,0 +1,87 @@
+package com.wiztip.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 每日总结提示词组装
+ *
+ * LlmSummaryService按map-reduce分块总结时使用的提示词和reduce分组规则，
+ * 不涉及LLM调用，可单独做基准测试
+ *
+ * @author Wiztip Team
+ */
+public final class SummaryPrompts {
+
+    private SummaryPrompts() {
+    }
+
+    /**
+     * 单块总结的提示词（当天文本在单块token预算内）
+     *
+     * @param texts 转写文本（按时间顺序）
+     * @return 提示词
+     */
+    public static String single(List<String> texts) {
+        return "请基于以下内容生成精炼总结：\n" + String.join("\n", texts);
+    }
+
+    /**
+     * map阶段提炼单块要点的提示词
+     *
+     * @param index 块序号（从0开始）
+     * @param total 总块数
+     * @param chunk 块内容
+     * @return 提示词
+     */
+    public static String map(int index, int total, String chunk) {
+        return "以下是用户当天语音记录的第" + (index + 1) + "/" + total + "部分，请提炼其中的要点：\n" + chunk;
+    }
+
+    /**
+     * reduce阶段合并一组部分总结的提示词
+     *
+     * @param group 相邻的部分总结
+     * @param last 是否为最后一次合并（合并结果即每日总结）
+     * @return 提示词
+     */
+    public static String reduce(List<String> group, boolean last) {
+        return (last
+            ? "以下是同一用户当天语音记录各部分的要点，请合并为一份精炼的每日总结：\n"
+            : "以下是同一用户当天语音记录相邻几部分的要点，请合并为一份要点摘要：\n")
+            + String.join("\n---\n", group);
+    }
+
+    /**
+     * 将部分总结按顺序分组，每组不超过fanIn个且估算token数不超过预算（单个超出时独占一组）
+     *
+     * @param partials 部分总结
+     * @param fanIn 每组最多合并的个数
+     * @param tokenBudget 每组的token上限
+     * @return 分组结果，组数一定少于partials的个数（至少两两合并，保证逐层收敛）
+     */
+    public static List<List<String>> groupForReduce(List<String> partials, int fanIn, int tokenBudget) {
+        List<List<String>> groups = new ArrayList<>();
+        List<String> current = new ArrayList<>();
+        int tokens = 0;
+        for (String p : partials) {
+            int t = TranscriptChunker.estimateTokens(p);
+            if (!current.isEmpty() && (current.size() >= fanIn || tokens + t > tokenBudget)) {
+                groups.add(current);
+                current = new ArrayList<>();
+                tokens = 0;
+            }
+            current.add(p);
+            tokens += t;
+        }
+        groups.add(current);
+        // 每组只有一个时无法继续合并，强制两两合并以保证收敛
+        if (groups.size() == partials.size()) {
+            groups.clear();
+            for (int i = 0; i < partials.size(); i += 2) {
+                groups.add(partials.subList(i, Math.min(i + 2, partials.size())));
+            }
+        }
+        return groups;
+    }
+}
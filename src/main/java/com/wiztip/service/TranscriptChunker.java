@@ -0,0 +1,117 @@
+package com.wiztip.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 转写文本分块
+ *
+ * 将一组文本按token预算切分为若干块，用于分块总结（map-reduce）
+ *
+ * token数按字符粗略估算（不依赖具体模型的分词器）：
+ * 中日韩字符约1个token，其他字符约4个字符1个token；估算偏保守，留有余量
+ *
+ * @author Wiztip Team
+ */
+public final class TranscriptChunker {
+
+    private TranscriptChunker() {
+    }
+
+    /**
+     * 估算文本的token数
+     *
+     * @param text 文本
+     * @return 估算的token数
+     */
+    public static int estimateTokens(String text) {
+        int cjk = 0;
+        int other = 0;
+        for (int i = 0; i < text.length(); ) {
+            int cp = text.codePointAt(i);
+            if (isCjk(cp)) {
+                cjk++;
+            } else {
+                other++;
+            }
+            i += Character.charCount(cp);
+        }
+        return cjk + (other + 3) / 4;
+    }
+
+    /**
+     * 按token预算将文本顺序打包为块
+     *
+     * 文本保持原有顺序，块内以换行分隔；单条超出预算的文本按字符切开
+     *
+     * @param texts 文本列表
+     * @param tokenBudget 每块的token上限
+     * @return 文本块，每块的估算token数不超过预算
+     */
+    public static List<String> chunk(List<String> texts, int tokenBudget) {
+        int budget = Math.max(1, tokenBudget);
+        List<String> chunks = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        int currentTokens = 0;
+        for (String text : texts) {
+            for (String piece : split(text, budget)) {
+                int tokens = estimateTokens(piece) + 1;
+                if (currentTokens > 0 && currentTokens + tokens > budget) {
+                    chunks.add(current.toString());
+                    current.setLength(0);
+                    currentTokens = 0;
+                }
+                if (currentTokens > 0) {
+                    current.append('\n');
+                }
+                current.append(piece);
+                currentTokens += tokens;
+            }
+        }
+        if (currentTokens > 0) {
+            chunks.add(current.toString());
+        }
+        return chunks;
+    }
+
+    /**
+     * 将超出预算的单条文本按字符切开
+     */
+    private static List<String> split(String text, int budget) {
+        if (estimateTokens(text) < budget) {
+            return List.of(text);
+        }
+        List<String> pieces = new ArrayList<>();
+        int start = 0;
+        int tokens = 0;
+        int other = 0;
+        for (int i = 0; i < text.length(); ) {
+            int cp = text.codePointAt(i);
+            int step = Character.charCount(cp);
+            if (isCjk(cp)) {
+                tokens++;
+            } else if (++other % 4 == 1) {
+                tokens++;
+            }
+            if (tokens >= budget) {
+                pieces.add(text.substring(start, i + step));
+                start = i + step;
+                tokens = 0;
+                other = 0;
+            }
+            i += step;
+        }
+        if (start < text.length()) {
+            pieces.add(text.substring(start));
+        }
+        return pieces;
+    }
+
+    private static boolean isCjk(int cp) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(cp);
+        return script == Character.UnicodeScript.HAN
+            || script == Character.UnicodeScript.HIRAGANA
+            || script == Character.UnicodeScript.KATAKANA
+            || script == Character.UnicodeScript.HANGUL;
+    }
+}
@@ -0,0 +1,218 @@
+package com.wiztip.service;
+
+import com.wiztip.config.WiztipProperties;
+import com.wiztip.entity.VoiceTranscript;
+import com.wiztip.repository.VoiceTranscriptRepository;
+import com.wiztip.search.HnswIndex;
+import com.wiztip.search.SearchHit;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 转写文本语义检索服务
+ *
+ * 每个用户一个内存HNSW索引（用户之间的数据互不可见，也互不影响检索性能）：
+ * - 应用启动后从voice_transcript按主键分批加载已有向量构建索引
+ * - AsrService.saveTranscript保存转写时增量写入（本节点保存的转写立即可查）
+ * - 后台每syncIntervalSeconds秒读取最近新增的向量补进索引，其他节点保存的转写在一个同步周期内可查。
+ *   按create_time而不是ID读取（号段分配的ID在节点间不按时间递增），每次往前多读syncLagSeconds秒，
+ *   覆盖写入时刻与事务提交之间的延迟；重复的ID被索引忽略
+ * - 查询时将查询文本转换为向量，在该用户的索引中检索top-k，再批量读取转写记录
+ *
+ * 索引只在内存中，重启后重新加载；每个节点各持有一份全部用户的索引，内存占用不随节点数摊薄
+ *
+ * @author Wiztip Team
+ */
+@Service
+public class VectorSearchService {
+
+    private static final Logger log = LoggerFactory.getLogger(VectorSearchService.class);
+
+    @Autowired
+    private WiztipProperties wiztipProperties;
+
+    @Autowired
+    private VoiceTranscriptRepository transcriptRepo;
+
+    @Autowired
+    private EmbeddingService embeddingService;
+
+    /** 用户ID -> 该用户的向量索引 */
+    private final Map<String, HnswIndex> indexes = new ConcurrentHashMap<>();
+
+    /** 启动加载是否完成 */
+    private volatile boolean ready = false;
+
+    /** 增量同步的调度器（启动加载完成后开始） */
+    private ScheduledExecutorService syncer;
+
+    /** 已同步到的时刻（下次从它往前syncLagSeconds秒开始读取） */
+    private volatile LocalDateTime syncedUntil;
+
+    /**
+     * 停止增量同步
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (syncer != null) {
+            syncer.shutdownNow();
+        }
+    }
+
+    /**
+     * 应用启动后加载已有向量构建索引
+     *
+     * 加载期间新保存的转写会直接写入索引，重复的ID会被忽略
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadIndexes() {
+        long start = System.currentTimeMillis();
+        // 加载期间其他节点提交的转写由第一次增量同步补上
+        syncedUntil = LocalDateTime.now();
+        int batchSize = wiztipProperties.getSearch().getLoadBatchSize();
+        long lastId = 0;
+        int loaded = 0;
+        while (true) {
+            List<Object[]> rows = transcriptRepo.findEmbeddingsAfter(lastId, PageRequest.of(0, batchSize));
+            for (Object[] row : rows) {
+                lastId = (Long) row[0];
+                indexFor((String) row[1]).add(lastId, (float[]) row[2]);
+            }
+            loaded += rows.size();
+            if (rows.size() < batchSize) {
+                break;
+            }
+        }
+        ready = true;
+        log.info("语义检索索引加载完成 vectors={} users={} costMs={}", loaded, indexes.size(),
+            System.currentTimeMillis() - start);
+
+        int interval = wiztipProperties.getSearch().getSyncIntervalSeconds();
+        if (interval > 0) {
+            syncer = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "vector-index-sync");
+                t.setDaemon(true);
+                return t;
+            });
+            syncer.scheduleWithFixedDelay(this::syncRecent, interval, interval, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * 读取最近新增的向量补进索引（含其他节点保存的转写）
+     */
+    private void syncRecent() {
+        WiztipProperties.Search cfg = wiztipProperties.getSearch();
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime from = syncedUntil.minusSeconds(cfg.getSyncLagSeconds());
+        try {
+            long lastId = 0;
+            int added = 0;
+            while (true) {
+                List<Object[]> rows = transcriptRepo.findEmbeddingsSince(from, lastId,
+                    PageRequest.of(0, cfg.getLoadBatchSize()));
+                for (Object[] row : rows) {
+                    lastId = (Long) row[0];
+                    if (indexFor((String) row[1]).add(lastId, (float[]) row[2])) {
+                        added++;
+                    }
+                }
+                if (rows.size() < cfg.getLoadBatchSize()) {
+                    break;
+                }
+            }
+            syncedUntil = now;
+            if (added > 0) {
+                log.debug("语义检索索引增量同步 added={}", added);
+            }
+        } catch (RuntimeException e) {
+            // 下次从同一时刻重新读取
+            log.warn("语义检索索引增量同步失败 error={}", e.getMessage());
+        }
+    }
+
+    /**
+     * 将转写记录写入索引
+     *
+     * @param transcript 已保存（已分配ID）的转写记录
+     */
+    public void add(VoiceTranscript transcript) {
+        if (transcript.getId() == null || transcript.getEmbedding() == null) {
+            return;
+        }
+        indexFor(transcript.getUserId()).add(transcript.getId(), transcript.getEmbedding());
+    }
+
+    /**
+     * 语义检索用户的转写记录
+     *
+     * @param userId 用户ID
+     * @param query 查询文本
+     * @param topK 返回条数（不超过maxTopK）
+     * @return 按相似度降序排列的结果
+     */
+    public List<Result> search(String userId, String query, int topK) {
+        HnswIndex index = indexes.get(userId);
+        if (index == null) {
+            return List.of();
+        }
+        WiztipProperties.Search cfg = wiztipProperties.getSearch();
+        int k = Math.max(1, Math.min(topK, cfg.getMaxTopK()));
+
+        List<SearchHit> hits = index.search(embeddingService.embed(query), k, cfg.getEfSearch());
+        if (hits.isEmpty()) {
+            return List.of();
+        }
+
+        List<Long> ids = hits.stream().map(SearchHit::id).collect(Collectors.toList());
+        Map<Long, VoiceTranscript> byId = transcriptRepo.findAllById(ids).stream()
+            .collect(Collectors.toMap(VoiceTranscript::getId, Function.identity()));
+
+        List<Result> results = new ArrayList<>(hits.size());
+        for (SearchHit hit : hits) {
+            VoiceTranscript t = byId.get(hit.id());
+            // 索引中存在但已被删除的记录直接跳过
+            if (t != null) {
+                results.add(new Result(t, hit.score()));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * @return 启动加载是否已完成（未完成时检索结果可能不全）
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    private HnswIndex indexFor(String userId) {
+        WiztipProperties.Search cfg = wiztipProperties.getSearch();
+        return indexes.computeIfAbsent(userId, u -> new HnswIndex(cfg.getM(), cfg.getEfConstruction()));
+    }
+
+    /**
+     * 检索结果
+     *
+     * @param transcript 转写记录
+     * @param score 余弦相似度
+     */
+    public record Result(VoiceTranscript transcript, float score) {}
+}
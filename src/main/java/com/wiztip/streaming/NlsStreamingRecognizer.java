@@ -0,0 +1,150 @@
+package com.wiztip.streaming;
+
+import com.alibaba.nls.client.protocol.InputFormatEnum;
+import com.alibaba.nls.client.protocol.NlsClient;
+import com.alibaba.nls.client.protocol.SampleRateEnum;
+import com.alibaba.nls.client.protocol.asr.SpeechTranscriber;
+import com.alibaba.nls.client.protocol.asr.SpeechTranscriberListener;
+import com.alibaba.nls.client.protocol.asr.SpeechTranscriberResponse;
+import com.wiztip.config.WiztipProperties;
+import com.wiztip.service.NlsTokenManager;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Objects;
+
+/**
+ * 阿里云NLS实时语音识别
+ *
+ * 每个会话对应一个SpeechTranscriber（一条到NLS网关的WebSocket连接），
+ * 所有会话共享一个NlsClient（内部维护Netty事件循环，应单例复用）
+ *
+ * Token由NlsTokenManager统一管理，与一句话识别共用；每次开启会话前把当前Token设置到客户端
+ *
+ * @author Wiztip Team
+ */
+@Component
+@ConditionalOnProperty(prefix = "wiztip.streaming", name = "recognizer", havingValue = "nls", matchIfMissing = true)
+public class NlsStreamingRecognizer implements StreamingRecognizer {
+
+    @Autowired
+    private WiztipProperties wiztipProperties;
+
+    @Autowired
+    private NlsTokenManager tokenManager;
+
+    /** 共享的NLS客户端（首次使用时创建） */
+    private NlsClient client;
+
+    /**
+     * 关闭NLS客户端
+     */
+    @PreDestroy
+    public synchronized void shutdown() {
+        if (client != null) {
+            client.shutdown();
+        }
+    }
+
+    @Override
+    public StreamingSession open(StreamingListener listener) throws Exception {
+        String token = tokenManager.getToken();
+        SpeechTranscriber transcriber = new SpeechTranscriber(client(token), new Listener(listener));
+        try {
+            transcriber.setAppKey(wiztipProperties.getAliyun().getAsr().getAppKey());
+            transcriber.setFormat(InputFormatEnum.PCM);
+            transcriber.setSampleRate(SampleRateEnum.SAMPLE_RATE_16K);
+            transcriber.setEnableIntermediateResult(true);
+            transcriber.setEnablePunctuation(true);
+            transcriber.setEnableITN(true);
+            transcriber.start();
+        } catch (Exception e) {
+            transcriber.close();
+            throw e;
+        }
+        return new Session(transcriber);
+    }
+
+    /**
+     * 获取共享客户端，并更新为当前Token
+     */
+    private synchronized NlsClient client(String token) {
+        if (client == null) {
+            client = new NlsClient(wiztipProperties.getStreaming().getNlsUrl(), token);
+        } else {
+            client.setToken(token);
+        }
+        return client;
+    }
+
+    /**
+     * NLS识别会话
+     */
+    private static final class Session implements StreamingSession {
+
+        private final SpeechTranscriber transcriber;
+
+        Session(SpeechTranscriber transcriber) {
+            this.transcriber = transcriber;
+        }
+
+        @Override
+        public void sendAudio(byte[] pcm) {
+            transcriber.send(pcm);
+        }
+
+        @Override
+        public void finish() throws Exception {
+            // 阻塞直到NLS返回TranscriptionCompleted
+            transcriber.stop();
+        }
+
+        @Override
+        public void close() {
+            transcriber.close();
+        }
+    }
+
+    /**
+     * 将NLS事件转换为StreamingListener回调
+     */
+    private static final class Listener extends SpeechTranscriberListener {
+
+        private final StreamingListener delegate;
+
+        Listener(StreamingListener delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void onTranscriberStart(SpeechTranscriberResponse response) {
+        }
+
+        @Override
+        public void onSentenceBegin(SpeechTranscriberResponse response) {
+        }
+
+        @Override
+        public void onTranscriptionResultChange(SpeechTranscriberResponse response) {
+            delegate.onPartial(response.getTransSentenceIndex(), Objects.toString(response.getTransSentenceText(), ""));
+        }
+
+        @Override
+        public void onSentenceEnd(SpeechTranscriberResponse response) {
+            delegate.onSentence(response.getTransSentenceIndex(), response.getSentenceBeginTime(),
+                response.getTransSentenceTime(), Objects.toString(response.getTransSentenceText(), ""));
+        }
+
+        @Override
+        public void onTranscriptionComplete(SpeechTranscriberResponse response) {
+            delegate.onComplete();
+        }
+
+        @Override
+        public void onFail(SpeechTranscriberResponse response) {
+            delegate.onError("NLS识别失败: " + response.getStatus() + " " + response.getStatusText());
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.wiztip.streaming;
+
+/**
+ * 流式识别结果监听器
+ *
+ * @author Wiztip Team
+ */
+public interface StreamingListener {
+
+    /**
+     * 当前句子的中间结果（随后续音频不断修正）
+     *
+     * @param index 句子序号（从1开始）
+     * @param text 当前句子的识别文本
+     */
+    void onPartial(int index, String text);
+
+    /**
+     * 一句话识别完成
+     *
+     * @param index 句子序号（从1开始）
+     * @param beginMs 句子起始时间（毫秒，相对会话开始）
+     * @param endMs 句子结束时间（毫秒，相对会话开始）
+     * @param text 句子最终文本
+     */
+    void onSentence(int index, long beginMs, long endMs, String text);
+
+    /**
+     * 识别结束（finish后所有结果均已回调）
+     */
+    void onComplete();
+
+    /**
+     * 识别失败，会话不再可用
+     *
+     * @param message 失败原因
+     */
+    void onError(String message);
+}
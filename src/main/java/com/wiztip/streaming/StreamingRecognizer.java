@@ -0,0 +1,27 @@
+package com.wiztip.streaming;
+
+/**
+ * 流式语音识别器
+ *
+ * 边说边识别：调用方持续推送音频帧，识别器通过监听器回调中间结果和整句结果。
+ * 音频格式固定为16kHz单声道16位小端PCM
+ *
+ * 实现：
+ * - NlsStreamingRecognizer：阿里云NLS实时语音识别（默认）
+ * - StubStreamingRecognizer：本地模拟识别，不访问外部服务，用于测试和本地开发
+ *
+ * 通过 wiztip.streaming.recognizer（nls | stub）选择
+ *
+ * @author Wiztip Team
+ */
+public interface StreamingRecognizer {
+
+    /**
+     * 开启一次流式识别
+     *
+     * @param listener 识别结果监听器（可能在识别器内部线程上回调）
+     * @return 识别会话
+     * @throws Exception 连接识别服务失败时抛出异常
+     */
+    StreamingSession open(StreamingListener listener) throws Exception;
+}
@@ -0,0 +1,34 @@
+package com.wiztip.streaming;
+
+/**
+ * 一次流式识别会话
+ *
+ * 同一会话的方法由同一个调用方顺序调用，无需线程安全
+ *
+ * @author Wiztip Team
+ */
+public interface StreamingSession extends AutoCloseable {
+
+    /**
+     * 推送一帧音频
+     *
+     * @param pcm 16kHz单声道16位小端PCM
+     * @throws Exception 发送失败时抛出异常
+     */
+    void sendAudio(byte[] pcm) throws Exception;
+
+    /**
+     * 音频推送结束，等待最后一句的识别结果
+     *
+     * 方法返回前会回调StreamingListener.onComplete或onError
+     *
+     * @throws Exception 识别服务异常时抛出异常
+     */
+    void finish() throws Exception;
+
+    /**
+     * 释放会话资源（未调用finish时直接中止识别）
+     */
+    @Override
+    void close();
+}
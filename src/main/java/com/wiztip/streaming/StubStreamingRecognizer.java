@@ -0,0 +1,76 @@
+package com.wiztip.streaming;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * 本地模拟流式识别器
+ *
+ * 不访问任何外部服务：每收到约200毫秒音频推送一次中间结果，每满5秒音频结束一句，
+ * finish时结束最后一句。文本只描述收到的音频时长，用于测试WebSocket链路和前端交互
+ *
+ * 配置 wiztip.streaming.recognizer=stub 启用
+ *
+ * @author Wiztip Team
+ */
+@Component
+@ConditionalOnProperty(prefix = "wiztip.streaming", name = "recognizer", havingValue = "stub")
+public class StubStreamingRecognizer implements StreamingRecognizer {
+
+    /** 16kHz单声道16位PCM每毫秒的字节数 */
+    private static final int BYTES_PER_MS = 32;
+
+    private static final long PARTIAL_INTERVAL_MS = 200;
+
+    private static final long SENTENCE_MS = 5000;
+
+    @Override
+    public StreamingSession open(StreamingListener listener) {
+        return new StreamingSession() {
+
+            private long receivedMs;
+            private long sentenceStartMs;
+            private long lastPartialMs;
+            private int index = 1;
+            private boolean closed;
+
+            @Override
+            public void sendAudio(byte[] pcm) {
+                if (closed) {
+                    throw new IllegalStateException("会话已关闭");
+                }
+                receivedMs += pcm.length / BYTES_PER_MS;
+                if (receivedMs - sentenceStartMs >= SENTENCE_MS) {
+                    endSentence();
+                } else if (receivedMs - lastPartialMs >= PARTIAL_INTERVAL_MS) {
+                    lastPartialMs = receivedMs;
+                    listener.onPartial(index, text());
+                }
+            }
+
+            @Override
+            public void finish() {
+                if (receivedMs > sentenceStartMs) {
+                    endSentence();
+                }
+                closed = true;
+                listener.onComplete();
+            }
+
+            @Override
+            public void close() {
+                closed = true;
+            }
+
+            private void endSentence() {
+                listener.onSentence(index++, sentenceStartMs, receivedMs, text() + "。");
+                sentenceStartMs = receivedMs;
+                lastPartialMs = receivedMs;
+            }
+
+            private String text() {
+                return String.format("模拟识别第%d句，已接收%.1f秒音频", index, (receivedMs - sentenceStartMs) / 1000.0);
+            }
+        };
+    }
+}
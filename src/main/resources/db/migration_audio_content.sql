@@ -0,0 +1,13 @@
+-- 重复音频识别（AudioDedupService）
+--
+-- 按 用户ID + 原始上传音频的SHA-256摘要 指向处理过该音频的语音记录，
+-- 重复上传时复用记录上的OSS文件、转写文本和向量
+-- （ddl-auto: update 时Hibernate也会自动创建）
+CREATE TABLE IF NOT EXISTS audio_content (
+  id BIGINT AUTO_INCREMENT PRIMARY KEY,
+  user_id VARCHAR(64) NOT NULL,
+  sha256 CHAR(64) NOT NULL,
+  record_id BIGINT NOT NULL,
+  create_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+  UNIQUE KEY uk_content_user_sha256 (user_id, sha256)
+);
@@ -0,0 +1,11 @@
+-- 向量嵌入存储由JSON列迁移为二进制BLOB列
+--
+-- 1. 新增embedding列（ddl-auto: update 时Hibernate也会自动添加）
+ALTER TABLE voice_transcript ADD COLUMN embedding BLOB AFTER confidence;
+
+-- 2. 回填历史数据：以 wiztip.embedding.backfillOnStartup=true 启动一次应用，
+--    EmbeddingBackfillRunner会分批将embedding_json转换为embedding并清空embedding_json
+
+-- 3. 确认回填完成（下面查询结果为0）后删除旧列
+-- SELECT COUNT(*) FROM voice_transcript WHERE embedding_json IS NOT NULL;
+-- ALTER TABLE voice_transcript DROP COLUMN embedding_json;
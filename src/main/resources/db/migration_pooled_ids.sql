@@ -0,0 +1,18 @@
+-- 主键改为号段分配（@TableGenerator，allocationSize = 50）
+--
+-- IDENTITY主键要在每条INSERT执行后回读自增值，Hibernate因此无法批量插入；
+-- 改为从id_generator表按50个一段预分配后，同一事务内的插入可按hibernate.jdbc.batch_size合并发送
+-- （ddl-auto: update 时Hibernate会自动建表，但不会为已有数据预置起始值，升级时必须先执行本脚本）
+--
+-- Hibernate取到号段值V后使用 (V-50, V] 区间内的ID，因此起始值为当前最大ID加50
+-- 原有的AUTO_INCREMENT属性可以保留，显式写入的ID不受影响
+CREATE TABLE IF NOT EXISTS id_generator (
+  name VARCHAR(64) NOT NULL PRIMARY KEY,
+  next_val BIGINT
+);
+
+INSERT INTO id_generator (name, next_val)
+  SELECT 'voice_record', COALESCE(MAX(id), 0) + 50 FROM voice_record
+  UNION ALL SELECT 'voice_transcript', COALESCE(MAX(id), 0) + 50 FROM voice_transcript
+  UNION ALL SELECT 'daily_summary', COALESCE(MAX(id), 0) + 50 FROM daily_summary
+  UNION ALL SELECT 'audio_content', COALESCE(MAX(id), 0) + 50 FROM audio_content;
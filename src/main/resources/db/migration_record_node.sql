@@ -0,0 +1,6 @@
+-- 异步流水线的任务归属节点
+--
+-- node_id：持有暂存音频的节点标识（保存在该节点暂存目录的node-id文件中），
+-- 重启时各节点只恢复自己的"处理中"记录；已有记录为空，只在本地有暂存文件时恢复
+-- （ddl-auto: update 时Hibernate也会自动添加）
+ALTER TABLE voice_record ADD COLUMN node_id VARCHAR(64);
@@ -0,0 +1,13 @@
+-- daily_summary增量草稿支持
+--
+-- status：0-草稿，1-已定稿（为空的历史数据视为已定稿）
+-- last_transcript_id：已汇总到的最后一条转写ID
+ALTER TABLE daily_summary
+  ADD COLUMN status TINYINT,
+  ADD COLUMN last_transcript_id BIGINT,
+  ADD COLUMN updated_at TIMESTAMP NULL;
+
+-- 每个用户每天只保留一条总结；添加唯一约束前先清理重复数据（保留最新一条）
+DELETE s1 FROM daily_summary s1
+  JOIN daily_summary s2 ON s1.user_id = s2.user_id AND s1.date = s2.date AND s1.id < s2.id;
+ALTER TABLE daily_summary ADD UNIQUE KEY uk_summary_user_date (user_id, date);
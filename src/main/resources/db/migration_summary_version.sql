@@ -0,0 +1,6 @@
+-- daily_summary乐观锁
+--
+-- version：每次保存加一。多节点同时更新同一用户的总结时，后保存的一方因版本号不符而失败，
+-- 重新读取后再处理，已定稿的总结不会被草稿覆盖
+-- （ddl-auto: update 时Hibernate也会自动添加）
+ALTER TABLE daily_summary ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
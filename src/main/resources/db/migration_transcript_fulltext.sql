@@ -0,0 +1,8 @@
+-- 关键词检索使用的ngram全文索引
+--
+-- ngram分词按相邻两个字切分（ngram_token_size默认为2，是只读的启动参数，保持默认即可），
+-- 中文不需要额外分词。InnoDB默认的英文停用词表含单个字母（如a、i），含停用词的二元组不会入索引，
+-- 建索引前先关闭停用词（innodb_ft_enable_stopword是会话级变量，只对本会话创建的索引生效）
+-- （JPA无法声明全文索引，ddl-auto: update 不会自动创建，升级时须手工执行；大表建索引耗时较长，建议在低峰期执行）
+SET SESSION innodb_ft_enable_stopword = OFF;
+ALTER TABLE voice_transcript ADD FULLTEXT INDEX ft_transcript_text (transcript_text) WITH PARSER ngram;
@@ -0,0 +1,12 @@
+-- voice_transcript时间范围查询索引
+--
+-- idx_transcript_time_user：每日总结按 [当天0点, 次日0点) 范围扫描
+-- idx_transcript_user_time：按用户查询某段时间的转写
+-- （ddl-auto: update 时Hibernate也会自动创建）
+ALTER TABLE voice_transcript
+  ADD INDEX idx_transcript_user_time (user_id, create_time),
+  ADD INDEX idx_transcript_time_user (create_time, user_id);
+
+-- 历史数据中create_time为空的行无法被按日期查询到，可按上传时间补齐
+-- UPDATE voice_transcript t JOIN voice_record r ON t.record_id = r.id
+--   SET t.create_time = r.upload_time WHERE t.create_time IS NULL;
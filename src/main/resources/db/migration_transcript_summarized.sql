@@ -0,0 +1,13 @@
+-- 每日总结改为按转写标记判断是否已汇总
+--
+-- summarized：该转写是否已汇总进当天的每日总结，与总结在同一个事务中置位。
+-- 主键按号段分配后，多节点写入的ID不按提交顺序递增，原来的 last_transcript_id 水位线会漏掉晚提交的小ID
+-- （ddl-auto: update 时Hibernate会自动添加该列，但不会执行下面的回填，升级时须手工执行）
+ALTER TABLE voice_transcript ADD COLUMN summarized TINYINT(1) NOT NULL DEFAULT 0;
+
+-- 按原水位线回填：已定稿当天的转写和草稿水位线及之前的转写视为已汇总
+UPDATE voice_transcript t
+  JOIN daily_summary s ON s.user_id = t.user_id
+   AND t.create_time >= s.date AND t.create_time < s.date + INTERVAL 1 DAY
+  SET t.summarized = 1
+  WHERE s.status IS NULL OR s.status = 1 OR t.id <= s.last_transcript_id;
@@ -0,0 +1,7 @@
+-- 每日总结改为逐个用户读取转写
+--
+-- idx_transcript_user_time_id：按用户读取当天转写并按 (create_time, id) 排序，替换原来的 idx_transcript_user_time
+-- （ddl-auto: update 时Hibernate只会新建索引，不会删除旧索引）
+ALTER TABLE voice_transcript
+  DROP INDEX idx_transcript_user_time,
+  ADD INDEX idx_transcript_user_time_id (user_id, create_time, id);
@@ -1,30 +1,56 @@
+-- 主键号段表：各表的主键由Hibernate按50个一段预分配（@TableGenerator），不使用AUTO_INCREMENT
+CREATE TABLE IF NOT EXISTS id_generator (
+  name VARCHAR(64) NOT NULL PRIMARY KEY,
+  next_val BIGINT
+);
+
 CREATE TABLE IF NOT EXISTS voice_record (
-  id BIGINT AUTO_INCREMENT PRIMARY KEY,
+  id BIGINT PRIMARY KEY,
   user_id VARCHAR(64) NOT NULL,
   file_name VARCHAR(255),
   oss_url VARCHAR(500),
   duration DOUBLE DEFAULT 0,
   status TINYINT DEFAULT 0,
-  upload_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+  error_message VARCHAR(500),
+  upload_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+  node_id VARCHAR(64)
 );
 
 CREATE TABLE IF NOT EXISTS voice_transcript (
-  id BIGINT AUTO_INCREMENT PRIMARY KEY,
+  id BIGINT PRIMARY KEY,
   record_id BIGINT NOT NULL,
   user_id VARCHAR(64) NOT NULL,
   transcript_text TEXT,
   confidence FLOAT DEFAULT 0,
-  embedding_json JSON,
+  embedding BLOB,
   create_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+  summarized TINYINT(1) NOT NULL DEFAULT 0,
+  INDEX idx_transcript_user_time_id (user_id, create_time, id),
+  INDEX idx_transcript_time_user (create_time, user_id),
+  FULLTEXT INDEX ft_transcript_text (transcript_text) WITH PARSER ngram,
   CONSTRAINT fk_record FOREIGN KEY (record_id) REFERENCES voice_record(id) ON DELETE CASCADE
 );
 
 CREATE TABLE IF NOT EXISTS daily_summary (
-  id BIGINT AUTO_INCREMENT PRIMARY KEY,
+  id BIGINT PRIMARY KEY,
   user_id VARCHAR(64) NOT NULL,
   summary_text TEXT,
   keywords VARCHAR(255),
   date DATE,
   push_status TINYINT DEFAULT 0,
-  created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+  created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+  status TINYINT,
+  last_transcript_id BIGINT,
+  updated_at TIMESTAMP NULL,
+  version BIGINT NOT NULL DEFAULT 0,
+  UNIQUE KEY uk_summary_user_date (user_id, date)
+);
+
+CREATE TABLE IF NOT EXISTS audio_content (
+  id BIGINT PRIMARY KEY,
+  user_id VARCHAR(64) NOT NULL,
+  sha256 CHAR(64) NOT NULL,
+  record_id BIGINT NOT NULL,
+  create_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+  UNIQUE KEY uk_content_user_sha256 (user_id, sha256)
 );
@@ -0,0 +1,138 @@
+package com.wiztip.audio;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 能量VAD切分测试：用合成的正弦波（语音）和低幅噪声（静音）构造16kHz单声道音频，检查切分边界
+ *
+ * 参数统一为20毫秒一帧、静音300毫秒可切、首尾保留100毫秒余量
+ *
+ * @author Wiztip Team
+ */
+class EnergyVadTest {
+
+    private static final int SAMPLE_RATE = 16000;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void cutsAtSilencesAndTrimsWithPadding() throws IOException {
+        // 静音1秒、语音2秒、静音1秒、语音1.5秒、静音1秒
+        short[] pcm = concat(silence(1000), tone(2000), silence(1000), tone(1500), silence(1000));
+        Path file = write(pcm);
+        WavCodec.Format format = WavCodec.readFormat(file);
+
+        List<AudioSegment> segments = new EnergyVad(20, 10, 300, 3000, 100).segment(file, format);
+
+        assertEquals(2, segments.size());
+        assertEquals(900, segments.get(0).startMs(SAMPLE_RATE));
+        assertEquals(3100, segments.get(0).endMs(SAMPLE_RATE));
+        assertEquals(3900, segments.get(1).startMs(SAMPLE_RATE));
+        assertEquals(5600, segments.get(1).endMs(SAMPLE_RATE));
+    }
+
+    @Test
+    void keepsShortRecordingAsOneTrimmedSegment() throws IOException {
+        // 总长不超过maxSegmentMs时不切分，只裁首尾静音；中间短停顿保留在段内
+        short[] pcm = concat(silence(500), tone(1000), silence(200), tone(1000), silence(500));
+        Path file = write(pcm);
+
+        List<AudioSegment> segments = new EnergyVad(20, 10, 300, 10000, 100)
+            .segment(file, WavCodec.readFormat(file));
+
+        assertEquals(List.of(new AudioSegment(400 * 16, 2800 * 16)), segments);
+    }
+
+    @Test
+    void forcesCutsWhenThereIsNoSilence() throws IOException {
+        short[] pcm = tone(5000);
+        Path file = write(pcm);
+
+        List<AudioSegment> segments = new EnergyVad(20, 10, 300, 2000, 100)
+            .segment(file, WavCodec.readFormat(file));
+
+        // 连续语音被强制切开：各段首尾相接覆盖全部音频，且都不超过2秒
+        assertTrue(segments.size() >= 3);
+        long expectedStart = 0;
+        for (AudioSegment segment : segments) {
+            assertEquals(expectedStart, segment.startFrame());
+            assertTrue(segment.endMs(SAMPLE_RATE) - segment.startMs(SAMPLE_RATE) <= 2000);
+            expectedStart = segment.endFrame();
+        }
+        assertEquals(pcm.length, expectedStart);
+    }
+
+    @Test
+    void findsNothingInSilence() throws IOException {
+        Path file = write(silence(3000));
+        WavCodec.Format format = WavCodec.readFormat(file);
+        EnergyVad vad = new EnergyVad(20, 10, 300, 3000, 100);
+
+        assertTrue(vad.segment(file, format).isEmpty());
+        assertNull(vad.speechSpan(file, format));
+    }
+
+    @Test
+    void measuresSpeechSpan() throws IOException {
+        short[] pcm = concat(silence(1000), tone(2000), silence(1000), tone(1500), silence(1000));
+        Path file = write(pcm);
+
+        EnergyVad.SpeechSpan span = new EnergyVad(20, 10, 300, 3000, 100)
+            .speechSpan(file, WavCodec.readFormat(file));
+
+        assertEquals(900 * 16, span.startFrame());
+        assertEquals(5600 * 16, span.endFrame());
+        assertEquals(3500, span.speechMs());
+    }
+
+    private Path write(short[] pcm) throws IOException {
+        Path file = Files.createTempFile(dir, "vad", ".wav");
+        Files.write(file, WavCodec.encodeMono(pcm, SAMPLE_RATE));
+        return file;
+    }
+
+    /** 440Hz正弦波，幅度约-15dBFS */
+    private static short[] tone(int ms) {
+        short[] pcm = new short[ms * SAMPLE_RATE / 1000];
+        for (int i = 0; i < pcm.length; i++) {
+            pcm[i] = (short) (8000 * Math.sin(2 * Math.PI * 440 * i / SAMPLE_RATE));
+        }
+        return pcm;
+    }
+
+    /** 幅度±30的随机噪声，约-65dBFS */
+    private static short[] silence(int ms) {
+        Random random = new Random(ms);
+        short[] pcm = new short[ms * SAMPLE_RATE / 1000];
+        for (int i = 0; i < pcm.length; i++) {
+            pcm[i] = (short) (random.nextInt(61) - 30);
+        }
+        return pcm;
+    }
+
+    private static short[] concat(short[]... parts) {
+        int length = 0;
+        for (short[] part : parts) {
+            length += part.length;
+        }
+        short[] pcm = new short[length];
+        int offset = 0;
+        for (short[] part : parts) {
+            System.arraycopy(part, 0, pcm, offset, part.length);
+            offset += part.length;
+        }
+        return pcm;
+    }
+}
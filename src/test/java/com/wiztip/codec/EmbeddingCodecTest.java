@@ -0,0 +1,117 @@
+package com.wiztip.codec;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 向量编解码测试：FP32无损，FP16舍入误差不超过半个单位，特殊值按IEEE 754处理
+ *
+ * @author Wiztip Team
+ */
+class EmbeddingCodecTest {
+
+    @Test
+    void fp32RoundTripIsLossless() {
+        float[] vector = randomVector(1536, new Random(1));
+        byte[] encoded = EmbeddingCodec.encode(vector, EmbeddingCodec.Precision.FP32);
+        assertEquals(1 + 1536 * 4, encoded.length);
+        assertArrayEquals(vector, EmbeddingCodec.decode(encoded));
+    }
+
+    @Test
+    void fp16RoundTripStaysWithinHalfUlp() {
+        float[] vector = randomVector(1536, new Random(2));
+        byte[] encoded = EmbeddingCodec.encode(vector, EmbeddingCodec.Precision.FP16);
+        assertEquals(1 + 1536 * 2, encoded.length);
+
+        float[] decoded = EmbeddingCodec.decode(encoded);
+        for (int i = 0; i < vector.length; i++) {
+            float v = vector[i];
+            // 规格化数的尾数为10位：相对误差不超过2^-11；非规格化数的绝对误差不超过2^-25
+            float bound = Math.max(Math.abs(v) * 0x1p-11f, 0x1p-25f);
+            assertTrue(Math.abs(decoded[i] - v) <= bound, "分量" + i + ": " + v + " -> " + decoded[i]);
+        }
+    }
+
+    @Test
+    void everyHalfValueSurvivesRoundTrip() {
+        for (int bits = 0; bits <= 0xffff; bits++) {
+            short half = (short) bits;
+            float f = EmbeddingCodec.halfToFloat(half);
+            if (Float.isNaN(f)) {
+                continue;
+            }
+            assertEquals(half, EmbeddingCodec.floatToHalf(f), "半精度 0x" + Integer.toHexString(bits));
+        }
+    }
+
+    @Test
+    void roundsHalfwayToEven() {
+        // 1与1+2^-10之间的中点舍入到尾数为偶数的1
+        assertEquals(1.0f, roundTrip(1.0f + 0x1p-11f));
+        // 1+2^-10与1+2^-9之间的中点舍入到1+2^-9
+        assertEquals(1.0f + 0x1p-9f, roundTrip(1.0f + 3 * 0x1p-11f));
+        // 略大于中点时向上舍入
+        assertEquals(1.0f + 0x1p-10f, roundTrip(1.0f + 0x1p-11f + 0x1p-20f));
+    }
+
+    @Test
+    void handlesInfinityAndOverflow() {
+        assertEquals(Float.POSITIVE_INFINITY, roundTrip(Float.POSITIVE_INFINITY));
+        assertEquals(Float.NEGATIVE_INFINITY, roundTrip(Float.NEGATIVE_INFINITY));
+        // 半精度最大值65504；65520及以上舍入后溢出为无穷大
+        assertEquals(65504f, roundTrip(65504f));
+        assertEquals(65504f, roundTrip(65519f));
+        assertEquals(Float.POSITIVE_INFINITY, roundTrip(65520f));
+        assertEquals(Float.NEGATIVE_INFINITY, roundTrip(-1e10f));
+    }
+
+    @Test
+    void keepsNaN() {
+        assertTrue(Float.isNaN(roundTrip(Float.NaN)));
+        assertTrue(Float.isNaN(roundTrip(Float.intBitsToFloat(0xffc00001))));
+        // 尾数只有低位非零的NaN也不能变成无穷大
+        assertTrue(Float.isNaN(roundTrip(Float.intBitsToFloat(0x7f800001))));
+    }
+
+    @Test
+    void handlesSubnormals() {
+        // 半精度最小非规格化数2^-24
+        assertEquals(0x1p-24f, roundTrip(0x1p-24f));
+        assertEquals(-0x1p-24f, roundTrip(-0x1p-24f));
+        // 最大非规格化数(1023 * 2^-24)和最小规格化数2^-14
+        assertEquals(1023 * 0x1p-24f, roundTrip(1023 * 0x1p-24f));
+        assertEquals(0x1p-14f, roundTrip(0x1p-14f));
+        // 2^-25恰好是0与2^-24的中点，舍入到偶数0；略大于中点时为2^-24
+        assertEquals(0f, roundTrip(0x1p-25f));
+        assertEquals(0x1p-24f, roundTrip(0x1p-25f + 0x1p-35f));
+        // 更小的数下溢为0并保留符号
+        assertEquals(Float.floatToIntBits(-0f), Float.floatToIntBits(roundTrip(-1e-10f)));
+        assertEquals(Float.floatToIntBits(-0f), Float.floatToIntBits(roundTrip(-0f)));
+    }
+
+    @Test
+    void rejectsMalformedData() {
+        assertThrows(IllegalArgumentException.class, () -> EmbeddingCodec.decode(new byte[0]));
+        assertThrows(IllegalArgumentException.class, () -> EmbeddingCodec.decode(new byte[] {9, 0, 0}));
+        assertThrows(IllegalArgumentException.class, () -> EmbeddingCodec.decode(new byte[] {2, 0, 0, 0}));
+    }
+
+    private static float roundTrip(float v) {
+        return EmbeddingCodec.decode(EmbeddingCodec.encode(new float[] {v}, EmbeddingCodec.Precision.FP16))[0];
+    }
+
+    private static float[] randomVector(int dim, Random random) {
+        float[] v = new float[dim];
+        for (int i = 0; i < dim; i++) {
+            v[i] = (float) random.nextGaussian() * 0.05f;
+        }
+        return v;
+    }
+}
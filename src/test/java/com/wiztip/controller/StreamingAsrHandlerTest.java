@@ -0,0 +1,195 @@
+package com.wiztip.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wiztip.config.WebSocketConfig;
+import com.wiztip.config.WiztipProperties;
+import com.wiztip.streaming.StubStreamingRecognizer;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.autoconfigure.quartz.QuartzAutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.handler.AbstractWebSocketHandler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * 流式识别WebSocket端点测试
+ *
+ * 使用本地模拟识别器（wiztip.streaming.recognizer=stub），只启动Web容器和流式识别相关的Bean，
+ * 不连接数据库和阿里云；会话配额设为1，用第二个连接验证关闭后配额已归还
+ *
+ * @author Wiztip Team
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "wiztip.streaming.recognizer=stub",
+    "wiztip.streaming.maxSessions=1"
+})
+class StreamingAsrHandlerTest {
+
+    /** 16kHz单声道16位PCM，200毫秒一帧 */
+    private static final int FRAME_BYTES = 200 * 32;
+
+    private static final long TIMEOUT_SECONDS = 10;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @LocalServerPort
+    private int port;
+
+    @Test
+    void streamsPartialSentenceAndCompletedResults() throws Exception {
+        Client client = connect();
+        client.send("{\"type\":\"start\"}");
+        assertEquals("started", client.next().path("type").asText());
+
+        // 6秒音频：满5秒结束第一句，stop时结束剩余1秒的第二句
+        for (int i = 0; i < 30; i++) {
+            client.session.sendMessage(new BinaryMessage(new byte[FRAME_BYTES]));
+        }
+        client.send("{\"type\":\"stop\"}");
+
+        List<JsonNode> partials = new ArrayList<>();
+        List<JsonNode> sentences = new ArrayList<>();
+        JsonNode completed = null;
+        while (completed == null) {
+            JsonNode msg = client.next();
+            switch (msg.path("type").asText()) {
+                case "partial" -> partials.add(msg);
+                case "sentence" -> sentences.add(msg);
+                case "completed" -> completed = msg;
+                default -> throw new AssertionError("意外的消息: " + msg);
+            }
+        }
+
+        assertFalse(partials.isEmpty());
+        assertEquals(1, partials.get(0).path("index").asInt());
+        assertEquals(2, sentences.size());
+        assertEquals(1, sentences.get(0).path("index").asInt());
+        assertEquals(0, sentences.get(0).path("beginMs").asLong());
+        assertEquals(5000, sentences.get(0).path("endMs").asLong());
+        assertEquals(2, sentences.get(1).path("index").asInt());
+        assertEquals(5000, sentences.get(1).path("beginMs").asLong());
+        assertEquals(6000, sentences.get(1).path("endMs").asLong());
+        assertEquals(sentences.get(0).path("text").asText() + sentences.get(1).path("text").asText(),
+            completed.path("transcript").asText());
+
+        assertEquals(CloseStatus.NORMAL.getCode(), client.awaitClose().getCode());
+    }
+
+    @Test
+    void releasesSessionPermitOnClose() throws Exception {
+        Client first = connect();
+        first.send("{\"type\":\"start\"}");
+        assertEquals("started", first.next().path("type").asText());
+
+        // 配额已被占用：第二个连接被拒绝并关闭
+        // （服务端以1013关闭，Tomcat的JSR-356客户端不认识该关闭码，报告为1002，这里不比较关闭码）
+        Client rejected = connect();
+        rejected.send("{\"type\":\"start\"}");
+        JsonNode error = rejected.next();
+        assertEquals("error", error.path("type").asText());
+        assertEquals("实时识别繁忙，请稍后重试", error.path("message").asText());
+        rejected.awaitClose();
+
+        // 客户端主动断开后配额归还，新连接可以开始识别
+        first.session.close();
+        first.awaitClose();
+        Client next = connectWhenPermitFree();
+        assertNotNull(next);
+        next.session.close();
+    }
+
+    /**
+     * 服务端在连接关闭回调中归还配额，与客户端收到关闭帧之间没有先后保证，短暂重试
+     */
+    private Client connectWhenPermitFree() throws Exception {
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(TIMEOUT_SECONDS);
+        while (System.currentTimeMillis() < deadline) {
+            Client client = connect();
+            client.send("{\"type\":\"start\"}");
+            if ("started".equals(client.next().path("type").asText())) {
+                return client;
+            }
+            client.awaitClose();
+            Thread.sleep(50);
+        }
+        throw new AssertionError("连接关闭后会话配额未归还");
+    }
+
+    private Client connect() throws Exception {
+        Client client = new Client();
+        client.session = new StandardWebSocketClient()
+            .execute(client, "ws://localhost:" + port + "/ws/asr")
+            .get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        return client;
+    }
+
+    /**
+     * 测试客户端：收集服务端推送的消息和关闭状态
+     */
+    private final class Client extends AbstractWebSocketHandler {
+
+        private final BlockingQueue<JsonNode> messages = new LinkedBlockingQueue<>();
+        private final CompletableFuture<CloseStatus> closed = new CompletableFuture<>();
+        private WebSocketSession session;
+
+        @Override
+        protected void handleTextMessage(WebSocketSession session, TextMessage message) throws Exception {
+            messages.add(mapper.readTree(message.getPayload()));
+        }
+
+        @Override
+        public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+            closed.complete(status);
+        }
+
+        void send(String text) throws Exception {
+            session.sendMessage(new TextMessage(text));
+        }
+
+        JsonNode next() throws InterruptedException {
+            JsonNode msg = messages.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            assertNotNull(msg, "等待服务端消息超时");
+            return msg;
+        }
+
+        CloseStatus awaitClose() throws Exception {
+            return closed.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * 只装配流式识别相关的Bean，数据库、JPA和Quartz不参与
+     */
+    @SpringBootConfiguration
+    @EnableAutoConfiguration(exclude = {
+        DataSourceAutoConfiguration.class,
+        HibernateJpaAutoConfiguration.class,
+        QuartzAutoConfiguration.class
+    })
+    @EnableConfigurationProperties(WiztipProperties.class)
+    @Import({WebSocketConfig.class, StreamingAsrHandler.class, StubStreamingRecognizer.class})
+    static class StreamingTestApplication {
+    }
+}
@@ -0,0 +1,85 @@
+package com.wiztip.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * 自适应并发限制测试：上限内放行、拥塞时乘性减、繁忙时加性增、ignore不参与调整
+ *
+ * @author Wiztip Team
+ */
+class AdaptiveLimiterTest {
+
+    @Test
+    void rejectsBeyondLimitAndReleasesOnFinish() {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(2, 1, 10, 0.5, 60_000);
+        AdaptiveLimiter.Permit first = limiter.tryAcquire();
+        assertNotNull(first);
+        assertNotNull(limiter.tryAcquire());
+        assertNull(limiter.tryAcquire());
+        assertEquals(2, limiter.getInFlight());
+
+        first.ignore();
+        // 重复结束同一个许可不会多释放
+        first.ignore();
+        assertEquals(1, limiter.getInFlight());
+        assertEquals(2, limiter.getLimit());
+        assertNotNull(limiter.tryAcquire());
+    }
+
+    @Test
+    void backsOffOnDropAndNeverGoesBelowMinimum() {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(8, 2, 10, 0.5, 60_000);
+        limiter.tryAcquire().dropped();
+        assertEquals(4, limiter.getLimit());
+        limiter.tryAcquire().dropped();
+        assertEquals(2, limiter.getLimit());
+        limiter.tryAcquire().dropped();
+        assertEquals(2, limiter.getLimit());
+    }
+
+    @Test
+    void treatsSlowResponsesAsCongestion() throws InterruptedException {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(8, 1, 10, 0.5, 1);
+        AdaptiveLimiter.Permit permit = limiter.tryAcquire();
+        Thread.sleep(20);
+        permit.success();
+        assertEquals(4, limiter.getLimit());
+    }
+
+    @Test
+    void growsOnlyWhileBusy() {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(4, 1, 5, 0.5, 60_000);
+
+        // 只有一个在途请求（不到上限的一半），上限不增长
+        limiter.tryAcquire().success();
+        assertEquals(4, limiter.getLimit());
+
+        // 三个在途请求超过上限的一半，成功后加1，并以maxLimit封顶
+        for (int round = 0; round < 3; round++) {
+            List<AdaptiveLimiter.Permit> permits = new ArrayList<>();
+            permits.add(limiter.tryAcquire());
+            permits.add(limiter.tryAcquire());
+            permits.add(limiter.tryAcquire());
+            permits.get(2).success();
+            permits.get(0).ignore();
+            permits.get(1).ignore();
+        }
+        assertEquals(5, limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void rejectsInvalidParameters() {
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveLimiter(1, 0, 10, 0.5, 100));
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveLimiter(1, 5, 4, 0.5, 100));
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveLimiter(1, 1, 10, 1.0, 100));
+    }
+}
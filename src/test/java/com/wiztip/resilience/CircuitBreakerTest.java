@@ -0,0 +1,148 @@
+package com.wiztip.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 熔断器状态转换测试
+ *
+ * 打开时长设为0时下一次tryAcquire立即进入半开，用于检查半开状态的行为而不必等待
+ *
+ * @author Wiztip Team
+ */
+class CircuitBreakerTest {
+
+    @Test
+    void opensOnlyAfterMinimumCallsAndFailureRate() {
+        CircuitBreaker breaker = new CircuitBreaker(10, 4, 50, 60, 1);
+
+        // 不足minimumCalls次时即使全部失败也不打开
+        for (int i = 0; i < 3; i++) {
+            assertTrue(breaker.tryAcquire());
+            breaker.onFailure();
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+
+        assertTrue(breaker.tryAcquire());
+        breaker.onFailure();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire());
+        assertTrue(breaker.remainingOpenMillis() > 0);
+    }
+
+    @Test
+    void staysClosedBelowFailureRate() {
+        CircuitBreaker breaker = new CircuitBreaker(10, 4, 50, 60, 1);
+        for (int i = 0; i < 20; i++) {
+            assertTrue(breaker.tryAcquire());
+            if (i % 3 == 2) {
+                breaker.onFailure();
+            } else {
+                breaker.onSuccess();
+            }
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(0, breaker.remainingOpenMillis());
+    }
+
+    @Test
+    void slidingWindowForgetsOldFailures() {
+        CircuitBreaker breaker = new CircuitBreaker(4, 4, 75, 60, 1);
+        for (int i = 0; i < 2; i++) {
+            breaker.tryAcquire();
+            breaker.onFailure();
+        }
+        for (int i = 0; i < 4; i++) {
+            breaker.tryAcquire();
+            breaker.onSuccess();
+        }
+        // 早先的两次失败已移出窗口，再失败两次只有50%
+        for (int i = 0; i < 2; i++) {
+            breaker.tryAcquire();
+            breaker.onFailure();
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+
+        breaker.tryAcquire();
+        breaker.onFailure();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    void halfOpenClosesAfterAllProbesSucceed() {
+        CircuitBreaker breaker = openedBreaker(2);
+
+        assertTrue(breaker.tryAcquire());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertTrue(breaker.tryAcquire());
+        // 试探名额用完后拒绝
+        assertFalse(breaker.tryAcquire());
+
+        breaker.onSuccess();
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        breaker.onSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.tryAcquire());
+        breaker.onSuccess();
+    }
+
+    @Test
+    void halfOpenReopensOnProbeFailure() {
+        CircuitBreaker breaker = openedBreaker(2);
+
+        assertTrue(breaker.tryAcquire());
+        assertTrue(breaker.tryAcquire());
+        breaker.onSuccess();
+        breaker.onFailure();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    void ignoredProbeReturnsItsPermit() {
+        CircuitBreaker breaker = openedBreaker(1);
+
+        assertTrue(breaker.tryAcquire());
+        assertFalse(breaker.tryAcquire());
+
+        // 调用方原因的错误不计入统计，名额归还后可以再次试探
+        breaker.onIgnored();
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertTrue(breaker.tryAcquire());
+        breaker.onSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void ignoredCallsDoNotCountTowardsFailureRate() {
+        CircuitBreaker breaker = new CircuitBreaker(10, 2, 60, 60, 1);
+        for (int i = 0; i < 5; i++) {
+            assertTrue(breaker.tryAcquire());
+            breaker.onIgnored();
+        }
+        // 忽略的调用既不算失败也不算成功：1/2未达60%，2/3达到
+        breaker.tryAcquire();
+        breaker.onSuccess();
+        breaker.tryAcquire();
+        breaker.onFailure();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        breaker.tryAcquire();
+        breaker.onFailure();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    /**
+     * 打开时长为0的熔断器，经两次失败打开，下一次tryAcquire即进入半开
+     */
+    private static CircuitBreaker openedBreaker(int halfOpenCalls) {
+        CircuitBreaker breaker = new CircuitBreaker(10, 2, 50, 0, halfOpenCalls);
+        for (int i = 0; i < 2; i++) {
+            assertTrue(breaker.tryAcquire());
+            breaker.onFailure();
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        return breaker;
+    }
+}
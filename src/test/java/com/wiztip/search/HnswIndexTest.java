@@ -0,0 +1,129 @@
+package com.wiztip.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * HNSW索引测试：以暴力检索为基准衡量召回率，并检查结果顺序、分数和写入约束
+ *
+ * 层数分配使用随机数，召回率阈值留有余量
+ *
+ * @author Wiztip Team
+ */
+class HnswIndexTest {
+
+    private static final int DIM = 64;
+
+    @Test
+    void recallAgainstBruteForce() {
+        Random random = new Random(42);
+        int count = 3000;
+        int k = 10;
+        float[][] vectors = new float[count][];
+        HnswIndex index = new HnswIndex(16, 200);
+        for (int i = 0; i < count; i++) {
+            vectors[i] = randomVector(random);
+            assertTrue(index.add(i, vectors[i]));
+        }
+        assertEquals(count, index.size());
+
+        int queries = 200;
+        int found = 0;
+        for (int q = 0; q < queries; q++) {
+            float[] query = randomVector(random);
+            Set<Long> expected = bruteForce(vectors, query, k);
+            for (SearchHit hit : index.search(query, k, 64)) {
+                if (expected.contains(hit.id())) {
+                    found++;
+                }
+            }
+        }
+        double recall = (double) found / (queries * k);
+        assertTrue(recall >= 0.9, "recall@" + k + "=" + recall);
+    }
+
+    @Test
+    void returnsHitsByDescendingCosineSimilarity() {
+        Random random = new Random(7);
+        float[][] vectors = new float[500][];
+        HnswIndex index = new HnswIndex(8, 100);
+        for (int i = 0; i < vectors.length; i++) {
+            vectors[i] = randomVector(random);
+            index.add(i, vectors[i]);
+        }
+
+        // 查询向量与已有向量方向相同（长度不同）时排在第一位，相似度为1
+        float[] query = Arrays.copyOf(vectors[123], DIM);
+        for (int i = 0; i < DIM; i++) {
+            query[i] *= 3;
+        }
+        List<SearchHit> hits = index.search(query, 20, 50);
+        assertEquals(20, hits.size());
+        assertEquals(123, hits.get(0).id());
+        assertEquals(1f, hits.get(0).score(), 1e-5);
+        for (int i = 1; i < hits.size(); i++) {
+            assertTrue(hits.get(i - 1).score() >= hits.get(i).score());
+            assertEquals(cosine(query, vectors[(int) hits.get(i).id()]), hits.get(i).score(), 1e-5);
+        }
+    }
+
+    @Test
+    void ignoresDuplicateIdsAndRejectsOtherDimensions() {
+        HnswIndex index = new HnswIndex(16, 100);
+        assertTrue(index.search(new float[DIM], 5, 10).isEmpty());
+
+        Random random = new Random(3);
+        assertTrue(index.add(1, randomVector(random)));
+        assertFalse(index.add(1, randomVector(random)));
+        assertEquals(1, index.size());
+        assertTrue(index.contains(1));
+        assertFalse(index.contains(2));
+        assertThrows(IllegalArgumentException.class, () -> index.add(2, new float[DIM + 1]));
+        assertThrows(IllegalArgumentException.class, () -> new HnswIndex(1, 100));
+    }
+
+    private static Set<Long> bruteForce(float[][] vectors, float[] query, int k) {
+        Integer[] order = new Integer[vectors.length];
+        float[] scores = new float[vectors.length];
+        for (int i = 0; i < vectors.length; i++) {
+            order[i] = i;
+            scores[i] = cosine(query, vectors[i]);
+        }
+        Arrays.sort(order, (a, b) -> Float.compare(scores[b], scores[a]));
+        Set<Long> top = new HashSet<>();
+        for (int i = 0; i < k; i++) {
+            top.add((long) order[i]);
+        }
+        return top;
+    }
+
+    private static float cosine(float[] a, float[] b) {
+        double dot = 0;
+        double na = 0;
+        double nb = 0;
+        for (int i = 0; i < a.length; i++) {
+            dot += a[i] * b[i];
+            na += a[i] * a[i];
+            nb += b[i] * b[i];
+        }
+        return (float) (dot / Math.sqrt(na * nb));
+    }
+
+    private static float[] randomVector(Random random) {
+        float[] v = new float[DIM];
+        for (int i = 0; i < DIM; i++) {
+            v[i] = (float) random.nextGaussian();
+        }
+        return v;
+    }
+}